@@ -0,0 +1,19 @@
+package de.tum.ei.lkn.eces.routing;
+
+/**
+ * Behavior of the RoutingService when all its worker threads are busy and
+ * its queue is full.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public enum OverflowPolicy {
+	/**
+	 * The returned future fails immediately with a RejectedExecutionException.
+	 */
+	REJECT,
+	/**
+	 * The submitting thread waits until a slot is freed.
+	 */
+	BLOCK
+}
@@ -0,0 +1,25 @@
+package de.tum.ei.lkn.eces.routing;
+
+import de.tum.ei.lkn.eces.routing.algorithms.RoutingAlgorithm;
+
+/**
+ * Creates copies of RoutingAlgorithms for the worker threads of the
+ * RoutingSystem in concurrent mode.
+ *
+ * Algorithms store their search state in LocalMappers owned by the algorithm
+ * instance and are therefore not able to solve several Requests at the same
+ * time. A copy must be a new instance configured like the original (modes,
+ * Proxy, etc.). If the Proxy of the original keeps per-call state, the copy
+ * should use a new Proxy instance working on the same Graph.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+@FunctionalInterface
+public interface RoutingAlgorithmCloner {
+	/**
+	 * @param algorithm Algorithm to copy.
+	 * @return A new algorithm, configured like the given one.
+	 */
+	RoutingAlgorithm clone(RoutingAlgorithm algorithm);
+}
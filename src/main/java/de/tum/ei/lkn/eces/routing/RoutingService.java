@@ -0,0 +1,377 @@
+package de.tum.ei.lkn.eces.routing;
+
+import de.tum.ei.lkn.eces.core.Controller;
+import de.tum.ei.lkn.eces.core.MapperSpace;
+import de.tum.ei.lkn.eces.graph.mappers.GraphMapper;
+import de.tum.ei.lkn.eces.routing.algorithms.RoutingAlgorithm;
+import de.tum.ei.lkn.eces.routing.proxies.Proxy;
+import de.tum.ei.lkn.eces.routing.requests.Request;
+import de.tum.ei.lkn.eces.routing.responses.BudgetExceededResponse;
+import de.tum.ei.lkn.eces.routing.responses.ErrorResponse;
+import de.tum.ei.lkn.eces.routing.responses.Response;
+import org.apache.log4j.Logger;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Asynchronous alternative to the RoutingSystem: Requests are submitted
+ * directly (they do not have to be attached to an Entity) and solved by a pool
+ * of worker threads, so that the submitting thread is not blocked by slow
+ * algorithms.
+ *
+ * Like in the RoutingSystem, a valid Response is registered with the Proxy of
+ * the algorithm (unless disabled with setRegisterResponses()) and an
+ * ErrorResponse is returned if no valid Response is found. Validation and
+ * registration are serialized; a Response conflicting with one registered in
+ * the meantime is computed again.
+ *
+ * At most numberOfThreads + queueCapacity Requests are accepted at the same
+ * time; further submissions are handled according to the OverflowPolicy.
+ * Like in the RoutingSystem, the Graph of a Request is read-locked while it
+ * is solved.
+ *
+ * Cancelling a future (with mayInterruptIfRunning) interrupts the thread
+ * solving it. Its Response, if any, is then not registered. Algorithms
+ * solving a Request with a RoutingBudget stop at the interruption.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public class RoutingService {
+	private final Logger logger = Logger.getLogger(RoutingService.class);
+
+	/**
+	 * Worker threads.
+	 */
+	private final ExecutorService workers;
+
+	/**
+	 * Slots for the accepted (queued or running) Requests.
+	 */
+	private final Semaphore slots;
+
+	private final OverflowPolicy overflowPolicy;
+
+	/**
+	 * Creates the copies of the algorithms used by the worker threads (null to
+	 * use the submitted algorithms, which then solve one Request at a time).
+	 */
+	private volatile RoutingAlgorithmCloner cloner;
+
+	/**
+	 * Lock of each submitted algorithm, serializing its solves when no cloner
+	 * is set (algorithms are not thread-safe).
+	 */
+	private final Map<RoutingAlgorithm, ReentrantLock> algorithmLocks = Collections.synchronizedMap(new WeakHashMap<>());
+
+	/**
+	 * GraphMapper of the Controller of each algorithm, used to read-lock the
+	 * Graphs.
+	 */
+	private final Map<Controller, GraphMapper> graphMappers = Collections.synchronizedMap(new WeakHashMap<>());
+
+	/**
+	 * Copy of each algorithm for the current worker thread.
+	 */
+	private final ThreadLocal<Map<RoutingAlgorithm, RoutingAlgorithm>> workerAlgorithms = ThreadLocal.withInitial(IdentityHashMap::new);
+
+	/**
+	 * Lock serializing the validation and registration of the Responses.
+	 */
+	private final Object commitLock = new Object();
+
+	/**
+	 * Number of registrations and deregistrations (guarded by commitLock),
+	 * to know whether the reservations changed while a Request was solved.
+	 */
+	private long numberOfReservationChanges;
+
+	private volatile boolean registerResponses = true;
+	private volatile int maximumNumberOfAttempts = 3;
+
+	/**
+	 * Creates a new RoutingService.
+	 * @param numberOfThreads Number of worker threads.
+	 * @param queueCapacity Number of Requests waiting for a worker thread
+	 *                      above which the OverflowPolicy applies.
+	 * @param overflowPolicy What happens to Requests submitted when the
+	 *                       queue is full.
+	 */
+	public RoutingService(int numberOfThreads, int queueCapacity, OverflowPolicy overflowPolicy) {
+		if(numberOfThreads < 1 || queueCapacity < 0)
+			throw new IllegalArgumentException("At least one thread and a non-negative queue capacity are needed");
+		this.slots = new Semaphore(numberOfThreads + queueCapacity);
+		this.overflowPolicy = overflowPolicy;
+		AtomicInteger threadCounter = new AtomicInteger();
+		this.workers = Executors.newFixedThreadPool(numberOfThreads, runnable -> {
+			Thread thread = new Thread(runnable, "routing-service-" + threadCounter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Gives each worker thread its own copy of the submitted algorithms so
+	 * that Requests for the same algorithm are solved in parallel.
+	 * @param cloner Creates the copies (null to use the submitted algorithms,
+	 *               each solving one Request at a time).
+	 */
+	public void setCloner(RoutingAlgorithmCloner cloner) {
+		this.cloner = cloner;
+	}
+
+	/**
+	 * @param registerResponses Whether valid Responses are registered with
+	 *                          the Proxy of the algorithm (default) or only
+	 *                          returned.
+	 */
+	public void setRegisterResponses(boolean registerResponses) {
+		this.registerResponses = registerResponses;
+	}
+
+	/**
+	 * @param maximumNumberOfAttempts Number of times a Request is solved
+	 *                                before an ErrorResponse is returned
+	 *                                because of conflicts (default: 3).
+	 */
+	public void setMaximumNumberOfAttempts(int maximumNumberOfAttempts) {
+		if(maximumNumberOfAttempts < 1)
+			throw new IllegalArgumentException("At least one attempt is needed");
+		this.maximumNumberOfAttempts = maximumNumberOfAttempts;
+	}
+
+	/**
+	 * Submits a Request.
+	 * @param request Request to solve.
+	 * @param algorithm Algorithm to use.
+	 * @return A future completed with the Response (an ErrorResponse if no
+	 *         valid Response was found), or exceptionally if the algorithm
+	 *         failed or the Request was rejected.
+	 */
+	public CompletableFuture<Response> submit(Request request, RoutingAlgorithm algorithm) {
+		RoutingTask task = new RoutingTask(request, algorithm);
+		try {
+			if(overflowPolicy == OverflowPolicy.BLOCK)
+				slots.acquire();
+			else if(!slots.tryAcquire()) {
+				task.future.completeExceptionally(new RejectedExecutionException("The routing service is saturated"));
+				return task.future;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			task.future.completeExceptionally(new RejectedExecutionException("Interrupted while waiting for the routing service", e));
+			return task.future;
+		}
+
+		try {
+			workers.execute(task);
+		} catch (RejectedExecutionException e) {
+			slots.release();
+			task.future.completeExceptionally(e);
+		}
+		return task.future;
+	}
+
+	/**
+	 * Stops accepting Requests. The accepted ones are still solved.
+	 */
+	public void shutdown() {
+		workers.shutdown();
+	}
+
+	/**
+	 * Stops accepting Requests, cancels the queued ones and interrupts the
+	 * running ones.
+	 */
+	public void shutdownNow() {
+		for(Runnable runnable : workers.shutdownNow()) {
+			((RoutingTask) runnable).future.cancel(false);
+			slots.release();
+		}
+	}
+
+	/**
+	 * Waits for the accepted Requests after a shutdown.
+	 * @param timeout Maximum time to wait.
+	 * @param unit Unit of the timeout.
+	 * @return true if all the Requests were handled, false on timeout.
+	 * @throws InterruptedException if interrupted while waiting.
+	 */
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return workers.awaitTermination(timeout, unit);
+	}
+
+	private long getNumberOfReservationChanges() {
+		synchronized(commitLock) {
+			return numberOfReservationChanges;
+		}
+	}
+
+	/**
+	 * Solves a Request with a read lock on its Graph, so that its topology
+	 * does not change during the search.
+	 */
+	private Response solve(RoutingAlgorithm algorithm, Request request) {
+		Controller controller = algorithm.getController();
+		if(controller == null || request.getGraph() == null)
+			return algorithm.solve(request);
+		GraphMapper graphMapper = graphMappers.computeIfAbsent(controller, GraphMapper::new);
+		try(MapperSpace mapperSpace = controller.startMapperSpace()) {
+			graphMapper.isIn(request.getGraph().getEntity());
+			return algorithm.solve(request);
+		}
+	}
+
+	/**
+	 * Registers a valid Response and completes the future.
+	 * @param reservationChanges Number of reservation changes when the
+	 *                           Request started to be solved.
+	 * @return false if no valid Response was found and the future has not
+	 *         been completed, true otherwise.
+	 */
+	private boolean commit(RoutingTask task, Response response, boolean lastAttempt, long reservationChanges) {
+		Proxy proxy = task.algorithm.getProxy();
+		synchronized(commitLock) {
+			if(task.future.isDone())
+				return true;
+			// Without changes in the meantime, solving again would give the same result.
+			if(reservationChanges == numberOfReservationChanges)
+				lastAttempt = true;
+
+			if(response != null && proxy.isValid(response, task.request)) {
+				if(registerResponses) {
+					proxy.register(response, task.request);
+					response.setProxy(proxy);
+					numberOfReservationChanges++;
+					if(!task.future.complete(response)) {
+						// Cancelled in the meantime.
+						proxy.deregister(response, task.request);
+						numberOfReservationChanges++;
+						return true;
+					}
+				}
+				else
+					task.future.complete(response);
+				logger.info("Response " + response + " has been found by " + task.algorithm + " for " + task.request + ".");
+				return true;
+			}
+
+			// Solving again would exhaust the budget again.
+			if(response instanceof BudgetExceededResponse) {
+				logger.warn(task.algorithm + " exhausted the budget of " + task.request + " (" + ((BudgetExceededResponse) response).getLimit() + ").");
+				task.future.complete(response);
+				return true;
+			}
+
+			// Conflict with a Response registered since the Request was solved.
+			if(!lastAttempt)
+				return false;
+
+			if(response == null)
+				logger.warn(task.algorithm + " was not able to find a path for " + task.request + ".");
+			else
+				logger.warn(task.algorithm + " found a path (" + response + ") for " + task.request + " but it is not valid.");
+			task.future.complete(new ErrorResponse(proxy));
+			return true;
+		}
+	}
+
+	/**
+	 * Future interrupting the thread solving the Request when cancelled.
+	 */
+	private static class RoutingFuture extends CompletableFuture<Response> {
+		private RoutingTask task;
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean cancelled = super.cancel(mayInterruptIfRunning);
+			if(cancelled && mayInterruptIfRunning)
+				task.interrupt();
+			return cancelled;
+		}
+	}
+
+	private class RoutingTask implements Runnable {
+		private final Request request;
+		private final RoutingAlgorithm algorithm;
+		private final RoutingFuture future;
+
+		/**
+		 * Thread currently solving the Request (guarded by this).
+		 */
+		private Thread runner;
+
+		private RoutingTask(Request request, RoutingAlgorithm algorithm) {
+			this.request = request;
+			this.algorithm = algorithm;
+			this.future = new RoutingFuture();
+			this.future.task = this;
+		}
+
+		private synchronized void interrupt() {
+			if(runner != null)
+				runner.interrupt();
+		}
+
+		@Override
+		public void run() {
+			try {
+				synchronized(this) {
+					if(future.isDone())
+						return;
+					runner = Thread.currentThread();
+				}
+				RoutingAlgorithm workerAlgorithm = algorithm;
+				ReentrantLock lock = null;
+				RoutingAlgorithmCloner currentCloner = cloner;
+				if(currentCloner != null)
+					workerAlgorithm = workerAlgorithms.get().computeIfAbsent(algorithm, currentCloner::clone);
+				else
+					lock = algorithmLocks.computeIfAbsent(algorithm, a -> new ReentrantLock());
+				for(int attempt = 1; !future.isDone(); attempt++) {
+					long reservationChanges = getNumberOfReservationChanges();
+					Response response;
+					if(lock == null)
+						response = solve(workerAlgorithm, request);
+					else {
+						try {
+							lock.lockInterruptibly();
+						} catch (InterruptedException e) {
+							// Cancelled or shut down while waiting for the algorithm.
+							future.cancel(false);
+							break;
+						}
+						try {
+							response = solve(workerAlgorithm, request);
+						} finally {
+							lock.unlock();
+						}
+					}
+					if(commit(this, response, attempt >= maximumNumberOfAttempts, reservationChanges))
+						break;
+				}
+			} catch (RuntimeException e) {
+				logger.error("Routing " + request + " failed: " + e);
+				future.completeExceptionally(e);
+			} finally {
+				synchronized(this) {
+					runner = null;
+					// Do not leak a cancellation to the next task of the thread.
+					Thread.interrupted();
+				}
+				slots.release();
+			}
+		}
+	}
+}
@@ -2,6 +2,7 @@ package de.tum.ei.lkn.eces.routing;
 
 import de.tum.ei.lkn.eces.core.ComponentStatus;
 import de.tum.ei.lkn.eces.core.Controller;
+import de.tum.ei.lkn.eces.core.MapperSpace;
 import de.tum.ei.lkn.eces.core.RootSystem;
 import de.tum.ei.lkn.eces.core.annotations.ComponentStateIs;
 import de.tum.ei.lkn.eces.core.annotations.HasComponent;
@@ -11,24 +12,49 @@ import de.tum.ei.lkn.eces.graph.mappers.NodeMapper;
 import de.tum.ei.lkn.eces.routing.algorithms.RoutingAlgorithm;
 import de.tum.ei.lkn.eces.routing.mappers.*;
 import de.tum.ei.lkn.eces.routing.requests.Request;
+import de.tum.ei.lkn.eces.routing.responses.BudgetExceededResponse;
 import de.tum.ei.lkn.eces.routing.responses.ErrorResponse;
 import de.tum.ei.lkn.eces.routing.responses.IndependentSetOfPaths;
 import de.tum.ei.lkn.eces.routing.responses.Path;
 import de.tum.ei.lkn.eces.routing.responses.Response;
 
-import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * System automatically routing a Request when it is created.
  *
+ * In concurrent mode (see enableConcurrentRouting()), Requests are solved in
+ * parallel by worker threads, each with its own copy of the algorithms. The
+ * resulting Responses then go through a serialized commit stage which checks
+ * them again against the current reservations of the Proxy before registering
+ * them. A Response which became invalid because of a Response committed in the
+ * meantime is recomputed.
+ * The commit stage runs on the worker threads: the Responses are attached,
+ * and the corresponding ECS events dispatched, by these threads. The copies of
+ * the algorithms read the state of the Proxy (e.g., its reservations) without
+ * lock while the commit stage changes it, so the Proxy must tolerate
+ * concurrent reads and writes. A read may see the state before or after a
+ * commit, since the commit stage checks the Responses against the state it
+ * holds.
+ *
+ * A Response is not checked again by the commit stage if the algorithm
+ * already checked it (i.e., is not in debug mode) with the Proxy used for the
+ * commit and the state version of this Proxy did not change since.
+ *
  * @author Jochen Guck
  * @author Amaury Van Bemten
  * @author Amir Varasteh
  */
 public class RoutingSystem extends RootSystem {
     // List of handled requests
-    protected Map<Long, Request> handledRequests = new HashMap<>();
+    protected Map<Long, Request> handledRequests = new ConcurrentHashMap<>();
 
     private ResponseMapper responseMapper = new ResponseMapper(controller);
     private GraphMapper graphMapper = new GraphMapper(controller);
@@ -40,6 +66,41 @@ public class RoutingSystem extends RootSystem {
     private RequestNameMapper requestNameMapper = new RequestNameMapper(controller);
     private DeleteRequestMapper deleteRequestMapper = new DeleteRequestMapper(controller);
 
+    /**
+     * Worker threads of the concurrent mode (null if Requests are routed
+     * directly in findPath()).
+     */
+    private volatile ExecutorService workers;
+
+    /**
+     * Creates the copies of the algorithms used by the worker threads.
+     */
+    private RoutingAlgorithmCloner cloner;
+
+    /**
+     * Number of times a Request is solved before giving up because of
+     * conflicts with other Requests.
+     */
+    private int maximumNumberOfAttempts;
+
+    /**
+     * Copy of each algorithm for the current worker thread.
+     */
+    private final ThreadLocal<Map<RoutingAlgorithm, RoutingAlgorithm>> workerAlgorithms = ThreadLocal.withInitial(IdentityHashMap::new);
+
+    /**
+     * Lock serializing the commit stage (validation, registration and
+     * attachment of the Responses) and counting the Requests being routed.
+     */
+    private final Object commitLock = new Object();
+    private int pendingRequests;
+
+    /**
+     * Number of registrations and deregistrations (guarded by commitLock),
+     * to know whether the reservations changed while a Request was solved.
+     */
+    private long numberOfReservationChanges;
+
     /**
      * Creates a new RoutingSystem.
      * @param controller Controller responsible for the new System.
@@ -48,6 +109,79 @@ public class RoutingSystem extends RootSystem {
         super(controller);
     }
 
+    /**
+     * Routes the new Requests in parallel. A Request is solved at most three
+     * times if it conflicts with Requests committed in the meantime.
+     * @param numberOfThreads Number of worker threads.
+     * @param cloner Creates the copies of the algorithms for the worker threads.
+     */
+    public void enableConcurrentRouting(int numberOfThreads, RoutingAlgorithmCloner cloner) {
+        enableConcurrentRouting(numberOfThreads, cloner, 3);
+    }
+
+    /**
+     * Routes the new Requests in parallel.
+     * findPath() then returns before the Response is attached to the Request;
+     * awaitPendingRequests() waits for all the Responses.
+     * @param numberOfThreads Number of worker threads.
+     * @param cloner Creates the copies of the algorithms for the worker threads.
+     * @param maximumNumberOfAttempts Number of times a Request is solved
+     *                                before an ErrorResponse is attached
+     *                                because of conflicts.
+     */
+    public synchronized void enableConcurrentRouting(int numberOfThreads, RoutingAlgorithmCloner cloner, int maximumNumberOfAttempts) {
+        if(numberOfThreads < 1 || maximumNumberOfAttempts < 1)
+            throw new IllegalArgumentException("At least one thread and one attempt are needed");
+        disableConcurrentRouting();
+        this.cloner = cloner;
+        this.maximumNumberOfAttempts = maximumNumberOfAttempts;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(numberOfThreads, runnable -> {
+            Thread thread = new Thread(runnable, "routing-worker-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Waits for the Requests being routed and goes back to routing the new
+     * Requests directly in findPath().
+     */
+    public synchronized void disableConcurrentRouting() {
+        if(workers == null)
+            return;
+        workers.shutdown();
+        boolean interrupted = false;
+        while(true) {
+            try {
+                if(workers.awaitTermination(1, TimeUnit.SECONDS))
+                    break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        workers = null;
+        cloner = null;
+        if(interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    public boolean isConcurrentRoutingEnabled() {
+        return workers != null;
+    }
+
+    /**
+     * Waits until a Response has been attached to all the Requests routed
+     * in concurrent mode.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public void awaitPendingRequests() throws InterruptedException {
+        synchronized(commitLock) {
+            while(pendingRequests > 0)
+                commitLock.wait();
+        }
+    }
+
     /**
      * When a new Request is created, tries to find a path for it.
      * The algorithm used is the one attached as SelectedRoutingAlgorithm.
@@ -63,9 +197,109 @@ public class RoutingSystem extends RootSystem {
         graphMapper.isIn(newFlowRequest.getGraph().getEntity());
         RoutingAlgorithm algorithm = this.findRoutingAlgorithm(newFlowRequest);
         this.logger.info(algorithm + " has been chosen to route " + newFlowRequest + ".");
+
+        ExecutorService currentWorkers = workers;
+        if(currentWorkers != null) {
+            synchronized(commitLock) {
+                pendingRequests++;
+            }
+            try {
+                currentWorkers.execute(() -> routeConcurrently(newFlowRequest, algorithm));
+                return;
+            } catch (RejectedExecutionException e) {
+                // Concurrent routing disabled in the meantime: the Request is routed directly.
+                synchronized(commitLock) {
+                    pendingRequests--;
+                    commitLock.notifyAll();
+                }
+            }
+        }
+
+        boolean checked = !algorithm.isDebugMode();
+        long stateVersion = getStateVersion(algorithm);
         Response newFlowResponse = algorithm.solve(newFlowRequest);
+        synchronized(commitLock) {
+            commit(newFlowRequest, algorithm, newFlowResponse, true, checked && stateVersion == getStateVersion(algorithm));
+        }
+    }
 
-        if (newFlowResponse != null && algorithm.getProxy().isValid(newFlowResponse, newFlowRequest)) {
+    /**
+     * Solves a Request with the copy of its algorithm of the current worker
+     * thread and commits the result, solving it again if it conflicts with
+     * Responses committed in the meantime. The Graph is read-locked while
+     * solving, so that its topology does not change during the search.
+     * @param request The Request.
+     * @param algorithm Algorithm selected for the Request.
+     */
+    private void routeConcurrently(Request request, RoutingAlgorithm algorithm) {
+        try {
+            RoutingAlgorithm workerAlgorithm = workerAlgorithms.get().computeIfAbsent(algorithm, cloner::clone);
+            for(int attempt = 1; ; attempt++) {
+                long reservationChanges;
+                long stateVersion;
+                synchronized(commitLock) {
+                    reservationChanges = numberOfReservationChanges;
+                    stateVersion = getStateVersion(workerAlgorithm);
+                }
+                // The copy checks its Response against its own Proxy, the commit against the one of the algorithm.
+                boolean checked = !workerAlgorithm.isDebugMode() && workerAlgorithm.getProxy() == algorithm.getProxy();
+                Response response;
+                try(MapperSpace mapperSpace = controller.startMapperSpace()) {
+                    // Get a read lock on the Graph for the time of the search, as findPath() does.
+                    graphMapper.isIn(request.getGraph().getEntity());
+                    response = workerAlgorithm.solve(request);
+                }
+                synchronized(commitLock) {
+                    if(handledRequests.get(request.getEntity().getId()) != request) {
+                        this.logger.info(request + " has been deleted while being routed.");
+                        return;
+                    }
+                    // Without changes in the meantime, solving again would give the same result.
+                    boolean lastAttempt = attempt >= maximumNumberOfAttempts || reservationChanges == numberOfReservationChanges;
+                    boolean valid = checked && reservationChanges == numberOfReservationChanges && stateVersion == getStateVersion(algorithm);
+                    if(commit(request, algorithm, response, lastAttempt, valid))
+                        return;
+                }
+                this.logger.info("Response " + response + " for " + request + " conflicts with the current reservations, solving again.");
+            }
+        } catch (RuntimeException e) {
+            this.logger.error("Routing " + request + " failed: " + e);
+            synchronized(commitLock) {
+                if(handledRequests.get(request.getEntity().getId()) == request)
+                    responseMapper.attachComponent(request, new ErrorResponse(algorithm.getProxy()));
+            }
+        } finally {
+            synchronized(commitLock) {
+                pendingRequests--;
+                commitLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * @return The state version of the underlying Proxy of an algorithm.
+     */
+    private static long getStateVersion(RoutingAlgorithm algorithm) {
+        return algorithm.getProxy().getProxy().getStateVersion();
+    }
+
+    /**
+     * Registers a Response and attaches it to its Request if it is valid,
+     * otherwise attaches an ErrorResponse. Called with commitLock held.
+     * @param newFlowRequest The Request.
+     * @param algorithm Algorithm selected for the Request.
+     * @param newFlowResponse Response found (or null).
+     * @param lastAttempt Whether an ErrorResponse has to be attached if no
+     *                    valid Response was found.
+     * @param checked Whether the Response was checked by solve() against the
+     *                current state of the Proxy, in which case it is not
+     *                checked again.
+     * @return false if no valid Response was found and nothing has been
+     *         attached, true otherwise.
+     */
+    private boolean commit(Request newFlowRequest, RoutingAlgorithm algorithm, Response newFlowResponse, boolean lastAttempt, boolean checked) {
+        if (newFlowResponse != null && !(newFlowResponse instanceof BudgetExceededResponse)
+                && (checked || algorithm.getProxy().isValid(newFlowResponse, newFlowRequest))) {
             if(newFlowResponse instanceof IndependentSetOfPaths) {
                 for(Path path : ((IndependentSetOfPaths) newFlowResponse).getPaths())
                     // Attach all paths to an empty entity
@@ -73,20 +307,33 @@ public class RoutingSystem extends RootSystem {
             }
 
             algorithm.getProxy().register(newFlowResponse, newFlowRequest);
+            numberOfReservationChanges++;
             newFlowResponse.setProxy(algorithm.getProxy());
             // Attach response to request
             responseMapper.attachComponent(newFlowRequest, newFlowResponse);
             this.logger.info("Response " + newFlowResponse + " has been found (and registered) by " + algorithm + " for " + newFlowRequest + ".");
-            return;
+            return true;
         }
 
+        // Solving again would exhaust the budget again.
+        if(newFlowResponse instanceof BudgetExceededResponse) {
+            this.logger.warn(algorithm + " exhausted the budget of " + newFlowRequest + " (" + ((BudgetExceededResponse) newFlowResponse).getLimit() + ").");
+            responseMapper.attachComponent(newFlowRequest, newFlowResponse);
+            return true;
+        }
+
+        // Conflict with a Response committed since the Request was solved.
+        if(!lastAttempt)
+            return false;
+
         // No response found
-        if(newFlowResponse != null && !algorithm.getProxy().isValid(newFlowResponse, newFlowRequest))
+        if(newFlowResponse != null)
             this.logger.warn(algorithm + " found a path (" + newFlowResponse + ") for " + newFlowRequest + " but it is not valid.");
-        else if (newFlowResponse == null)
+        else
             this.logger.warn(algorithm + " was not able to find a path for " + newFlowRequest + ".");
 
         responseMapper.attachComponent(newFlowRequest, new ErrorResponse(algorithm.getProxy()));
+        return true;
     }
 
     /**
@@ -113,13 +360,30 @@ public class RoutingSystem extends RootSystem {
     @HasComponent(component = Response.class)
     public void deletePath(Request request) {
         Response response = responseMapper.get(request.getEntity());
-        response.getProxy().deregister(response, request);
+        synchronized(commitLock) {
+            response.getProxy().deregister(response, request);
+            numberOfReservationChanges++;
+        }
         responseMapper.detachComponent(response);
         this.logger.info("Path " + response + " for " + request + " has been unregistered.");
         this.handledRequests.remove(request.getId());
 
     }
 
+    /**
+     * When a Request without Response is removed (e.g., while it is being
+     * routed in concurrent mode), forgets it so that no Response is attached
+     * to it anymore.
+     * @param request The removed Request.
+     */
+    @ComponentStateIs(State = ComponentStatus.Destroyed)
+    @HasNotComponent(component = Response.class)
+    public void forgetRequest(Request request) {
+        synchronized(commitLock) {
+            this.handledRequests.remove(request.getId());
+        }
+    }
+
     @ComponentStateIs(State = ComponentStatus.Destroyed)
     @HasComponent(component = Request.class)
     public void deletePath(Response response) {
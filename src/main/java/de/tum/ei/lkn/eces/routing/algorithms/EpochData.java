@@ -0,0 +1,35 @@
+package de.tum.ei.lkn.eces.routing.algorithms;
+
+/**
+ * Per-query data of a routing algorithm (e.g., at each Node) which is reset
+ * lazily: the data is stamped with the query during which it was last
+ * initialized and is initialized again the first time it is accessed during
+ * another query. Starting a query then only requires a new epoch.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public abstract class EpochData {
+	/**
+	 * Query during which the data was last initialized.
+	 */
+	private long epoch = -1;
+
+	/**
+	 * Resets the data.
+	 */
+	public abstract void init();
+
+	/**
+	 * Initializes the data if it was last initialized during another query.
+	 * @param epoch Identifier of the current query.
+	 * @return Whether the data has been initialized.
+	 */
+	public final boolean init(long epoch) {
+		if(this.epoch == epoch)
+			return false;
+		init();
+		this.epoch = epoch;
+		return true;
+	}
+}
@@ -1,16 +1,23 @@
 package de.tum.ei.lkn.eces.routing.algorithms;
 
 import de.tum.ei.lkn.eces.core.Controller;
+import de.tum.ei.lkn.eces.routing.budget.RoutingBudget;
+import de.tum.ei.lkn.eces.routing.budget.RoutingBudgetTracker;
 import de.tum.ei.lkn.eces.routing.exceptions.RoutingException;
 import de.tum.ei.lkn.eces.routing.interfaces.*;
+import de.tum.ei.lkn.eces.routing.mappers.RoutingBudgetMapper;
 import de.tum.ei.lkn.eces.routing.proxies.EdgeProxy;
 import de.tum.ei.lkn.eces.routing.proxies.PathProxy;
 import de.tum.ei.lkn.eces.routing.proxies.PreviousEdgeProxy;
 import de.tum.ei.lkn.eces.routing.proxies.Proxy;
-import de.tum.ei.lkn.eces.routing.proxies.wrappers.PathProxyWrapper;
+import de.tum.ei.lkn.eces.routing.proxies.wrappers.EdgeProxyAdapter;
+import de.tum.ei.lkn.eces.routing.proxies.wrappers.PreviousEdgeProxyAdapter;
 import de.tum.ei.lkn.eces.routing.requests.*;
+import de.tum.ei.lkn.eces.routing.responses.BudgetExceededResponse;
 import de.tum.ei.lkn.eces.routing.responses.Response;
 
+import java.util.function.Function;
+
 /**
  * Class representing a RoutingAlgorithm.
  *
@@ -36,6 +43,23 @@ public abstract class RoutingAlgorithm {
 	 */
 	private boolean debugMode;
 
+	/**
+	 * Budget used for the Requests without RoutingBudget (null for no
+	 * budget).
+	 */
+	private RoutingBudget budget;
+
+	/**
+	 * Mapper for the budgets attached to Requests (created when first used).
+	 */
+	private RoutingBudgetMapper budgetMapper;
+
+	/**
+	 * Method solving the last class of Requests routed, resolved when the
+	 * class is first routed.
+	 */
+	private volatile RequestSolver solver;
+
 	/**
 	 * Creates a new RoutingAlgorithm.
 	 * @param controller Controller responsible for the RoutingAlgorithm.
@@ -50,7 +74,7 @@ public abstract class RoutingAlgorithm {
 	 * @param edgeProxy Proxy to use.
 	 */
 	public void setProxy(EdgeProxy edgeProxy) {
-		this.proxy = new PathProxyWrapper(edgeProxy);
+		this.proxy = new EdgeProxyAdapter(edgeProxy);
 	}
 
 	/**
@@ -58,7 +82,7 @@ public abstract class RoutingAlgorithm {
 	 * @param previousEdgeProxy Proxy to use.
 	 */
 	public void setProxy(PreviousEdgeProxy previousEdgeProxy) {
-		this.proxy = new PathProxyWrapper(previousEdgeProxy);
+		this.proxy = new PreviousEdgeProxyAdapter(previousEdgeProxy);
 	}
 
 	/**
@@ -78,6 +102,13 @@ public abstract class RoutingAlgorithm {
 		return proxy;
 	}
 
+	/**
+	 * @return The Controller responsible for the Algorithm (null if none).
+	 */
+	public Controller getController() {
+		return controller;
+	}
+
 	/**
 	 * Sets the Algorithm in debug mode.
 	 */
@@ -92,6 +123,30 @@ public abstract class RoutingAlgorithm {
 		debugMode = false;
 	}
 
+	/**
+	 * @return Whether the Algorithm is in debug mode, i.e., whether solve()
+	 *         returns the Responses without checking their validity.
+	 */
+	public boolean isDebugMode() {
+		return debugMode;
+	}
+
+	/**
+	 * Sets the budget used for the Requests without RoutingBudget attached.
+	 * @param budget Budget to use (null for no budget).
+	 */
+	public void setBudget(RoutingBudget budget) {
+		this.budget = budget;
+	}
+
+	/**
+	 * @return The budget used for the Requests without RoutingBudget
+	 *         attached or null if there is none.
+	 */
+	public RoutingBudget getBudget() {
+		return budget;
+	}
+
 	/**
 	 * Runs the Algorithm to compute a Path for a given Request.
 	 * If the algorithm is in debug mode, the Path found by the Algorithm
@@ -99,23 +154,51 @@ public abstract class RoutingAlgorithm {
 	 * If the algorithm is not in debug mode, the Path found is returned
 	 * only if it is valid for the Request. Here, valid means that it
 	 * satisfies the requirements of the Request.
+	 * If the Request (or the algorithm) has a RoutingBudget and it is
+	 * exhausted, the best Path found so far is returned or, if there is none,
+	 * a BudgetExceededResponse. Algorithms called by another one share the
+	 * budget of the outermost call.
 	 * @param request Request for which a Path has to be computed.
 	 * @return Resulting Path.
 	 */
 	public final Response solve(Request request) {
-		Response response = null;
-		if(request instanceof UnicastWithINRequest && this instanceof SolveUnicastWithINRequest)
-				response = ((SolveUnicastWithINRequest)this).solveNoChecks((UnicastWithINRequest) request);
-		else if(request instanceof UnicastWithINAndCandidatesRequest && this instanceof SolveUnicastWithINAndCandidatesRequest)
-				response = ((SolveUnicastWithINAndCandidatesRequest)this).solveNoChecks((UnicastWithINAndCandidatesRequest) request);
-		else if(request instanceof UnicastRequest && this instanceof SolveUnicastRequest)
-				response = ((SolveUnicastRequest)this).solveNoChecks((UnicastRequest) request);
-		else if(request instanceof DisjointRequest && this instanceof SolveDisjointRequest)
-				response = ((SolveDisjointRequest)this).solveNoChecks((DisjointRequest) request);
-		else if(request instanceof ResilientRequest && this instanceof SolveResilientRequest)
-				response = ((SolveResilientRequest)this).solveNoChecks((ResilientRequest) request);
-		else
-			throw new RoutingException(this.getClass().getName() + " could not solve " + request.getClass().getName() + " request");
+		RoutingBudget requestBudget = getBudget(request);
+		if(requestBudget == null || RoutingBudgetTracker.isActive())
+			return solveWithinBudget(request);
+
+		RoutingBudgetTracker tracker = RoutingBudgetTracker.start(requestBudget);
+		try {
+			Response response = solveWithinBudget(request);
+			if(response == null && tracker.getExhaustedLimit() != null)
+				return new BudgetExceededResponse(proxy, tracker.getExhaustedLimit());
+			return response;
+		} finally {
+			RoutingBudgetTracker.stop();
+		}
+	}
+
+	/**
+	 * @param request Given Request.
+	 * @return The budget attached to the Request, or else the one of the
+	 *         algorithm.
+	 */
+	private RoutingBudget getBudget(Request request) {
+		if(controller != null && request.getEntity() != null) {
+			if(budgetMapper == null)
+				budgetMapper = new RoutingBudgetMapper(controller);
+			if(budgetMapper.isIn(request.getEntity()))
+				return budgetMapper.get(request.getEntity());
+		}
+		return budget;
+	}
+
+	private Response solveWithinBudget(Request request) {
+		RequestSolver currentSolver = solver;
+		if(currentSolver == null || currentSolver.requestClass != request.getClass()) {
+			currentSolver = new RequestSolver(request.getClass(), resolveSolver(request.getClass()));
+			solver = currentSolver;
+		}
+		Response response = currentSolver.solve.apply(request);
 
 		if(debugMode || response == null)
 			return response;
@@ -123,6 +206,37 @@ public abstract class RoutingAlgorithm {
 		return proxy.checkValidity(response, request, false);
 	}
 
+	/**
+	 * Finds the method of the Algorithm solving a given class of Requests.
+	 * @param requestClass Class of the Requests.
+	 * @return Function calling the method.
+	 * @throws RoutingException if the Algorithm cannot solve such Requests.
+	 */
+	private Function<Request, Response> resolveSolver(Class<? extends Request> requestClass) {
+		if(UnicastWithINRequest.class.isAssignableFrom(requestClass) && this instanceof SolveUnicastWithINRequest) {
+			SolveUnicastWithINRequest algorithm = (SolveUnicastWithINRequest) this;
+			return request -> algorithm.solveNoChecks((UnicastWithINRequest) request);
+		}
+		else if(UnicastWithINAndCandidatesRequest.class.isAssignableFrom(requestClass) && this instanceof SolveUnicastWithINAndCandidatesRequest) {
+			SolveUnicastWithINAndCandidatesRequest algorithm = (SolveUnicastWithINAndCandidatesRequest) this;
+			return request -> algorithm.solveNoChecks((UnicastWithINAndCandidatesRequest) request);
+		}
+		else if(UnicastRequest.class.isAssignableFrom(requestClass) && this instanceof SolveUnicastRequest) {
+			SolveUnicastRequest algorithm = (SolveUnicastRequest) this;
+			return request -> algorithm.solveNoChecks((UnicastRequest) request);
+		}
+		else if(DisjointRequest.class.isAssignableFrom(requestClass) && this instanceof SolveDisjointRequest) {
+			SolveDisjointRequest algorithm = (SolveDisjointRequest) this;
+			return request -> algorithm.solveNoChecks((DisjointRequest) request);
+		}
+		else if(ResilientRequest.class.isAssignableFrom(requestClass) && this instanceof SolveResilientRequest) {
+			SolveResilientRequest algorithm = (SolveResilientRequest) this;
+			return request -> algorithm.solveNoChecks((ResilientRequest) request);
+		}
+		else
+			throw new RoutingException(this.getClass().getName() + " could not solve " + requestClass.getName() + " request");
+	}
+
 	/**
 	 * Checks whether or not the Algorithm is able to handle a given Request.
 	 * For example, a shortest-path algorithm (SPAlgorithm) is not able to
@@ -240,4 +354,17 @@ public abstract class RoutingAlgorithm {
 			proxyInfo = this.proxy.getType().toString() + " - " + this.proxy.toString();
 		return this.getClass().getSimpleName() + " (" + proxyInfo + ")";
 	}
+
+	/**
+	 * Method of the Algorithm solving a given class of Requests.
+	 */
+	private static final class RequestSolver {
+		private final Class<? extends Request> requestClass;
+		private final Function<Request, Response> solve;
+
+		private RequestSolver(Class<? extends Request> requestClass, Function<Request, Response> solve) {
+			this.requestClass = requestClass;
+			this.solve = solve;
+		}
+	}
 }
@@ -0,0 +1,266 @@
+package de.tum.ei.lkn.eces.routing.algorithms.agnostic.caching;
+
+import de.tum.ei.lkn.eces.core.Controller;
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.routing.algorithms.MetricTypes;
+import de.tum.ei.lkn.eces.routing.algorithms.RoutingAlgorithm;
+import de.tum.ei.lkn.eces.routing.algorithms.agnostic.AgnosticAlgorithm;
+import de.tum.ei.lkn.eces.routing.interfaces.SolveUnicastRequest;
+import de.tum.ei.lkn.eces.routing.pathlist.PathListSystem;
+import de.tum.ei.lkn.eces.routing.proxies.EdgeProxy;
+import de.tum.ei.lkn.eces.routing.proxies.PathProxy;
+import de.tum.ei.lkn.eces.routing.proxies.PreviousEdgeProxy;
+import de.tum.ei.lkn.eces.routing.proxies.ProxyTypes;
+import de.tum.ei.lkn.eces.routing.requests.Request;
+import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
+import de.tum.ei.lkn.eces.routing.responses.Path;
+import de.tum.ei.lkn.eces.routing.responses.Response;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Algorithm returning the last Paths found by a sub-algorithm for equal
+ * Requests (i.e., same source and destination) and Proxy type.
+ *
+ * A cached Path is checked against the current state of the Proxy before
+ * being returned. It is also dropped as soon as a Path going through one of
+ * its Edges is registered or removed (as reported by the PathListSystem).
+ * The least recently used Paths are dropped once the capacity is reached.
+ *
+ * Since changes on other Edges might make better Paths available, the
+ * algorithm is never optimal.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public class CachingAlgorithm extends AgnosticAlgorithm implements SolveUnicastRequest {
+	private RoutingAlgorithm routingAlgorithm;
+
+	/**
+	 * Cached Paths, from the least to the most recently used.
+	 */
+	private final Map<Key, Path> paths;
+
+	/**
+	 * Keys of the cached Paths going through each Edge.
+	 */
+	private final Map<Edge, Set<Key>> keysPerEdge = new HashMap<>();
+
+	private PathListSystem pathListSystem;
+	private final Consumer<Edge> edgeListener = this::invalidate;
+
+	private long hits = 0;
+	private long misses = 0;
+
+	/**
+	 * Creates a new CachingAlgorithm.
+	 * @param controller Controller responsible for the algorithm.
+	 * @param routingAlgorithm Algorithm computing the Paths.
+	 * @param pathListSystem System reporting the Edges on which Paths are
+	 *                       registered or removed (null for only checking
+	 *                       the validity of the cached Paths).
+	 * @param capacity Maximum number of Paths kept.
+	 */
+	public CachingAlgorithm(Controller controller, RoutingAlgorithm routingAlgorithm, PathListSystem pathListSystem, int capacity) {
+		super(controller);
+		this.routingAlgorithm = routingAlgorithm;
+		this.paths = new LinkedHashMap<Key, Path>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Path> eldest) {
+				if(size() <= capacity)
+					return false;
+				unindex(eldest.getKey(), eldest.getValue());
+				return true;
+			}
+		};
+		this.pathListSystem = pathListSystem;
+		if(pathListSystem != null)
+			pathListSystem.addEdgeListener(edgeListener);
+	}
+
+	/**
+	 * Stops listening to the PathListSystem. Cached Paths are from then on
+	 * only dropped when found invalid.
+	 */
+	public void detach() {
+		if(pathListSystem != null)
+			pathListSystem.removeEdgeListener(edgeListener);
+		pathListSystem = null;
+	}
+
+	@Override
+	public boolean isForward() {
+		return routingAlgorithm.isForward();
+	}
+
+	@Override
+	public boolean isOptimal() {
+		return false;
+	}
+
+	@Override
+	public boolean isComplete() {
+		return routingAlgorithm.isComplete();
+	}
+
+	@Override
+	public boolean isValid() {
+		return routingAlgorithm.isValid();
+	}
+
+	@Override
+	public MetricTypes getMetricsType() {
+		return routingAlgorithm.getMetricsType();
+	}
+
+	@Override
+	public void setProxy(EdgeProxy edgeProxy) {
+		super.setProxy(edgeProxy);
+		routingAlgorithm.setProxy(edgeProxy);
+		clear();
+	}
+
+	@Override
+	public void setProxy(PreviousEdgeProxy previousEdgeProxy) {
+		super.setProxy(previousEdgeProxy);
+		routingAlgorithm.setProxy(previousEdgeProxy);
+		clear();
+	}
+
+	@Override
+	public void setProxy(PathProxy pathProxy) {
+		super.setProxy(pathProxy);
+		routingAlgorithm.setProxy(pathProxy);
+		clear();
+	}
+
+	@Override
+	protected Response solveNoChecks(Request request) {
+		return solveNoChecks((UnicastRequest) request);
+	}
+
+	@Override
+	public Response solveNoChecks(UnicastRequest request) {
+		Key key = new Key(request, proxy.getType());
+		Path cached;
+		synchronized(this) {
+			cached = paths.get(key);
+		}
+
+		if(cached != null) {
+			Response checked = proxy.checkValidity(cached, request, false);
+			synchronized(this) {
+				if(checked != null) {
+					hits++;
+					return checked;
+				}
+				if(paths.get(key) == cached) {
+					paths.remove(key);
+					unindex(key, cached);
+				}
+			}
+		}
+
+		Response response = routingAlgorithm.solve(request);
+		synchronized(this) {
+			misses++;
+			if(response instanceof Path) {
+				Path old = paths.put(key, (Path) response);
+				if(old != null)
+					unindex(key, old);
+				for(Edge edge : (Path) response)
+					keysPerEdge.computeIfAbsent(edge, e -> new HashSet<>()).add(key);
+			}
+		}
+		return response;
+	}
+
+	/**
+	 * Drops the cached Paths going through an Edge.
+	 * @param edge The Edge.
+	 */
+	public synchronized void invalidate(Edge edge) {
+		Set<Key> keys = keysPerEdge.remove(edge);
+		if(keys == null)
+			return;
+		for(Key key : keys) {
+			Path path = paths.remove(key);
+			if(path != null)
+				unindex(key, path);
+		}
+	}
+
+	/**
+	 * Drops all the cached Paths.
+	 */
+	public synchronized void clear() {
+		paths.clear();
+		keysPerEdge.clear();
+	}
+
+	/**
+	 * @return The number of Paths kept.
+	 */
+	public synchronized int size() {
+		return paths.size();
+	}
+
+	/**
+	 * @return The number of Requests answered with a cached Path.
+	 */
+	public synchronized long getNumberOfHits() {
+		return hits;
+	}
+
+	/**
+	 * @return The number of Requests given to the sub-algorithm.
+	 */
+	public synchronized long getNumberOfMisses() {
+		return misses;
+	}
+
+	private void unindex(Key key, Path path) {
+		for(Edge edge : path) {
+			Set<Key> keys = keysPerEdge.get(edge);
+			if(keys != null) {
+				keys.remove(key);
+				if(keys.isEmpty())
+					keysPerEdge.remove(edge);
+			}
+		}
+	}
+
+	/**
+	 * Identifier of a cached Path.
+	 */
+	private static final class Key {
+		private final UnicastRequest request;
+		private final ProxyTypes proxyType;
+
+		private Key(UnicastRequest request, ProxyTypes proxyType) {
+			this.request = request;
+			this.proxyType = proxyType;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(this == o)
+				return true;
+			if(!(o instanceof Key))
+				return false;
+			Key other = (Key) o;
+			return proxyType == other.proxyType && request.equals(other.request);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(request, proxyType);
+		}
+	}
+}
@@ -5,7 +5,8 @@ import de.tum.ei.lkn.eces.routing.proxies.EdgeProxy;
 import de.tum.ei.lkn.eces.routing.proxies.PathProxy;
 import de.tum.ei.lkn.eces.routing.proxies.PreviousEdgeProxy;
 import de.tum.ei.lkn.eces.routing.proxies.ProxyTypes;
-import de.tum.ei.lkn.eces.routing.proxies.wrappers.PathProxyWrapper;
+import de.tum.ei.lkn.eces.routing.proxies.wrappers.EdgeProxyAdapter;
+import de.tum.ei.lkn.eces.routing.proxies.wrappers.PreviousEdgeProxyAdapter;
 import de.tum.ei.lkn.eces.routing.requests.Request;
 
 import java.util.Collections;
@@ -40,11 +41,11 @@ public class GTAProxy extends PathProxy {
 	}
 
 	public GTAProxy(EdgeProxy proxy) {
-		this.proxy = new PathProxyWrapper(proxy);
+		this.proxy = new EdgeProxyAdapter(proxy);
 	}
 
 	public GTAProxy(PreviousEdgeProxy proxy) {
-		this.proxy = new PathProxyWrapper(proxy);
+		this.proxy = new PreviousEdgeProxyAdapter(proxy);
 	}
 
 	/**
@@ -5,6 +5,10 @@ import de.tum.ei.lkn.eces.core.LocalMapper;
 import de.tum.ei.lkn.eces.graph.Edge;
 import de.tum.ei.lkn.eces.graph.Node;
 import de.tum.ei.lkn.eces.routing.algorithms.csp.CSPAlgorithm;
+import de.tum.ei.lkn.eces.routing.budget.RoutingBudgetTracker;
+import de.tum.ei.lkn.eces.routing.compiledgraph.CompiledGraph;
+import de.tum.ei.lkn.eces.routing.compiledgraph.CompiledGraphSystem;
+import de.tum.ei.lkn.eces.routing.compiledgraph.IntPriorityQueue;
 import de.tum.ei.lkn.eces.routing.interfaces.SolveUnicastRequest;
 import de.tum.ei.lkn.eces.routing.proxies.Proxy;
 import de.tum.ei.lkn.eces.routing.proxies.ProxyTypes;
@@ -15,6 +19,7 @@ import de.tum.ei.lkn.eces.routing.responses.Response;
 import org.apache.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.PriorityQueue;
@@ -46,6 +51,27 @@ public class CBFAlgorithm extends CSPAlgorithm implements SolveUnicastRequest{
 
 	private Logger logger;
 
+	/**
+	 * System providing the CompiledGraph snapshots (null if the compiled mode
+	 * is disabled).
+	 */
+	private CompiledGraphSystem compiledGraphSystem = null;
+
+	/**
+	 * Labels (i.e., EdgeData) of the compiled mode, indexed by label ID: last
+	 * Edge, previous label (-1 for none), cost, delay and parameters.
+	 */
+	private int[] labelEdges = new int[0];
+	private int[] labelParents = new int[0];
+	private double[] labelCosts = new double[0];
+	private double[] labelDelays = new double[0];
+	private double[][] labelParameters = new double[0][];
+	private int numberOfLabels;
+
+	/**
+	 * Path given to the proxy in compiled mode (EdgeProxy's ignore it).
+	 */
+	private static final CBFIterator NO_PATH = new CBFIterator();
 
 	public CBFAlgorithm(Controller controller) {
 		super(controller);
@@ -62,6 +88,20 @@ public class CBFAlgorithm extends CSPAlgorithm implements SolveUnicastRequest{
 		paretoFrontierKeeping = true;
 	}
 
+	/**
+	 * Lets requests with an EdgeProxy run on the CompiledGraph snapshot of the
+	 * Graph: the paths explored are then stored as labels in primitive arrays
+	 * and the priority queue holds label IDs.
+	 * @param compiledGraphSystem System providing the snapshots.
+	 */
+	public void enableCompiledGraphMode(CompiledGraphSystem compiledGraphSystem) {
+		this.compiledGraphSystem = compiledGraphSystem;
+	}
+
+	public void disableCompiledGraphMode() {
+		this.compiledGraphSystem = null;
+	}
+
 	@Override
 	protected Response solveNoChecks(Request request) {
 		return this.computePath((UnicastRequest) request);
@@ -78,6 +118,14 @@ public class CBFAlgorithm extends CSPAlgorithm implements SolveUnicastRequest{
 		if (proxy.getNumberOfConstraints(request) > 0)
 			constraint = proxy.getConstraintsBounds(request)[0];
 
+		if(compiledGraphSystem != null && proxy.getType() == ProxyTypes.EDGE_PROXY) {
+			CompiledGraph graph = compiledGraphSystem.getCompiledGraph(request.getSource().getGraph());
+			int source = graph.getNodeId(request.getSource());
+			int destination = graph.getNodeId(request.getDestination());
+			if(source != -1 && destination != -1)
+				return computeCompiledPath(graph, source, destination, request, constraint);
+		}
+
 		// Initialize data structures.
 		logger.debug("Initializing data structures");
 		initNodes(request.getSource());
@@ -87,7 +135,9 @@ public class CBFAlgorithm extends CSPAlgorithm implements SolveUnicastRequest{
 
 		int sqnum = 1;
 
-		while(!pq.isEmpty()) {
+		// If the budget is exhausted, the path found to the destination so far is returned.
+		RoutingBudgetTracker budget = RoutingBudgetTracker.current();
+		while(!pq.isEmpty() && budget.pop()) {
 			EdgeData edgeData = pq.poll();
 			logger.debug("Polled " + edgeData + " from priority queue: costSoFar=" + edgeData.getCostSoFar() + " delaySoFar=" + edgeData.getDelaySoFar() + " pathSoFar=" + edgeData.getPathSoFar());
 			if(Proxy.violatesBound(edgeData.getDelaySoFar(), constraint)) {
@@ -98,7 +148,8 @@ public class CBFAlgorithm extends CSPAlgorithm implements SolveUnicastRequest{
 			if(relaxed(edgeData, request)) {
 				logger.debug("The current path to " + edgeData.getEdge().getDestination() + " is better, we update the next edges");
 				for (Edge nextEdge : edgeData.getEdge().getDestination().getOutgoingConnections()) {
-					updateEdge(edgeData, nextEdge, request, constraint, pq, sqnum);
+					if(!budget.proxyCalls(updateEdge(edgeData, nextEdge, request, constraint, pq, sqnum)))
+						break;
 				}
 				sqnum++;
 			}
@@ -116,6 +167,145 @@ public class CBFAlgorithm extends CSPAlgorithm implements SolveUnicastRequest{
 		return new Path(dstNodeData.getPathSoFar(),isForward(), dstNodeData.getCost(), new double[]{dstNodeData.getDelay()}, dstNodeData.getParameters());
 	}
 
+	/**
+	 * Same algorithm as computePath(), on the IDs of a CompiledGraph. Labels
+	 * with the same delay and sequence number are polled in creation order.
+	 * The access to, cost and delay of all the Edges are fetched at once if
+	 * the proxy supports it.
+	 */
+	private Path computeCompiledPath(CompiledGraph graph, int source, int destination, UnicastRequest request, double constraint) {
+		boolean hasConstraint = proxy.getNumberOfConstraints(request) > 0;
+		int numberOfNodes = graph.getNumberOfNodes();
+		double[] nodeCosts = new double[numberOfNodes];
+		double[] nodeDelays = new double[numberOfNodes];
+		int[] nodeLabels = new int[numberOfNodes];
+		Arrays.fill(nodeCosts, Double.MAX_VALUE);
+		Arrays.fill(nodeDelays, Double.MAX_VALUE);
+		Arrays.fill(nodeLabels, -1);
+		nodeCosts[source] = 0;
+		nodeDelays[source] = 0;
+
+		numberOfLabels = 0;
+		IntPriorityQueue pq = new IntPriorityQueue(2, Math.max(graph.getNumberOfEdges(), 1));
+
+		// Snapshot of the access, costs and delays (null if the Edges have to be evaluated one by one).
+		int numberOfEdges = graph.getNumberOfEdges();
+		boolean[] access = new boolean[numberOfEdges];
+		double[] edgeCosts = new double[numberOfEdges];
+		double[][] edgeConstraints = new double[proxy.getNumberOfConstraints(request)][numberOfEdges];
+		if(!proxy.hasAccess(graph.getEdges(), request, access)
+				|| !proxy.getCosts(graph.getEdges(), request, edgeCosts)
+				|| (hasConstraint && !proxy.getConstraintsValues(graph.getEdges(), request, edgeConstraints))) {
+			access = null;
+			edgeCosts = null;
+			edgeConstraints = null;
+		}
+
+		// Source Edges (not checked against the bound, as in initSourceEdges()).
+		for(int i = graph.getOutgoingStart(source); i < graph.getOutgoingEnd(source); i++) {
+			int edgeId = graph.getOutgoingEdge(i);
+			Edge edge = graph.getEdge(edgeId);
+			double[] newParameters = proxy.getNewParameters(NO_PATH, edge, null, request, this.isForward());
+			if(access != null ? access[edgeId] : proxy.hasAccess(NO_PATH, edge, newParameters, request, this.isForward())) {
+				double delay = hasConstraint ? getDelay(edgeConstraints, edgeId, edge, newParameters, request) : 0;
+				double cost = edgeCosts != null ? edgeCosts[edgeId] : proxy.getCost(NO_PATH, edge, newParameters, request, this.isForward());
+				int label = newLabel(edgeId, -1, cost, delay, newParameters);
+				pq.ensureCapacity(numberOfLabels);
+				pq.add(label, delay, 0, label);
+			}
+		}
+
+		int sqnum = 1;
+		RoutingBudgetTracker budget = RoutingBudgetTracker.current();
+		while(!pq.isEmpty() && budget.pop()) {
+			int label = pq.poll();
+			if(Proxy.violatesBound(labelDelays[label], constraint))
+				break;
+
+			int node = graph.getDestination(labelEdges[label]);
+			if(nodeCosts[node] <= labelCosts[label])
+				continue;
+
+			if(paretoFrontierKeeping && node == destination)
+				paretoFrontier.add(new Path(getCompiledEdges(graph, label), labelCosts[label], new double[]{labelDelays[label]}, labelParameters[label]));
+			nodeCosts[node] = labelCosts[label];
+			nodeDelays[node] = labelDelays[label];
+			nodeLabels[node] = label;
+
+			for(int i = graph.getOutgoingStart(node); i < graph.getOutgoingEnd(node); i++) {
+				int edgeId = graph.getOutgoingEdge(i);
+				Edge nextEdge = graph.getEdge(edgeId);
+				double[] newParameters = proxy.getNewParameters(NO_PATH, nextEdge, labelParameters[label], request, this.isForward());
+				double nextEdgeDelay = hasConstraint ? getDelay(edgeConstraints, edgeId, nextEdge, newParameters, request) : 0;
+				boolean hasAccess = access != null ? access[edgeId] : proxy.hasAccess(NO_PATH, nextEdge, newParameters, request, this.isForward());
+				// The values read from the snapshot are not Proxy calls.
+				int proxyCalls = 1 + (hasConstraint && edgeConstraints == null ? 1 : 0) + (access == null ? 1 : 0);
+				if(hasAccess && !Proxy.violatesBound(labelDelays[label] + nextEdgeDelay, constraint)) {
+					double delay = hasConstraint ? labelDelays[label] + nextEdgeDelay : 0;
+					double cost = edgeCosts != null ? edgeCosts[edgeId] : proxy.getCost(NO_PATH, nextEdge, newParameters, request, this.isForward());
+					if(edgeCosts == null)
+						proxyCalls++;
+					int nextLabel = newLabel(edgeId, label, labelCosts[label] + cost, delay, newParameters);
+					pq.ensureCapacity(numberOfLabels);
+					pq.add(nextLabel, delay, sqnum, nextLabel);
+				}
+				if(!budget.proxyCalls(proxyCalls))
+					break;
+			}
+			sqnum++;
+		}
+
+		int label = nodeLabels[destination];
+		if(label == -1) {
+			logger.debug("Destination was never reached, no path found!");
+			return null;
+		}
+		return new Path(getCompiledEdges(graph, label), nodeCosts[destination], new double[]{nodeDelays[destination]}, labelParameters[label]);
+	}
+
+	/**
+	 * @return The delay of an Edge, from the snapshot if there is one.
+	 */
+	private double getDelay(double[][] edgeConstraints, int edgeId, Edge edge, double[] newParameters, UnicastRequest request) {
+		if(edgeConstraints != null)
+			return edgeConstraints[0][edgeId];
+		return proxy.getConstraintsValues(NO_PATH, edge, newParameters, request, this.isForward())[0];
+	}
+
+	/**
+	 * Stores a new label, growing the label arrays if needed.
+	 * @return ID of the new label.
+	 */
+	private int newLabel(int edge, int parent, double cost, double delay, double[] parameters) {
+		if(numberOfLabels == labelEdges.length) {
+			int capacity = Math.max(16, labelEdges.length * 2);
+			labelEdges = Arrays.copyOf(labelEdges, capacity);
+			labelParents = Arrays.copyOf(labelParents, capacity);
+			labelCosts = Arrays.copyOf(labelCosts, capacity);
+			labelDelays = Arrays.copyOf(labelDelays, capacity);
+			labelParameters = Arrays.copyOf(labelParameters, capacity);
+		}
+		labelEdges[numberOfLabels] = edge;
+		labelParents[numberOfLabels] = parent;
+		labelCosts[numberOfLabels] = cost;
+		labelDelays[numberOfLabels] = delay;
+		labelParameters[numberOfLabels] = parameters;
+		return numberOfLabels++;
+	}
+
+	/**
+	 * @return Edges (source -&gt; destination) of the path ending with a label.
+	 */
+	private Edge[] getCompiledEdges(CompiledGraph graph, int label) {
+		int length = 0;
+		for(int current = label; current != -1; current = labelParents[current])
+			length++;
+		Edge[] edges = new Edge[length];
+		for(int current = label; current != -1; current = labelParents[current])
+			edges[--length] = graph.getEdge(labelEdges[current]);
+		return edges;
+	}
+
 	/**
 	 * Relaxes the delay and cost at the nextEdges Node and update path to it if
 	 * using the current Edge to reach it leads to a better cost.
@@ -166,16 +356,22 @@ public class CBFAlgorithm extends CSPAlgorithm implements SolveUnicastRequest{
 	 * Updates the delay, cost and parameters of nextEdge based on their values
 	 * at the current Edge. This is done only if the new delay is smaller or
 	 * equal to constraint. The new Edge is added to pq.
+	 * @return Number of Proxy calls made, charged to the budget.
 	 */
-	private void updateEdge(EdgeData edge, Edge nextEdge, UnicastRequest request, double constraint, PriorityQueue<EdgeData> pq, int sqnum) {
+	private int updateEdge(EdgeData edge, Edge nextEdge, UnicastRequest request, double constraint, PriorityQueue<EdgeData> pq, int sqnum) {
 		logger.trace("Updating " + nextEdge + " from " + edge);
 		CBFIterator path = new CBFIterator(edge);
 		double[] newParameters = proxy.getNewParameters(path, nextEdge, edge.getParametersSoFar(), request, this.isForward());
+		// Parameters and access.
+		int proxyCalls = 2;
 
 		// For handling SP problems.
 		double nextEdgeDelay = 0;
-		if(proxy.getNumberOfConstraints(request) > 0)
+		boolean hasConstraint = proxy.getNumberOfConstraints(request) > 0;
+		if(hasConstraint) {
 			nextEdgeDelay = proxy.getConstraintsValues(path, nextEdge, newParameters, request, this.isForward())[0];
+			proxyCalls++;
+		}
 
 		if(proxy.hasAccess(path, nextEdge, newParameters, request, this.isForward()) && !Proxy.violatesBound(edge.getDelaySoFar() + nextEdgeDelay, constraint)) {
 			logger.trace("Adding to the priority queue");
@@ -183,8 +379,11 @@ public class CBFAlgorithm extends CSPAlgorithm implements SolveUnicastRequest{
 			nextEdgeData.setEdge(nextEdge);
 			nextEdgeData.setPathSoFar(new EdgePath(nextEdge, edge.getPathSoFar()));
 			nextEdgeData.setCostSoFar(edge.getCostSoFar() + proxy.getCost(path, nextEdge, newParameters, request, this.isForward()));
-			if(proxy.getNumberOfConstraints(request) > 0)
+			proxyCalls++;
+			if(hasConstraint) {
 				nextEdgeData.setDelaySoFar(edge.getDelaySoFar() + proxy.getConstraintsValues(path, nextEdge, newParameters, request, this.isForward())[0]);
+				proxyCalls++;
+			}
 			else
 				nextEdgeData.setDelaySoFar(0);
 			nextEdgeData.setParametersSoFar(newParameters);
@@ -194,6 +393,7 @@ public class CBFAlgorithm extends CSPAlgorithm implements SolveUnicastRequest{
 		else {
 			logger.trace("Not adding to the priority queue because access denied!");
 		}
+		return proxyCalls;
 	}
 
 	private void initNodes(Node source) {
@@ -18,7 +18,9 @@ import de.tum.ei.lkn.eces.routing.proxies.Proxy;
 import de.tum.ei.lkn.eces.routing.proxies.plumbers.EdgePlumberProxy;
 import de.tum.ei.lkn.eces.routing.proxies.plumbers.PathPlumberProxy;
 import de.tum.ei.lkn.eces.routing.proxies.plumbers.PreviousEdgePlumberProxy;
+import de.tum.ei.lkn.eces.routing.proxies.wrappers.EdgeProxyAdapter;
 import de.tum.ei.lkn.eces.routing.proxies.wrappers.PathProxyWrapper;
+import de.tum.ei.lkn.eces.routing.proxies.wrappers.PreviousEdgeProxyAdapter;
 import de.tum.ei.lkn.eces.routing.requests.Request;
 import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
 import de.tum.ei.lkn.eces.routing.responses.Path;
@@ -100,9 +102,9 @@ public class DelayTestProxy extends PathProxyWrapper {
 		if(proxy instanceof PathProxy)
 			this.proxy = new PathPlumberProxy(((PathProxy) proxy), new int[]{0}, new double[]{1}, new int[]{1}, new int[]{1});
 		if(proxy instanceof EdgeProxy)
-			this.proxy = new PathProxyWrapper(new EdgePlumberProxy(((EdgeProxy) proxy), new int[]{0}, new double[]{1}, new int[]{1}, new int[]{1}));
+			this.proxy = new EdgeProxyAdapter(new EdgePlumberProxy(((EdgeProxy) proxy), new int[]{0}, new double[]{1}, new int[]{1}, new int[]{1}));
 		if(proxy instanceof PreviousEdgeProxy)
-			this.proxy = new PathProxyWrapper(new PreviousEdgePlumberProxy(((PreviousEdgeProxy) proxy), new int[]{0}, new double[]{1}, new int[]{1}, new int[]{1}));
+			this.proxy = new PreviousEdgeProxyAdapter(new PreviousEdgePlumberProxy(((PreviousEdgeProxy) proxy), new int[]{0}, new double[]{1}, new int[]{1}, new int[]{1}));
 
 		/*-- Remaining delay algorithm --*/
 		if(proxy instanceof PathProxy)
@@ -60,6 +60,12 @@ public class DCCRAlgorithm extends CSPAlgorithm implements SolveUnicastRequest,
 	 */
 	private boolean BDfeature = false;
 
+	/**
+	 * Identifier of the current request, used to lazily initialize the
+	 * data at each Node.
+	 */
+	private long epoch = 0;
+
 	public DCCRAlgorithm(Controller controller) {
 		this(controller, DEFAULT_K);
 	}
@@ -114,20 +120,32 @@ public class DCCRAlgorithm extends CSPAlgorithm implements SolveUnicastRequest,
 	}
 
 	private void initializeSingleSource(UnicastRequest request) {
-		for(Node node : request.getSource().getGraph().getNodes()) {
-			NodeData data = nodeDataLocalMapper.get(node.getEntity());
-			data.init();
-			data.records = new Record[k];
-			for(int i = 0; i < k; i++)
-				data.records[i] = new Record();
-		}
+		// Data at each Node is initialized when first accessed (see getNodeData()).
+		epoch++;
 
-		NodeData data = nodeDataLocalMapper.get(request.getSource().getEntity());
+		NodeData data = getNodeData(request.getSource());
 		data.records[0].setWeight(0);
 		data.records[0].setDelay(0);
 		data.records[0].setCost(0);
 	}
 
+	/**
+	 * Gets the data of a Node for the current request. The data (and its
+	 * k records) is initialized the first time it is accessed during a
+	 * request.
+	 * @param node Node.
+	 * @return Data of the Node.
+	 */
+	protected NodeData getNodeData(Node node) {
+		NodeData data = nodeDataLocalMapper.get(node.getEntity());
+		if(data.init(epoch)) {
+			data.records = new Record[k];
+			for(int i = 0; i < k; i++)
+				data.records[i] = new Record();
+		}
+		return data;
+	}
+
 	@Override
 	protected Response solveNoChecks(Request request) {
 		return this.computePath((UnicastRequest) request);
@@ -175,7 +193,7 @@ public class DCCRAlgorithm extends CSPAlgorithm implements SolveUnicastRequest,
 			HeapItem heapItem = pq.poll();
 
 			// 7.
-			NodeData data = nodeDataLocalMapper.get(heapItem.getNode().getEntity());
+			NodeData data = getNodeData(heapItem.getNode());
 			Record record = data.records[heapItem.getId()];
 			record.setVisited();
 			Iterable<Edge> path = new DCCRRecordIterator(record);
@@ -226,7 +244,7 @@ public class DCCRAlgorithm extends CSPAlgorithm implements SolveUnicastRequest,
 					newWeight = newDelay /(1 - (newCost/costBound));
 
 				// 17.
-				NodeData nextNode = nodeDataLocalMapper.get(edge.getDestination().getEntity());
+				NodeData nextNode = getNodeData(edge.getDestination());
 				Record maxRecord = new Record();
 				maxRecord.setWeight(0);
 				int index = 0;
@@ -1,12 +1,14 @@
 package de.tum.ei.lkn.eces.routing.algorithms.csp.unicast.dccr;
 
+import de.tum.ei.lkn.eces.routing.algorithms.EpochData;
+
 /**
  * Data stored at each Node during the DCCR algorithm.
  *
  * @author Jochen Guck
  * @author Amaury Van Bemten
  */
-public class NodeData {
+public class NodeData extends EpochData {
 	protected Record records[];
 
 	public NodeData() {
@@ -58,6 +58,12 @@ public class DCURAlgorithm extends CSPAlgorithm implements SolveUnicastRequest,
 	 */
 	private LinkedList<Edge> pathSoFar;
 
+	/**
+	 * Identifier of the current request, used to lazily initialize the
+	 * data at each Node.
+	 */
+	private long epoch = 0;
+
 	/**
 	 * Whether BD is enable or not.
 	 */
@@ -182,7 +188,7 @@ public class DCURAlgorithm extends CSPAlgorithm implements SolveUnicastRequest,
 		constructPath(request.getSource(), null, 0, 0, null, request, deadline);
 
 		// Create Path out of the result.
-		DCURNodeData destinationData = DCURDataLocalMapper.get(request.getDestination().getEntity());
+		DCURNodeData destinationData = getNodeData(request.getDestination());
 		Path result = new Path(pathSoFar, destinationData.getCostSoFar(), new double[]{destinationData.getDelaySoFar()}, destinationData.getParametersSoFar());
 
 		// DCUR might have been blocked before the destination, we check this.
@@ -193,7 +199,7 @@ public class DCURAlgorithm extends CSPAlgorithm implements SolveUnicastRequest,
 	}
 
 	private void constructPath(Node activeNode, Node previousNode, double delaySoFar, double costSoFar, double[] parametersSoFar, UnicastRequest request, double deadline) {
-		DCURNodeData nodeData = DCURDataLocalMapper.get(activeNode.getEntity());
+		DCURNodeData nodeData = getNodeData(activeNode);
 		if(activeNode == request.getDestination()) {
 			nodeData.setDelaySoFar(delaySoFar);
 			nodeData.setCostSoFar(costSoFar);
@@ -273,7 +279,7 @@ public class DCURAlgorithm extends CSPAlgorithm implements SolveUnicastRequest,
 		Edge usedEdge = pathSoFar.removeFirst();
 
 		// If LC was chosen, choose now LD.
-		DCURNodeData nodeData = DCURDataLocalMapper.get(node.getEntity());
+		DCURNodeData nodeData = getNodeData(node);
 		if(nodeData.hasChosenLC()) {
 			nodeData.init();
 			nodeData.addInvalidEdge(usedEdge);
@@ -298,11 +304,21 @@ public class DCURAlgorithm extends CSPAlgorithm implements SolveUnicastRequest,
 	}
 
 	private void initNodes(Node source) {
-		for(Node node : source.getGraph().getNodes()) {
-			DCURNodeData nodeData = DCURDataLocalMapper.get(node.getEntity());
-			nodeData.init();
+		// Data at each Node is initialized when first accessed (see getNodeData()).
+		epoch++;
+	}
+
+	/**
+	 * Gets the data of a Node for the current request. The data is
+	 * initialized the first time it is accessed during a request.
+	 * @param node Node.
+	 * @return Data of the Node.
+	 */
+	private DCURNodeData getNodeData(Node node) {
+		DCURNodeData nodeData = DCURDataLocalMapper.get(node.getEntity());
+		if(nodeData.init(epoch))
 			nodeData.setNode(node);
-		}
+		return nodeData;
 	}
 
 	@Override
@@ -2,6 +2,7 @@ package de.tum.ei.lkn.eces.routing.algorithms.csp.unicast.dcur;
 
 import de.tum.ei.lkn.eces.graph.Edge;
 import de.tum.ei.lkn.eces.graph.Node;
+import de.tum.ei.lkn.eces.routing.algorithms.EpochData;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -12,7 +13,7 @@ import java.util.Set;
  * @author Jochen Guck
  * @author Amaury Van Bemten
  */
-public class DCURNodeData {
+public class DCURNodeData extends EpochData {
 	/**
 	 * Node to  which the data is attached.
 	 */
@@ -5,6 +5,7 @@ import de.tum.ei.lkn.eces.routing.algorithms.csp.CSPAlgorithm;
 import de.tum.ei.lkn.eces.routing.algorithms.sp.SPAlgorithm;
 import de.tum.ei.lkn.eces.routing.algorithms.sp.ksp.KSPAlgorithm;
 import de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.astar.AStarAlgorithm;
+import de.tum.ei.lkn.eces.routing.budget.RoutingBudgetTracker;
 import de.tum.ei.lkn.eces.routing.interfaces.BD;
 import de.tum.ei.lkn.eces.routing.interfaces.BDifiable;
 import de.tum.ei.lkn.eces.routing.interfaces.SolveUnicastRequest;
@@ -228,7 +229,10 @@ public class LARACAlgorithm extends CSPAlgorithm implements SolveUnicastRequest,
 
 		Set<Double> lambdas = new HashSet<>();
 
-		for(int i = 0; i < MAX_ITERATIONS && !stop; i++) {
+		// If the budget is exhausted, the current best Path is returned as for MAX_ITERATIONS.
+		RoutingBudgetTracker budget = RoutingBudgetTracker.current();
+
+		for(int i = 0; i < MAX_ITERATIONS && !stop && budget.pop(); i++) {
 			/* Not in 1980 paper: additional optional stop condition from 2001
 			 * paper to stop earlier and improve running time. If
 			 * maximalDifference is 0, will not have any effect. */
@@ -288,8 +292,8 @@ public class LARACAlgorithm extends CSPAlgorithm implements SolveUnicastRequest,
 			}
 		}
 
-		/* In case we reached the maximum number of iterations, we return
-		 * the current best Path. */
+		/* In case we reached the maximum number of iterations (or the
+		 * budget), we return the current best Path. */
 		return createPath(bestFeasiblePath, request);
 	}
 
@@ -302,7 +306,8 @@ public class LARACAlgorithm extends CSPAlgorithm implements SolveUnicastRequest,
 		 * the second one. */
 		Iterator<Path> pathIterator = kSPAlgorithm.getCurrentIterator(request);
 		Path bestPath = feasibleSolution;
-		while (LB * (1 + delta) < UB) {
+		RoutingBudgetTracker budget = RoutingBudgetTracker.current();
+		while (LB * (1 + delta) < UB && budget.pop()) {
 			// 2.1.2.
 			Path nextPath = null;
 			double nextPathCost = Double.MAX_VALUE;
@@ -326,6 +331,9 @@ public class LARACAlgorithm extends CSPAlgorithm implements SolveUnicastRequest,
 			continue;
 		}
 
+		// The candidate Paths of the Iterator are not needed anymore.
+		kSPAlgorithm.release(request);
+
 		// 2.1.1.
 		return createPath(bestPath, request);
 	}
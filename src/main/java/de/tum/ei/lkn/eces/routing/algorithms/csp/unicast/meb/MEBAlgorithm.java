@@ -45,6 +45,14 @@ public class MEBAlgorithm extends CSPAlgorithm implements SolveUnicastRequest, B
 	private boolean BDfeature = false;
 	private boolean delayMode;
 
+	/**
+	 * Access to and cost of the Edges of the Graph (in the order of
+	 * Graph.getEdges()), fetched once per request. null if the Edges have to
+	 * be evaluated one by one.
+	 */
+	private boolean[] edgeAccess;
+	private double[] edgeCosts;
+
 
 	public MEBAlgorithm(Controller controller) {
 		super(controller);
@@ -69,13 +77,22 @@ public class MEBAlgorithm extends CSPAlgorithm implements SolveUnicastRequest, B
 		boolean run = true;
 		double deadline = proxy.getConstraintsBounds(request)[0];
 		bestTriplet = null;
+		Edge[] edges = request.getSource().getGraph().getEdges().toArray(new Edge[0]);
+		edgeAccess = new boolean[edges.length];
+		edgeCosts = new double[edges.length];
+		if(!plumberProxy.hasAccess(edges, request, edgeAccess) || !plumberProxy.getCosts(edges, request, edgeCosts)) {
+			edgeAccess = null;
+			edgeCosts = null;
+		}
 		for(int hopCount = 0; hopCount < numberOfNodes && run; hopCount++) {
 			run = false;
-			for(Edge edge : request.getSource().getGraph().getEdges()) {
-				if(relax(edge, request, hopCount, deadline, costParameterID, delayParameterID))
+			for(int i = 0; i < edges.length; i++) {
+				if(relax(edges[i], i, request, hopCount, deadline, costParameterID, delayParameterID))
 					run = true;
 			}
 		}
+		edgeAccess = null;
+		edgeCosts = null;
 		if(bestTriplet == null)
 			return null;
 		LinkedList<Edge> path = new LinkedList<>();
@@ -101,7 +118,7 @@ public class MEBAlgorithm extends CSPAlgorithm implements SolveUnicastRequest, B
 		}
 	}
 
-	private boolean relax(Edge edge, UnicastRequest request, int newHopCount, double deadline, int costParameterID, int delayParameterID) {
+	private boolean relax(Edge edge, int edgeIndex, UnicastRequest request, int newHopCount, double deadline, int costParameterID, int delayParameterID) {
 		Node node;
 		Node nextNode;
 		if(isForward()){
@@ -118,12 +135,15 @@ public class MEBAlgorithm extends CSPAlgorithm implements SolveUnicastRequest, B
 		if(thisTriplet == null)
 			return false;
 
+		if(edgeAccess != null && !edgeAccess[edgeIndex])
+			return false;
+
 		Iterable<Edge> iterator = new TripletIterator(nodeData.getData().get(newHopCount - 1));
 		double[] newParameters = this.plumberProxy.getNewParameters(iterator, edge, thisTriplet.getParameters(), request, isForward());
-		if(!this.plumberProxy.hasAccess(iterator, edge, newParameters, request, isForward()))
+		if(edgeAccess == null && !this.plumberProxy.hasAccess(iterator, edge, newParameters, request, isForward()))
 			return false;
 
-		double edgeCost = this.plumberProxy.getCost(iterator, edge, newParameters, request, isForward());
+		double edgeCost = edgeCosts != null ? edgeCosts[edgeIndex] : this.plumberProxy.getCost(iterator, edge, newParameters, request, isForward());
 
 		Triplet nextTriplet = nextNodeData.getData().get(newHopCount);
 		if(nextTriplet == null) {
@@ -71,6 +71,12 @@ public class SMSAlgorithm extends CSPAlgorithm implements SolveUnicastRequest, B
 	 */
 	private PathPlumberProxy leastCostProxy;
 
+	/**
+	 * Identifier of the current request, used to lazily initialize the
+	 * data at each Node.
+	 */
+	private long epoch = 0;
+
 	public SMSAlgorithm(Controller controller, PreferredLinkMode heuristicFunction, int maxTries, NToOneAlgorithm leastCostAlgorithm, NToOneAlgorithm leastDelayAlgorithm) {
 		super(controller);
 
@@ -190,13 +196,13 @@ public class SMSAlgorithm extends CSPAlgorithm implements SolveUnicastRequest, B
 		if(!success)
 			return null;
 		else {
-			SMSNodeData dstData = SMSDataLocalMapper.get(request.getDestination().getEntity());
+			SMSNodeData dstData = getNodeData(request.getDestination());
 			return new Path(new SMSNodeDataIterator(dstData), dstData.getCostSoFar(), new double[]{dstData.getDelaySoFar()}, dstData.getParametersSoFar());
 		}
 	}
 
 	private boolean actionOnSetup(SMSNodeData previousNodeData, Edge previousEdge, Node node, Set<Node> visitedNodes, LinkedList<Edge> pathSoFar, double costSoFar, double delaySoFar, double[] parametersSoFar, UnicastRequest request, double deadline) {
-		SMSNodeData nodeData = SMSDataLocalMapper.get(node.getEntity());
+		SMSNodeData nodeData = getNodeData(node);
 		nodeData.setPreviousNodeData(previousNodeData);
 		nodeData.setPreviousEdge(previousEdge);
 
@@ -411,10 +417,20 @@ public class SMSAlgorithm extends CSPAlgorithm implements SolveUnicastRequest, B
 	}
 
 	private void initNodes(Node source) {
-		for(Node node : source.getGraph().getNodes()) {
-			SMSNodeData nodeData = SMSDataLocalMapper.get(node.getEntity());
-			nodeData.init();
-		}
+		// Data at each Node is initialized when first accessed (see getNodeData()).
+		epoch++;
+	}
+
+	/**
+	 * Gets the data of a Node for the current request. The data is
+	 * initialized the first time it is accessed during a request.
+	 * @param node Node.
+	 * @return Data of the Node.
+	 */
+	private SMSNodeData getNodeData(Node node) {
+		SMSNodeData nodeData = SMSDataLocalMapper.get(node.getEntity());
+		nodeData.init(epoch);
+		return nodeData;
 	}
 
 	@Override
@@ -1,6 +1,7 @@
 package de.tum.ei.lkn.eces.routing.algorithms.csp.unicast.sms;
 
 import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.routing.algorithms.EpochData;
 
 import java.util.Iterator;
 
@@ -10,7 +11,7 @@ import java.util.Iterator;
  * @author Jochen Guck
  * @author Amaury Van Bemten
  */
-public class SMSNodeData {
+public class SMSNodeData extends EpochData {
 	/**
 	 * Data on the previous Node on the Path to the current Node.
 	 */
@@ -1,12 +1,14 @@
 package de.tum.ei.lkn.eces.routing.algorithms.mcsp.astarprune;
 
+import de.tum.ei.lkn.eces.routing.algorithms.EpochData;
+
 /**
  * Data stored at each Node during the A*Prune algorithm.
  *
  * @author Jochen Guck
  * @author Amaury Van Bemten
  */
-public class AStarNodeData {
+public class AStarNodeData extends EpochData {
 	/**
 	 * Guess distances from current Node to the destination.
 	 * Has one more element than 'constraintsToDestination' because it
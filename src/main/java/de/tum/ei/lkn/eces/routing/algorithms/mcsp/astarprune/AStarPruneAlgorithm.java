@@ -6,6 +6,7 @@ import de.tum.ei.lkn.eces.graph.Edge;
 import de.tum.ei.lkn.eces.graph.Node;
 import de.tum.ei.lkn.eces.routing.algorithms.mcsp.MCSPAlgorithm;
 import de.tum.ei.lkn.eces.routing.algorithms.sp.SPAlgorithm;
+import de.tum.ei.lkn.eces.routing.budget.RoutingBudgetTracker;
 import de.tum.ei.lkn.eces.routing.exceptions.UnableToHandleRequestException;
 import de.tum.ei.lkn.eces.routing.interfaces.NToOneAlgorithm;
 import de.tum.ei.lkn.eces.routing.interfaces.SolveUnicastRequest;
@@ -64,6 +65,23 @@ public class AStarPruneAlgorithm extends MCSPAlgorithm implements SolveUnicastRe
 
 	private boolean proxyInit = false;
 
+	/**
+	 * Identifier of the current request, used to lazily initialize the
+	 * data at each Node.
+	 */
+	private long epoch = 0;
+
+	/**
+	 * Number of guesses (1 (cost) + number of constraints) of the current
+	 * request.
+	 */
+	private int numberOfGuesses;
+
+	/**
+	 * Guesses shared by all the Nodes in UNIFORM mode.
+	 */
+	private double[] uniformGuesses;
+
 	public AStarPruneAlgorithm(Controller controller, boolean uniformMode) {
 		super(controller);
 		this.AStarDataLocalMapper = controller.getLocalMapper(this, AStarNodeDataLocal.class);
@@ -147,41 +165,17 @@ public class AStarPruneAlgorithm extends MCSPAlgorithm implements SolveUnicastRe
 			throw new UnableToHandleRequestException("The request asks for " + numberOfConstraints + " constraints to be satisfied but the current instance of A*Prune can only handle " + (maxNumberOfMetrics - 1));
 
 		/* 1. Pre-computing guesses if necessary. */
+		// Data at each Node is initialized when first accessed (see getNodeData()).
+		epoch++;
+		numberOfGuesses = numberOfConstraints + 1;
 		if(mode == GuessModes.N_TO_ONE) {
 			for(int i = 0; i < numberOfConstraints + 1; i++)
 				allToDestinationGuessAlgorithms[i].computePathsFromAnyNodeTo(request.getDestination(), request);
-
-			// Initializing data at each Node.
-			for(Node node : request.getSource().getGraph().getNodes()) {
-				double[] guesses = new double[numberOfConstraints + 1];
-				for(int i = 0; i < numberOfConstraints + 1; i++) {
-					if(allToDestinationGuessAlgorithms[i].getPathToNodeFrom(node) == null)
-						guesses[i] = Double.MAX_VALUE;
-					else
-						guesses[i] = allToDestinationGuessAlgorithms[i].getPathToNodeFrom(node).getCost();
-				}
-				AStarNodeData nodeData = AStarDataLocalMapper.get(node.getEntity());
-				nodeData.init();
-				nodeData.setAdmissibleDistancesToDestination(guesses);
-			}
 		}
 		else if(mode == GuessModes.UNIFORM) {
-			// Initializing data at each Node.
-			double[] guesses = new double[numberOfConstraints + 1];
+			uniformGuesses = new double[numberOfConstraints + 1];
 			for(int i = 0; i < numberOfConstraints + 1; i++)
-				guesses[i] = 0;
-			for(Node node : request.getSource().getGraph().getNodes()) {
-				AStarNodeData nodeData = AStarDataLocalMapper.get(node.getEntity());
-				nodeData.init();
-				nodeData.setAdmissibleDistancesToDestination(guesses);
-			}
-		}
-		else {
-			// Initializing data at each Node.
-			for(Node node : request.getSource().getGraph().getNodes()) {
-				AStarNodeData nodeData = AStarDataLocalMapper.get(node.getEntity());
-				nodeData.init();
-			}
+				uniformGuesses[i] = 0;
 		}
 
 		/* 2. */
@@ -194,7 +188,7 @@ public class AStarPruneAlgorithm extends MCSPAlgorithm implements SolveUnicastRe
 		initPath.setConstraintsValues(constraintsValues);
 
 		// Initialize source.
-		AStarNodeData nodeData = AStarDataLocalMapper.get(request.getSource().getEntity());
+		AStarNodeData nodeData = getNodeData(request.getSource());
 		// Compute guesses if mode requires so.
 		if(mode == GuessModes.ONE_TO_ONE) {
 			double[] distancesToDestination = new double[numberOfConstraints + 1];
@@ -229,9 +223,14 @@ public class AStarPruneAlgorithm extends MCSPAlgorithm implements SolveUnicastRe
 		pq.add(initPath);
 		int id = 0;
 
+		// No Path is known before the destination is polled: nothing to return if the budget is exhausted.
+		RoutingBudgetTracker budget = RoutingBudgetTracker.current();
+
 		/* lines 3-28. */
 		while(!pq.isEmpty()) {
 			/* lines 4-6. */
+			if(!budget.pop())
+				return null;
 			HeadPath headPath = pq.poll();
 
 			/* lines 7-11. */
@@ -240,6 +239,10 @@ public class AStarPruneAlgorithm extends MCSPAlgorithm implements SolveUnicastRe
 
 			/* lines 13-27. */
 			for(Edge outEdge : headPath.getLastNode().getOutgoingConnections()) {
+				// Parameters and access.
+				if(!budget.proxyCalls(2))
+					return null;
+
 				// Check access to the edge.
 				HeadPathIterator iterator = new HeadPathIterator(headPath);
 				double[] newParameters = proxy.getNewParameters(iterator, outEdge, headPath.getParametersValues(), request, this.isForward());
@@ -256,6 +259,9 @@ public class AStarPruneAlgorithm extends MCSPAlgorithm implements SolveUnicastRe
 					continue;
 
 				/* line 17. */
+				// Cost, constraints and (below) constraints bounds.
+				if(!budget.proxyCalls(3))
+					return null;
 				expandedPath.setCost(headPath.getCost() + proxy.getCost(iterator, outEdge, newParameters, request, this.isForward()));
 				double[] edgeConstraintsValues = proxy.getConstraintsValues(iterator, outEdge, newParameters, request, this.isForward());
 				double[] newConstraintsValues = new double[numberOfConstraints];
@@ -265,7 +271,7 @@ public class AStarPruneAlgorithm extends MCSPAlgorithm implements SolveUnicastRe
 
 				/* lines 21-24. */
 				boolean constraintViolated = false;
-				AStarNodeData destinationNodeData = AStarDataLocalMapper.get(outEdge.getDestination().getEntity());
+				AStarNodeData destinationNodeData = getNodeData(outEdge.getDestination());
 				// Compute guesses if mode requires so.
 				if(destinationNodeData.getAdmissibleDistancesToDestination() == null) {
 					UnicastRequest partRequest = request.clone();
@@ -301,6 +307,8 @@ public class AStarPruneAlgorithm extends MCSPAlgorithm implements SolveUnicastRe
 						}
 						destinationNodeData.init();
 						destinationNodeData.setAdmissibleDistancesToDestination(distancesToDestination);
+						if(outEdge.getDestination() != request.getDestination() && !budget.proxyCalls(numberOfConstraints + 1))
+							return null;
 					}
 				}
 
@@ -322,6 +330,33 @@ public class AStarPruneAlgorithm extends MCSPAlgorithm implements SolveUnicastRe
 		return null;
 	}
 
+	/**
+	 * Gets the data of a Node for the current request. The data is
+	 * initialized the first time it is accessed during a request and, in
+	 * N_TO_ONE and UNIFORM modes, its guesses are set at that time.
+	 * @param node Node.
+	 * @return Data of the Node.
+	 */
+	private AStarNodeData getNodeData(Node node) {
+		AStarNodeData nodeData = AStarDataLocalMapper.get(node.getEntity());
+		if(nodeData.init(epoch)) {
+			if(mode == GuessModes.N_TO_ONE) {
+				double[] guesses = new double[numberOfGuesses];
+				for(int i = 0; i < numberOfGuesses; i++) {
+					if(allToDestinationGuessAlgorithms[i].getPathToNodeFrom(node) == null)
+						guesses[i] = Double.MAX_VALUE;
+					else
+						guesses[i] = allToDestinationGuessAlgorithms[i].getPathToNodeFrom(node).getCost();
+				}
+				nodeData.setAdmissibleDistancesToDestination(guesses);
+			}
+			else if(mode == GuessModes.UNIFORM) {
+				nodeData.setAdmissibleDistancesToDestination(uniformGuesses);
+			}
+		}
+		return nodeData;
+	}
+
 	@Override
 	public boolean isForward() {
 		return true;
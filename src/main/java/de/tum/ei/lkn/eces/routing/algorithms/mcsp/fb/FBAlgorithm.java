@@ -11,7 +11,8 @@ import de.tum.ei.lkn.eces.routing.proxies.EdgeProxy;
 import de.tum.ei.lkn.eces.routing.proxies.PathProxy;
 import de.tum.ei.lkn.eces.routing.proxies.PreviousEdgeProxy;
 import de.tum.ei.lkn.eces.routing.proxies.plumbers.PathPlumberProxy;
-import de.tum.ei.lkn.eces.routing.proxies.wrappers.PathProxyWrapper;
+import de.tum.ei.lkn.eces.routing.proxies.wrappers.EdgeProxyAdapter;
+import de.tum.ei.lkn.eces.routing.proxies.wrappers.PreviousEdgeProxyAdapter;
 import de.tum.ei.lkn.eces.routing.requests.Request;
 import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
 import de.tum.ei.lkn.eces.routing.responses.Path;
@@ -63,13 +64,13 @@ public class FBAlgorithm extends MCSPAlgorithm implements SolveUnicastRequest, B
 	@Override
 	public void setProxy(PreviousEdgeProxy proxy) {
 		super.setProxy(proxy);
-		this.pathProxy = new PathProxyWrapper(proxy);
+		this.pathProxy = new PreviousEdgeProxyAdapter(proxy);
 	}
 
 	@Override
 	public void setProxy(EdgeProxy proxy) {
 		super.setProxy(proxy);
-		this.pathProxy = new PathProxyWrapper(proxy);
+		this.pathProxy = new EdgeProxyAdapter(proxy);
 	}
 
 	@Override
@@ -4,6 +4,7 @@ import de.tum.ei.lkn.eces.core.Controller;
 import de.tum.ei.lkn.eces.graph.Edge;
 import de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa.QueueMode;
 import de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa.Record;
+import de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa.ShortestPathTreeCache;
 import de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa.TempData;
 import de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa.UniversalPriorityQueueAlgorithm;
 import de.tum.ei.lkn.eces.routing.exceptions.RoutingException;
@@ -94,8 +95,8 @@ public class HMCOPAlgorithm extends UniversalPriorityQueueAlgorithm implements B
 	}
 
 	@Override
-	protected TempData relaxNode(Edge nextEdge, TempData data, UnicastRequest request, double[] parameters, double[] newConstraints) {
-		Record record = recordLocalMapper.get(nextEdge.getDestination().getEntity());
+	protected TempData relaxNode(Edge nextEdge, TempData data, UnicastRequest request, double[] parameters, double[] newConstraints, EdgeEvaluation evaluation) {
+		Record record = getRecord(nextEdge.getDestination().getEntity());
 		int index = record.getMaxIDnotVisited();
 		if(index == -1)
 			return null;
@@ -114,7 +115,7 @@ public class HMCOPAlgorithm extends UniversalPriorityQueueAlgorithm implements B
 			constToDest = preRunAlgorithm.getPathToNodeFrom(nextEdge.getDestination()).getConstraintsValues();
 
 		double g = 0;
-		double newCost = computeCost(nextEdge, data, request, parameters, newConstraints);
+		double newCost = computeCost(nextEdge, data, request, parameters, newConstraints, evaluation);
 		if(lambda == Double.POSITIVE_INFINITY) {
 			for(int i = 0; i < bounds.length; i++)
 				g = Math.max((newConstraints[i]+constToDest[i])/ bounds[i],g);
@@ -134,11 +135,9 @@ public class HMCOPAlgorithm extends UniversalPriorityQueueAlgorithm implements B
 					(!guessMode && g < ((HMCOPTempData) tempData).getG()));
 			else
 				return null;
-			tempData.setVisited(true);
 		}
 
-		tempData = this.getNewTempData();
-		record.getArray()[index] = tempData;
+		tempData = replaceTempData(record, index);
 		tempData.setCost(newCost);
 
 		if(guessMode) {
@@ -196,6 +195,23 @@ public class HMCOPAlgorithm extends UniversalPriorityQueueAlgorithm implements B
 		super.setProxy(pathProxy);
 	}
 
+	/**
+	 * Lets the reverse pre-run take its trees from a cache (the forward run
+	 * always uses guesses and hence never does).
+	 * @param cache Cache of trees.
+	 */
+	@Override
+	public void enableShortestPathTreeCache(ShortestPathTreeCache cache) {
+		this.preRunAlgorithm.enableShortestPathTreeCache(cache);
+		super.enableShortestPathTreeCache(cache);
+	}
+
+	@Override
+	public void disableShortestPathTreeCache() {
+		this.preRunAlgorithm.disableShortestPathTreeCache();
+		super.disableShortestPathTreeCache();
+	}
+
 	@Override
 	public void enableBD() {
 		this.BDFeature = true;
@@ -6,6 +6,7 @@ import de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa.QueueMode;
 import de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa.TempData;
 import de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa.UniversalPriorityQueueAlgorithm;
 import de.tum.ei.lkn.eces.routing.exceptions.RoutingException;
+import de.tum.ei.lkn.eces.routing.proxies.EdgeEvaluation;
 import de.tum.ei.lkn.eces.routing.proxies.ProxyTypes;
 import de.tum.ei.lkn.eces.routing.requests.Request;
 import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
@@ -31,7 +32,7 @@ public class HMCOPReverseAlgorithm extends UniversalPriorityQueueAlgorithm {
 	}
 
 	@Override
-	protected double computeCost(Edge nextEdge, TempData data, UnicastRequest request, double[] parameters, double[] newConstraints){
+	protected double computeCost(Edge nextEdge, TempData data, UnicastRequest request, double[] parameters, double[] newConstraints, EdgeEvaluation evaluation){
 		double sum = 0;
 		for(int i = 0; i < newConstraints.length; i++)
 			sum += newConstraints[i] / proxy.getConstraintsBounds(request)[i];
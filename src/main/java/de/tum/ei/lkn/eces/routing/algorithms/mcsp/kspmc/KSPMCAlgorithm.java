@@ -4,6 +4,7 @@ import de.tum.ei.lkn.eces.core.Controller;
 import de.tum.ei.lkn.eces.routing.algorithms.mcsp.MCSPAlgorithm;
 import de.tum.ei.lkn.eces.routing.algorithms.sp.ksp.KSPAlgorithm;
 import de.tum.ei.lkn.eces.routing.algorithms.sp.ksp.yen.YenAlgorithm;
+import de.tum.ei.lkn.eces.routing.budget.RoutingBudgetTracker;
 import de.tum.ei.lkn.eces.routing.interfaces.SolveUnicastRequest;
 import de.tum.ei.lkn.eces.routing.proxies.EdgeProxy;
 import de.tum.ei.lkn.eces.routing.proxies.PathProxy;
@@ -77,7 +78,9 @@ public class KSPMCAlgorithm extends MCSPAlgorithm implements SolveUnicastRequest
 	}
 	protected Path computePath(UnicastRequest request) {
 		Iterator<Path> kspIterator = kspAlgorithm.iterator(request);
-		while(kspIterator.hasNext()) {
+		// Paths are only returned when valid: nothing to return if the budget is exhausted.
+		RoutingBudgetTracker budget = RoutingBudgetTracker.current();
+		while(budget.pop() && kspIterator.hasNext()) {
 			Path path = proxy.createPath(kspIterator.next(), request, kspAlgorithm.isForward());
 			if(path != null && proxy.isValid(path, request))
 				return path;
@@ -0,0 +1,33 @@
+package de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa;
+
+import de.tum.ei.lkn.eces.routing.algorithms.EpochData;
+
+/**
+ * Data stored at each Node by the bidirectional mode of UPQA: the label of the
+ * forward search (from the source) and the label of the backward search (from
+ * the destination).
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public class BidirectionalRecord extends EpochData {
+	private TempData forward;
+	private TempData backward;
+
+	@Override
+	public void init() {
+		forward = null;
+		backward = null;
+	}
+
+	public TempData getTempData(boolean isForward) {
+		return isForward ? forward : backward;
+	}
+
+	public void setTempData(boolean isForward, TempData data) {
+		if(isForward)
+			forward = data;
+		else
+			backward = data;
+	}
+}
@@ -0,0 +1,130 @@
+package de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa;
+
+import java.util.Arrays;
+
+/**
+ * Indexed d-ary min-heap of TempData supporting in-place key updates.
+ *
+ * Each element stores its position in the heap so that a modified key can be restored in O(log_d n) without
+ * inserting a duplicate. Keys may move in both directions (e.g., H_MCOP ordering), the element is hence sifted up
+ * and, if it did not move, down.
+ *
+ * An element belongs to at most one heap at a time.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public class IndexedTempDataHeap implements TempDataQueue {
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final int arity;
+	private TempData[] heap = new TempData[INITIAL_CAPACITY];
+	private int size = 0;
+
+	/**
+	 * Creates a new heap.
+	 * @param arity Number of children per heap node (at least 2).
+	 */
+	public IndexedTempDataHeap(int arity) {
+		if(arity < 2)
+			throw new IllegalArgumentException("The arity of a heap must be at least 2");
+		this.arity = arity;
+	}
+
+	@Override
+	public void add(TempData data) {
+		if(isQueued(data)) {
+			int index = data.heapIndex;
+			siftUp(index);
+			if(data.heapIndex == index)
+				siftDown(index);
+			return;
+		}
+
+		if(size == heap.length)
+			heap = Arrays.copyOf(heap, heap.length * 2);
+		heap[size] = data;
+		data.heapIndex = size;
+		size++;
+		siftUp(size - 1);
+	}
+
+	@Override
+	public TempData poll() {
+		if(size == 0)
+			return null;
+		TempData result = heap[0];
+		size--;
+		TempData last = heap[size];
+		heap[size] = null;
+		if(size > 0) {
+			heap[0] = last;
+			last.heapIndex = 0;
+			siftDown(0);
+		}
+		result.heapIndex = -1;
+		return result;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		for(int i = 0; i < size; i++) {
+			heap[i].heapIndex = -1;
+			heap[i] = null;
+		}
+		size = 0;
+	}
+
+	@Override
+	public boolean isQueued(TempData data) {
+		int index = data.heapIndex;
+		return index >= 0 && index < size && heap[index] == data;
+	}
+
+	private void siftUp(int index) {
+		TempData data = heap[index];
+		while(index > 0) {
+			int parent = (index - 1) / arity;
+			if(data.compareTo(heap[parent]) >= 0)
+				break;
+			move(heap[parent], index);
+			index = parent;
+		}
+		move(data, index);
+	}
+
+	private void siftDown(int index) {
+		TempData data = heap[index];
+		while(true) {
+			int firstChild = index * arity + 1;
+			if(firstChild >= size)
+				break;
+			int lastChild = Math.min(firstChild + arity, size);
+			int min = firstChild;
+			for(int child = firstChild + 1; child < lastChild; child++) {
+				if(heap[child].compareTo(heap[min]) < 0)
+					min = child;
+			}
+			if(heap[min].compareTo(data) >= 0)
+				break;
+			move(heap[min], index);
+			index = min;
+		}
+		move(data, index);
+	}
+
+	private void move(TempData data, int index) {
+		heap[index] = data;
+		data.heapIndex = index;
+	}
+}
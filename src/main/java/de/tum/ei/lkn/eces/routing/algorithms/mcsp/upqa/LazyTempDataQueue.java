@@ -0,0 +1,46 @@
+package de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa;
+
+import java.util.PriorityQueue;
+
+/**
+ * TempData queue backed by a java.util.PriorityQueue.
+ *
+ * Elements are never updated in place: outdated elements stay in the queue and are skipped by UPQA because they are
+ * marked as visited (lazy deletion).
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public class LazyTempDataQueue implements TempDataQueue {
+	private final PriorityQueue<TempData> queue = new PriorityQueue<>();
+
+	@Override
+	public void add(TempData data) {
+		queue.add(data);
+	}
+
+	@Override
+	public TempData poll() {
+		return queue.poll();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return queue.isEmpty();
+	}
+
+	@Override
+	public int size() {
+		return queue.size();
+	}
+
+	@Override
+	public void clear() {
+		queue.clear();
+	}
+
+	@Override
+	public boolean isQueued(TempData data) {
+		return false;
+	}
+}
@@ -1,6 +1,8 @@
 package de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa;
 
-public class Record {
+import de.tum.ei.lkn.eces.routing.algorithms.EpochData;
+
+public class Record extends EpochData {
 	private TempData[] data;
 
 	public boolean hasArray(){
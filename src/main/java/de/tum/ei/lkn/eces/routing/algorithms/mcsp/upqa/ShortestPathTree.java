@@ -0,0 +1,88 @@
+package de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa;
+
+import de.tum.ei.lkn.eces.graph.Node;
+import de.tum.ei.lkn.eces.routing.compiledgraph.CompiledGraph;
+import de.tum.ei.lkn.eces.routing.responses.Path;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Result of a run of the UniversalPriorityQueueAlgorithm kept after the run:
+ * the best label of each Node reached. Labels only refer to paths and values
+ * that runs never modify, so that they are not copied.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+final class ShortestPathTree {
+	/**
+	 * Labels of the Nodes reached by a run on the Graph objects (null for a
+	 * compiled run).
+	 */
+	private final Map<Node, TempData> labels;
+
+	/**
+	 * Labels of the Nodes reached by a compiled run, indexed by Node ID
+	 * (parent Edge -2 for the Nodes not reached, numberOfParameters values
+	 * per Node for the parameters).
+	 */
+	private final CompiledGraph graph;
+	private final double[] costs;
+	private final int[] parentEdges;
+	private final double[] parameters;
+	private final boolean[] nullParameters;
+	private final int numberOfParameters;
+
+	ShortestPathTree(Map<Node, TempData> labels) {
+		this.labels = labels;
+		this.graph = null;
+		this.costs = null;
+		this.parentEdges = null;
+		this.parameters = null;
+		this.nullParameters = null;
+		this.numberOfParameters = 0;
+	}
+
+	ShortestPathTree(CompiledGraph graph, long[] epochs, long epoch, double[] costs, int[] parentEdges, double[] parameters, boolean[] nullParameters, int numberOfParameters) {
+		int n = graph.getNumberOfNodes();
+		this.labels = null;
+		this.graph = graph;
+		this.costs = Arrays.copyOf(costs, n);
+		this.parentEdges = Arrays.copyOf(parentEdges, n);
+		this.parameters = Arrays.copyOf(parameters, n * numberOfParameters);
+		this.nullParameters = Arrays.copyOf(nullParameters, n);
+		this.numberOfParameters = numberOfParameters;
+		for(int i = 0; i < n; i++)
+			if(epochs[i] != epoch)
+				this.parentEdges[i] = -2;
+	}
+
+	/**
+	 * Gets the Path of the tree ending (forward) or starting (backward) at a
+	 * Node, as UniversalPriorityQueueAlgorithm.getPathToNodeFrom() and
+	 * getPathFromNodeTo() do.
+	 * @param node Node.
+	 * @param direct Whether the Path is read as found by a forward run.
+	 * @return The Path, null if the Node was not reached.
+	 */
+	Path getPath(Node node, boolean direct) {
+		if(graph != null) {
+			int id = graph.getNodeId(node);
+			if(id == -1 || parentEdges[id] == -2)
+				return null;
+			return new Path(graph.getPath(id, parentEdges, direct),
+					costs[id],
+					new double[0],
+					nullParameters[id] ? null : Arrays.copyOfRange(parameters, id * numberOfParameters, (id + 1) * numberOfParameters));
+		}
+		TempData data = labels.get(node);
+		if(data == null)
+			return null;
+		return new Path(data.getPath(),
+				direct,
+				data.getCost(),
+				data.getConstraint(),
+				data.getParameter());
+	}
+}
@@ -0,0 +1,229 @@
+package de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa;
+
+import de.tum.ei.lkn.eces.graph.Graph;
+import de.tum.ei.lkn.eces.graph.Node;
+import de.tum.ei.lkn.eces.routing.easygraph.MetricsChangeSystem;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Cache of the shortest-path trees toward a destination computed by
+ * UniversalPriorityQueueAlgorithm.computePathsFromAnyNodeTo(), which can be
+ * shared by several algorithms (e.g., the least-cost and least-delay runs of
+ * several CSP algorithms).
+ *
+ * A tree is identified by the destination, the type and queue mode of the
+ * algorithm, the projection of its Proxy (see Proxy.getProjection()), the
+ * cost border and the constraints bounds and pruning. It is stamped with the
+ * state version of the underlying Proxy when computed and is not used anymore
+ * once this version changed (i.e., after a Path has been registered or
+ * deregistered or the Proxy signaled a change of its state). Trees are hence
+ * only correct for Proxies whose values do not depend on the Request other
+ * than through its destination and constraints bounds.
+ *
+ * A cache created with a MetricsChangeSystem also drops its trees when an
+ * Edge is created or destroyed or Metrics change (e.g., for an EasyGraphProxy
+ * not created by a MetricsSystem, whose state version does not follow the
+ * Metrics), until detach() is called. Other changes of the values of
+ * the Proxy have to be signaled with changed() or Proxy.stateChanged().
+ *
+ * The least recently used trees are evicted once the capacity is reached.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public class ShortestPathTreeCache {
+	/**
+	 * Identifier of a tree.
+	 */
+	static final class Key {
+		private final Class<?> algorithm;
+		private final QueueMode queueMode;
+		private final Node destination;
+		private final Object projection;
+		private final double costBorder;
+		private final boolean pruneOnConstraints;
+		private final double[] constraintsBounds;
+
+		Key(Class<?> algorithm, QueueMode queueMode, Node destination, Object projection, double costBorder, boolean pruneOnConstraints, double[] constraintsBounds) {
+			this.algorithm = algorithm;
+			this.queueMode = queueMode;
+			this.destination = destination;
+			this.projection = projection;
+			this.costBorder = costBorder;
+			this.pruneOnConstraints = pruneOnConstraints;
+			this.constraintsBounds = constraintsBounds;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(this == o)
+				return true;
+			if(!(o instanceof Key))
+				return false;
+			Key other = (Key) o;
+			return algorithm == other.algorithm &&
+					queueMode == other.queueMode &&
+					destination == other.destination &&
+					Double.compare(costBorder, other.costBorder) == 0 &&
+					pruneOnConstraints == other.pruneOnConstraints &&
+					projection.equals(other.projection) &&
+					Arrays.equals(constraintsBounds, other.constraintsBounds);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * Objects.hash(algorithm, queueMode, System.identityHashCode(destination), projection, costBorder, pruneOnConstraints) + Arrays.hashCode(constraintsBounds);
+		}
+	}
+
+	/**
+	 * Tree and state version of the Proxy when it was computed.
+	 */
+	private static final class Entry {
+		private final ShortestPathTree tree;
+		private final long stateVersion;
+
+		private Entry(ShortestPathTree tree, long stateVersion) {
+			this.tree = tree;
+			this.stateVersion = stateVersion;
+		}
+	}
+
+	private final Map<Key, Entry> entries;
+
+	private long hits = 0;
+	private long misses = 0;
+
+	/**
+	 * System notifying the changes of the Metrics, null if none.
+	 */
+	private MetricsChangeSystem metricsChangeSystem = null;
+
+	/**
+	 * Listener added to the MetricsChangeSystem.
+	 */
+	private final Consumer<Graph> metricsListener = graph -> changed();
+
+	/**
+	 * Number of calls to changed(), added to the state versions so that the
+	 * trees computed before a change are not used anymore.
+	 */
+	private final AtomicLong numberOfChanges = new AtomicLong();
+
+	/**
+	 * Creates a cache.
+	 * @param capacity Maximum number of trees kept.
+	 */
+	public ShortestPathTreeCache(int capacity) {
+		this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Creates a cache invalidated by the Edge and Metrics events.
+	 * @param capacity Maximum number of trees kept.
+	 * @param metricsChangeSystem System whose events invalidate the trees.
+	 */
+	public ShortestPathTreeCache(int capacity, MetricsChangeSystem metricsChangeSystem) {
+		this(capacity);
+		this.metricsChangeSystem = metricsChangeSystem;
+		metricsChangeSystem.addListener(metricsListener);
+	}
+
+	/**
+	 * Stops listening to the MetricsChangeSystem given at creation, so that it
+	 * does not hold the cache anymore.
+	 */
+	public void detach() {
+		if(metricsChangeSystem != null)
+			metricsChangeSystem.removeListener(metricsListener);
+		metricsChangeSystem = null;
+	}
+
+	/**
+	 * @param stateVersion State version of the underlying Proxy.
+	 * @return The version with which the trees are stamped: it changes with
+	 *         the state version and with each call to changed().
+	 */
+	long getVersion(long stateVersion) {
+		return stateVersion + numberOfChanges.get();
+	}
+
+	/**
+	 * Signals that the values of the Proxies changed: all the trees are
+	 * dropped.
+	 */
+	public synchronized void changed() {
+		numberOfChanges.incrementAndGet();
+		entries.clear();
+	}
+
+	/**
+	 * Gets a tree.
+	 * @param key Identifier of the tree.
+	 * @param stateVersion Current version (see getVersion()).
+	 * @return The tree, null if it is not cached or is outdated.
+	 */
+	synchronized ShortestPathTree get(Key key, long stateVersion) {
+		Entry entry = entries.get(key);
+		if(entry != null && entry.stateVersion != stateVersion) {
+			entries.remove(key);
+			entry = null;
+		}
+		if(entry == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return entry.tree;
+	}
+
+	/**
+	 * Stores a tree.
+	 * @param key Identifier of the tree.
+	 * @param tree The tree.
+	 * @param stateVersion Version (see getVersion()) before the tree was
+	 *                     computed.
+	 */
+	synchronized void put(Key key, ShortestPathTree tree, long stateVersion) {
+		entries.put(key, new Entry(tree, stateVersion));
+	}
+
+	/**
+	 * Removes all the trees.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * @return The number of trees kept.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return The number of trees found in the cache.
+	 */
+	public synchronized long getNumberOfHits() {
+		return hits;
+	}
+
+	/**
+	 * @return The number of trees that had to be computed.
+	 */
+	public synchronized long getNumberOfMisses() {
+		return misses;
+	}
+}
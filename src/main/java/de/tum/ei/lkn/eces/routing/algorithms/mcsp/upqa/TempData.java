@@ -9,6 +9,8 @@ public class TempData implements Comparable<TempData> {
 	protected int sqnum = 0;
 	private boolean valid;
 	private boolean removeFirst;
+	// Position in the IndexedTempDataHeap currently holding this element (-1 if none).
+	int heapIndex = -1;
 
 	public TempIterablePath getPath() {
 		return path;
@@ -0,0 +1,37 @@
+package de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa;
+
+/**
+ * Priority queue of TempData used by UPQA.
+ *
+ * Adding an element that is already in the queue repositions it according to its (modified) key. Queues that do not
+ * track their elements never report an element as queued, in which case UPQA falls back to lazy deletion (i.e., it
+ * marks the outdated element as visited and inserts a new one).
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public interface TempDataQueue {
+	/**
+	 * Inserts an element or, if it is already queued, restores its position after a key change.
+	 * @param data Element to add.
+	 */
+	void add(TempData data);
+
+	/**
+	 * Retrieves and removes the smallest element.
+	 * @return Smallest element or null if the queue is empty.
+	 */
+	TempData poll();
+
+	boolean isEmpty();
+
+	int size();
+
+	void clear();
+
+	/**
+	 * @param data Element to check.
+	 * @return Whether the element is in the queue and can hence be updated in place.
+	 */
+	boolean isQueued(TempData data);
+}
@@ -1,19 +1,23 @@
 package de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa;
 
 import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.routing.proxies.PathCursor;
 
 import java.util.Iterator;
 
-public class TempIterablePath implements Iterable<Edge>, Iterator<Edge> {
+public class TempIterablePath implements Iterable<Edge>, Iterator<Edge>, PathCursor {
 	private Edge edge;
 	private TempIterablePath presegment = null;
+	private final int depth;
 
 	public TempIterablePath( Edge edge){
 		this.edge = edge;
+		this.depth = edge == null ? 0 : 1;
 	}
 	public TempIterablePath(TempIterablePath path, Edge edge){
-		this(edge);
 		presegment = path;
+		this.edge = edge;
+		this.depth = (path == null ? 0 : path.depth) + (edge == null ? 0 : 1);
 	}
 
 	@Override
@@ -37,6 +41,21 @@ public class TempIterablePath implements Iterable<Edge>, Iterator<Edge> {
 		return edge;
 	}
 
+	@Override
+	public Edge getLastEdge() {
+		return edge;
+	}
+
+	@Override
+	public PathCursor getParent() {
+		return presegment;
+	}
+
+	@Override
+	public int getDepth() {
+		return depth;
+	}
+
 	@Override
 	public Iterator<Edge> iterator() {
 		return new TempIterablePath(presegment, edge);
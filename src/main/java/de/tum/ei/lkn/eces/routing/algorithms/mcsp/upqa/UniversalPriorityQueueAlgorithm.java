@@ -1,16 +1,21 @@
 package de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa;
 
 import de.tum.ei.lkn.eces.core.Controller;
+import de.tum.ei.lkn.eces.core.Entity;
 import de.tum.ei.lkn.eces.core.LocalMapper;
 import de.tum.ei.lkn.eces.graph.Edge;
 import de.tum.ei.lkn.eces.graph.Graph;
 import de.tum.ei.lkn.eces.graph.Node;
 import de.tum.ei.lkn.eces.routing.algorithms.mcsp.MCSPAlgorithm;
+import de.tum.ei.lkn.eces.routing.compiledgraph.CompiledGraph;
+import de.tum.ei.lkn.eces.routing.compiledgraph.CompiledGraphSystem;
+import de.tum.ei.lkn.eces.routing.compiledgraph.IntPriorityQueue;
 import de.tum.ei.lkn.eces.routing.exceptions.UnableToHandleRequestException;
 import de.tum.ei.lkn.eces.routing.interfaces.BD;
 import de.tum.ei.lkn.eces.routing.interfaces.NToOneAlgorithm;
 import de.tum.ei.lkn.eces.routing.interfaces.OneToNAlgorithm;
 import de.tum.ei.lkn.eces.routing.interfaces.SolveUnicastRequest;
+import de.tum.ei.lkn.eces.routing.proxies.EdgeEvaluation;
 import de.tum.ei.lkn.eces.routing.proxies.Proxy;
 import de.tum.ei.lkn.eces.routing.proxies.ProxyTypes;
 import de.tum.ei.lkn.eces.routing.requests.Request;
@@ -49,6 +54,50 @@ public class UniversalPriorityQueueAlgorithm extends MCSPAlgorithm implements So
 	protected LocalMapper<Record> recordLocalMapper;
 	protected int k = 1;
 	private TempData bestResult = null;
+	// Identifier of the current query, used to lazily reset the records.
+	private long epoch = 0;
+	// Arity of the default priority queue.
+	private static final int QUEUE_ARITY = 4;
+	// Priority queue of the current run.
+	private TempDataQueue priorityQueue;
+	// System providing the CompiledGraph snapshots (null if the compiled mode is disabled).
+	private CompiledGraphSystem compiledGraphSystem = null;
+	// Snapshot used by the last run (null if the last run did not use the compiled mode).
+	private CompiledGraph compiledGraph = null;
+	// Per-Node labels of the compiled mode, indexed by Node ID. A Node is reached during the current run iff it is
+	// stamped with the current epoch.
+	private long[] compiledEpochs = new long[0];
+	private double[] compiledCosts;
+	private int[] compiledParentEdges;
+	// Parameters of the Nodes, compiledNumberOfParameters values per Node ID (rows of Nodes reached with null
+	// parameters are flagged instead).
+	private double[] compiledParameters = NO_VALUES;
+	private boolean[] compiledNullParameters;
+	private int compiledNumberOfParameters;
+	// Parameters of the Node being expanded, read from its row.
+	private double[] compiledParameterBuffer = NO_VALUES;
+	private boolean[] compiledVisited;
+	private IntPriorityQueue compiledQueue;
+	// Root and destination Node IDs of the last compiled run (-1 if the destination was not reached).
+	private int compiledRoot;
+	private int compiledResult;
+	// Path given to the proxy in compiled mode: only used for EdgeProxy's, which ignore it.
+	private static final TempIterablePath NO_PATH = new TempIterablePath(null, null);
+	// Evaluation (with buffers) in which the proxy writes the values of a relaxation. They are only copied when the
+	// relaxation succeeds, so that failed relaxations do not create any object.
+	private UnicastRequest bufferedRequest;
+	private Proxy bufferedProxy;
+	private EdgeEvaluation evaluation;
+	private double[] constraintSumBuffer = NO_VALUES;
+	private double[] constraintGuessBuffer = NO_VALUES;
+	private static final double[] NO_VALUES = new double[0];
+	// Whether point-to-point requests are solved by a bidirectional search when possible.
+	private boolean bidirectional = false;
+	protected LocalMapper<BidirectionalRecord> bidirectionalRecordLocalMapper;
+	// Cache of the trees computed by computePathsFromAnyNodeTo() (null if disabled).
+	private ShortestPathTreeCache treeCache = null;
+	// Tree answering getPathToNodeFrom() after computePathsFromAnyNodeTo() used the cache (null otherwise).
+	private ShortestPathTree cachedTree = null;
 
 	public UniversalPriorityQueueAlgorithm(Controller controller, QueueMode queueMode, boolean isForward, boolean guessMode, int k) {
 		super(controller);
@@ -56,6 +105,7 @@ public class UniversalPriorityQueueAlgorithm extends MCSPAlgorithm implements So
 		this.isForward = isForward;
 		this.guessMode = guessMode;
 		recordLocalMapper = controller.getLocalMapper(this, RecordLocal.class);
+		bidirectionalRecordLocalMapper = controller.getLocalMapper(this, BidirectionalRecordLocal.class);
 		if(queueMode == QueueMode.AUTO)
 			autoMode = true;
 		else
@@ -69,6 +119,7 @@ public class UniversalPriorityQueueAlgorithm extends MCSPAlgorithm implements So
 		this.isForward = isForward;
 		this.guessMode = guessMode;
 		recordLocalMapper = controller.getLocalMapper(this, RecordLocal.class);
+		bidirectionalRecordLocalMapper = controller.getLocalMapper(this, BidirectionalRecordLocal.class);
 		if(queueMode == QueueMode.AUTO)
 			autoMode = true;
 		else
@@ -101,32 +152,27 @@ public class UniversalPriorityQueueAlgorithm extends MCSPAlgorithm implements So
 		record.setArray(data);
 	}
 
+	/**
+	 * Starts a new query. Records are stamped with the query during which they were last initialized, and a record
+	 * from an older query is initialized the first time it is accessed (see getRecord()). The setup is hence O(1)
+	 * and the work of a query scales with the part of the graph it visits.
+	 * @param request Request for which the new query is started.
+	 */
 	protected void initDataStructure(UnicastRequest request) {
-		Graph graph = null;
-		if(request.getSource() != null)
-			graph = request.getSource().getGraph();
-		else if(request.getDestination() != null)
-			graph = request.getDestination().getGraph();
-		switch (queueMode) {
-			case EDGE:
-				for (Edge edge : graph.getEdges()) {
-					Record record = recordLocalMapper.get(edge.getEntity());
-					if(!record.hasArray()) {
-						initRecord(record);
-					}
-					record.init();
-				}
-			case PATH_LOOP_DETECTION:
-			case PATH:
-			case NODE:
-				for (Node node :  graph.getNodes()) {
-					Record record = recordLocalMapper.get(node.getEntity());
-					if(!record.hasArray()) {
-						initRecord(record);
-					}
-					record.init();
-				}
-		}
+		epoch++;
+	}
+
+	/**
+	 * Gets the record of an entity (Node or Edge) for the current query.
+	 * @param entity Entity.
+	 * @return Record of the entity, initialized if it was last used during a previous query.
+	 */
+	protected Record getRecord(Entity entity) {
+		Record record = recordLocalMapper.get(entity);
+		if(!record.hasArray())
+			initRecord(record);
+		record.init(epoch);
+		return record;
 	}
 
 	protected void initDataStructure(Node root, UnicastRequest request) {
@@ -136,7 +182,7 @@ public class UniversalPriorityQueueAlgorithm extends MCSPAlgorithm implements So
 		double[] constraints = new double[proxy.getNumberOfConstraints(request)];
 		Arrays.fill(parameters, 0);
 		Arrays.fill(constraints, 0);
-		Record record = recordLocalMapper.get(root.getEntity());
+		Record record = getRecord(root.getEntity());
 		TempData[] rootData = record.getArray();
 		for(int i = 0; i < rootData.length; i++) {
 			rootData[i] = getNewTempData();
@@ -149,10 +195,13 @@ public class UniversalPriorityQueueAlgorithm extends MCSPAlgorithm implements So
 	}
 
 	public void run(Node source, Node destination, UnicastRequest request, Iterable<Edge> path) {
+		compiledGraph = null;
+		cachedTree = null;
 		if(source == destination && !path.iterator().hasNext()) {
 			Record newData = null;
 			TempIterablePath dummy = new TempIterablePath(null,null);
-			newData = recordLocalMapper.get(source.getEntity());
+			initDataStructure(request);
+			newData = getRecord(source.getEntity());
 			int index = newData.getMaxIDnotVisited();
 			newData.getArray()[index] = getNewTempData();
 			newData.getTempData(index).setConstraint(new double[proxy.getNumberOfConstraints(request)]);
@@ -163,22 +212,28 @@ public class UniversalPriorityQueueAlgorithm extends MCSPAlgorithm implements So
 			return;
 		}
 
-		if(autoMode)
-			autoConfigure(request);
-		else if(!this.handle(request))
-			throw new UnableToHandleRequestException("");
+		configure(request);
 
-		PriorityQueue<TempData> pq;
+		if(canRunCompiled(request, path)) {
+			CompiledGraph graph = compiledGraphSystem.getCompiledGraph(source.getGraph());
+			int root = graph.getNodeId(source);
+			if(root != -1) {
+				runCompiled(graph, root, destination == null ? -1 : graph.getNodeId(destination), request);
+				return;
+			}
+		}
+
+		TempDataQueue pq;
 
 		Iterator<Edge> pathInit = path.iterator();
 		if(!pathInit.hasNext()) {
 			initDataStructure(source, request);
-			pq = getPriorityQueue();
+			pq = priorityQueue = getPriorityQueue();
 			populatePriorityQueue(pq, source, request);
 		}
 		else {
 			initDataStructure(request);
-			pq = getPriorityQueue();
+			pq = priorityQueue = getPriorityQueue();
 			TempIterablePath data = null;
 			Edge edge = null;
 			if(isForward()) {
@@ -224,9 +279,9 @@ public class UniversalPriorityQueueAlgorithm extends MCSPAlgorithm implements So
 				if(destination != null && isDestination(data, destination)) {
 					Record newData = null;
 					if(isForward())
-						newData = recordLocalMapper.get(data.getPath().getEdge().getDestination().getEntity());
+						newData = getRecord(data.getPath().getEdge().getDestination().getEntity());
 					else
-						newData = recordLocalMapper.get(data.getPath().getEdge().getSource().getEntity());
+						newData = getRecord(data.getPath().getEdge().getSource().getEntity());
 					if(queueMode != QueueMode.NODE) {
 						int index = newData.getMaxIDnotVisited();
 						newData.getTempData(index).setConstraint(data.getConstraint());
@@ -255,6 +310,13 @@ public class UniversalPriorityQueueAlgorithm extends MCSPAlgorithm implements So
 		}
 	}
 
+	private void configure(UnicastRequest request) {
+		if(autoMode)
+			autoConfigure(request);
+		else if(!this.handle(request))
+			throw new UnableToHandleRequestException("");
+	}
+
 	public void enableStopOnFirstKPath() {
 		stopOnFirstKPath = true;
 	}
@@ -305,27 +367,38 @@ public class UniversalPriorityQueueAlgorithm extends MCSPAlgorithm implements So
 
 
 	protected TempData relax(Edge nextEdge, TempData data, UnicastRequest request, int sqnum, boolean noACCheck) {
-		double[] parameters = proxy.getNewParameters(data.getPath(), nextEdge, data.getParameter(), request, this.isForward());
+		// Parameters, access, cost and constraints of the Edge in a single call to the proxy.
+		prepareBuffers(request);
+		evaluation.setAccessChecked(!noACCheck);
+		if(!proxy.evaluate(data.getPath(), nextEdge, data.getParameter(), request, this.isForward(), evaluation))
+			return null;
+		return relaxEvaluated(nextEdge, data, request, sqnum, evaluation);
+	}
+
+	private TempData relaxEvaluated(Edge nextEdge, TempData data, UnicastRequest request, int sqnum, EdgeEvaluation evaluation) {
+		double[] parameters = evaluation.getParameters();
 		double[] constraints;
-		if((proxy.hasAccess(data.getPath(),nextEdge, parameters, request, this.isForward()) || noACCheck) &&
-				(constraints = relaxPruneOnConstraints(nextEdge, data, request, parameters)) != null &&
-				!relaxPruneOnCost(nextEdge, data, request, parameters, constraints)) {
+		if((constraints = relaxPruneOnConstraints(nextEdge, data, request, parameters, evaluation)) != null &&
+				!relaxPruneOnCost(nextEdge, data, request, parameters, constraints, evaluation)) {
+			// The values are kept by the new TempData: they must not be buffers anymore.
+			parameters = copyOf(parameters);
+			constraints = copyOf(constraints);
 			TempData tempData = null;
-			if(k > 1 && relaxPathLoops(nextEdge, data, request, parameters, constraints) == null)
+			if(k > 1 && relaxPathLoops(nextEdge, data, request, parameters, constraints, evaluation) == null)
 				return null;
 
 			switch (queueMode) {
 				case NODE:
-					tempData = relaxNode(nextEdge, data, request, parameters, constraints);
+					tempData = relaxNode(nextEdge, data, request, parameters, constraints, evaluation);
 					break;
 				case EDGE:
-					tempData = relaxEdge(nextEdge, data, request, parameters, constraints);
+					tempData = relaxEdge(nextEdge, data, request, parameters, constraints, evaluation);
 					break;
 				case PATH_LOOP_DETECTION:
-					tempData = relaxPathLoops(nextEdge, data, request, parameters, constraints);
+					tempData = relaxPathLoops(nextEdge, data, request, parameters, constraints, evaluation);
 					break;
 				case PATH:
-					tempData = relaxPath(nextEdge, data, request, parameters, constraints);
+					tempData = relaxPath(nextEdge, data, request, parameters, constraints, evaluation);
 					break;
 			}
 
@@ -334,7 +407,7 @@ public class UniversalPriorityQueueAlgorithm extends MCSPAlgorithm implements So
 
 			TempIterablePath newPath = new TempIterablePath(data.getPath(), nextEdge);
 			if(queueMode != QueueMode.NODE) {
-				TempData nodeData = relaxNode(nextEdge, data, request, parameters, constraints);
+				TempData nodeData = relaxNode(nextEdge, data, request, parameters, constraints, evaluation);
 				if(nodeData != null) {
 					nodeData.setPath(newPath);
 					nodeData.setParameter(parameters);
@@ -354,14 +427,19 @@ public class UniversalPriorityQueueAlgorithm extends MCSPAlgorithm implements So
 		return null;
 	}
 
-	protected double[] relaxPruneOnConstraints(Edge nextEdge, TempData data, UnicastRequest request, double[] parameters) {
-		double[] newConstraints = proxy.getConstraintsValues(data.getPath(), nextEdge, parameters, request, isForward());
+	protected double[] relaxPruneOnConstraints(Edge nextEdge, TempData data, UnicastRequest request, double[] parameters, EdgeEvaluation evaluation) {
+		double[] constraintsValues;
+		if(evaluation != null)
+			constraintsValues = evaluation.getConstraintsValues();
+		else
+			constraintsValues = proxy.getConstraintsValues(data.getPath(), nextEdge, parameters, request, isForward());
+		double[] newConstraints = constraintSumBuffer = ensureLength(constraintSumBuffer, constraintsValues.length);
 		for (int i = 0; i < newConstraints.length; i++)
-			newConstraints[i] += data.getConstraint()[i];
+			newConstraints[i] = constraintsValues[i] + data.getConstraint()[i];
 		if (this.pruneBasedOnConstraints) {
 			double[] constraints = proxy.getConstraintsBounds(request);
 			if ((constraints != null || constraints.length != 0)) {
-				double[] newConstraintsWithGuess = new double[constraints.length];
+				double[] newConstraintsWithGuess = constraintGuessBuffer = ensureLength(constraintGuessBuffer, constraints.length);
 				for (int i = 0; i < constraints.length; i++) {
 					if (isForward())
 						newConstraintsWithGuess[i] = newConstraints[i] + proxy.getGuessForConstraint(i, nextEdge.getDestination(), request.getDestination());
@@ -374,54 +452,67 @@ public class UniversalPriorityQueueAlgorithm extends MCSPAlgorithm implements So
 		}
 		return newConstraints;
 	}
-	protected TempData relaxNode(Edge nextEdge, TempData data, UnicastRequest request, double[] parameters, double[] newConstraints) {
-		double newCost = computeCost(nextEdge, data, request, parameters, newConstraints);
+	protected TempData relaxNode(Edge nextEdge, TempData data, UnicastRequest request, double[] parameters, double[] newConstraints, EdgeEvaluation evaluation) {
+		double newCost = computeCost(nextEdge, data, request, parameters, newConstraints, evaluation);
 		Record newData = null;
 		if(isForward())
-			newData = recordLocalMapper.get(nextEdge.getDestination().getEntity());
+			newData = getRecord(nextEdge.getDestination().getEntity());
 		else
-			newData = recordLocalMapper.get(nextEdge.getSource().getEntity());
+			newData = getRecord(nextEdge.getSource().getEntity());
 		int index = newData.getMaxIDnotVisited();
 		if(index == -1)
 			return null;
 		TempData tempData = newData.getTempData(index);
-		if(tempData != null) {
-			if(newCost >= tempData.getCost())
-				return null;
-			tempData.setVisited(true);
-		}
-		tempData = getNewTempData();
-		newData.getArray()[index] = tempData;
+		if(tempData != null && newCost >= tempData.getCost())
+			return null;
+		tempData = replaceTempData(newData, index);
 		tempData.setCost(newCost);
 		return tempData;
 	}
 
-	protected TempData relaxEdge(Edge nextEdge, TempData data, UnicastRequest request, double[] parameters, double[] newConstraints) {
-		double newCost = computeCost(nextEdge, data, request, parameters, newConstraints);
-		Record newData = recordLocalMapper.get(nextEdge.getEntity());
+	protected TempData relaxEdge(Edge nextEdge, TempData data, UnicastRequest request, double[] parameters, double[] newConstraints, EdgeEvaluation evaluation) {
+		double newCost = computeCost(nextEdge, data, request, parameters, newConstraints, evaluation);
+		Record newData = getRecord(nextEdge.getEntity());
 		int index = newData.getMaxIDnotVisited();
 		if(index == -1)
 			return null;
 		TempData tempData = newData.getTempData(index);
+		if(tempData != null && newCost >= tempData.getCost())
+			return null;
+		tempData = replaceTempData(newData, index);
+		tempData.setCost(newCost);
+		return tempData;
+	}
+
+	/**
+	 * Gets the TempData replacing the one stored at a given index of a record. If the current one is still in the
+	 * priority queue and the queue supports in-place updates, it is reused (decrease-key) so that at most one entry
+	 * per slot lives in the queue. Otherwise, it is marked as visited (lazy deletion) and a new one is created.
+	 * The caller is responsible for setting all the fields of the returned TempData.
+	 * @param record Record.
+	 * @param index Index of the slot in the record.
+	 * @return TempData to fill and (re-)add to the queue.
+	 */
+	protected TempData replaceTempData(Record record, int index) {
+		TempData tempData = record.getTempData(index);
 		if(tempData != null) {
-			if(newCost >= tempData.getCost())
-				return null;
+			if(priorityQueue != null && priorityQueue.isQueued(tempData))
+				return tempData;
 			tempData.setVisited(true);
 		}
 		tempData = getNewTempData();
-		newData.getArray()[index] = tempData;
-		tempData.setCost(newCost);
+		record.getArray()[index] = tempData;
 		return tempData;
 	}
 
-	protected TempData relaxPath(Edge nextEdge, TempData data, UnicastRequest request, double[] parameters, double[] newConstraints) {
+	protected TempData relaxPath(Edge nextEdge, TempData data, UnicastRequest request, double[] parameters, double[] newConstraints, EdgeEvaluation evaluation) {
 		TempData tempData = this.getNewTempData();
-		tempData.setCost(computeCost(nextEdge, data, request, parameters, newConstraints));
+		tempData.setCost(computeCost(nextEdge, data, request, parameters, newConstraints, evaluation));
 		return tempData;
 	}
 
-	protected TempData relaxPathLoops(Edge nextEdge, TempData data, UnicastRequest request, double[] parameters, double[] newConstraints) {
-		TempData tempData = relaxPath( nextEdge, data, request, parameters, newConstraints);
+	protected TempData relaxPathLoops(Edge nextEdge, TempData data, UnicastRequest request, double[] parameters, double[] newConstraints, EdgeEvaluation evaluation) {
+		TempData tempData = relaxPath(nextEdge, data, request, parameters, newConstraints, evaluation);
 		Node newNode = null;
 		if(data.getPath() != null) {
 			if(isForward()) {
@@ -445,18 +536,18 @@ public class UniversalPriorityQueueAlgorithm extends MCSPAlgorithm implements So
 		return tempData;
 	}
 
-	protected boolean relaxPruneOnCost(Edge nextEdge, TempData data, UnicastRequest request, double[] parameters, double[] newConstraints) {
+	protected boolean relaxPruneOnCost(Edge nextEdge, TempData data, UnicastRequest request, double[] parameters, double[] newConstraints, EdgeEvaluation evaluation) {
 		if(this.pruneBasedOnCost) {
 			double pcost;
 			if (isForward()) {
-				pcost = computeCost(nextEdge, data, request, parameters, newConstraints);
+				pcost = computeCost(nextEdge, data, request, parameters, newConstraints, evaluation);
 				if(guessMode)
 					pcost += this.proxy.getGuessForCost(nextEdge.getDestination(), request.getDestination());
 			}
 			else {
-				pcost = computeCost(nextEdge, data, request, parameters, newConstraints);
+				pcost = computeCost(nextEdge, data, request, parameters, newConstraints, evaluation);
 				if(guessMode)
-					pcost += this.proxy.getGuessForCost(nextEdge.getSource(), request.getSource());
+					pcost += this.proxy.getGuessForCost(request.getSource(), nextEdge.getSource());
 			}
 
 			if(Proxy.violatesBound(pcost, costBorder))
@@ -471,14 +562,45 @@ public class UniversalPriorityQueueAlgorithm extends MCSPAlgorithm implements So
 			if (isForward())
 				((TempDataGuess) newTempData).setGuess(proxy.getGuessForCost(newPath.getEdge().getDestination(), request.getDestination()));
 			else
-				((TempDataGuess) newTempData).setGuess(proxy.getGuessForCost(newPath.getEdge().getSource(), request.getSource()));
+				((TempDataGuess) newTempData).setGuess(proxy.getGuessForCost(request.getSource(), newPath.getEdge().getSource()));
 		}
 	}
 
-	protected double computeCost(Edge nextEdge, TempData data, UnicastRequest request, double[] parameters, double[] newConstraints) {
+	/**
+	 * Computes the cost of the Path of data extended by nextEdge.
+	 * @param evaluation Evaluation of nextEdge from which its cost is read
+	 *                   (null to ask the proxy).
+	 */
+	protected double computeCost(Edge nextEdge, TempData data, UnicastRequest request, double[] parameters, double[] newConstraints, EdgeEvaluation evaluation) {
+		if(evaluation != null)
+			return data.getCost() + evaluation.getCost();
 		return data.getCost() + proxy.getCost(data.getPath(), nextEdge, parameters, request, this.isForward());
 	}
 
+	/**
+	 * Allocates the relaxation evaluation for a Request (only if the Request or the proxy changed).
+	 */
+	private void prepareBuffers(UnicastRequest request) {
+		if(request == bufferedRequest && proxy == bufferedProxy)
+			return;
+		bufferedRequest = request;
+		bufferedProxy = proxy;
+		evaluation = new EdgeEvaluation(proxy.getNumberOfParameters(request), proxy.getNumberOfConstraints(request));
+	}
+
+	private static double[] ensureLength(double[] buffer, int length) {
+		return buffer.length == length ? buffer : new double[length];
+	}
+
+	/**
+	 * Copies values computed in a buffer (or owned by the proxy) so that they can be kept.
+	 */
+	private static double[] copyOf(double[] values) {
+		if(values == null)
+			return null;
+		return values.length == 0 ? NO_VALUES : values.clone();
+	}
+
 	private boolean isDestination(TempData data, Node destination) {
 		if(data.getPath() != null && data.getPath().getEdge() != null) {
 			if(isForward())
@@ -488,7 +610,7 @@ public class UniversalPriorityQueueAlgorithm extends MCSPAlgorithm implements So
 		return false;
 	}
 
-	private void populatePriorityQueue(PriorityQueue<TempData> pq , Node root, UnicastRequest request) {
+	private void populatePriorityQueue(TempDataQueue pq , Node root, UnicastRequest request) {
 		TempIterablePath dummy = new TempIterablePath(null,null);
 		TempData data = getNewTempData();
 		data.init();
@@ -512,7 +634,11 @@ public class UniversalPriorityQueueAlgorithm extends MCSPAlgorithm implements So
 	}
 
 	private List<Edge> getEdgeList(Node root) {
-		if(isForward())
+		return getEdgeList(root, isForward());
+	}
+
+	private List<Edge> getEdgeList(Node root, boolean isForward) {
+		if(isForward)
 			return root.getOutgoingConnections();
 		return  root.getIncomingConnections();
 	}
@@ -565,15 +691,25 @@ public class UniversalPriorityQueueAlgorithm extends MCSPAlgorithm implements So
 	}
 
 	public Path computePath(UnicastRequest request, Iterable<Edge> path) {
+		cachedTree = null;
+		if(bidirectional && request.getSource() != request.getDestination() && !path.iterator().hasNext()) {
+			configure(request);
+			if(canRunBidirectional(request))
+				return runBidirectional(request);
+		}
+
 		Record record;
 		if(isForward()) {
 			run(request.getSource(), request.getDestination(), request, path);
-			record = recordLocalMapper.get(request.getDestination().getEntity());
+			record = getRecord(request.getDestination().getEntity());
 		} else {
 			run(request.getDestination(), request.getSource(), request, path);
-			record = recordLocalMapper.get(request.getSource().getEntity());
+			record = getRecord(request.getSource().getEntity());
 		}
 
+		if(compiledGraph != null)
+			return compiledResult == -1 ? null : getCompiledPath(compiledResult, isForward());
+
 		TempData data = bestResult;
 		if(data == null || data.getPath() == null) {
 			return null;
@@ -648,14 +784,94 @@ public class UniversalPriorityQueueAlgorithm extends MCSPAlgorithm implements So
 
 	@Override
 	public void computePathsFromAnyNodeTo(Node destination, Request request) {
+		cachedTree = null;
 		if(this.getProxy().handle(request, false)) {
+			ShortestPathTreeCache.Key key = null;
+			long stateVersion = 0;
+			if(canUseTreeCache()) {
+				key = getTreeKey(destination, (UnicastRequest) request);
+				stateVersion = treeCache.getVersion(proxy.getProxy().getStateVersion());
+				ShortestPathTree tree = treeCache.get(key, stateVersion);
+				if(tree != null) {
+					cachedTree = tree;
+					return;
+				}
+			}
+
 			boolean save = isForward;
 			isForward = false;
 			run(destination, null, ((UnicastRequest)request), new LinkedList<>());
 			isForward = save;
+
+			if(key != null) {
+				cachedTree = captureTree(destination);
+				treeCache.put(key, cachedTree, stateVersion);
+			}
 		}
 	}
 
+	/**
+	 * Lets computePathsFromAnyNodeTo() take the trees from a cache (possibly
+	 * shared with other algorithms) and store the trees it computes in it.
+	 * This only applies to k = 1 and without guesses. Other runs silently
+	 * compute the trees.
+	 * @param cache Cache of trees.
+	 */
+	public void enableShortestPathTreeCache(ShortestPathTreeCache cache) {
+		this.treeCache = cache;
+	}
+
+	/**
+	 * Lets computePathsFromAnyNodeTo() always compute the trees.
+	 */
+	public void disableShortestPathTreeCache() {
+		this.treeCache = null;
+		this.cachedTree = null;
+	}
+
+	private boolean canUseTreeCache() {
+		return treeCache != null && k == 1 && !guessMode;
+	}
+
+	private ShortestPathTreeCache.Key getTreeKey(Node destination, UnicastRequest request) {
+		return new ShortestPathTreeCache.Key(getClass(),
+				queueMode,
+				destination,
+				proxy.getProjection(),
+				pruneBasedOnCost ? costBorder : Double.POSITIVE_INFINITY,
+				pruneBasedOnConstraints,
+				proxy.getConstraintsBounds(request));
+	}
+
+	/**
+	 * Keeps the labels of the last run.
+	 * @param root Root of the run.
+	 * @return The tree of the run.
+	 */
+	private ShortestPathTree captureTree(Node root) {
+		if(compiledGraph != null)
+			return new ShortestPathTree(compiledGraph, compiledEpochs, epoch, compiledCosts, compiledParentEdges, compiledParameters, compiledNullParameters, compiledNumberOfParameters);
+
+		Map<Node, TempData> labels = new IdentityHashMap<>();
+		for(Node node : root.getGraph().getNodes()) {
+			Record record = getRecord(node.getEntity());
+			int minID = record.getMinID();
+			if(minID == -1)
+				continue;
+			TempData data = record.getTempData(minID);
+			if(data == null)
+				continue;
+			// Records are reused by the next runs: the label is copied (not the values it refers to).
+			TempData label = new TempData();
+			label.setPath(data.getPath());
+			label.setCost(data.getCost());
+			label.setConstraint(data.getConstraint());
+			label.setParameter(data.getParameter());
+			labels.put(node, label);
+		}
+		return new ShortestPathTree(labels);
+	}
+
 	@Override
 	public Path getPathToNodeFrom(Node source) {
 		return getPathX(source, false);
@@ -667,7 +883,15 @@ public class UniversalPriorityQueueAlgorithm extends MCSPAlgorithm implements So
 	}
 
 	private Path getPathX(Node source, boolean direct) {
-		Record record = recordLocalMapper.get(source.getEntity());
+		if(cachedTree != null)
+			return cachedTree.getPath(source, direct);
+		if(compiledGraph != null) {
+			int node = compiledGraph.getNodeId(source);
+			if(node == -1 || compiledEpochs[node] != epoch)
+				return null;
+			return getCompiledPath(node, direct);
+		}
+		Record record = getRecord(source.getEntity());
 		int minID = record.getMinID();
 		if(minID == -1)
 			return null;
@@ -700,7 +924,7 @@ public class UniversalPriorityQueueAlgorithm extends MCSPAlgorithm implements So
 	}
 
 	private Set<Path> getkPathX(Node node, boolean direct) {
-		Record record = recordLocalMapper.get(node.getEntity());
+		Record record = getRecord(node.getEntity());
 		SortedSet<Path> result = new TreeSet<>((o1, o2) -> {
 			if (o2 == null)
 				return -1;
@@ -716,6 +940,12 @@ public class UniversalPriorityQueueAlgorithm extends MCSPAlgorithm implements So
 				return 1;
 			return 0;
 		});
+		if(cachedTree != null || compiledGraph != null) {
+			Path path = getPathX(node, direct);
+			if(path != null)
+				result.add(path);
+			return result;
+		}
 		for(int i = 0; i < k; i++) {
 			TempData data = record.getTempData(i);
 			if(data != null && data.getPath() != null )
@@ -728,8 +958,337 @@ public class UniversalPriorityQueueAlgorithm extends MCSPAlgorithm implements So
 		return result;
 	}
 
-	public PriorityQueue<TempData> getPriorityQueue() {
-		return  new PriorityQueue<>();
+	/**
+	 * Lets runs use the CompiledGraph snapshot of the Graph provided by a
+	 * CompiledGraphSystem: labels are then stored in primitive arrays indexed
+	 * by Node ID and the queue holds Node IDs. This only applies to runs
+	 * equivalent to a plain Dijkstra/A* on Nodes (EdgeProxy, NODE queue mode,
+	 * k = 1, no constraint and no initial path). Other runs silently use the
+	 * generic code.
+	 * @param compiledGraphSystem System providing the snapshots.
+	 */
+	public void enableCompiledGraphMode(CompiledGraphSystem compiledGraphSystem) {
+		this.compiledGraphSystem = compiledGraphSystem;
+	}
+
+	public void disableCompiledGraphMode() {
+		this.compiledGraphSystem = null;
+	}
+
+	private boolean canRunCompiled(UnicastRequest request, Iterable<Edge> path) {
+		return compiledGraphSystem != null &&
+				k == 1 &&
+				queueMode == QueueMode.NODE &&
+				proxy.getType() == ProxyTypes.EDGE_PROXY &&
+				proxy.getNumberOfConstraints(request) == 0 &&
+				!path.iterator().hasNext();
+	}
+
+	/**
+	 * Same search as run() in NODE queue mode for k = 1, on the Node IDs of a
+	 * CompiledGraph. Ties are broken the same way so that both modes return
+	 * the same paths.
+	 * @param graph Snapshot of the Graph.
+	 * @param root ID of the Node from which the search starts.
+	 * @param target ID of the Node at which the search stops (-1 for none).
+	 * @param request Request.
+	 */
+	private void runCompiled(CompiledGraph graph, int root, int target, UnicastRequest request) {
+		initDataStructure(request);
+		prepareCompiledLabels(graph, request);
+		compiledGraph = graph;
+		compiledRoot = root;
+		compiledResult = -1;
+
+		compiledEpochs[root] = epoch;
+		compiledVisited[root] = false;
+		compiledCosts[root] = 0;
+		compiledParentEdges[root] = -1;
+		Arrays.fill(compiledParameters, root * compiledNumberOfParameters, (root + 1) * compiledNumberOfParameters, 0);
+		compiledNullParameters[root] = false;
+		IntPriorityQueue pq = compiledQueue;
+		pq.clear();
+
+		// The root is expanded with null parameters, as in populatePriorityQueue().
+		relaxCompiled(root, null, 0, pq, request);
+		int sqnum = 0;
+		while(!pq.isEmpty()) {
+			int node = pq.poll();
+			if(compiledVisited[node])
+				continue;
+			if(node == target) {
+				compiledResult = node;
+				break;
+			}
+			sqnum = relaxCompiled(node, readCompiledParameters(node), sqnum, pq, request);
+			compiledVisited[node] = true;
+		}
+		pq.clear();
+	}
+
+	/**
+	 * Relaxes all the Edges leaving (or, backward, entering) a Node.
+	 * @return Sequence number to use for the next successful relaxation.
+	 */
+	private int relaxCompiled(int node, double[] parameters, int sqnum, IntPriorityQueue pq, UnicastRequest request) {
+		CompiledGraph graph = compiledGraph;
+		boolean forward = isForward();
+		int end = graph.getAdjacentEnd(node, forward);
+		prepareBuffers(request);
+		evaluation.setAccessChecked(true);
+		for(int i = graph.getAdjacentStart(node, forward); i < end; i++) {
+			int edgeId = graph.getAdjacentEdge(i, forward);
+			Edge edge = graph.getEdge(edgeId);
+			if(!proxy.evaluate(NO_PATH, edge, parameters, request, forward, evaluation))
+				continue;
+			double[] newParameters = evaluation.getParameters();
+			double newCost = compiledCosts[node] + evaluation.getCost();
+			int next = graph.getOpposite(edgeId, forward);
+			double guess = getBidirectionalGuess(graph.getNode(next), forward, request);
+			if(pruneBasedOnCost && Proxy.violatesBound(newCost + guess, costBorder))
+				continue;
+			if(compiledEpochs[next] == epoch && (compiledVisited[next] || newCost >= compiledCosts[next]))
+				continue;
+			compiledEpochs[next] = epoch;
+			compiledVisited[next] = false;
+			compiledCosts[next] = newCost;
+			compiledParentEdges[next] = edgeId;
+			compiledNullParameters[next] = newParameters == null;
+			if(newParameters != null)
+				System.arraycopy(newParameters, 0, compiledParameters, next * compiledNumberOfParameters, compiledNumberOfParameters);
+			if(guessMode)
+				pq.add(next, newCost + guess, -newCost, node == compiledRoot ? 0 : sqnum);
+			else
+				pq.add(next, newCost, 0, node == compiledRoot ? 0 : sqnum);
+			if(node != compiledRoot)
+				sqnum++;
+		}
+		return sqnum;
+	}
+
+	private void prepareCompiledLabels(CompiledGraph graph, UnicastRequest request) {
+		int n = graph.getNumberOfNodes();
+		if(compiledEpochs.length < n) {
+			compiledEpochs = new long[n];
+			compiledCosts = new double[n];
+			compiledParentEdges = new int[n];
+			compiledNullParameters = new boolean[n];
+			compiledVisited = new boolean[n];
+		}
+		compiledNumberOfParameters = proxy.getNumberOfParameters(request);
+		if(compiledParameters.length < n * compiledNumberOfParameters)
+			compiledParameters = new double[n * compiledNumberOfParameters];
+		compiledParameterBuffer = ensureLength(compiledParameterBuffer, compiledNumberOfParameters);
+		if(compiledQueue == null)
+			compiledQueue = new IntPriorityQueue(QUEUE_ARITY, n);
+		else
+			compiledQueue.ensureCapacity(n);
+	}
+
+	/**
+	 * @return The parameters of a Node in a buffer, valid until the next call.
+	 */
+	private double[] readCompiledParameters(int node) {
+		if(compiledNullParameters[node])
+			return null;
+		System.arraycopy(compiledParameters, node * compiledNumberOfParameters, compiledParameterBuffer, 0, compiledNumberOfParameters);
+		return compiledParameterBuffer;
+	}
+
+	private Path getCompiledPath(int node, boolean direct) {
+		return new Path(compiledGraph.getPath(node, compiledParentEdges, direct),
+				compiledCosts[node],
+				new double[0],
+				compiledNullParameters[node] ? null : Arrays.copyOfRange(compiledParameters, node * compiledNumberOfParameters, (node + 1) * compiledNumberOfParameters));
+	}
+
+	/**
+	 * Lets point-to-point requests (computePath()) be solved by a bidirectional
+	 * search: a forward search from the source and a backward search from the
+	 * destination are run alternately until no path shorter than the best one
+	 * found where they meet can exist. This only applies to requests for which
+	 * the backward search is equivalent to the forward one, i.e., EdgeProxy
+	 * and NODE queue mode, k = 1 and no constraint. Other requests silently
+	 * use the unidirectional search.
+	 *
+	 * In guess mode (A*), both searches use the average of the forward and
+	 * backward guesses, which requires consistent guesses to be optimal.
+	 */
+	public void enableBidirectionalMode() {
+		this.bidirectional = true;
+	}
+
+	public void disableBidirectionalMode() {
+		this.bidirectional = false;
+	}
+
+	private boolean canRunBidirectional(UnicastRequest request) {
+		return k == 1 &&
+				queueMode == QueueMode.NODE &&
+				proxy.getType() == ProxyTypes.EDGE_PROXY &&
+				proxy.getNumberOfConstraints(request) == 0;
+	}
+
+	private Path runBidirectional(UnicastRequest request) {
+		initDataStructure(request);
+		prepareBuffers(request);
+		evaluation.setAccessChecked(true);
+		compiledGraph = null;
+		bestResult = null;
+		Node source = request.getSource();
+		Node destination = request.getDestination();
+
+		TempData forwardRoot = initBidirectionalRoot(source, true, request);
+		TempData backwardRoot = initBidirectionalRoot(destination, false, request);
+		TempDataQueue forwardQueue = getPriorityQueue();
+		TempDataQueue backwardQueue = getPriorityQueue();
+		forwardQueue.add(forwardRoot);
+		backwardQueue.add(backwardRoot);
+
+		// Best path found so far: a forward part ending at a Node and a backward part starting at the same Node.
+		double bestCost = Double.MAX_VALUE;
+		TempIterablePath bestForwardPath = null;
+		TempIterablePath bestBackwardPath = null;
+
+		// Keys of the last Nodes settled in each direction, lower bounds for the keys still queued.
+		double forwardKey = getKey(forwardRoot);
+		double backwardKey = getKey(backwardRoot);
+		int[] sqnums = new int[2];
+		boolean forward = true;
+		while(!forwardQueue.isEmpty() && !backwardQueue.isEmpty()) {
+			TempDataQueue pq = forward ? forwardQueue : backwardQueue;
+			TempData data = pq.poll();
+			if(data.isVisited())
+				continue;
+			data.setVisited(true);
+
+			double key = getKey(data);
+			if(forward)
+				forwardKey = key;
+			else
+				backwardKey = key;
+			if(bestCost != Double.MAX_VALUE && forwardKey + backwardKey >= bestCost)
+				break;
+
+			Node node = getBidirectionalNode(data, forward, source, destination);
+			for(Edge nextEdge : getEdgeList(node, forward)) {
+				if(!proxy.evaluate(data.getPath(), nextEdge, data.getParameter(), request, forward, evaluation))
+					continue;
+				double[] parameters = evaluation.getParameters();
+				double newCost = data.getCost() + evaluation.getCost();
+				Node nextNode = forward ? nextEdge.getDestination() : nextEdge.getSource();
+				if(pruneBasedOnCost && Proxy.violatesBound(newCost + getBidirectionalGuess(nextNode, forward, request), costBorder))
+					continue;
+
+				BidirectionalRecord record = getBidirectionalRecord(nextNode);
+				TempIterablePath newPath = new TempIterablePath(data.getPath(), nextEdge);
+
+				// Meeting with the other search.
+				TempData other = record.getTempData(!forward);
+				if(other != null && newCost + other.getCost() < bestCost) {
+					bestCost = newCost + other.getCost();
+					bestForwardPath = forward ? newPath : other.getPath();
+					bestBackwardPath = forward ? other.getPath() : newPath;
+				}
+
+				TempData nextData = record.getTempData(forward);
+				if(nextData != null && (nextData.isVisited() || newCost >= nextData.getCost()))
+					continue;
+				if(nextData == null || !pq.isQueued(nextData)) {
+					if(nextData != null)
+						nextData.setVisited(true);
+					nextData = getNewTempData();
+					record.setTempData(forward, nextData);
+				}
+				nextData.setCost(newCost);
+				nextData.setPath(newPath);
+				nextData.setParameter(copyOf(parameters));
+				nextData.setConstraint(NO_VALUES);
+				nextData.setSqnum(sqnums[forward ? 0 : 1]++);
+				if(guessMode)
+					((TempDataGuess) nextData).setGuess(getBidirectionalPotential(nextNode, forward, request));
+				pq.add(nextData);
+			}
+
+			forward = !forward;
+		}
+
+		if(bestForwardPath == null || (pruneBasedOnCost && Proxy.violatesBound(bestCost, costBorder)))
+			return null;
+
+		// The forward part is iterated from the meeting Node back to the source.
+		LinkedList<Edge> edges = new LinkedList<>();
+		for(Edge edge : bestForwardPath)
+			edges.addFirst(edge);
+		for(Edge edge : bestBackwardPath)
+			edges.addLast(edge);
+
+		// Parameters are those of the source -> destination path.
+		double[] parameters = null;
+		LinkedList<Edge> prefix = new LinkedList<>();
+		for(Edge edge : edges) {
+			parameters = proxy.getNewParameters(prefix, edge, parameters, request, true);
+			prefix.addFirst(edge);
+		}
+		return new Path(edges.toArray(new Edge[0]), bestCost, new double[0], parameters);
+	}
+
+	private TempData initBidirectionalRoot(Node root, boolean isForward, UnicastRequest request) {
+		TempData data = getNewTempData();
+		data.init();
+		data.setCost(0.0);
+		data.setConstraint(new double[0]);
+		data.setPath(new TempIterablePath(null, null));
+		if(guessMode)
+			((TempDataGuess) data).setGuess(getBidirectionalPotential(root, isForward, request));
+		getBidirectionalRecord(root).setTempData(isForward, data);
+		return data;
+	}
+
+	private BidirectionalRecord getBidirectionalRecord(Node node) {
+		BidirectionalRecord record = bidirectionalRecordLocalMapper.get(node.getEntity());
+		record.init(epoch);
+		return record;
+	}
+
+	private Node getBidirectionalNode(TempData data, boolean isForward, Node source, Node destination) {
+		Edge edge = data.getPath().getEdge();
+		if(edge == null)
+			return isForward ? source : destination;
+		return isForward ? edge.getDestination() : edge.getSource();
+	}
+
+	private double getKey(TempData data) {
+		if(guessMode)
+			return ((TempDataGuess) data).getSum();
+		return data.getCost();
+	}
+
+	/**
+	 * Guess of the cost from a Node to the destination (forward) or from the source to a Node (backward).
+	 */
+	private double getBidirectionalGuess(Node node, boolean isForward, UnicastRequest request) {
+		if(!guessMode)
+			return 0;
+		if(isForward)
+			return proxy.getGuessForCost(node, request.getDestination());
+		return proxy.getGuessForCost(request.getSource(), node);
+	}
+
+	/**
+	 * Average potential used as guess by both searches so that their keys stay consistent with each other.
+	 */
+	private double getBidirectionalPotential(Node node, boolean isForward, UnicastRequest request) {
+		double potential = (getBidirectionalGuess(node, true, request) - getBidirectionalGuess(node, false, request)) / 2;
+		return isForward ? potential : -potential;
+	}
+
+	/**
+	 * Creates the priority queue used by a run. By default, an indexed d-ary heap with in-place key updates.
+	 * @return New empty queue.
+	 */
+	public TempDataQueue getPriorityQueue() {
+		return new IndexedTempDataHeap(QUEUE_ARITY);
 	}
 
 	public void processResults(Record newData) {
@@ -2,14 +2,15 @@ package de.tum.ei.lkn.eces.routing.algorithms.sp.ksp;
 
 import de.tum.ei.lkn.eces.core.Controller;
 import de.tum.ei.lkn.eces.routing.algorithms.sp.SPAlgorithm;
+import de.tum.ei.lkn.eces.routing.exceptions.RoutingException;
 import de.tum.ei.lkn.eces.routing.interfaces.SolveUnicastRequest;
 import de.tum.ei.lkn.eces.routing.requests.Request;
 import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
 import de.tum.ei.lkn.eces.routing.responses.Path;
 import de.tum.ei.lkn.eces.routing.responses.Response;
 
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -22,15 +23,89 @@ import java.util.Map;
  */
 public abstract class KSPAlgorithm extends SPAlgorithm implements SolveUnicastRequest {
 	/**
-	 * Last Iterator created for each request.
+	 * Default maximum number of Iterators kept.
+	 */
+	public static final int DEFAULT_MAXIMUM_NUMBER_OF_ITERATORS = 1024;
+
+	/**
+	 * Last Iterator created for each request, from the least to the most
+	 * recently used.
 	 * This allows to call next() after getPath() and obtain the second
 	 * shortest path, avoiding to recompute the first one.
+	 * Each Iterator keeps its candidate Paths: the least recently used ones
+	 * are dropped once maximumNumberOfIterators is reached.
 	 */
 	private Map<UnicastRequest, Iterator<Path>> iterators;
 
+	/**
+	 * Maximum number of Iterators kept.
+	 */
+	private int maximumNumberOfIterators = DEFAULT_MAXIMUM_NUMBER_OF_ITERATORS;
+
 	protected KSPAlgorithm(Controller controller) {
 		super(controller);
-		iterators = new HashMap<>();
+		iterators = new LinkedHashMap<UnicastRequest, Iterator<Path>>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<UnicastRequest, Iterator<Path>> eldest) {
+				return size() > maximumNumberOfIterators;
+			}
+		};
+	}
+
+	/**
+	 * Sets the maximum number of Iterators kept for getCurrentIterator().
+	 * The least recently used ones are dropped first.
+	 * @param maximumNumberOfIterators Maximum number of Iterators.
+	 */
+	public synchronized void setMaximumNumberOfIterators(int maximumNumberOfIterators) {
+		if(maximumNumberOfIterators < 0)
+			throw new RoutingException("The maximum number of iterators cannot be negative.");
+		this.maximumNumberOfIterators = maximumNumberOfIterators;
+		Iterator<UnicastRequest> requests = iterators.keySet().iterator();
+		while(iterators.size() > maximumNumberOfIterators) {
+			requests.next();
+			requests.remove();
+		}
+	}
+
+	/**
+	 * Drops the Iterator kept for a Request (and the Paths it holds).
+	 * @param request Request.
+	 */
+	public synchronized void release(UnicastRequest request) {
+		iterators.remove(request);
+	}
+
+	/**
+	 * Drops all the Iterators kept.
+	 */
+	public synchronized void releaseAll() {
+		iterators.clear();
+	}
+
+	/**
+	 * @return The number of Iterators kept.
+	 */
+	public synchronized int getNumberOfLiveIterators() {
+		return iterators.size();
+	}
+
+	/**
+	 * @return The number of Paths held by the Iterators kept.
+	 */
+	public synchronized int getNumberOfRetainedPaths() {
+		int result = 0;
+		for(Iterator<Path> iterator : iterators.values())
+			result += getNumberOfRetainedPaths(iterator);
+		return result;
+	}
+
+	/**
+	 * @param iterator Iterator created by iterator().
+	 * @return The number of Paths held by the Iterator.
+	 */
+	protected int getNumberOfRetainedPaths(Iterator<Path> iterator) {
+		return 0;
 	}
 
 	@Override
@@ -51,7 +126,9 @@ public abstract class KSPAlgorithm extends SPAlgorithm implements SolveUnicastRe
 	protected Path computePath(UnicastRequest request) {
 		// The shortest path is the first path of a new iterator.
 		Iterator<Path> iterator = this.iterator(request);
-		this.iterators.put(request, iterator);
+		synchronized(this) {
+			this.iterators.put(request, iterator);
+		}
 		return iterator.next();
 	}
 
@@ -60,15 +137,19 @@ public abstract class KSPAlgorithm extends SPAlgorithm implements SolveUnicastRe
 	 * Request.
 	 * If no Iterator was created yet, one is created.
 	 * Iterators created using the iterator() method are not considered
-	 * by this function.
+	 * by this function. The returned Iterator is not the one of the last
+	 * getPath() call anymore if it was released or dropped in the meantime.
 	 * @param request Request.
 	 * @return Iterator.
 	 */
-	public Iterator<Path> getCurrentIterator(UnicastRequest request) {
-		if(!iterators.containsKey(request))
-			this.iterators.put(request, this.iterator(request));
+	public synchronized Iterator<Path> getCurrentIterator(UnicastRequest request) {
+		Iterator<Path> iterator = this.iterators.get(request);
+		if(iterator == null) {
+			iterator = this.iterator(request);
+			this.iterators.put(request, iterator);
+		}
 
-		return this.iterators.get(request);
+		return iterator;
 	}
 
 	/**
@@ -0,0 +1,25 @@
+package de.tum.ei.lkn.eces.routing.algorithms.sp.ksp.yen;
+
+import de.tum.ei.lkn.eces.routing.responses.Path;
+
+import java.util.Iterator;
+
+/**
+ * Iterator over the shortest paths of a Request created by the YenAlgorithm.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+interface KSPIterator extends Iterator<Path> {
+	/**
+	 * Returns the number of Paths already returned.
+	 * @return k.
+	 */
+	int getK();
+
+	/**
+	 * Returns the number of Paths held (candidates and last Path found).
+	 * @return Number of Paths.
+	 */
+	int getNumberOfRetainedPaths();
+}
@@ -0,0 +1,343 @@
+package de.tum.ei.lkn.eces.routing.algorithms.sp.ksp.yen;
+
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.graph.Node;
+import de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.astar.AStarAlgorithm;
+import de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.dijkstra.DijkstraAlgorithm;
+import de.tum.ei.lkn.eces.routing.proxies.ArrayHeadPath;
+import de.tum.ei.lkn.eces.routing.proxies.PathCursor;
+import de.tum.ei.lkn.eces.routing.proxies.PathProxy;
+import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
+import de.tum.ei.lkn.eces.routing.responses.Path;
+
+import java.util.*;
+
+/**
+ * Iterator of the YenAlgorithm in lazy mode.
+ *
+ * The shortest-path tree toward the destination is computed once and gives,
+ * for each deviation (root path and spur Node), a lower bound on the cost of
+ * the best Path using it. Deviations are kept in the candidates with this
+ * bound and their spur path is only computed once no cheaper candidate is
+ * left: deviations whose bound exceeds the cost of the next Path are never
+ * searched. If the tree path of the spur Node does not use any blocked Node
+ * or Edge, it is the best spur path and no search is needed (see
+ * "Finding the k Shortest Simple Paths: A New Algorithm and its
+ * Implementation", J. Hershberger, M. Maxel, S. Suri, 2007).
+ *
+ * Root paths are identified by a prefix of a Path found instead of a copy of
+ * their Edges. The bounds are only correct if the cost of an Edge does not
+ * depend on the previous Edges, i.e., for an EdgeProxy.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+class LazyYenKSPIterator implements KSPIterator {
+	/**
+	 * Algorithm used for the spur paths not given by the tree.
+	 */
+	private AStarAlgorithm algorithm;
+
+	/**
+	 * Proxy used to block the elements of a deviation.
+	 */
+	private BlockingProxy blockProxy;
+
+	/**
+	 * Algorithm computing the shortest-path tree toward the destination.
+	 */
+	private DijkstraAlgorithm treeAlgorithm;
+
+	/**
+	 * Proxy of the YenAlgorithm.
+	 */
+	private PathProxy proxy;
+
+	/**
+	 * Request for which the kSP have to be found.
+	 */
+	private UnicastRequest request;
+
+	/**
+	 * Next Edge toward the destination and cost to the destination of the
+	 * Nodes reached by the tree (computed by the first hasNext() call).
+	 */
+	private Map<Node, Edge> treeEdges;
+	private Map<Node, Double> treeCosts;
+
+	/**
+	 * Paths found and deviations not computed yet, by (lower bound of)
+	 * cost.
+	 */
+	private PriorityQueue<Candidate> candidates = new PriorityQueue<>();
+
+	/**
+	 * Paths currently in the candidates (each Path is kept once).
+	 */
+	private Set<Path> candidatePaths = new HashSet<>();
+
+	/**
+	 * Stores the currently blocked elements for each root path.
+	 */
+	private Map<Prefix, NodesAndEdgesSet> blockedElements = new HashMap<>();
+
+	/**
+	 * Stores the latest Path found.
+	 */
+	private Path lastResult;
+
+	/**
+	 * Current number of Paths returned by next().
+	 */
+	private int k;
+
+	/**
+	 * Current number of Paths computed by hasNext().
+	 */
+	private int computedK;
+
+	/**
+	 * Number of candidates created (orders the candidates of equal cost).
+	 */
+	private long numberOfCandidates;
+
+	LazyYenKSPIterator(AStarAlgorithm algorithm, BlockingProxy blockProxy, DijkstraAlgorithm treeAlgorithm, PathProxy proxy, UnicastRequest request) {
+		this.algorithm = algorithm;
+		this.blockProxy = blockProxy;
+		this.treeAlgorithm = treeAlgorithm;
+		this.proxy = proxy;
+		this.request = request;
+		this.lastResult = null;
+		this.k = 0;
+		this.computedK = 0;
+	}
+
+	@Override
+	public int getK() {
+		return k;
+	}
+
+	@Override
+	public int getNumberOfRetainedPaths() {
+		return candidatePaths.size() + (lastResult == null ? 0 : 1);
+	}
+
+	@Override
+	public boolean hasNext() {
+		if(computedK > k) {
+			// We already computed next k, hence return the same answer.
+			return lastResult != null;
+		}
+
+		if(computedK == 0) {
+			computeTree();
+			lastResult = getTreePath(new ArrayList<>(), request.getSource(), Collections.emptySet(), Collections.emptySet());
+		}
+		else {
+			addDeviations(lastResult);
+			lastResult = pollPath();
+		}
+
+		computedK++;
+		return lastResult != null;
+	}
+
+	@Override
+	public Path next() {
+		while(computedK <= k)
+			this.hasNext();
+		k++;
+		return lastResult;
+	}
+
+	private void computeTree() {
+		treeAlgorithm.computePathsFromAnyNodeTo(request.getDestination(), request);
+		treeEdges = new HashMap<>();
+		treeCosts = new HashMap<>();
+		for(Node node : request.getDestination().getGraph().getNodes()) {
+			Path path = treeAlgorithm.getPathToNodeFrom(node);
+			if(path == null)
+				continue;
+			treeCosts.put(node, path.getCost());
+			if(path.getPath().length > 0)
+				treeEdges.put(node, path.getPath()[0]);
+		}
+	}
+
+	/**
+	 * Adds the deviations from the last Path found to the candidates.
+	 * @param currentPath Last Path found.
+	 */
+	private void addDeviations(Path currentPath) {
+		Edge[] pathArray = currentPath.getPath();
+		// Cost of the root path, accumulated Edge by Edge along the Path.
+		ArrayHeadPath root = new ArrayHeadPath(pathArray.length);
+		double[] parameters = null;
+		double rootCost = 0;
+		int rootHash = 1;
+		for(int i = 0; i < pathArray.length; i++) {
+			if(i != 0) {
+				Edge edge = pathArray[i - 1];
+				parameters = proxy.getNewParameters((Iterable<Edge>) root, edge, parameters, request, true);
+				rootCost += proxy.getCost((PathCursor) root, edge, parameters, request, true);
+				root.add(edge);
+				rootHash = 31 * rootHash + edge.hashCode();
+			}
+
+			// Same blocking as YenKSPIterator, with the root path as prefix of the Path.
+			Prefix rootPath = new Prefix(pathArray, i, rootHash);
+			NodesAndEdgesSet listToBlock = blockedElements.get(rootPath);
+			if(listToBlock == null) {
+				listToBlock = new NodesAndEdgesSet();
+				listToBlock.nodes.add(request.getSource());
+				for(int j = 0; j < i; j++)
+					listToBlock.nodes.add(pathArray[j].getDestination());
+
+				blockedElements.put(rootPath, listToBlock);
+			}
+
+			if(!listToBlock.edges.add(pathArray[i]))
+				continue;
+
+			Node spurNode = (i == 0) ? request.getSource() : pathArray[i - 1].getDestination();
+			Double spurCost = treeCosts.get(spurNode);
+			// Destination not reachable from the spur Node, even without blocking.
+			if(spurCost == null)
+				continue;
+
+			candidates.add(new Candidate(rootCost + spurCost, null, rootPath, listToBlock.nodes, new HashSet<>(listToBlock.edges), numberOfCandidates++));
+		}
+	}
+
+	/**
+	 * Removes the cheapest Path from the candidates, computing the spur paths
+	 * of the deviations as long as one of them might be cheaper.
+	 * @return The Path or null if there is no candidate left.
+	 */
+	private Path pollPath() {
+		while(!candidates.isEmpty()) {
+			Candidate candidate = candidates.poll();
+			if(candidate.path != null) {
+				candidatePaths.remove(candidate.path);
+				return candidate.path;
+			}
+
+			Path path = computeDeviation(candidate);
+			if(path != null && candidatePaths.add(path))
+				candidates.add(new Candidate(path.getCost(), path, null, null, null, numberOfCandidates++));
+		}
+		return null;
+	}
+
+	/**
+	 * @param deviation Deviation.
+	 * @return The best Path using the deviation or null if there is none.
+	 */
+	private Path computeDeviation(Candidate deviation) {
+		Prefix root = deviation.rootPath;
+		List<Edge> rootPath = Arrays.asList(root.edges).subList(0, root.length);
+		Node spurNode = (root.length == 0) ? request.getSource() : root.edges[root.length - 1].getDestination();
+
+		Path path = getTreePath(new ArrayList<>(rootPath), spurNode, deviation.blockedNodes, deviation.blockedEdges);
+		if(path != null)
+			return path;
+
+		// Computing the spur path.
+		for(Edge edge : deviation.blockedEdges)
+			blockProxy.setBlocked(edge);
+		for(Node node : deviation.blockedNodes)
+			blockProxy.setBlocked(node);
+		path = algorithm.solveNoChecks(request, rootPath);
+		// Unblock everything for next deviation.
+		blockProxy.unblockAll();
+		return path;
+	}
+
+	/**
+	 * Follows the tree from a Node.
+	 * @param edges Edges before the Node (Edges of the tree are added).
+	 * @param node The Node.
+	 * @param blockedNodes Nodes the tree path must not reach.
+	 * @param blockedEdges Edges the tree path must not use.
+	 * @return The Path made of the Edges and the tree path, null if the Node
+	 *         is not reached by the tree or its tree path is blocked.
+	 */
+	private Path getTreePath(List<Edge> edges, Node node, Set<Node> blockedNodes, Set<Edge> blockedEdges) {
+		if(!treeCosts.containsKey(node))
+			return null;
+		Edge edge = treeEdges.get(node);
+		while(edge != null) {
+			if(blockedEdges.contains(edge) || blockedNodes.contains(edge.getDestination()))
+				return null;
+			edges.add(edge);
+			edge = treeEdges.get(edge.getDestination());
+		}
+		return proxy.createPath(edges, request, true);
+	}
+
+	/**
+	 * First Edges of a Path.
+	 */
+	private static final class Prefix {
+		private final Edge[] edges;
+		private final int length;
+		private final int hash;
+
+		private Prefix(Edge[] edges, int length, int hash) {
+			this.edges = edges;
+			this.length = length;
+			this.hash = hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(!(o instanceof Prefix))
+				return false;
+			Prefix other = (Prefix) o;
+			if(length != other.length || hash != other.hash)
+				return false;
+			for(int i = 0; i < length; i++)
+				if(edges[i] != other.edges[i])
+					return false;
+			return true;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	/**
+	 * Path found (path set) or deviation whose spur path is not computed
+	 * yet (cost is then a lower bound).
+	 */
+	private static final class Candidate implements Comparable<Candidate> {
+		private final double cost;
+		private final Path path;
+		private final Prefix rootPath;
+		private final Set<Node> blockedNodes;
+		private final Set<Edge> blockedEdges;
+		private final long order;
+
+		private Candidate(double cost, Path path, Prefix rootPath, Set<Node> blockedNodes, Set<Edge> blockedEdges, long order) {
+			this.cost = cost;
+			this.path = path;
+			this.rootPath = rootPath;
+			this.blockedNodes = blockedNodes;
+			this.blockedEdges = blockedEdges;
+			this.order = order;
+		}
+
+		@Override
+		public int compareTo(Candidate other) {
+			int result = Double.compare(cost, other.cost);
+			if(result != 0)
+				return result;
+			// Paths found first: a deviation of the same cost cannot do better.
+			if((path == null) != (other.path == null))
+				return (path != null) ? -1 : 1;
+			return Long.compare(order, other.order);
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package de.tum.ei.lkn.eces.routing.algorithms.sp.ksp.yen;
+
+import de.tum.ei.lkn.eces.core.Controller;
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.graph.Node;
+import de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.astar.AStarAlgorithm;
+import de.tum.ei.lkn.eces.routing.proxies.PathProxy;
+import de.tum.ei.lkn.eces.routing.proxies.ProxyTypes;
+import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
+import de.tum.ei.lkn.eces.routing.responses.Path;
+
+/**
+ * Shortest-path algorithm and BlockingProxy computing spur paths for the
+ * YenAlgorithm in parallel mode. Each thread of the pool uses its own
+ * instance. The Proxy of the YenAlgorithm itself is shared (and not copied)
+ * so that changes of its configuration (e.g., of the cost multipliers of a
+ * PlumberProxy) apply: it must support concurrent reads.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+final class SpurSearcher {
+	private final AStarAlgorithm algorithm;
+	private final BlockingProxy blockProxy;
+
+	/**
+	 * Creates a SpurSearcher (in the thread creating the YenAlgorithm's
+	 * iterators, since algorithms register their local mappers at the
+	 * Controller).
+	 * @param controller Controller responsible for the algorithm.
+	 * @param maxProxy Maximum type of Proxy of the algorithm.
+	 * @param proxy Proxy of the YenAlgorithm.
+	 */
+	SpurSearcher(Controller controller, ProxyTypes maxProxy, PathProxy proxy) {
+		algorithm = new AStarAlgorithm(controller);
+		algorithm.setMaximumProxy(maxProxy);
+		blockProxy = new BlockingProxy(proxy);
+		algorithm.setProxy(blockProxy);
+	}
+
+	/**
+	 * Computes a spur path.
+	 * @param request Request for which the kSP have to be found.
+	 * @param rootPath Root path.
+	 * @param blocked Nodes and Edges the spur path must not use.
+	 * @return The Path made of the root and spur paths, null if there is
+	 *         none.
+	 */
+	Path search(UnicastRequest request, Iterable<Edge> rootPath, NodesAndEdgesSet blocked) {
+		for(Edge edge : blocked.edges)
+			blockProxy.setBlocked(edge);
+		for(Node node : blocked.nodes)
+			blockProxy.setBlocked(node);
+		Path path = algorithm.solveNoChecks(request, rootPath);
+		blockProxy.unblockAll();
+		return path;
+	}
+}
@@ -0,0 +1,82 @@
+package de.tum.ei.lkn.eces.routing.algorithms.sp.ksp.yen;
+
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
+import de.tum.ei.lkn.eces.routing.responses.Path;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/join task computing the spur paths of one iteration of the
+ * YenAlgorithm. Each leaf task uses one SpurSearcher for every
+ * searchers.size()-th deviation, so that a SpurSearcher is only used by one
+ * thread at a time.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+final class SpurTask extends RecursiveAction {
+	/**
+	 * Root path and blocked elements of a spur path.
+	 */
+	static final class Deviation {
+		private final List<Edge> rootPath;
+		private final NodesAndEdgesSet blocked;
+
+		Deviation(List<Edge> rootPath, NodesAndEdgesSet blocked) {
+			this.rootPath = rootPath;
+			this.blocked = blocked;
+		}
+	}
+
+	private final int from;
+	private final int to;
+	private final List<SpurSearcher> searchers;
+	private final UnicastRequest request;
+	private final List<Deviation> deviations;
+	private final Path[] results;
+
+	private SpurTask(int from, int to, List<SpurSearcher> searchers, UnicastRequest request, List<Deviation> deviations, Path[] results) {
+		this.from = from;
+		this.to = to;
+		this.searchers = searchers;
+		this.request = request;
+		this.deviations = deviations;
+		this.results = results;
+	}
+
+	/**
+	 * Computes the spur paths of deviations.
+	 * @param pool Pool on which to run.
+	 * @param searchers SpurSearchers (at most one per thread is used).
+	 * @param request Request for which the kSP have to be found.
+	 * @param deviations Deviations.
+	 * @return The Paths (null if none), in the order of the deviations.
+	 */
+	static Path[] search(ForkJoinPool pool, List<SpurSearcher> searchers, UnicastRequest request, List<Deviation> deviations) {
+		Path[] results = new Path[deviations.size()];
+		int numberOfTasks = Math.min(searchers.size(), deviations.size());
+		if(numberOfTasks < 2)
+			new SpurTask(0, numberOfTasks, searchers, request, deviations, results).compute();
+		else
+			pool.invoke(new SpurTask(0, numberOfTasks, searchers, request, deviations, results));
+		return results;
+	}
+
+	@Override
+	protected void compute() {
+		if(to - from <= 1) {
+			if(from == to)
+				return;
+			SpurSearcher searcher = searchers.get(from);
+			for(int i = from; i < deviations.size(); i += searchers.size())
+				results[i] = searcher.search(request, deviations.get(i).rootPath, deviations.get(i).blocked);
+			return;
+		}
+		int middle = (from + to) >>> 1;
+		invokeAll(new SpurTask(from, middle, searchers, request, deviations, results),
+				new SpurTask(middle, to, searchers, request, deviations, results));
+	}
+}
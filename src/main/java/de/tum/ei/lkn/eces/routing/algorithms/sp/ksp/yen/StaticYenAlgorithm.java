@@ -8,6 +8,7 @@ import de.tum.ei.lkn.eces.routing.responses.Path;
 
 import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Adaptation of Yen's algorithm when k is known in advance.
@@ -38,6 +39,15 @@ public class StaticYenAlgorithm {
 		return list;
 	}
 
+	/**
+	 * Sets the pool on which the spur paths of an iteration are computed.
+	 * @param pool Pool computing the spur paths (null to compute them in the
+	 *             calling thread).
+	 */
+	public void setParallelism(ForkJoinPool pool) {
+		yenAlgorithm.setParallelism(pool);
+	}
+
 	public void setProxy(PathPlumberProxy proxy) {
 		yenAlgorithm.setProxy(proxy);
 	}
@@ -3,8 +3,10 @@ package de.tum.ei.lkn.eces.routing.algorithms.sp.ksp.yen;
 import de.tum.ei.lkn.eces.core.Controller;
 import de.tum.ei.lkn.eces.graph.Edge;
 import de.tum.ei.lkn.eces.graph.Node;
+import de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa.ShortestPathTreeCache;
 import de.tum.ei.lkn.eces.routing.algorithms.sp.ksp.KSPAlgorithm;
 import de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.astar.AStarAlgorithm;
+import de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.dijkstra.DijkstraAlgorithm;
 import de.tum.ei.lkn.eces.routing.proxies.EdgeProxy;
 import de.tum.ei.lkn.eces.routing.proxies.PathProxy;
 import de.tum.ei.lkn.eces.routing.proxies.PreviousEdgeProxy;
@@ -13,6 +15,7 @@ import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
 import de.tum.ei.lkn.eces.routing.responses.Path;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * 1971
@@ -36,6 +39,34 @@ public class YenAlgorithm extends KSPAlgorithm {
 	 */
 	private BlockingProxy blockProxy;
 
+	/**
+	 * Algorithm computing the shortest-path tree toward the destination in
+	 * lazy mode.
+	 */
+	private DijkstraAlgorithm treeAlgorithm;
+
+	/**
+	 * Whether the iterators are lazy (see LazyYenKSPIterator).
+	 */
+	private boolean lazy = false;
+
+	/**
+	 * Maximum type of Proxy of the underlying algorithms.
+	 */
+	private ProxyTypes maxProxy;
+
+	/**
+	 * Pool computing the spur paths of an iteration in parallel (null for
+	 * the calling thread).
+	 */
+	private ForkJoinPool pool;
+
+	/**
+	 * Algorithms used by the threads of the pool (created with the first
+	 * iterator).
+	 */
+	private List<SpurSearcher> searchers;
+
 	public YenAlgorithm(Controller controller) {
 		this(controller, ProxyTypes.EDGE_PROXY);
 	}
@@ -44,39 +75,112 @@ public class YenAlgorithm extends KSPAlgorithm {
 		super(controller);
 		spAlgorithm = new AStarAlgorithm(controller);
 		spAlgorithm.setMaximumProxy(maxProxy);
+		treeAlgorithm = new DijkstraAlgorithm(controller);
+		this.maxProxy = maxProxy;
+	}
+
+	/**
+	 * Sets the pool on which the spur paths of an iteration are computed.
+	 * Each thread of the pool uses its own shortest-path algorithm and
+	 * BlockingProxy on top of the Proxy of this algorithm, which must hence
+	 * support concurrent reads. Only applies to the eager mode.
+	 * @param pool Pool computing the spur paths (null to compute them in the
+	 *             calling thread).
+	 */
+	public synchronized void setParallelism(ForkJoinPool pool) {
+		this.pool = pool;
+		this.searchers = null;
+	}
+
+	private synchronized void resetSearchers() {
+		searchers = null;
+	}
+
+	private synchronized List<SpurSearcher> getSearchers() {
+		if(searchers == null) {
+			List<SpurSearcher> newSearchers = new ArrayList<>();
+			for(int i = 0; i < pool.getParallelism(); i++)
+				newSearchers.add(new SpurSearcher(controller, maxProxy, proxy));
+			searchers = newSearchers;
+		}
+		return searchers;
+	}
+
+	/**
+	 * Configure Yen to compute the shortest-path tree toward the destination
+	 * first and to use it to bound and short-circuit the spur paths. Only
+	 * applies to EdgeProxy's: other Proxies are still iterated eagerly.
+	 */
+	public void lazyMode() {
+		this.lazy = true;
+	}
+
+	/**
+	 * Configure Yen to compute the shortest-path tree toward the destination
+	 * first and to use it to bound and short-circuit the spur paths, taking
+	 * the trees from a cache (possibly shared with other algorithms).
+	 * @param cache Cache of trees.
+	 */
+	public void lazyMode(ShortestPathTreeCache cache) {
+		this.lazy = true;
+		treeAlgorithm.cachedTreesMode(cache);
+	}
+
+	/**
+	 * Configure Yen to compute all the spur paths of a Path found before
+	 * returning the next one.
+	 */
+	public void eagerMode() {
+		this.lazy = false;
+		treeAlgorithm.uncachedTreesMode();
 	}
 
 	@Override
 	public int getK(UnicastRequest request) {
-		return ((YenKSPIterator) this.getCurrentIterator(request)).getK();
+		return ((KSPIterator) this.getCurrentIterator(request)).getK();
 	}
 
 	@Override
 	public void setProxy(PathProxy proxy) {
 		blockProxy = new BlockingProxy(proxy);
 		spAlgorithm.setProxy(blockProxy);
+		treeAlgorithm.setProxy(proxy);
 		super.setProxy(proxy);
+		resetSearchers();
 	}
 
 	@Override
 	public void setProxy(PreviousEdgeProxy proxy) {
 		blockProxy = new BlockingProxy(proxy);
 		spAlgorithm.setProxy(blockProxy);
+		treeAlgorithm.setProxy(proxy);
 		super.setProxy(proxy);
+		resetSearchers();
 	}
 
 	@Override
 	public void setProxy(EdgeProxy proxy) {
 		blockProxy = new BlockingProxy(proxy);
 		spAlgorithm.setProxy(blockProxy);
+		treeAlgorithm.setProxy(proxy);
 		super.setProxy(proxy);
+		resetSearchers();
 	}
 
 	@Override
 	public Iterator<Path> iterator(UnicastRequest request) {
+		if(lazy && proxy.getType() == ProxyTypes.EDGE_PROXY)
+			return new LazyYenKSPIterator(spAlgorithm, blockProxy, treeAlgorithm, proxy, request);
+		if(pool != null)
+			return new YenKSPIterator(spAlgorithm, blockProxy, request, pool, getSearchers());
 		return new YenKSPIterator(spAlgorithm, blockProxy, request);
 	}
 
+	@Override
+	protected int getNumberOfRetainedPaths(Iterator<Path> iterator) {
+		return ((KSPIterator) iterator).getNumberOfRetainedPaths();
+	}
+
 	@Override
 	public boolean isForward() {
 		return true;
@@ -103,7 +207,7 @@ public class YenAlgorithm extends KSPAlgorithm {
 
 }
 
-class YenKSPIterator implements Iterator<Path> {
+class YenKSPIterator implements KSPIterator {
 	/**
 	 * Stores the potential kth shortest paths.
 	 */
@@ -144,7 +248,24 @@ class YenKSPIterator implements Iterator<Path> {
 	 */
 	private int computedK;
 
+	/**
+	 * Pool computing the spur paths of an iteration in parallel (null to
+	 * compute them with the above algorithm).
+	 */
+	private ForkJoinPool pool;
+
+	/**
+	 * Algorithms used by the threads of the pool.
+	 */
+	private List<SpurSearcher> searchers;
+
 	public YenKSPIterator(AStarAlgorithm algorithm, BlockingProxy blockProxy, UnicastRequest request) {
+		this(algorithm, blockProxy, request, null, null);
+	}
+
+	YenKSPIterator(AStarAlgorithm algorithm, BlockingProxy blockProxy, UnicastRequest request, ForkJoinPool pool, List<SpurSearcher> searchers) {
+		this.pool = pool;
+		this.searchers = searchers;
 		this.algorithm = algorithm;
 		this.blockProxy = blockProxy;
 		this.request = request;
@@ -165,14 +286,16 @@ class YenKSPIterator implements Iterator<Path> {
 		this.computedK = 0;
 	}
 
-	/**
-	 * Returns the number of Paths already returned.
-	 * @return k.
-	 */
+	@Override
 	public int getK() {
 		return k;
 	}
 
+	@Override
+	public int getNumberOfRetainedPaths() {
+		return pathCandidates.size() + (lastResult == null ? 0 : 1);
+	}
+
 	/**
 	 * Returns Edge #id on a given Path.
 	 * @param id Number of the Edge to return.
@@ -204,6 +327,7 @@ class YenKSPIterator implements Iterator<Path> {
 
 		Edge[] pathArray = currentPath.getPath();
 		LinkedList<Edge> rootPath = new LinkedList<>();
+		List<SpurTask.Deviation> deviations = new ArrayList<>();
 
 		for(int i = 0; i < pathArray.length; i++) {
 			if(i != 0)
@@ -237,6 +361,14 @@ class YenKSPIterator implements Iterator<Path> {
 			// Block next Edge used by the previous Path.
 			listToBlock.edges.add(nextEdge);
 
+			/* In parallel mode, the spur paths are computed once all the
+			 * deviations are known. Their blocked elements are not modified
+			 * until then. */
+			if(pool != null) {
+				deviations.add(new SpurTask.Deviation(Arrays.asList(pathArray).subList(0, i), listToBlock));
+				continue;
+			}
+
 			// Blocking the elements that have to be blocked.
 			NodesAndEdgesSet blockLists = blockedElements.getOrDefault(rootPath, new NodesAndEdgesSet());
 			for(Edge edge : blockLists.edges)
@@ -253,6 +385,13 @@ class YenKSPIterator implements Iterator<Path> {
 			blockProxy.unblockAll();
 		}
 
+		// Merged in the order of the deviations, as when computed sequentially.
+		if(!deviations.isEmpty()) {
+			for(Path newPath : SpurTask.search(pool, searchers, request, deviations))
+				if(newPath != null)
+					pathCandidates.add(newPath);
+		}
+
 		computedK++;
 		if(pathCandidates.isEmpty())
 			return false;
@@ -5,6 +5,7 @@ import de.tum.ei.lkn.eces.graph.Edge;
 import de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa.QueueMode;
 import de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa.UniversalPriorityQueueAlgorithm;
 import de.tum.ei.lkn.eces.routing.algorithms.sp.SPAlgorithm;
+import de.tum.ei.lkn.eces.routing.compiledgraph.CompiledGraphSystem;
 import de.tum.ei.lkn.eces.routing.interfaces.BD;
 import de.tum.ei.lkn.eces.routing.interfaces.SolveUnicastRequest;
 import de.tum.ei.lkn.eces.routing.proxies.EdgeProxy;
@@ -52,6 +53,37 @@ public class AStarAlgorithm extends SPAlgorithm implements SolveUnicastRequest,
 		upqa.setQueueMode(QueueMode.EDGE);
 	}
 
+	/**
+	 * Configure A* to solve point-to-point requests with a bidirectional
+	 * search whenever the request allows it.
+	 */
+	public void bidirectionalMode() {
+		upqa.enableBidirectionalMode();
+	}
+
+	/**
+	 * Configure A* to only search from the source.
+	 */
+	public void unidirectionalMode() {
+		upqa.disableBidirectionalMode();
+	}
+
+	/**
+	 * Configure A* to run on the CompiledGraph snapshots (int IDs and
+	 * primitive arrays) whenever the request allows it.
+	 * @param compiledGraphSystem System providing the snapshots.
+	 */
+	public void compiledGraphMode(CompiledGraphSystem compiledGraphSystem) {
+		upqa.enableCompiledGraphMode(compiledGraphSystem);
+	}
+
+	/**
+	 * Configure A* to run on the Graph objects.
+	 */
+	public void objectGraphMode() {
+		upqa.disableCompiledGraphMode();
+	}
+
 	/**
 	 * Set maximum proxy type handled by A*.
 	 * @param type Maximum proxy type.
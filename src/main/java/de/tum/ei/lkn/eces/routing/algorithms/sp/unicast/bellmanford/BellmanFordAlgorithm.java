@@ -9,10 +9,13 @@ import de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa.RecordLocal;
 import de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa.TempData;
 import de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa.TempIterablePath;
 import de.tum.ei.lkn.eces.routing.algorithms.sp.SPAlgorithm;
+import de.tum.ei.lkn.eces.routing.compiledgraph.CompiledGraph;
+import de.tum.ei.lkn.eces.routing.compiledgraph.CompiledGraphSystem;
 import de.tum.ei.lkn.eces.routing.exceptions.RoutingException;
 import de.tum.ei.lkn.eces.routing.interfaces.BD;
 import de.tum.ei.lkn.eces.routing.interfaces.SolveUnicastRequest;
 import de.tum.ei.lkn.eces.routing.proxies.Proxy;
+import de.tum.ei.lkn.eces.routing.proxies.ProxyTypes;
 import de.tum.ei.lkn.eces.routing.requests.Request;
 import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
 import de.tum.ei.lkn.eces.routing.responses.Path;
@@ -43,6 +46,17 @@ public class BellmanFordAlgorithm extends SPAlgorithm implements SolveUnicastReq
 	private LocalMapper<Record> nodeDataLocalMapper;
 	private LocalMapper<VisitedEdge> visitedEdgeLocalMapper;
 
+	/**
+	 * System providing the CompiledGraph snapshots (null if the compiled mode
+	 * is disabled).
+	 */
+	private CompiledGraphSystem compiledGraphSystem = null;
+
+	/**
+	 * Path given to the proxy in compiled mode (EdgeProxy's ignore it).
+	 */
+	private static final TempIterablePath NO_PATH = new TempIterablePath(null, null);
+
 	public BellmanFordAlgorithm(Controller controller) {
 		this(controller, 1);
 	}
@@ -63,7 +77,31 @@ public class BellmanFordAlgorithm extends SPAlgorithm implements SolveUnicastReq
 		return this.computePath( request);
 	}
 
+	/**
+	 * Lets requests with k = 1 and an EdgeProxy run on the CompiledGraph
+	 * snapshot of the Graph: labels and update flags are then stored in
+	 * primitive arrays indexed by Node and Edge IDs. The compiled mode uses
+	 * the plain cost update of this class, i.e., it ignores overrides of
+	 * updateCosts().
+	 * @param compiledGraphSystem System providing the snapshots.
+	 */
+	public void enableCompiledGraphMode(CompiledGraphSystem compiledGraphSystem) {
+		this.compiledGraphSystem = compiledGraphSystem;
+	}
+
+	public void disableCompiledGraphMode() {
+		this.compiledGraphSystem = null;
+	}
+
 	public Path computePath(UnicastRequest request) {
+		if(compiledGraphSystem != null && k == 1 && proxy.getType() == ProxyTypes.EDGE_PROXY) {
+			CompiledGraph graph = compiledGraphSystem.getCompiledGraph(request.getSource().getGraph());
+			int source = graph.getNodeId(request.getSource());
+			int destination = graph.getNodeId(request.getDestination());
+			if(source != -1 && destination != -1)
+				return computeCompiledPath(graph, source, destination, request);
+		}
+
 		initializeSingleSource(request.getSource(), request);
 		int numberOfNodes = request.getSource().getGraph().getNodes().size();
 
@@ -97,6 +135,73 @@ public class BellmanFordAlgorithm extends SPAlgorithm implements SolveUnicastReq
 				record.getTempData(minID).getParameter());
 	}
 
+	/**
+	 * Same algorithm as computePath() for k = 1, on the IDs of a CompiledGraph.
+	 * Edges are scanned in the same order so that both modes return the same
+	 * paths. The access to and cost of all the Edges are fetched at once if
+	 * the proxy supports it.
+	 */
+	private Path computeCompiledPath(CompiledGraph graph, int source, int destination, UnicastRequest request) {
+		int numberOfNodes = graph.getNumberOfNodes();
+		int numberOfEdges = graph.getNumberOfEdges();
+		double[] costs = new double[numberOfNodes];
+		int[] parentEdges = new int[numberOfNodes];
+		double[][] parameters = new double[numberOfNodes][];
+		boolean[] updated = new boolean[numberOfEdges];
+		Arrays.fill(costs, Double.MAX_VALUE);
+		Arrays.fill(parentEdges, -1);
+		costs[source] = 0;
+		parameters[source] = new double[proxy.getNumberOfParameters(request)];
+		for(int i = graph.getOutgoingStart(source); i < graph.getOutgoingEnd(source); i++)
+			updated[graph.getOutgoingEdge(i)] = true;
+
+		// Snapshot of the access and costs (null if the Edges have to be evaluated one by one).
+		boolean[] access = new boolean[numberOfEdges];
+		double[] edgeCosts = new double[numberOfEdges];
+		if(!proxy.hasAccess(graph.getEdges(), request, access) || !proxy.getCosts(graph.getEdges(), request, edgeCosts)) {
+			access = null;
+			edgeCosts = null;
+		}
+
+		// Note: we break if no updates has happened in an iteration.
+		boolean run = true;
+		for(int i = 1; i < numberOfNodes && run; i++) {
+			run = false;
+			for(int edgeId = 0; edgeId < numberOfEdges; edgeId++) {
+				if(!updated[edgeId])
+					continue;
+				updated[edgeId] = false;
+				int node = graph.getSource(edgeId);
+				if(costs[node] == Double.MAX_VALUE)
+					continue;
+				if(access != null && !access[edgeId])
+					continue;
+				Edge edge = graph.getEdge(edgeId);
+				double[] newParameters = proxy.getNewParameters(NO_PATH, edge, parameters[node], request, isForward());
+				if(access == null && !proxy.hasAccess(NO_PATH, edge, newParameters, request, isForward()))
+					continue;
+				int nextNode = graph.getDestination(edgeId);
+				double newCost = costs[node] + (edgeCosts != null ? edgeCosts[edgeId] : proxy.getCost(NO_PATH, edge, newParameters, request, isForward()));
+				if(!Proxy.violatesBound(newCost, costBorder) && newCost < costs[nextNode]) {
+					costs[nextNode] = newCost;
+					parentEdges[nextNode] = edgeId;
+					parameters[nextNode] = newParameters;
+					run = true;
+					for(int j = graph.getOutgoingStart(nextNode); j < graph.getOutgoingEnd(nextNode); j++)
+						updated[graph.getOutgoingEdge(j)] = true;
+				}
+			}
+		}
+
+		if(parentEdges[destination] == -1)
+			return null;
+
+		return new Path(graph.getPath(destination, parentEdges, true),
+				costs[destination],
+				new double[0],
+				parameters[destination]);
+	}
+
 	private void initializeSingleSource(Node source, Request request) {
 		for(Edge edge : source.getGraph().getEdges()) {
 			if(edge.getSource() == source) {
@@ -0,0 +1,554 @@
+package de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.ch;
+
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.graph.Graph;
+import de.tum.ei.lkn.eces.routing.compiledgraph.CompiledGraph;
+import de.tum.ei.lkn.eces.routing.compiledgraph.IntPriorityQueue;
+
+import java.util.Arrays;
+
+/**
+ * Contraction hierarchy of a Graph for fixed, non-negative Edge weights.
+ *
+ * Nodes are contracted one by one (lowest edge difference first, with lazy
+ * updates). Contracting a Node v adds a shortcut u->x for each pair of
+ * remaining neighbours for which u->v->x is the only shortest path (witness
+ * search). A shortest path between any two Nodes then goes up and then down in
+ * the contraction order, so that queries only need a bidirectional Dijkstra on
+ * the upward arcs, which settles a small number of Nodes.
+ *
+ * Arcs are either an Edge of the Graph or a shortcut made of two other arcs,
+ * so that the Paths found are unpacked into normal Edge sequences.
+ *
+ * Queries use scratch arrays and are hence not thread-safe.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public class ContractionHierarchy {
+	/**
+	 * Maximum number of Nodes settled by a witness search. Stopping earlier
+	 * only adds unnecessary shortcuts.
+	 */
+	private static final int WITNESS_SETTLED_LIMIT = 500;
+
+	/**
+	 * Snapshot of the Graph and weights (Double.MAX_VALUE for Edges which
+	 * cannot be used) of its Edges, indexed by Edge ID.
+	 */
+	private final CompiledGraph graph;
+	private final double[] weights;
+
+	/**
+	 * Position of each Node in the contraction order.
+	 */
+	private final int[] ranks;
+
+	/**
+	 * Arc pool. An arc with an Edge ID of -1 is a shortcut made of its first
+	 * and second child arcs.
+	 */
+	private int numberOfArcs;
+	private int[] arcSources;
+	private int[] arcDestinations;
+	private double[] arcWeights;
+	private int[] arcEdges;
+	private int[] arcFirstChildren;
+	private int[] arcSecondChildren;
+
+	/**
+	 * Arcs u->x with rank(x) > rank(u), listed for u, and arcs u->x with
+	 * rank(u) > rank(x), listed for x.
+	 */
+	private int[] upwardOffsets;
+	private int[] upwardArcs;
+	private int[] downwardOffsets;
+	private int[] downwardArcs;
+
+	/**
+	 * Whether the Graph or weights changed since the hierarchy was computed.
+	 */
+	private volatile boolean outdated;
+
+	/**
+	 * Contraction scratch data (released after the preprocessing).
+	 */
+	private int[][] inLists;
+	private int[][] outLists;
+	private int[] inSizes;
+	private int[] outSizes;
+	private boolean[] contracted;
+	private int[] contractedNeighbours;
+	private int[] neighbourStamps;
+	private int[] bestInArcs;
+	private int[] bestOutArcs;
+	private int[] inNeighbours;
+	private int[] outNeighbours;
+	private int numberOfInNeighbours;
+	private int numberOfOutNeighbours;
+	private int neighbourEpoch;
+	private double[] witnessDistances;
+	private int[] witnessStamps;
+	private int witnessEpoch;
+	private IntPriorityQueue witnessQueue;
+
+	/**
+	 * Query scratch data.
+	 */
+	private final double[] forwardDistances;
+	private final double[] backwardDistances;
+	private final int[] forwardParents;
+	private final int[] backwardParents;
+	private final long[] forwardStamps;
+	private final long[] backwardStamps;
+	private long epoch;
+	private final IntPriorityQueue forwardQueue;
+	private final IntPriorityQueue backwardQueue;
+
+	/**
+	 * Computes the hierarchy.
+	 * @param graph Snapshot of the Graph.
+	 * @param weights Non-negative weights of the Edges indexed by Edge ID
+	 *                (Double.MAX_VALUE for Edges which cannot be used).
+	 */
+	public ContractionHierarchy(CompiledGraph graph, double[] weights) {
+		this.graph = graph;
+		this.weights = weights.clone();
+		int n = graph.getNumberOfNodes();
+		ranks = new int[n];
+
+		int capacity = Math.max(16, 2 * graph.getNumberOfEdges());
+		arcSources = new int[capacity];
+		arcDestinations = new int[capacity];
+		arcWeights = new double[capacity];
+		arcEdges = new int[capacity];
+		arcFirstChildren = new int[capacity];
+		arcSecondChildren = new int[capacity];
+
+		contract();
+		buildSearchGraph();
+
+		forwardDistances = new double[n];
+		backwardDistances = new double[n];
+		forwardParents = new int[n];
+		backwardParents = new int[n];
+		forwardStamps = new long[n];
+		backwardStamps = new long[n];
+		forwardQueue = new IntPriorityQueue(4, n);
+		backwardQueue = new IntPriorityQueue(4, n);
+	}
+
+	public CompiledGraph getCompiledGraph() {
+		return graph;
+	}
+
+	/**
+	 * @return Number of shortcuts added by the preprocessing.
+	 */
+	public int getNumberOfShortcuts() {
+		int shortcuts = 0;
+		for(int arc = 0; arc < numberOfArcs; arc++)
+			if(arcEdges[arc] == -1)
+				shortcuts++;
+		return shortcuts;
+	}
+
+	/**
+	 * @param edgeId Edge ID.
+	 * @return Weight of the Edge used for the preprocessing.
+	 */
+	public double getWeight(int edgeId) {
+		return weights[edgeId];
+	}
+
+	/**
+	 * Checks whether the hierarchy has been computed with given weights.
+	 * @param weights Weights indexed by Edge ID.
+	 * @return true if the weights are the same.
+	 */
+	public boolean hasWeights(double[] weights) {
+		return Arrays.equals(this.weights, weights);
+	}
+
+	/**
+	 * Checks whether Nodes or Edges were added to or removed from the Graph
+	 * since the hierarchy was computed.
+	 * @param graph Graph.
+	 * @return true if the Graph is not the one of the snapshot anymore.
+	 */
+	public boolean hasTopologyChanged(Graph graph) {
+		return graph != this.graph.getGraph() ||
+				graph.getNodes().size() != this.graph.getNumberOfNodes() ||
+				graph.getEdges().size() != this.graph.getNumberOfEdges();
+	}
+
+	public boolean isOutdated() {
+		return outdated;
+	}
+
+	/**
+	 * Marks the hierarchy as not matching the Graph anymore.
+	 */
+	public void setOutdated() {
+		outdated = true;
+	}
+
+	/**
+	 * Computes a shortest path with a bidirectional search on the upward arcs.
+	 * @param source Source Node ID.
+	 * @param destination Destination Node ID.
+	 * @return The Edges of the path from source to destination or null if
+	 *         the destination cannot be reached.
+	 */
+	public Edge[] getShortestPath(int source, int destination) {
+		epoch++;
+		forwardStamps[source] = epoch;
+		forwardDistances[source] = 0;
+		forwardParents[source] = -1;
+		forwardQueue.add(source, 0, 0, source);
+		backwardStamps[destination] = epoch;
+		backwardDistances[destination] = 0;
+		backwardParents[destination] = -1;
+		backwardQueue.add(destination, 0, 0, destination);
+
+		double best = Double.MAX_VALUE;
+		int meeting = -1;
+		boolean forwardTurn = true;
+		while(true) {
+			// A side stops as soon as it cannot improve the best meeting anymore.
+			boolean forwardActive = !forwardQueue.isEmpty() && forwardDistances[forwardQueue.peek()] < best;
+			boolean backwardActive = !backwardQueue.isEmpty() && backwardDistances[backwardQueue.peek()] < best;
+			if(!forwardActive && !backwardActive)
+				break;
+			boolean isForward = forwardActive && (forwardTurn || !backwardActive);
+			forwardTurn = !isForward;
+
+			if(isForward) {
+				int node = forwardQueue.poll();
+				double distance = forwardDistances[node];
+				if(backwardStamps[node] == epoch && distance + backwardDistances[node] < best) {
+					best = distance + backwardDistances[node];
+					meeting = node;
+				}
+				for(int i = upwardOffsets[node]; i < upwardOffsets[node + 1]; i++) {
+					int arc = upwardArcs[i];
+					int next = arcDestinations[arc];
+					double newDistance = distance + arcWeights[arc];
+					if(forwardStamps[next] != epoch || newDistance < forwardDistances[next]) {
+						forwardStamps[next] = epoch;
+						forwardDistances[next] = newDistance;
+						forwardParents[next] = arc;
+						forwardQueue.add(next, newDistance, 0, next);
+					}
+				}
+			}
+			else {
+				int node = backwardQueue.poll();
+				double distance = backwardDistances[node];
+				if(forwardStamps[node] == epoch && distance + forwardDistances[node] < best) {
+					best = distance + forwardDistances[node];
+					meeting = node;
+				}
+				for(int i = downwardOffsets[node]; i < downwardOffsets[node + 1]; i++) {
+					int arc = downwardArcs[i];
+					int next = arcSources[arc];
+					double newDistance = distance + arcWeights[arc];
+					if(backwardStamps[next] != epoch || newDistance < backwardDistances[next]) {
+						backwardStamps[next] = epoch;
+						backwardDistances[next] = newDistance;
+						backwardParents[next] = arc;
+						backwardQueue.add(next, newDistance, 0, next);
+					}
+				}
+			}
+		}
+		forwardQueue.clear();
+		backwardQueue.clear();
+
+		if(meeting == -1)
+			return null;
+
+		// Arcs from source to meeting and from meeting to destination.
+		int numberOfForwardArcs = 0;
+		for(int node = meeting; forwardParents[node] != -1; node = arcSources[forwardParents[node]])
+			numberOfForwardArcs++;
+		int numberOfBackwardArcs = 0;
+		for(int node = meeting; backwardParents[node] != -1; node = arcDestinations[backwardParents[node]])
+			numberOfBackwardArcs++;
+		int[] pathArcs = new int[numberOfForwardArcs + numberOfBackwardArcs];
+		int position = numberOfForwardArcs - 1;
+		int index = numberOfForwardArcs;
+		for(int node = meeting; forwardParents[node] != -1; node = arcSources[forwardParents[node]])
+			pathArcs[position--] = forwardParents[node];
+		for(int node = meeting; backwardParents[node] != -1; node = arcDestinations[backwardParents[node]])
+			pathArcs[index++] = backwardParents[node];
+
+		return unpack(pathArcs);
+	}
+
+	/**
+	 * Replaces the shortcuts of a sequence of arcs by the Edges they stand for.
+	 */
+	private Edge[] unpack(int[] pathArcs) {
+		int length = 0;
+		int[] stack = new int[16];
+		Edge[] path = new Edge[16];
+		for(int pathArc : pathArcs) {
+			int stackSize = 0;
+			stack[stackSize++] = pathArc;
+			while(stackSize > 0) {
+				int arc = stack[--stackSize];
+				if(arcEdges[arc] != -1) {
+					if(length == path.length)
+						path = Arrays.copyOf(path, 2 * length);
+					path[length++] = graph.getEdge(arcEdges[arc]);
+					continue;
+				}
+				if(stackSize + 2 > stack.length)
+					stack = Arrays.copyOf(stack, 2 * stack.length);
+				// Second child pushed first so that the first one is unpacked first.
+				stack[stackSize++] = arcSecondChildren[arc];
+				stack[stackSize++] = arcFirstChildren[arc];
+			}
+		}
+		return Arrays.copyOf(path, length);
+	}
+
+	private void contract() {
+		int n = graph.getNumberOfNodes();
+		inLists = new int[n][];
+		outLists = new int[n][];
+		inSizes = new int[n];
+		outSizes = new int[n];
+		for(int node = 0; node < n; node++) {
+			inLists[node] = new int[Math.max(2, graph.getIncomingEnd(node) - graph.getIncomingStart(node))];
+			outLists[node] = new int[Math.max(2, graph.getOutgoingEnd(node) - graph.getOutgoingStart(node))];
+		}
+		for(int edgeId = 0; edgeId < graph.getNumberOfEdges(); edgeId++)
+			if(weights[edgeId] != Double.MAX_VALUE && graph.getSource(edgeId) != graph.getDestination(edgeId))
+				addArc(graph.getSource(edgeId), graph.getDestination(edgeId), weights[edgeId], edgeId, -1, -1);
+
+		contracted = new boolean[n];
+		contractedNeighbours = new int[n];
+		neighbourStamps = new int[n];
+		bestInArcs = new int[n];
+		bestOutArcs = new int[n];
+		inNeighbours = new int[n];
+		outNeighbours = new int[n];
+		witnessDistances = new double[n];
+		witnessStamps = new int[n];
+		witnessQueue = new IntPriorityQueue(4, n);
+
+		double[] priorities = new double[n];
+		IntPriorityQueue queue = new IntPriorityQueue(4, n);
+		for(int node = 0; node < n; node++) {
+			priorities[node] = getPriority(node);
+			queue.add(node, priorities[node], 0, node);
+		}
+
+		int rank = 0;
+		while(!queue.isEmpty()) {
+			int node = queue.poll();
+			// Lazy update: the priority might have increased since it was queued.
+			double priority = getPriority(node);
+			if(!queue.isEmpty() && priority > priorities[queue.peek()]) {
+				priorities[node] = priority;
+				queue.add(node, priority, 0, node);
+				continue;
+			}
+
+			contractNode(node, false);
+			contracted[node] = true;
+			ranks[node] = rank++;
+
+			int[] neighbours = new int[numberOfInNeighbours + numberOfOutNeighbours];
+			System.arraycopy(inNeighbours, 0, neighbours, 0, numberOfInNeighbours);
+			System.arraycopy(outNeighbours, 0, neighbours, numberOfInNeighbours, numberOfOutNeighbours);
+			for(int neighbour : neighbours) {
+				contractedNeighbours[neighbour]++;
+				priorities[neighbour] = getPriority(neighbour);
+				queue.add(neighbour, priorities[neighbour], 0, neighbour);
+			}
+		}
+
+		inLists = null;
+		outLists = null;
+		inSizes = null;
+		outSizes = null;
+		contracted = null;
+		contractedNeighbours = null;
+		neighbourStamps = null;
+		bestInArcs = null;
+		bestOutArcs = null;
+		inNeighbours = null;
+		outNeighbours = null;
+		witnessDistances = null;
+		witnessStamps = null;
+		witnessQueue = null;
+	}
+
+	/**
+	 * Edge difference (shortcuts added minus arcs removed) plus the number of
+	 * already contracted neighbours, to spread the contraction uniformly.
+	 */
+	private double getPriority(int node) {
+		int shortcuts = contractNode(node, true);
+		return shortcuts - numberOfInNeighbours - numberOfOutNeighbours + contractedNeighbours[node];
+	}
+
+	/**
+	 * Contracts a Node or only counts the shortcuts its contraction needs.
+	 * Also collects its remaining in and out neighbours.
+	 * @return Number of shortcuts.
+	 */
+	private int contractNode(int node, boolean simulate) {
+		// Lightest arc from/to each remaining neighbour.
+		neighbourEpoch++;
+		numberOfInNeighbours = 0;
+		for(int i = 0; i < inSizes[node]; i++) {
+			int arc = inLists[node][i];
+			int neighbour = arcSources[arc];
+			if(contracted[neighbour])
+				continue;
+			if(neighbourStamps[neighbour] != neighbourEpoch) {
+				neighbourStamps[neighbour] = neighbourEpoch;
+				bestInArcs[neighbour] = arc;
+				inNeighbours[numberOfInNeighbours++] = neighbour;
+			}
+			else if(arcWeights[arc] < arcWeights[bestInArcs[neighbour]])
+				bestInArcs[neighbour] = arc;
+		}
+		neighbourEpoch++;
+		numberOfOutNeighbours = 0;
+		for(int i = 0; i < outSizes[node]; i++) {
+			int arc = outLists[node][i];
+			int neighbour = arcDestinations[arc];
+			if(contracted[neighbour])
+				continue;
+			if(neighbourStamps[neighbour] != neighbourEpoch) {
+				neighbourStamps[neighbour] = neighbourEpoch;
+				bestOutArcs[neighbour] = arc;
+				outNeighbours[numberOfOutNeighbours++] = neighbour;
+			}
+			else if(arcWeights[arc] < arcWeights[bestOutArcs[neighbour]])
+				bestOutArcs[neighbour] = arc;
+		}
+
+		int shortcuts = 0;
+		int numberOfIn = numberOfInNeighbours;
+		int numberOfOut = numberOfOutNeighbours;
+		for(int i = 0; i < numberOfIn; i++) {
+			int from = inNeighbours[i];
+			int inArc = bestInArcs[from];
+			double maxDistance = -1;
+			for(int j = 0; j < numberOfOut; j++)
+				if(outNeighbours[j] != from)
+					maxDistance = Math.max(maxDistance, arcWeights[inArc] + arcWeights[bestOutArcs[outNeighbours[j]]]);
+			if(maxDistance == -1)
+				continue;
+
+			findWitnesses(from, node, maxDistance);
+			for(int j = 0; j < numberOfOut; j++) {
+				int to = outNeighbours[j];
+				if(to == from)
+					continue;
+				int outArc = bestOutArcs[to];
+				double distance = arcWeights[inArc] + arcWeights[outArc];
+				if(witnessStamps[to] == witnessEpoch && witnessDistances[to] <= distance)
+					continue;
+				shortcuts++;
+				if(!simulate)
+					addArc(from, to, distance, -1, inArc, outArc);
+			}
+		}
+		return shortcuts;
+	}
+
+	/**
+	 * Local Dijkstra from a Node on the remaining Nodes but one, bounded in
+	 * distance and in number of settled Nodes. The distances found are upper
+	 * bounds of the shortest distances without the ignored Node.
+	 */
+	private void findWitnesses(int source, int ignoredNode, double maxDistance) {
+		witnessEpoch++;
+		witnessStamps[source] = witnessEpoch;
+		witnessDistances[source] = 0;
+		witnessQueue.add(source, 0, 0, source);
+		int settled = 0;
+		while(!witnessQueue.isEmpty()) {
+			int node = witnessQueue.poll();
+			double distance = witnessDistances[node];
+			if(distance > maxDistance || ++settled > WITNESS_SETTLED_LIMIT)
+				break;
+			for(int i = 0; i < outSizes[node]; i++) {
+				int arc = outLists[node][i];
+				int next = arcDestinations[arc];
+				if(next == ignoredNode || contracted[next])
+					continue;
+				double newDistance = distance + arcWeights[arc];
+				if(witnessStamps[next] != witnessEpoch || newDistance < witnessDistances[next]) {
+					witnessStamps[next] = witnessEpoch;
+					witnessDistances[next] = newDistance;
+					witnessQueue.add(next, newDistance, 0, next);
+				}
+			}
+		}
+		witnessQueue.clear();
+	}
+
+	private void addArc(int source, int destination, double weight, int edgeId, int firstChild, int secondChild) {
+		if(numberOfArcs == arcSources.length) {
+			int capacity = 2 * numberOfArcs;
+			arcSources = Arrays.copyOf(arcSources, capacity);
+			arcDestinations = Arrays.copyOf(arcDestinations, capacity);
+			arcWeights = Arrays.copyOf(arcWeights, capacity);
+			arcEdges = Arrays.copyOf(arcEdges, capacity);
+			arcFirstChildren = Arrays.copyOf(arcFirstChildren, capacity);
+			arcSecondChildren = Arrays.copyOf(arcSecondChildren, capacity);
+		}
+		int arc = numberOfArcs++;
+		arcSources[arc] = source;
+		arcDestinations[arc] = destination;
+		arcWeights[arc] = weight;
+		arcEdges[arc] = edgeId;
+		arcFirstChildren[arc] = firstChild;
+		arcSecondChildren[arc] = secondChild;
+
+		if(outSizes[source] == outLists[source].length)
+			outLists[source] = Arrays.copyOf(outLists[source], 2 * outSizes[source]);
+		outLists[source][outSizes[source]++] = arc;
+		if(inSizes[destination] == inLists[destination].length)
+			inLists[destination] = Arrays.copyOf(inLists[destination], 2 * inSizes[destination]);
+		inLists[destination][inSizes[destination]++] = arc;
+	}
+
+	/**
+	 * Builds the CSR arrays of the upward and downward arcs.
+	 */
+	private void buildSearchGraph() {
+		int n = graph.getNumberOfNodes();
+		upwardOffsets = new int[n + 1];
+		downwardOffsets = new int[n + 1];
+		for(int arc = 0; arc < numberOfArcs; arc++) {
+			if(ranks[arcDestinations[arc]] > ranks[arcSources[arc]])
+				upwardOffsets[arcSources[arc] + 1]++;
+			else
+				downwardOffsets[arcDestinations[arc] + 1]++;
+		}
+		for(int node = 0; node < n; node++) {
+			upwardOffsets[node + 1] += upwardOffsets[node];
+			downwardOffsets[node + 1] += downwardOffsets[node];
+		}
+
+		upwardArcs = new int[upwardOffsets[n]];
+		downwardArcs = new int[downwardOffsets[n]];
+		int[] upwardPositions = Arrays.copyOf(upwardOffsets, n);
+		int[] downwardPositions = Arrays.copyOf(downwardOffsets, n);
+		for(int arc = 0; arc < numberOfArcs; arc++) {
+			if(ranks[arcDestinations[arc]] > ranks[arcSources[arc]])
+				upwardArcs[upwardPositions[arcSources[arc]]++] = arc;
+			else
+				downwardArcs[downwardPositions[arcDestinations[arc]]++] = arc;
+		}
+	}
+}
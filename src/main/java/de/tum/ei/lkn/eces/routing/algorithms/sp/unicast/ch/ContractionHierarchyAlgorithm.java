@@ -0,0 +1,374 @@
+package de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.ch;
+
+import de.tum.ei.lkn.eces.core.Controller;
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.graph.Graph;
+import de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa.TempIterablePath;
+import de.tum.ei.lkn.eces.routing.algorithms.sp.SPAlgorithm;
+import de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.dijkstra.DijkstraAlgorithm;
+import de.tum.ei.lkn.eces.routing.compiledgraph.CompiledGraph;
+import de.tum.ei.lkn.eces.routing.easygraph.MetricsChangeSystem;
+import de.tum.ei.lkn.eces.routing.exceptions.RoutingException;
+import de.tum.ei.lkn.eces.routing.interfaces.SolveUnicastRequest;
+import de.tum.ei.lkn.eces.routing.proxies.EdgeProxy;
+import de.tum.ei.lkn.eces.routing.proxies.PathProxy;
+import de.tum.ei.lkn.eces.routing.proxies.PreviousEdgeProxy;
+import de.tum.ei.lkn.eces.routing.proxies.ProxyTypes;
+import de.tum.ei.lkn.eces.routing.requests.Request;
+import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
+import de.tum.ei.lkn.eces.routing.responses.Path;
+import de.tum.ei.lkn.eces.routing.responses.Response;
+import org.apache.commons.lang3.NotImplementedException;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 2008
+ * "Contraction Hierarchies: Faster and Simpler Hierarchical Routing in Road
+ * Networks"
+ * R. Geisberger, P. Sanders, D. Schultes and D. Delling
+ *
+ * Shortest paths for EdgeProxy's without constraints, answered on a
+ * ContractionHierarchy of the Graph. The hierarchy is computed by preprocess()
+ * or, if missing, on the first Request for a Graph, with the costs of the
+ * Edges for that Request.
+ *
+ * Changes are detected from the ECS events when the algorithm is created
+ * with a MetricsChangeSystem: the hierarchy of a Graph is outdated as soon as
+ * one of its Edges is created or destroyed or the Metrics of one of its Edges
+ * change, until detach() is called. The Path found is also checked against
+ * the Proxy, which detects the other changes affecting it. Proxies whose
+ * costs change otherwise (e.g., depend on the Request or are not stored in
+ * Metrics Components) have to call invalidate() or use enableMetricsCheck(),
+ * which compares the costs and accesses of all the Edges to the ones of the
+ * hierarchy for each Request (an O(|E|) step). Without MetricsChangeSystem,
+ * the metrics check is enabled by default.
+ * On a change, the hierarchy is recomputed (rebuildMode(), default) or the
+ * Requests are routed by Dijkstra until the next preprocess() (fallbackMode()).
+ *
+ * Dijkstra is also used for what the hierarchy cannot handle: other Proxy
+ * types, constraints, negative costs and Requests whose source is the
+ * destination.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public class ContractionHierarchyAlgorithm extends SPAlgorithm implements SolveUnicastRequest {
+	/**
+	 * Path argument for the Proxy: ignored in EDGE_PROXY mode.
+	 */
+	private static final TempIterablePath NO_PATH = new TempIterablePath(null, null);
+
+	/**
+	 * Hierarchy of each Graph.
+	 */
+	private final Map<Graph, ContractionHierarchy> hierarchies = new IdentityHashMap<>();
+
+	/**
+	 * Algorithm used when the hierarchy cannot answer.
+	 */
+	private DijkstraAlgorithm dijkstra;
+
+	/**
+	 * Whether the metrics are compared to the ones of the hierarchy for each
+	 * Request.
+	 */
+	private boolean metricsCheck;
+
+	/**
+	 * Whether a hierarchy is recomputed when a change is detected.
+	 */
+	private boolean rebuild = true;
+
+	/**
+	 * System notifying the changes of the Metrics, null if none.
+	 */
+	private MetricsChangeSystem metricsChangeSystem;
+
+	/**
+	 * Listener added to the MetricsChangeSystem.
+	 */
+	private final Consumer<Graph> metricsListener = this::setOutdated;
+
+	/**
+	 * Creates an algorithm detecting the changes with the metrics check.
+	 * @param controller Controller.
+	 */
+	public ContractionHierarchyAlgorithm(Controller controller) {
+		super(controller);
+		dijkstra = new DijkstraAlgorithm(controller);
+		metricsCheck = true;
+	}
+
+	/**
+	 * Creates an algorithm detecting the changes from the events of a
+	 * MetricsChangeSystem, which can be shared by several algorithms (e.g.,
+	 * the copies made by a RoutingAlgorithmCloner).
+	 * @param controller Controller.
+	 * @param metricsChangeSystem System notifying the changes.
+	 */
+	public ContractionHierarchyAlgorithm(Controller controller, MetricsChangeSystem metricsChangeSystem) {
+		super(controller);
+		dijkstra = new DijkstraAlgorithm(controller);
+		metricsCheck = false;
+		this.metricsChangeSystem = metricsChangeSystem;
+		metricsChangeSystem.addListener(metricsListener);
+	}
+
+	/**
+	 * Stops listening to the MetricsChangeSystem given at creation, so that it
+	 * does not hold the algorithm anymore. The metrics check is enabled, as
+	 * changes are not notified anymore.
+	 */
+	public synchronized void detach() {
+		if(metricsChangeSystem != null) {
+			metricsChangeSystem.removeListener(metricsListener);
+			metricsChangeSystem = null;
+			metricsCheck = true;
+		}
+	}
+
+	/**
+	 * Compares the metrics to the ones of the hierarchy for each Request, to
+	 * also detect the changes which are not notified by ECS events or
+	 * invalidate().
+	 */
+	public void enableMetricsCheck() {
+		metricsCheck = true;
+	}
+
+	/**
+	 * Only detects the changes notified by ECS events or invalidate() and the
+	 * ones affecting the Path found (default with a MetricsChangeSystem).
+	 */
+	public void disableMetricsCheck() {
+		metricsCheck = false;
+	}
+
+	/**
+	 * Recomputes a hierarchy as soon as a change is detected.
+	 */
+	public void rebuildMode() {
+		rebuild = true;
+	}
+
+	/**
+	 * Routes with Dijkstra when a hierarchy is outdated, until it is
+	 * recomputed by preprocess().
+	 */
+	public void fallbackMode() {
+		rebuild = false;
+	}
+
+	/**
+	 * Computes the hierarchy of a Graph with the costs of the Proxy for a
+	 * Request whose source and destination are not set.
+	 * @param graph Graph.
+	 */
+	public void preprocess(Graph graph) {
+		preprocess(graph, new UnicastRequest(null, null));
+	}
+
+	/**
+	 * Computes the hierarchy of a Graph.
+	 * @param graph Graph.
+	 * @param referenceRequest Request for which the costs are read.
+	 */
+	public synchronized void preprocess(Graph graph, UnicastRequest referenceRequest) {
+		if(proxy == null || proxy.getType() != ProxyTypes.EDGE_PROXY || proxy.getNumberOfConstraints(referenceRequest) != 0)
+			throw new RoutingException("Contraction hierarchies can only be computed for EdgeProxy's without constraints");
+		CompiledGraph compiledGraph = new CompiledGraph(graph);
+		double[] weights = getWeights(compiledGraph, referenceRequest);
+		if(weights == null)
+			hierarchies.remove(graph);
+		else
+			hierarchies.put(graph, new ContractionHierarchy(compiledGraph, weights));
+	}
+
+	/**
+	 * @param graph Graph.
+	 * @return The hierarchy of the Graph or null if there is none.
+	 */
+	public synchronized ContractionHierarchy getContractionHierarchy(Graph graph) {
+		return hierarchies.get(graph);
+	}
+
+	/**
+	 * Drops the hierarchy of a Graph. It is recomputed on the next Request
+	 * for this Graph.
+	 * @param graph Graph.
+	 */
+	public synchronized void invalidate(Graph graph) {
+		hierarchies.remove(graph);
+	}
+
+	/**
+	 * Drops all the hierarchies.
+	 */
+	public synchronized void invalidate() {
+		hierarchies.clear();
+	}
+
+	/**
+	 * Marks the hierarchy of a Graph as outdated.
+	 * @param graph Graph (null for all the Graphs).
+	 */
+	private synchronized void setOutdated(Graph graph) {
+		if(graph == null) {
+			for(ContractionHierarchy hierarchy : hierarchies.values())
+				hierarchy.setOutdated();
+		}
+		else if(hierarchies.containsKey(graph)) {
+			hierarchies.get(graph).setOutdated();
+		}
+	}
+
+	@Override
+	public void setProxy(EdgeProxy edgeProxy) {
+		super.setProxy(edgeProxy);
+		setProxy();
+	}
+
+	@Override
+	public void setProxy(PreviousEdgeProxy previousEdgeProxy) {
+		super.setProxy(previousEdgeProxy);
+		setProxy();
+	}
+
+	@Override
+	public void setProxy(PathProxy pathProxy) {
+		super.setProxy(pathProxy);
+		setProxy();
+	}
+
+	private void setProxy() {
+		dijkstra.setProxy(proxy);
+		invalidate();
+	}
+
+	@Override
+	protected Response solveNoChecks(Request request) {
+		if(request instanceof UnicastRequest)
+			return solveNoChecks((UnicastRequest) request);
+		else
+			throw new NotImplementedException("Contraction hierarchies only support unicast requests!");
+	}
+
+	@Override
+	public synchronized Response solveNoChecks(UnicastRequest request) {
+		if(proxy.getType() != ProxyTypes.EDGE_PROXY ||
+				proxy.getNumberOfConstraints(request) != 0 ||
+				request.getSource() == request.getDestination() ||
+				request.getSource().getGraph() != request.getDestination().getGraph())
+			return dijkstra.solveNoChecks(request);
+
+		Graph graph = request.getSource().getGraph();
+		ContractionHierarchy hierarchy = hierarchies.get(graph);
+		double[] weights = null;
+		if(hierarchy != null && (hierarchy.isOutdated() || hierarchy.hasTopologyChanged(graph))) {
+			if(!rebuild) {
+				hierarchy.setOutdated();
+				return dijkstra.solveNoChecks(request);
+			}
+			hierarchy = null;
+		}
+		else if(hierarchy != null && metricsCheck) {
+			weights = getWeights(hierarchy.getCompiledGraph(), request);
+			if(weights == null || !hierarchy.hasWeights(weights)) {
+				if(!rebuild) {
+					hierarchy.setOutdated();
+					return dijkstra.solveNoChecks(request);
+				}
+				hierarchy = null;
+			}
+		}
+
+		if(hierarchy == null) {
+			CompiledGraph compiledGraph = new CompiledGraph(graph);
+			weights = getWeights(compiledGraph, request);
+			if(weights == null) {
+				// Negative costs.
+				hierarchies.remove(graph);
+				return dijkstra.solveNoChecks(request);
+			}
+			hierarchy = new ContractionHierarchy(compiledGraph, weights);
+			hierarchies.put(graph, hierarchy);
+		}
+
+		CompiledGraph compiledGraph = hierarchy.getCompiledGraph();
+		int source = compiledGraph.getNodeId(request.getSource());
+		int destination = compiledGraph.getNodeId(request.getDestination());
+		if(source == -1 || destination == -1)
+			return dijkstra.solveNoChecks(request);
+
+		Edge[] edges = hierarchy.getShortestPath(source, destination);
+		if(edges == null)
+			return null;
+
+		// Parameters and cost of the Path, which also checks that the metrics
+		// of its Edges did not change. If they did, the hierarchy is outdated
+		// and this Request is routed by Dijkstra.
+		double[] parameters = new double[proxy.getNumberOfParameters(request)];
+		double cost = 0;
+		double hierarchyCost = 0;
+		for(Edge edge : edges) {
+			parameters = proxy.getNewParameters(NO_PATH, edge, parameters, request, isForward());
+			if(!proxy.hasAccess(NO_PATH, edge, parameters, request, isForward())) {
+				hierarchy.setOutdated();
+				return dijkstra.solveNoChecks(request);
+			}
+			double edgeCost = proxy.getCost(NO_PATH, edge, parameters, request, isForward());
+			if(edgeCost != hierarchy.getWeight(compiledGraph.getEdgeId(edge))) {
+				hierarchy.setOutdated();
+				return dijkstra.solveNoChecks(request);
+			}
+			cost += edgeCost;
+		}
+
+		return new Path(edges, cost, new double[0], parameters);
+	}
+
+	/**
+	 * Reads the costs of the Edges of a snapshot.
+	 * @return The costs indexed by Edge ID, with Double.MAX_VALUE for Edges
+	 *         without access, or null if a cost is negative.
+	 */
+	private double[] getWeights(CompiledGraph compiledGraph, Request request) {
+		double[] weights = new double[compiledGraph.getNumberOfEdges()];
+		double[] initialParameters = new double[proxy.getNumberOfParameters(request)];
+		for(int edgeId = 0; edgeId < weights.length; edgeId++) {
+			Edge edge = compiledGraph.getEdge(edgeId);
+			double[] parameters = proxy.getNewParameters(NO_PATH, edge, initialParameters, request, isForward());
+			if(!proxy.hasAccess(NO_PATH, edge, parameters, request, isForward())) {
+				weights[edgeId] = Double.MAX_VALUE;
+				continue;
+			}
+			weights[edgeId] = proxy.getCost(NO_PATH, edge, parameters, request, isForward());
+			if(weights[edgeId] < 0)
+				return null;
+		}
+		return weights;
+	}
+
+	@Override
+	public boolean isForward() {
+		return true;
+	}
+
+	@Override
+	public boolean isOptimal() {
+		return dijkstra.isOptimal();
+	}
+
+	@Override
+	public boolean isComplete() {
+		return dijkstra.isComplete();
+	}
+
+	@Override
+	public boolean isValid() {
+		return dijkstra.isValid();
+	}
+}
@@ -4,8 +4,10 @@ import de.tum.ei.lkn.eces.core.Controller;
 import de.tum.ei.lkn.eces.graph.Edge;
 import de.tum.ei.lkn.eces.graph.Node;
 import de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa.QueueMode;
+import de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa.ShortestPathTreeCache;
 import de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa.UniversalPriorityQueueAlgorithm;
 import de.tum.ei.lkn.eces.routing.algorithms.sp.SPAlgorithm;
+import de.tum.ei.lkn.eces.routing.compiledgraph.CompiledGraphSystem;
 import de.tum.ei.lkn.eces.routing.interfaces.BD;
 import de.tum.ei.lkn.eces.routing.interfaces.NToOneAlgorithm;
 import de.tum.ei.lkn.eces.routing.interfaces.OneToNAlgorithm;
@@ -52,6 +54,53 @@ public class DijkstraAlgorithm extends SPAlgorithm implements SolveUnicastReques
 		upqa.setQueueMode(QueueMode.EDGE);
 	}
 
+	/**
+	 * Configure Dijkstra to solve point-to-point requests with a bidirectional
+	 * search whenever the request allows it.
+	 */
+	public void bidirectionalMode() {
+		upqa.enableBidirectionalMode();
+	}
+
+	/**
+	 * Configure Dijkstra to only search from the source.
+	 */
+	public void unidirectionalMode() {
+		upqa.disableBidirectionalMode();
+	}
+
+	/**
+	 * Configure Dijkstra to run on the CompiledGraph snapshots (int IDs and
+	 * primitive arrays) whenever the request allows it.
+	 * @param compiledGraphSystem System providing the snapshots.
+	 */
+	public void compiledGraphMode(CompiledGraphSystem compiledGraphSystem) {
+		upqa.enableCompiledGraphMode(compiledGraphSystem);
+	}
+
+	/**
+	 * Configure Dijkstra to run on the Graph objects.
+	 */
+	public void objectGraphMode() {
+		upqa.disableCompiledGraphMode();
+	}
+
+	/**
+	 * Configure Dijkstra to take the trees toward a destination from a cache
+	 * (possibly shared with other algorithms) whenever possible.
+	 * @param cache Cache of trees.
+	 */
+	public void cachedTreesMode(ShortestPathTreeCache cache) {
+		upqa.enableShortestPathTreeCache(cache);
+	}
+
+	/**
+	 * Configure Dijkstra to always compute the trees toward a destination.
+	 */
+	public void uncachedTreesMode() {
+		upqa.disableShortestPathTreeCache();
+	}
+
 	/**
 	 * Set maximum proxy type handled by A*.
 	 * @param type Maximum proxy type.
@@ -0,0 +1,26 @@
+package de.tum.ei.lkn.eces.routing.budget;
+
+/**
+ * Reason for which a RoutingBudget has been exhausted.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public enum BudgetLimit {
+	/**
+	 * The wall-clock deadline has passed.
+	 */
+	TIME,
+	/**
+	 * The maximum number of queue pops has been reached.
+	 */
+	QUEUE_POPS,
+	/**
+	 * The maximum number of Proxy calls has been reached.
+	 */
+	PROXY_CALLS,
+	/**
+	 * The thread solving the Request has been interrupted.
+	 */
+	INTERRUPTED
+}
@@ -0,0 +1,76 @@
+package de.tum.ei.lkn.eces.routing.budget;
+
+import de.tum.ei.lkn.eces.core.Component;
+import de.tum.ei.lkn.eces.core.annotations.ComponentBelongsTo;
+import de.tum.ei.lkn.eces.routing.RoutingSystem;
+
+/**
+ * Limits on the work an algorithm may spend on a Request.
+ *
+ * A RoutingBudget can be attached to the Entity of a Request or set on a
+ * RoutingAlgorithm (used for the Requests without budget). It is checked
+ * cooperatively in the main loops of the heuristics (LARAC, KSPMC, A*Prune
+ * and CBF). When it is exhausted, the algorithm returns the best valid Path
+ * found so far or, if none, a BudgetExceededResponse.
+ *
+ * Queue pops are the elements taken out of the priority queue of the
+ * algorithm or, for algorithms without own queue, the iterations of the main
+ * loop (LARAC iterations, KSPMC candidate paths).
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+@ComponentBelongsTo(system = RoutingSystem.class)
+public class RoutingBudget extends Component {
+	/**
+	 * Value meaning that a limit is not used.
+	 */
+	public static final long UNLIMITED = Long.MAX_VALUE;
+
+	private final long timeLimitMillis;
+	private final long maximumNumberOfQueuePops;
+	private final long maximumNumberOfProxyCalls;
+
+	/**
+	 * Creates a new RoutingBudget.
+	 * @param timeLimitMillis Wall-clock time available for solving a Request
+	 *                        (ms).
+	 * @param maximumNumberOfQueuePops Maximum number of queue pops.
+	 * @param maximumNumberOfProxyCalls Maximum number of Proxy calls.
+	 */
+	public RoutingBudget(long timeLimitMillis, long maximumNumberOfQueuePops, long maximumNumberOfProxyCalls) {
+		if(timeLimitMillis < 0 || maximumNumberOfQueuePops < 0 || maximumNumberOfProxyCalls < 0)
+			throw new IllegalArgumentException("The limits of a routing budget cannot be negative");
+		this.timeLimitMillis = timeLimitMillis;
+		this.maximumNumberOfQueuePops = maximumNumberOfQueuePops;
+		this.maximumNumberOfProxyCalls = maximumNumberOfProxyCalls;
+	}
+
+	/**
+	 * Creates a new RoutingBudget only limiting the wall-clock time.
+	 * @param timeLimitMillis Wall-clock time available for solving a Request
+	 *                        (ms).
+	 */
+	public RoutingBudget(long timeLimitMillis) {
+		this(timeLimitMillis, UNLIMITED, UNLIMITED);
+	}
+
+	public long getTimeLimitMillis() {
+		return timeLimitMillis;
+	}
+
+	public long getMaximumNumberOfQueuePops() {
+		return maximumNumberOfQueuePops;
+	}
+
+	public long getMaximumNumberOfProxyCalls() {
+		return maximumNumberOfProxyCalls;
+	}
+
+	@Override
+	public String toString() {
+		return "RoutingBudget (" + (timeLimitMillis == UNLIMITED ? "-" : timeLimitMillis + "ms") + ", "
+				+ (maximumNumberOfQueuePops == UNLIMITED ? "-" : maximumNumberOfQueuePops) + " pops, "
+				+ (maximumNumberOfProxyCalls == UNLIMITED ? "-" : maximumNumberOfProxyCalls) + " proxy calls)";
+	}
+}
@@ -0,0 +1,165 @@
+package de.tum.ei.lkn.eces.routing.budget;
+
+/**
+ * Consumption of a RoutingBudget by the Request currently solved by a thread.
+ *
+ * The tracker is started by the outermost RoutingAlgorithm.solve() call of a
+ * Request having a budget and is shared with the algorithms it calls. The
+ * algorithms get it with current() at the beginning of their computation and
+ * report their work with pop() and proxyCalls(). Without budget, current()
+ * returns a tracker never exhausted.
+ *
+ * The clock and the interruption flag of the thread are only read every few
+ * operations to keep the checks cheap.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public final class RoutingBudgetTracker {
+	private static final ThreadLocal<RoutingBudgetTracker> CURRENT = new ThreadLocal<>();
+
+	/**
+	 * Tracker used when no budget is active.
+	 */
+	private static final RoutingBudgetTracker UNLIMITED_TRACKER = new RoutingBudgetTracker(null);
+
+	/**
+	 * Number of operations between two checks of the clock.
+	 */
+	private static final int TIME_CHECK_INTERVAL = 64;
+
+	private final RoutingBudget budget;
+	private final boolean hasDeadline;
+	private final long deadline;
+	private long numberOfQueuePops;
+	private long numberOfProxyCalls;
+	private int operationsSinceTimeCheck;
+	private BudgetLimit exhaustedLimit;
+
+	private RoutingBudgetTracker(RoutingBudget budget) {
+		this.budget = budget;
+		this.hasDeadline = budget != null && budget.getTimeLimitMillis() < RoutingBudget.UNLIMITED / 1000000;
+		this.deadline = hasDeadline ? System.nanoTime() + budget.getTimeLimitMillis() * 1000000 : 0;
+	}
+
+	/**
+	 * @return The tracker of the Request solved by the current thread.
+	 */
+	public static RoutingBudgetTracker current() {
+		RoutingBudgetTracker tracker = CURRENT.get();
+		if(tracker == null)
+			return UNLIMITED_TRACKER;
+		return tracker;
+	}
+
+	/**
+	 * @return true if a budget is tracked for the current thread.
+	 */
+	public static boolean isActive() {
+		return CURRENT.get() != null;
+	}
+
+	/**
+	 * Starts tracking a budget for the current thread.
+	 * @param budget Budget of the Request.
+	 * @return The new tracker.
+	 */
+	public static RoutingBudgetTracker start(RoutingBudget budget) {
+		RoutingBudgetTracker tracker = new RoutingBudgetTracker(budget);
+		CURRENT.set(tracker);
+		return tracker;
+	}
+
+	/**
+	 * Stops tracking the budget of the current thread.
+	 */
+	public static void stop() {
+		CURRENT.remove();
+	}
+
+	/**
+	 * Counts an element taken out of a queue (or an iteration of a main loop).
+	 * To be called before taking the element.
+	 * @return true if the element can be taken, false if the budget is
+	 *         exhausted.
+	 */
+	public boolean pop() {
+		if(budget == null)
+			return true;
+		if(exhaustedLimit != null)
+			return false;
+		if(++numberOfQueuePops > budget.getMaximumNumberOfQueuePops())
+			exhaustedLimit = BudgetLimit.QUEUE_POPS;
+		else
+			periodicCheck();
+		return exhaustedLimit == null;
+	}
+
+	/**
+	 * Counts calls to the Proxy evaluating an Edge (parameters, access, cost,
+	 * constraints) or a guess, as they are made.
+	 * @param numberOfCalls Number of calls.
+	 * @return true if the budget is not exhausted.
+	 */
+	public boolean proxyCalls(int numberOfCalls) {
+		if(budget == null)
+			return true;
+		if(exhaustedLimit != null)
+			return false;
+		numberOfProxyCalls += numberOfCalls;
+		if(numberOfProxyCalls > budget.getMaximumNumberOfProxyCalls())
+			exhaustedLimit = BudgetLimit.PROXY_CALLS;
+		else
+			periodicCheck();
+		return exhaustedLimit == null;
+	}
+
+	/**
+	 * Checks the budget without counting any operation.
+	 * @return true if the budget is exhausted.
+	 */
+	public boolean isExhausted() {
+		if(budget == null)
+			return false;
+		if(exhaustedLimit == null)
+			check();
+		return exhaustedLimit != null;
+	}
+
+	/**
+	 * @return The limit that has been reached or null if the budget is not
+	 *         exhausted.
+	 */
+	public BudgetLimit getExhaustedLimit() {
+		return exhaustedLimit;
+	}
+
+	/**
+	 * @return The tracked budget or null if no budget is active.
+	 */
+	public RoutingBudget getBudget() {
+		return budget;
+	}
+
+	public long getNumberOfQueuePops() {
+		return numberOfQueuePops;
+	}
+
+	public long getNumberOfProxyCalls() {
+		return numberOfProxyCalls;
+	}
+
+	private void periodicCheck() {
+		if(++operationsSinceTimeCheck >= TIME_CHECK_INTERVAL) {
+			operationsSinceTimeCheck = 0;
+			check();
+		}
+	}
+
+	private void check() {
+		if(hasDeadline && System.nanoTime() - deadline >= 0)
+			exhaustedLimit = BudgetLimit.TIME;
+		else if(Thread.currentThread().isInterrupted())
+			exhaustedLimit = BudgetLimit.INTERRUPTED;
+	}
+}
@@ -0,0 +1,241 @@
+package de.tum.ei.lkn.eces.routing.compiledgraph;
+
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.graph.Graph;
+import de.tum.ei.lkn.eces.graph.Node;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable compressed sparse row (CSR) snapshot of a Graph.
+ *
+ * Nodes and Edges are identified by consecutive int IDs, in the order of Graph.getNodes() and Graph.getEdges(). The
+ * outgoing Edges of a Node are listed (in the order of Node.getOutgoingConnections()) from getOutgoingStart(node) to
+ * getOutgoingEnd(node) - 1 and a reverse CSR does the same for the incoming Edges, for backward searches.
+ *
+ * Algorithms can hence store their labels in primitive arrays indexed by these IDs and go back to the Node and Edge
+ * objects only when calling the Proxy or creating the final Path.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public class CompiledGraph {
+	/**
+	 * Graph from which the snapshot was built.
+	 */
+	private final Graph graph;
+
+	/**
+	 * Nodes and Edges indexed by their ID.
+	 */
+	private final Node[] nodes;
+	private final Edge[] edges;
+
+	/**
+	 * IDs of the Nodes and Edges.
+	 */
+	private final Map<Node, Integer> nodeIds;
+	private final Map<Edge, Integer> edgeIds;
+
+	/**
+	 * Source and destination Node IDs of each Edge.
+	 */
+	private final int[] edgeSources;
+	private final int[] edgeDestinations;
+
+	/**
+	 * Forward CSR: the outgoing Edges of Node n are
+	 * outgoingEdges[outgoingOffsets[n]..outgoingOffsets[n+1]-1].
+	 */
+	private final int[] outgoingOffsets;
+	private final int[] outgoingEdges;
+
+	/**
+	 * Reverse CSR: the incoming Edges of Node n are
+	 * incomingEdges[incomingOffsets[n]..incomingOffsets[n+1]-1].
+	 */
+	private final int[] incomingOffsets;
+	private final int[] incomingEdges;
+
+	/**
+	 * Builds the snapshot of a Graph.
+	 * @param graph Graph.
+	 */
+	public CompiledGraph(Graph graph) {
+		this.graph = graph;
+		List<Node> nodeList = graph.getNodes();
+		List<Edge> edgeList = graph.getEdges();
+
+		nodes = nodeList.toArray(new Node[0]);
+		nodeIds = new IdentityHashMap<>(nodes.length);
+		for(int i = 0; i < nodes.length; i++)
+			nodeIds.put(nodes[i], i);
+
+		edges = edgeList.toArray(new Edge[0]);
+		edgeIds = new IdentityHashMap<>(edges.length);
+		edgeSources = new int[edges.length];
+		edgeDestinations = new int[edges.length];
+		for(int i = 0; i < edges.length; i++) {
+			edgeIds.put(edges[i], i);
+			edgeSources[i] = nodeIds.get(edges[i].getSource());
+			edgeDestinations[i] = nodeIds.get(edges[i].getDestination());
+		}
+
+		outgoingOffsets = new int[nodes.length + 1];
+		incomingOffsets = new int[nodes.length + 1];
+		for(int i = 0; i < nodes.length; i++) {
+			outgoingOffsets[i + 1] = outgoingOffsets[i] + nodes[i].getOutgoingConnections().size();
+			incomingOffsets[i + 1] = incomingOffsets[i] + nodes[i].getIncomingConnections().size();
+		}
+
+		outgoingEdges = new int[outgoingOffsets[nodes.length]];
+		incomingEdges = new int[incomingOffsets[nodes.length]];
+		for(int i = 0; i < nodes.length; i++) {
+			int index = outgoingOffsets[i];
+			for(Edge edge : nodes[i].getOutgoingConnections())
+				outgoingEdges[index++] = edgeIds.get(edge);
+			index = incomingOffsets[i];
+			for(Edge edge : nodes[i].getIncomingConnections())
+				incomingEdges[index++] = edgeIds.get(edge);
+		}
+	}
+
+	public Graph getGraph() {
+		return graph;
+	}
+
+	public int getNumberOfNodes() {
+		return nodes.length;
+	}
+
+	public int getNumberOfEdges() {
+		return edges.length;
+	}
+
+	public Node getNode(int nodeId) {
+		return nodes[nodeId];
+	}
+
+	public Edge getEdge(int edgeId) {
+		return edges[edgeId];
+	}
+
+	/**
+	 * @return The Edges indexed by their ID. The array must not be modified.
+	 */
+	public Edge[] getEdges() {
+		return edges;
+	}
+
+	/**
+	 * @param node Node.
+	 * @return ID of the Node or -1 if the Node is not part of the snapshot.
+	 */
+	public int getNodeId(Node node) {
+		Integer id = nodeIds.get(node);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * @param edge Edge.
+	 * @return ID of the Edge or -1 if the Edge is not part of the snapshot.
+	 */
+	public int getEdgeId(Edge edge) {
+		Integer id = edgeIds.get(edge);
+		return id == null ? -1 : id;
+	}
+
+	public int getSource(int edgeId) {
+		return edgeSources[edgeId];
+	}
+
+	public int getDestination(int edgeId) {
+		return edgeDestinations[edgeId];
+	}
+
+	public int getOutgoingStart(int nodeId) {
+		return outgoingOffsets[nodeId];
+	}
+
+	public int getOutgoingEnd(int nodeId) {
+		return outgoingOffsets[nodeId + 1];
+	}
+
+	/**
+	 * @param index Index between getOutgoingStart(n) and getOutgoingEnd(n) - 1.
+	 * @return ID of the corresponding outgoing Edge of n.
+	 */
+	public int getOutgoingEdge(int index) {
+		return outgoingEdges[index];
+	}
+
+	public int getIncomingStart(int nodeId) {
+		return incomingOffsets[nodeId];
+	}
+
+	public int getIncomingEnd(int nodeId) {
+		return incomingOffsets[nodeId + 1];
+	}
+
+	/**
+	 * @param index Index between getIncomingStart(n) and getIncomingEnd(n) - 1.
+	 * @return ID of the corresponding incoming Edge of n.
+	 */
+	public int getIncomingEdge(int index) {
+		return incomingEdges[index];
+	}
+
+	/**
+	 * Edges adjacent to a Node in a given search direction: the outgoing Edges
+	 * when searching forward, the incoming ones when searching backward.
+	 * @param nodeId Node ID.
+	 * @param isForward Search direction.
+	 * @return Index of the first adjacent Edge.
+	 */
+	public int getAdjacentStart(int nodeId, boolean isForward) {
+		return isForward ? outgoingOffsets[nodeId] : incomingOffsets[nodeId];
+	}
+
+	public int getAdjacentEnd(int nodeId, boolean isForward) {
+		return isForward ? outgoingOffsets[nodeId + 1] : incomingOffsets[nodeId + 1];
+	}
+
+	public int getAdjacentEdge(int index, boolean isForward) {
+		return isForward ? outgoingEdges[index] : incomingEdges[index];
+	}
+
+	/**
+	 * Node reached when traversing an Edge in a given search direction.
+	 * @param edgeId Edge ID.
+	 * @param isForward Search direction.
+	 * @return ID of the destination of the Edge when searching forward, of its
+	 *         source when searching backward.
+	 */
+	public int getOpposite(int edgeId, boolean isForward) {
+		return isForward ? edgeDestinations[edgeId] : edgeSources[edgeId];
+	}
+
+	/**
+	 * Creates the source -&gt; destination Path ending (forward) or starting
+	 * (backward) at a Node from a predecessor Edge array.
+	 * @param nodeId Last Node (forward) or first Node (backward) of the Path.
+	 * @param parentEdges Edge used to reach each Node (-1 for the root).
+	 * @param isForward Direction of the search that produced parentEdges.
+	 * @return Edges of the Path, from source to destination.
+	 */
+	public Edge[] getPath(int nodeId, int[] parentEdges, boolean isForward) {
+		int length = 0;
+		for(int node = nodeId; parentEdges[node] != -1; node = getOpposite(parentEdges[node], !isForward))
+			length++;
+
+		Edge[] path = new Edge[length];
+		int index = isForward ? length - 1 : 0;
+		for(int node = nodeId; parentEdges[node] != -1; node = getOpposite(parentEdges[node], !isForward)) {
+			path[index] = edges[parentEdges[node]];
+			index += isForward ? -1 : 1;
+		}
+		return path;
+	}
+}
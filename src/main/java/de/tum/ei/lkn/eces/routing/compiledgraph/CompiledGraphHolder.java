@@ -0,0 +1,68 @@
+package de.tum.ei.lkn.eces.routing.compiledgraph;
+
+import de.tum.ei.lkn.eces.core.Component;
+import de.tum.ei.lkn.eces.core.annotations.ComponentBelongsTo;
+import de.tum.ei.lkn.eces.graph.Graph;
+
+/**
+ * Component attached to a Graph and holding the CompiledGraph snapshot of
+ * this Graph.
+ *
+ * The snapshot is invalidated by the CompiledGraphSystem when a Node or an
+ * Edge is created or destroyed and is only rebuilt the next time it is
+ * requested, so that building a Graph does not trigger one compilation per
+ * added element.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+@ComponentBelongsTo(system = CompiledGraphSystem.class)
+public class CompiledGraphHolder extends Component {
+	/**
+	 * Graph to which the Component is attached.
+	 */
+	private final Graph graph;
+
+	/**
+	 * Current snapshot, null if it has to be rebuilt.
+	 */
+	private volatile CompiledGraph compiledGraph;
+
+	public CompiledGraphHolder(Graph graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * Gets the snapshot of the Graph, rebuilding it if the Graph changed since
+	 * the last call.
+	 * @return Up to date CompiledGraph.
+	 */
+	public CompiledGraph getCompiledGraph() {
+		CompiledGraph current = compiledGraph;
+		if(current != null && isUpToDate(current))
+			return current;
+
+		synchronized(this) {
+			if(compiledGraph == null || !isUpToDate(compiledGraph))
+				compiledGraph = new CompiledGraph(graph);
+			return compiledGraph;
+		}
+	}
+
+	/**
+	 * Marks the snapshot as outdated.
+	 */
+	void invalidate() {
+		compiledGraph = null;
+	}
+
+	/**
+	 * Cheap sanity check in case an event was missed: a snapshot whose size
+	 * does not match the Graph is outdated.
+	 * @param snapshot Snapshot.
+	 * @return Whether the snapshot has the size of the Graph.
+	 */
+	private boolean isUpToDate(CompiledGraph snapshot) {
+		return snapshot.getNumberOfNodes() == graph.getNodes().size() && snapshot.getNumberOfEdges() == graph.getEdges().size();
+	}
+}
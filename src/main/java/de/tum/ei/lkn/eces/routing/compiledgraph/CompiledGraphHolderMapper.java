@@ -0,0 +1,10 @@
+package de.tum.ei.lkn.eces.routing.compiledgraph;
+
+import de.tum.ei.lkn.eces.core.Controller;
+import de.tum.ei.lkn.eces.core.Mapper;
+
+public class CompiledGraphHolderMapper extends Mapper<CompiledGraphHolder> {
+	public CompiledGraphHolderMapper(Controller controller) {
+		super(controller);
+	}
+}
@@ -0,0 +1,95 @@
+package de.tum.ei.lkn.eces.routing.compiledgraph;
+
+import de.tum.ei.lkn.eces.core.ComponentStatus;
+import de.tum.ei.lkn.eces.core.Controller;
+import de.tum.ei.lkn.eces.core.RootSystem;
+import de.tum.ei.lkn.eces.core.annotations.ComponentStateIs;
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.graph.Graph;
+import de.tum.ei.lkn.eces.graph.Node;
+
+/**
+ * System attaching to each Graph a CompiledGraphHolder Component and keeping
+ * it in sync with the Graph: each time a Node or an Edge is created or
+ * destroyed, the snapshot of its Graph is invalidated. It is rebuilt lazily,
+ * the next time an algorithm asks for it.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public class CompiledGraphSystem extends RootSystem {
+	/**
+	 * Mapper handling the CompiledGraphHolder Components.
+	 */
+	private CompiledGraphHolderMapper compiledGraphHolderMapper;
+
+	/**
+	 * Creates a new CompiledGraphSystem.
+	 * @param controller Controller responsible for the System.
+	 */
+	public CompiledGraphSystem(Controller controller) {
+		super(controller);
+		compiledGraphHolderMapper = new CompiledGraphHolderMapper(controller);
+	}
+
+	/**
+	 * Attaches an (empty) holder to a newly created Graph.
+	 * @param graph The newly created Graph.
+	 */
+	@ComponentStateIs(State = ComponentStatus.New)
+	void addGraph(Graph graph) {
+		compiledGraphHolderMapper.attachComponent(graph, new CompiledGraphHolder(graph));
+	}
+
+	/**
+	 * Removes the holder of a deleted Graph.
+	 * @param graph The deleted Graph.
+	 */
+	@ComponentStateIs(State = ComponentStatus.Destroyed)
+	void removeGraph(Graph graph) {
+		compiledGraphHolderMapper.detachComponent(graph);
+	}
+
+	@ComponentStateIs(State = ComponentStatus.New)
+	void addNode(Node node) {
+		invalidate(node.getGraph());
+	}
+
+	@ComponentStateIs(State = ComponentStatus.Destroyed)
+	void removeNode(Node node) {
+		invalidate(node.getGraph());
+	}
+
+	@ComponentStateIs(State = ComponentStatus.New)
+	void addEdge(Edge edge) {
+		invalidate(edge.getSource().getGraph());
+	}
+
+	@ComponentStateIs(State = ComponentStatus.Destroyed)
+	void removeEdge(Edge edge) {
+		invalidate(edge.getSource().getGraph());
+	}
+
+	/**
+	 * Gets the up to date snapshot of a Graph. If the Graph was created
+	 * before the System, a holder is attached to it first.
+	 * @param graph Graph.
+	 * @return Snapshot of the Graph.
+	 */
+	public CompiledGraph getCompiledGraph(Graph graph) {
+		CompiledGraphHolder holder = compiledGraphHolderMapper.get(graph.getEntity());
+		if(holder == null) {
+			holder = new CompiledGraphHolder(graph);
+			compiledGraphHolderMapper.attachComponent(graph, holder);
+		}
+		return holder.getCompiledGraph();
+	}
+
+	private void invalidate(Graph graph) {
+		if(graph == null)
+			return;
+		CompiledGraphHolder holder = compiledGraphHolderMapper.get(graph.getEntity());
+		if(holder != null)
+			holder.invalidate();
+	}
+}
@@ -0,0 +1,170 @@
+package de.tum.ei.lkn.eces.routing.compiledgraph;
+
+import java.util.Arrays;
+
+/**
+ * Indexed d-ary min-heap over int elements (e.g., Node IDs of a CompiledGraph)
+ * supporting in-place key updates.
+ *
+ * Elements are ordered by their primary key, then by their secondary key and
+ * finally by their (int) tie-break value, all in increasing order. Keys are
+ * stored in arrays indexed by the element so that no object is created per
+ * queue operation.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public class IntPriorityQueue {
+	private final int arity;
+	private int[] heap;
+	private int size = 0;
+	// Position of each element in the heap (-1 if not queued).
+	private int[] positions;
+	private double[] primaryKeys;
+	private double[] secondaryKeys;
+	private int[] tieBreaks;
+
+	/**
+	 * Creates a new queue.
+	 * @param arity Number of children per heap node (at least 2).
+	 * @param capacity Elements will be in [0, capacity[.
+	 */
+	public IntPriorityQueue(int arity, int capacity) {
+		if(arity < 2)
+			throw new IllegalArgumentException("The arity of the heap must be at least 2");
+		this.arity = arity;
+		heap = new int[capacity];
+		positions = new int[capacity];
+		Arrays.fill(positions, -1);
+		primaryKeys = new double[capacity];
+		secondaryKeys = new double[capacity];
+		tieBreaks = new int[capacity];
+	}
+
+	/**
+	 * Grows the queue so that it can hold elements in [0, capacity[.
+	 * @param capacity New capacity.
+	 */
+	public void ensureCapacity(int capacity) {
+		int old = positions.length;
+		if(capacity <= old)
+			return;
+		heap = Arrays.copyOf(heap, capacity);
+		positions = Arrays.copyOf(positions, capacity);
+		Arrays.fill(positions, old, capacity, -1);
+		primaryKeys = Arrays.copyOf(primaryKeys, capacity);
+		secondaryKeys = Arrays.copyOf(secondaryKeys, capacity);
+		tieBreaks = Arrays.copyOf(tieBreaks, capacity);
+	}
+
+	/**
+	 * Inserts an element or, if it is already queued, changes its keys and
+	 * restores the heap order.
+	 * @param element Element.
+	 * @param primaryKey Primary key.
+	 * @param secondaryKey Secondary key.
+	 * @param tieBreak Tie-break value.
+	 */
+	public void add(int element, double primaryKey, double secondaryKey, int tieBreak) {
+		primaryKeys[element] = primaryKey;
+		secondaryKeys[element] = secondaryKey;
+		tieBreaks[element] = tieBreak;
+		int index = positions[element];
+		if(index == -1) {
+			heap[size] = element;
+			positions[element] = size;
+			siftUp(size++);
+		}
+		else if(siftUp(index) == index) {
+			siftDown(index);
+		}
+	}
+
+	/**
+	 * Removes the smallest element.
+	 * @return The smallest element.
+	 */
+	public int poll() {
+		int head = heap[0];
+		positions[head] = -1;
+		size--;
+		if(size > 0) {
+			heap[0] = heap[size];
+			positions[heap[0]] = 0;
+			siftDown(0);
+		}
+		return head;
+	}
+
+	/**
+	 * @return The smallest element, without removing it.
+	 */
+	public int peek() {
+		return heap[0];
+	}
+
+	public boolean contains(int element) {
+		return element < positions.length && positions[element] != -1;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all the elements. Runs in the number of queued elements.
+	 */
+	public void clear() {
+		for(int i = 0; i < size; i++)
+			positions[heap[i]] = -1;
+		size = 0;
+	}
+
+	private boolean less(int a, int b) {
+		if(primaryKeys[a] != primaryKeys[b])
+			return primaryKeys[a] < primaryKeys[b];
+		if(secondaryKeys[a] != secondaryKeys[b])
+			return secondaryKeys[a] < secondaryKeys[b];
+		return tieBreaks[a] < tieBreaks[b];
+	}
+
+	private int siftUp(int index) {
+		int element = heap[index];
+		while(index > 0) {
+			int parent = (index - 1) / arity;
+			if(!less(element, heap[parent]))
+				break;
+			heap[index] = heap[parent];
+			positions[heap[index]] = index;
+			index = parent;
+		}
+		heap[index] = element;
+		positions[element] = index;
+		return index;
+	}
+
+	private void siftDown(int index) {
+		int element = heap[index];
+		while(true) {
+			int first = index * arity + 1;
+			if(first >= size)
+				break;
+			int last = Math.min(first + arity, size);
+			int smallest = first;
+			for(int child = first + 1; child < last; child++)
+				if(less(heap[child], heap[smallest]))
+					smallest = child;
+			if(!less(heap[smallest], element))
+				break;
+			heap[index] = heap[smallest];
+			positions[heap[index]] = index;
+			index = smallest;
+		}
+		heap[index] = element;
+		positions[element] = index;
+	}
+}
@@ -0,0 +1,65 @@
+package de.tum.ei.lkn.eces.routing.distancevector;
+
+import de.tum.ei.lkn.eces.routing.compiledgraph.CompiledGraph;
+import de.tum.ei.lkn.eces.routing.compiledgraph.IntPriorityQueue;
+
+import java.util.Arrays;
+
+/**
+ * Dijkstra on a CompiledGraph with fixed Edge costs. An instance must only be
+ * used by one thread at a time.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+final class DijkstraSearch {
+	private final CompiledGraph graph;
+
+	/**
+	 * Cost of each Edge (DistanceArray.UNREACHABLE without access).
+	 */
+	private final double[] weights;
+
+	private final IntPriorityQueue queue;
+
+	DijkstraSearch(CompiledGraph graph, double[] weights) {
+		this.graph = graph;
+		this.weights = weights;
+		this.queue = new IntPriorityQueue(4, Math.max(graph.getNumberOfNodes(), 1));
+	}
+
+	/**
+	 * Computes the distances from (forward) or to (backward) a root.
+	 * @param root Root Node ID.
+	 * @param isForward Search direction.
+	 * @param distances Distances indexed by offset + Node ID.
+	 * @param parentEdges Edge used to reach each Node (-1 for none), indexed
+	 *                    by offset + Node ID (null if not needed).
+	 * @param offset Offset of the entries of the root in the arrays.
+	 */
+	void run(int root, boolean isForward, double[] distances, int[] parentEdges, int offset) {
+		int n = graph.getNumberOfNodes();
+		Arrays.fill(distances, offset, offset + n, DistanceArray.UNREACHABLE);
+		if(parentEdges != null)
+			Arrays.fill(parentEdges, offset, offset + n, -1);
+		distances[offset + root] = 0;
+		queue.add(root, 0, 0, root);
+		while(!queue.isEmpty()) {
+			int node = queue.poll();
+			int end = graph.getAdjacentEnd(node, isForward);
+			for(int index = graph.getAdjacentStart(node, isForward); index < end; index++) {
+				int edgeId = graph.getAdjacentEdge(index, isForward);
+				if(weights[edgeId] == DistanceArray.UNREACHABLE)
+					continue;
+				int next = graph.getOpposite(edgeId, isForward);
+				double distance = distances[offset + node] + weights[edgeId];
+				if(distance < distances[offset + next]) {
+					distances[offset + next] = distance;
+					if(parentEdges != null)
+						parentEdges[offset + next] = edgeId;
+					queue.add(next, distance, 0, next);
+				}
+			}
+		}
+	}
+}
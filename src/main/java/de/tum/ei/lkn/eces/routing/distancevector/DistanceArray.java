@@ -0,0 +1,173 @@
+package de.tum.ei.lkn.eces.routing.distancevector;
+
+import java.util.Arrays;
+
+/**
+ * Dense array of distances indexed by Node ID, stored with a given precision.
+ * Indices beyond the end of the array are unreachable.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+abstract class DistanceArray {
+	/**
+	 * Distance of unreachable Nodes.
+	 */
+	static final double UNREACHABLE = Double.MAX_VALUE;
+
+	abstract double get(int index);
+
+	abstract void set(int index, double value);
+
+	/**
+	 * @param length Length of the new array.
+	 * @return A new array with the same precision, filled with UNREACHABLE.
+	 */
+	abstract DistanceArray create(int length);
+
+	/**
+	 * @param value Distance.
+	 * @param index Index of a stored distance.
+	 * @return true if storing the distance at the index would not change it.
+	 */
+	abstract boolean stores(double value, int index);
+
+	/**
+	 * @param other Another array.
+	 * @return true if the other array stores distances with the same
+	 *         precision.
+	 */
+	abstract boolean hasSamePrecision(DistanceArray other);
+
+	/**
+	 * Full precision.
+	 */
+	static final class Doubles extends DistanceArray {
+		private final double[] values;
+
+		Doubles(int length) {
+			values = new double[length];
+			Arrays.fill(values, UNREACHABLE);
+		}
+
+		@Override
+		double get(int index) {
+			return index < values.length ? values[index] : UNREACHABLE;
+		}
+
+		@Override
+		void set(int index, double value) {
+			values[index] = value;
+		}
+
+		@Override
+		DistanceArray create(int length) {
+			return new Doubles(length);
+		}
+
+		@Override
+		boolean stores(double value, int index) {
+			return get(index) == value;
+		}
+
+		@Override
+		boolean hasSamePrecision(DistanceArray other) {
+			return other instanceof Doubles;
+		}
+	}
+
+	/**
+	 * Single precision (half the memory).
+	 */
+	static final class Floats extends DistanceArray {
+		private final float[] values;
+
+		Floats(int length) {
+			values = new float[length];
+			Arrays.fill(values, Float.MAX_VALUE);
+		}
+
+		@Override
+		double get(int index) {
+			if(index >= values.length || values[index] == Float.MAX_VALUE)
+				return UNREACHABLE;
+			return values[index];
+		}
+
+		@Override
+		void set(int index, double value) {
+			values[index] = encode(value);
+		}
+
+		@Override
+		DistanceArray create(int length) {
+			return new Floats(length);
+		}
+
+		@Override
+		boolean stores(double value, int index) {
+			return index < values.length ? values[index] == encode(value) : value == UNREACHABLE;
+		}
+
+		@Override
+		boolean hasSamePrecision(DistanceArray other) {
+			return other instanceof Floats;
+		}
+
+		private static float encode(double value) {
+			return value >= Float.MAX_VALUE ? Float.MAX_VALUE : (float) value;
+		}
+	}
+
+	/**
+	 * Multiples of a quantum on 16 bits (a quarter of the memory). Distances
+	 * are rounded down, so that they remain lower bounds, and saturate at
+	 * MAXIMUM_CODE quanta.
+	 */
+	static final class Quantized extends DistanceArray {
+		private static final char UNREACHABLE_CODE = Character.MAX_VALUE;
+		static final char MAXIMUM_CODE = Character.MAX_VALUE - 1;
+
+		private final char[] codes;
+		private final double quantum;
+
+		Quantized(int length, double quantum) {
+			codes = new char[length];
+			Arrays.fill(codes, UNREACHABLE_CODE);
+			this.quantum = quantum;
+		}
+
+		@Override
+		double get(int index) {
+			if(index >= codes.length || codes[index] == UNREACHABLE_CODE)
+				return UNREACHABLE;
+			return codes[index] * quantum;
+		}
+
+		@Override
+		void set(int index, double value) {
+			codes[index] = encode(value);
+		}
+
+		@Override
+		DistanceArray create(int length) {
+			return new Quantized(length, quantum);
+		}
+
+		@Override
+		boolean stores(double value, int index) {
+			return index < codes.length ? codes[index] == encode(value) : value == UNREACHABLE;
+		}
+
+		@Override
+		boolean hasSamePrecision(DistanceArray other) {
+			return other instanceof Quantized && ((Quantized) other).quantum == quantum;
+		}
+
+		private char encode(double value) {
+			if(value == UNREACHABLE)
+				return UNREACHABLE_CODE;
+			return (char) Math.min(Math.floor(value / quantum), MAXIMUM_CODE);
+		}
+	}
+}
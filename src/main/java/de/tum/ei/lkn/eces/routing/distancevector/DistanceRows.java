@@ -0,0 +1,203 @@
+package de.tum.ei.lkn.eces.routing.distancevector;
+
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.graph.Graph;
+import de.tum.ei.lkn.eces.graph.Node;
+import de.tum.ei.lkn.eces.routing.compiledgraph.CompiledGraph;
+import de.tum.ei.lkn.eces.routing.proxies.EdgeProxy;
+import de.tum.ei.lkn.eces.routing.requests.Request;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Distances to the most recently queried Nodes of a Graph. The row of a Node
+ * (the distance from every Node to it) is computed by a backward Dijkstra the
+ * first time it is queried and kept in a size-bounded LRU cache.
+ *
+ * When the cost of an Edge (u, v) changes from w to w', only the rows that
+ * can change are dropped:
+ * - a decrease changes a row only if d(v) + w' < d(u);
+ * - an increase changes a row only if the Edge is tight: d(u) = d(v) + w.
+ * Added and removed Edges are decreases from and increases to infinity.
+ *
+ * All the methods are synchronized, rows can hence be queried by several
+ * threads.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+class DistanceRows {
+	private static final double UNREACHABLE = DistanceArray.UNREACHABLE;
+
+	private final Graph graph;
+	private final EdgeProxy proxy;
+	private final Request request;
+
+	/**
+	 * Snapshot of the Graph the rows refer to.
+	 */
+	private CompiledGraph snapshot;
+
+	/**
+	 * Cost of each Edge of the snapshot (UNREACHABLE without access).
+	 */
+	private double[] weights;
+
+	private DijkstraSearch search;
+
+	/**
+	 * Row of each queried Node (distance from each Node ID), in access order.
+	 */
+	private final LinkedHashMap<Node, double[]> rows;
+
+	/**
+	 * Creates the cache of a Graph. No row is computed.
+	 * @param graph Graph.
+	 * @param proxy EdgeProxy providing the costs.
+	 * @param request Request for which the costs are read.
+	 * @param maximumNumberOfRows Number of rows kept.
+	 */
+	DistanceRows(Graph graph, EdgeProxy proxy, Request request, int maximumNumberOfRows) {
+		this.graph = graph;
+		this.proxy = proxy;
+		this.request = request;
+		this.rows = new LinkedHashMap<Node, double[]>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Node, double[]> eldest) {
+				return size() > maximumNumberOfRows;
+			}
+		};
+		CompiledGraph compiledGraph = new CompiledGraph(graph);
+		switchTo(compiledGraph, ShortestPathTrees.readWeights(compiledGraph, proxy, request));
+	}
+
+	/**
+	 * Gets the distance from a Node to another, computing the row of the
+	 * latter if needed.
+	 * @param source Source Node.
+	 * @param destination Destination Node.
+	 * @return The distance (Double.MAX_VALUE if unreachable or unknown).
+	 */
+	synchronized double getDistance(Node source, Node destination) {
+		int sourceId = snapshot.getNodeId(source);
+		if(sourceId == -1)
+			return UNREACHABLE;
+		double[] row = rows.get(destination);
+		if(row == null) {
+			int destinationId = snapshot.getNodeId(destination);
+			if(destinationId == -1)
+				return UNREACHABLE;
+			row = new double[snapshot.getNumberOfNodes()];
+			search.run(destinationId, false, row, null, 0);
+			rows.put(destination, row);
+		}
+		return row[sourceId];
+	}
+
+	/**
+	 * @return The number of rows currently kept.
+	 */
+	synchronized int getNumberOfRows() {
+		return rows.size();
+	}
+
+	/**
+	 * Takes the new cost of an Edge into account. Falls back to update() if
+	 * the Edge has been added or removed.
+	 * @param edge Edge.
+	 */
+	synchronized void update(Edge edge) {
+		int edgeId = snapshot.getEdgeId(edge);
+		if(edgeId == -1 || !edge.getSource().getOutgoingConnections().contains(edge)) {
+			update();
+			return;
+		}
+		double weight = ShortestPathTrees.readWeight(edge, proxy, request);
+		if(weight != weights[edgeId]) {
+			dropChangedRows(snapshot.getSource(edgeId), snapshot.getDestination(edgeId), weights[edgeId], weight);
+			weights[edgeId] = weight;
+		}
+	}
+
+	/**
+	 * Takes all the changes of the Graph (Nodes, Edges and costs) into
+	 * account.
+	 */
+	synchronized void update() {
+		CompiledGraph newSnapshot = ShortestPathTrees.hasTopologyChanged(snapshot, graph) ? new CompiledGraph(graph) : snapshot;
+		double[] newWeights = ShortestPathTrees.readWeights(newSnapshot, proxy, request);
+
+		if(newSnapshot != snapshot) {
+			// Removed Edges, with the old Node IDs.
+			for(int edgeId = 0; edgeId < snapshot.getNumberOfEdges(); edgeId++)
+				if(newSnapshot.getEdgeId(snapshot.getEdge(edgeId)) == -1)
+					dropChangedRows(snapshot.getSource(edgeId), snapshot.getDestination(edgeId), weights[edgeId], UNREACHABLE);
+			remapRows(newSnapshot);
+		}
+
+		// Changed and added Edges, with the new Node IDs.
+		for(int edgeId = 0; edgeId < newSnapshot.getNumberOfEdges(); edgeId++) {
+			int oldEdgeId = snapshot.getEdgeId(newSnapshot.getEdge(edgeId));
+			double oldWeight = oldEdgeId == -1 ? UNREACHABLE : weights[oldEdgeId];
+			if(newWeights[edgeId] != oldWeight)
+				dropChangedRows(newSnapshot.getSource(edgeId), newSnapshot.getDestination(edgeId), oldWeight, newWeights[edgeId]);
+		}
+
+		switchTo(newSnapshot, newWeights);
+	}
+
+	/**
+	 * Drops the rows changed by a new cost of an Edge. Each change is checked
+	 * against the distances before all the changes: if none drops a row, the
+	 * old distances still satisfy all the Edges and their shortest paths
+	 * still exist, the row is hence still exact.
+	 * @param tail ID of the source Node of the Edge.
+	 * @param head ID of the destination Node of the Edge.
+	 */
+	private void dropChangedRows(int tail, int head, double oldWeight, double newWeight) {
+		Iterator<double[]> iterator = rows.values().iterator();
+		while(iterator.hasNext()) {
+			double[] row = iterator.next();
+			if(row[head] == UNREACHABLE)
+				continue;
+			boolean changed;
+			if(newWeight < oldWeight)
+				changed = row[head] + newWeight < row[tail];
+			else
+				changed = oldWeight != UNREACHABLE && row[tail] == row[head] + oldWeight;
+			if(changed)
+				iterator.remove();
+		}
+	}
+
+	/**
+	 * Moves the rows to the Node IDs of a new snapshot. Rows of removed Nodes
+	 * are dropped and added Nodes are unreachable.
+	 */
+	private void remapRows(CompiledGraph newSnapshot) {
+		int n = newSnapshot.getNumberOfNodes();
+		Iterator<Map.Entry<Node, double[]>> iterator = rows.entrySet().iterator();
+		while(iterator.hasNext()) {
+			Map.Entry<Node, double[]> entry = iterator.next();
+			if(newSnapshot.getNodeId(entry.getKey()) == -1) {
+				iterator.remove();
+				continue;
+			}
+			double[] oldRow = entry.getValue();
+			double[] row = new double[n];
+			for(int node = 0; node < n; node++) {
+				int oldNode = snapshot.getNodeId(newSnapshot.getNode(node));
+				row[node] = oldNode == -1 ? UNREACHABLE : oldRow[oldNode];
+			}
+			entry.setValue(row);
+		}
+	}
+
+	private void switchTo(CompiledGraph newSnapshot, double[] newWeights) {
+		snapshot = newSnapshot;
+		weights = newWeights;
+		search = new DijkstraSearch(snapshot, weights);
+	}
+}
@@ -1,40 +1,92 @@
 package de.tum.ei.lkn.eces.routing.distancevector;
 
 import de.tum.ei.lkn.eces.core.Component;
-import de.tum.ei.lkn.eces.core.Controller;
-import de.tum.ei.lkn.eces.core.LocalMapper;
 import de.tum.ei.lkn.eces.core.annotations.ComponentBelongsTo;
 import de.tum.ei.lkn.eces.graph.Node;
+import de.tum.ei.lkn.eces.routing.compiledgraph.CompiledGraph;
 
 /**
  * Component that stores, for each Graph NODE, a distance to this NODE.
  *
+ * The distances are stored in a dense array indexed by the Node IDs of a
+ * CompiledGraph of the Graph, with the precision chosen in the
+ * DistanceVectorSystem. With lazy rows, the distances are instead computed
+ * the first time they are queried and cached by the System.
+ *
  * @author Jochen Guck
  * @author Amaury Van Bemten
  */
 @ComponentBelongsTo(system = DistanceVectorSystem.class)
 public class DistanceVector extends Component {
-	private LocalMapper<DistanceVectorData> nodeDataMapper;
+	/**
+	 * Snapshot giving the index of each Node in the distances (null if no
+	 * distance has been written yet).
+	 */
+	private CompiledGraph index;
 
-	public DistanceVector(Controller controller){
-		nodeDataMapper = controller.getLocalMapper(this, DistanceVectorDataLocal.class);
+	private DistanceArray distances;
+
+	/**
+	 * Cache computing the distances on demand (null if they are stored in
+	 * the Component) and Node to which this Component is attached.
+	 */
+	private volatile DistanceRows rows;
+	private Node node;
+
+	public DistanceVector() {
+		this.distances = new DistanceArray.Doubles(0);
 	}
 
 	/**
 	 * Gets the distance to a specific destination.
 	 * @param destination Destination Node.
-	 * @return Distance to the destination Node.
+	 * @return Distance to the destination Node (Double.MAX_VALUE if the
+	 *         destination cannot be reached or is unknown).
 	 */
 	public double getDistance(Node destination) {
-		return nodeDataMapper.get(destination.getEntity()).getHopCount();
+		DistanceRows currentRows = rows;
+		if(currentRows != null)
+			return currentRows.getDistance(destination, node);
+		if(index == null)
+			return DistanceArray.UNREACHABLE;
+		int nodeId = index.getNodeId(destination);
+		if(nodeId == -1)
+			return DistanceArray.UNREACHABLE;
+		return distances.get(nodeId);
+	}
+
+	CompiledGraph getIndex() {
+		return index;
+	}
+
+	DistanceRows getRows() {
+		return rows;
+	}
+
+	DistanceArray getDistances() {
+		return distances;
 	}
 
 	/**
-	 * Sets the distance to a specific destination.
-	 * @param destination Destination Node.
-	 * @param value Distance to set.
+	 * Replaces the distances.
+	 * @param index Snapshot giving the index of each Node.
+	 * @param distances New distances.
+	 */
+	void setDistances(CompiledGraph index, DistanceArray distances) {
+		this.index = index;
+		this.distances = distances;
+		this.rows = null;
+	}
+
+	/**
+	 * Gets the distances on demand from a cache instead.
+	 * @param rows Cache.
+	 * @param node Node to which this Component is attached.
 	 */
-	protected void setDistance(Node destination, double value) {
-		nodeDataMapper.get(destination.getEntity()).setHopCount(value);
+	void setRows(DistanceRows rows, Node node) {
+		this.index = null;
+		this.distances = new DistanceArray.Doubles(0);
+		this.node = node;
+		this.rows = rows;
 	}
 }
@@ -7,18 +7,35 @@ import de.tum.ei.lkn.eces.core.annotations.ComponentStateIs;
 import de.tum.ei.lkn.eces.graph.Edge;
 import de.tum.ei.lkn.eces.graph.Graph;
 import de.tum.ei.lkn.eces.graph.Node;
-import de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.dijkstra.DijkstraAlgorithm;
+import de.tum.ei.lkn.eces.routing.compiledgraph.CompiledGraph;
 import de.tum.ei.lkn.eces.routing.proxies.EdgeProxy;
 import de.tum.ei.lkn.eces.routing.proxies.ShortestPathProxy;
+import de.tum.ei.lkn.eces.routing.requests.Request;
 import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
-import de.tum.ei.lkn.eces.routing.responses.Path;
+
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * System attaching to each Node of a Graph a DistanceVector Component storing
  * the distance from this Node until all other Nodes. The distance is measured
  * in terms of cost.
  *
- * Distances must be manually updated with the update() method.
+ * Distances must be manually updated with the update() methods. Updates are
+ * incremental: the shortest-path trees of each Graph are kept and only the
+ * trees affected by changed Edges are repaired (see ShortestPathTrees). Only
+ * the DistanceVectors with changed entries are updated. As the trees take
+ * O(n^2) memory, incremental updates can be disabled: each update then runs
+ * one Dijkstra per destination and only the DistanceVectors that changed are
+ * replaced. With lazy rows, the distances to a Node are only computed when
+ * first queried and kept for a bounded number of Nodes per Graph (see
+ * DistanceRows); updates then only drop the distances that changed.
+ * Full computations run on a ForkJoinPool if one is given with
+ * setParallelism(), each thread with its own search state.
+ * Distances are stored in double precision per default; single precision or
+ * 16-bit multiples of a quantum can be chosen to save memory.
  * Cost is computed per-default using a ShortestPathProxy but any other proxy can be passed.
  *
  * @author Jochen Guck
@@ -31,9 +48,46 @@ public class DistanceVectorSystem extends RootSystem {
 	private DistanceVectorMapper distanceVectorMapper;
 
 	/**
-	 * DijkstraAlgorithm used by the System.
+	 * Proxy providing the costs of the Edges.
+	 */
+	private EdgeProxy proxy;
+
+	/**
+	 * Request for which the costs are read.
+	 */
+	private Request request = new UnicastRequest(null, null);
+
+	/**
+	 * Shortest-path trees of each Graph already updated once.
+	 */
+	private Map<Graph, ShortestPathTrees> shortestPathTrees = new IdentityHashMap<>();
+
+	/**
+	 * Snapshot of each Graph last rebuilt without incremental updates.
+	 */
+	private Map<Graph, CompiledGraph> snapshots = new IdentityHashMap<>();
+
+	/**
+	 * Cache of the distances of each Graph with lazy rows.
 	 */
-	private DijkstraAlgorithm dijkstra;
+	private Map<Graph, DistanceRows> distanceRows = new IdentityHashMap<>();
+
+	private boolean incrementalUpdates = true;
+
+	/**
+	 * Number of rows kept per Graph (0 without lazy rows).
+	 */
+	private int maximumNumberOfRows = 0;
+
+	/**
+	 * Pool running the full computations (null for the calling thread).
+	 */
+	private ForkJoinPool pool;
+
+	/**
+	 * Empty array with the precision of the stored distances.
+	 */
+	private DistanceArray precision = new DistanceArray.Doubles(0);
 
 	/**
 	 * Creates a new DistanceVectorSystem.
@@ -43,8 +97,7 @@ public class DistanceVectorSystem extends RootSystem {
 	public DistanceVectorSystem(Controller controller, EdgeProxy proxy) {
 		super(controller);
 		distanceVectorMapper = new DistanceVectorMapper(controller);
-		dijkstra = new DijkstraAlgorithm(controller);
-		dijkstra.setProxy(proxy);
+		this.proxy = proxy;
 	}
 
 	/**
@@ -56,6 +109,77 @@ public class DistanceVectorSystem extends RootSystem {
 		this(controller, new ShortestPathProxy());
 	}
 
+	/**
+	 * @param incrementalUpdates Whether the shortest-path trees are kept to
+	 *                           update the distances incrementally (default)
+	 *                           or the distances are computed from scratch
+	 *                           at each update.
+	 */
+	public void setIncrementalUpdates(boolean incrementalUpdates) {
+		this.incrementalUpdates = incrementalUpdates;
+		if(incrementalUpdates)
+			snapshots.clear();
+		else
+			shortestPathTrees.clear();
+	}
+
+	/**
+	 * Computes the distances to a Node only the first time they are queried
+	 * and keeps them for a bounded number of Nodes per Graph, the least
+	 * recently queried being dropped first. Updates then only drop the
+	 * distances that changed. Lazy rows are always stored in double
+	 * precision and take effect at the next update of each Graph.
+	 * @param maximumNumberOfRows Number of Nodes per Graph whose distances
+	 *                            are kept (0 to compute the distances to all
+	 *                            the Nodes at each update, default).
+	 */
+	public void setLazyRows(int maximumNumberOfRows) {
+		if(maximumNumberOfRows < 0)
+			throw new IllegalArgumentException("The number of rows must not be negative");
+		this.maximumNumberOfRows = maximumNumberOfRows;
+		shortestPathTrees.clear();
+		snapshots.clear();
+		distanceRows.clear();
+	}
+
+	/**
+	 * @param pool Pool running the full computations (null to run them in
+	 *             the calling thread, default).
+	 */
+	public void setParallelism(ForkJoinPool pool) {
+		this.pool = pool;
+		for(ShortestPathTrees trees : shortestPathTrees.values())
+			trees.setPool(pool);
+	}
+
+	/**
+	 * Stores the distances as doubles (default). Applies to the
+	 * DistanceVectors written at the next update.
+	 */
+	public void useDoublePrecision() {
+		precision = new DistanceArray.Doubles(0);
+	}
+
+	/**
+	 * Stores the distances as floats. Applies to the DistanceVectors written
+	 * at the next update.
+	 */
+	public void useSinglePrecision() {
+		precision = new DistanceArray.Floats(0);
+	}
+
+	/**
+	 * Stores the distances as 16-bit multiples of a quantum. Distances are
+	 * rounded down (so that they remain lower bounds) and saturate at 65534
+	 * quanta. Applies to the DistanceVectors written at the next update.
+	 * @param quantum Quantum.
+	 */
+	public void useQuantizedPrecision(double quantum) {
+		if(!(quantum > 0))
+			throw new IllegalArgumentException("The quantum must be positive");
+		precision = new DistanceArray.Quantized(0, quantum);
+	}
+
 	/**
 	 * When a new Node is created, adds a new empty list of distances to the
 	 * Node's entity. We do not run the update method automatically because
@@ -66,7 +190,11 @@ public class DistanceVectorSystem extends RootSystem {
 	 */
 	@ComponentStateIs(State = ComponentStatus.New)
 	void addNode(Node node) {
-		distanceVectorMapper.attachComponent(node, new DistanceVector(controller));
+		DistanceVector distanceVector = new DistanceVector();
+		DistanceRows rows = distanceRows.get(node.getGraph());
+		if(rows != null)
+			distanceVector.setRows(rows, node);
+		distanceVectorMapper.attachComponent(node, distanceVector);
 	}
 
 	/**
@@ -83,8 +211,19 @@ public class DistanceVectorSystem extends RootSystem {
 	}
 
 	/**
-	 * Updates the distances of the Nodes of a given Node's Graph.
-	 * Dijkstra is used.
+	 * Forgets the shortest-path trees of a deleted Graph.
+	 * @param graph The deleted Graph.
+	 */
+	@ComponentStateIs(State = ComponentStatus.Destroyed)
+	void removeGraph(Graph graph) {
+		shortestPathTrees.remove(graph);
+		snapshots.remove(graph);
+		distanceRows.remove(graph);
+	}
+
+	/**
+	 * Updates the distances of the Nodes of a given Node's Graph after the
+	 * Node has been added or removed.
 	 * @param node The Node whose Graph's Nodes must be updated.
 	 */
 	public void update(Node node) {
@@ -92,38 +231,186 @@ public class DistanceVectorSystem extends RootSystem {
 	}
 
 	/**
-	 * Updates the distances of the Nodes of a given EDGE's Graph.
-	 * Dijkstra is used.
+	 * Updates the distances of the Nodes of a given EDGE's Graph after the
+	 * cost of the EDGE changed or the EDGE has been added or removed.
 	 * @param edge The EDGE whose Graph's Nodes must be updated.
 	 */
 	public void update(Edge edge) {
-		update(edge.getSource().getGraph());
+		Graph graph = edge.getSource().getGraph();
+		DistanceRows rows = distanceRows.get(graph);
+		if(rows != null && maximumNumberOfRows > 0) {
+			rows.update(edge);
+			return;
+		}
+		ShortestPathTrees trees = shortestPathTrees.get(graph);
+		if(trees == null || !incrementalUpdates) {
+			update(graph);
+			return;
+		}
+		trees.update(edge);
+		publishChanges(trees);
 	}
 
 	/**
-	 * Updates the distances of the Nodes of a given Graph.
-	 * Dijkstra is used.
+	 * Updates the distances of the Nodes of a given Graph. The costs of all
+	 * the Edges are read again.
 	 * @param graph The Graph whose Nodes must be updated.
 	 */
 	public void update(Graph graph) {
-		for(Node node : graph.getNodes()) {
-			dijkstra.computePathsToAnyNodeFrom(node,new UnicastRequest(null, node));
-			for(Node node2 : graph.getNodes()) {
-				DistanceVector distanceVector = distanceVectorMapper.get(node2.getEntity());
-				if(distanceVector == null) {
-					distanceVector = new DistanceVector(controller);
-					distanceVectorMapper.attachComponent(node2, distanceVector);
-				}
-
-				DistanceVector dv = distanceVector;
-				distanceVectorMapper.updateComponent(dv, () -> {
-					Path path = dijkstra.getPathFromNodeTo(node2);
-					if(path == null)
-						dv.setDistance(node, Double.MAX_VALUE);
-					else
-						dv.setDistance(node, path.getCost());
+		if(maximumNumberOfRows > 0) {
+			updateRows(graph);
+			return;
+		}
+		if(!incrementalUpdates) {
+			rebuild(graph);
+			return;
+		}
+
+		ShortestPathTrees trees = shortestPathTrees.get(graph);
+		if(trees == null) {
+			trees = new ShortestPathTrees(graph, proxy, request, pool);
+			shortestPathTrees.put(graph, trees);
+		}
+		else {
+			trees.update();
+		}
+		publishChanges(trees);
+	}
+
+	/**
+	 * Writes the changed distances in the DistanceVectors.
+	 * @param trees Shortest-path trees of a Graph.
+	 */
+	private void publishChanges(ShortestPathTrees trees) {
+		CompiledGraph snapshot = trees.getSnapshot();
+		int n = snapshot.getNumberOfNodes();
+		for(int destinationId = 0; destinationId < n; destinationId++) {
+			DistanceVector distanceVector = getOrAttach(snapshot.getNode(destinationId));
+			BitSet sources = trees.pollChanges(destinationId);
+			int destination = destinationId;
+			if(!isUpToDate(distanceVector, snapshot, precision)) {
+				// New Nodes, Node IDs or precision: all the entries have to be written.
+				DistanceArray distances = precision.create(n);
+				for(int source = 0; source < n; source++)
+					distances.set(source, trees.getDistance(source, destination));
+				distanceVectorMapper.updateComponent(distanceVector, () -> distanceVector.setDistances(snapshot, distances));
+			}
+			else if(sources != null) {
+				distanceVectorMapper.updateComponent(distanceVector, () -> {
+					DistanceArray distances = distanceVector.getDistances();
+					for(int source = sources.nextSetBit(0); source >= 0; source = sources.nextSetBit(source + 1))
+						distances.set(source, trees.getDistance(source, destination));
 				});
 			}
 		}
 	}
+
+	/**
+	 * Drops the cached distances of a Graph that changed and lets the
+	 * DistanceVectors of new Nodes use the cache.
+	 * @param graph Graph.
+	 */
+	private void updateRows(Graph graph) {
+		DistanceRows rows = distanceRows.get(graph);
+		if(rows == null) {
+			rows = new DistanceRows(graph, proxy, request, maximumNumberOfRows);
+			distanceRows.put(graph, rows);
+		}
+		else {
+			rows.update();
+		}
+		for(Node node : graph.getNodes()) {
+			DistanceVector distanceVector = getOrAttach(node);
+			if(distanceVector.getRows() != rows) {
+				DistanceRows graphRows = rows;
+				distanceVectorMapper.updateComponent(distanceVector, () -> distanceVector.setRows(graphRows, node));
+			}
+		}
+	}
+
+	/**
+	 * Computes the distances of a Graph from scratch, with one backward
+	 * Dijkstra per destination, and replaces the DistanceVectors that
+	 * changed.
+	 * @param graph Graph.
+	 */
+	private void rebuild(Graph graph) {
+		CompiledGraph snapshot = snapshots.get(graph);
+		if(snapshot == null || ShortestPathTrees.hasTopologyChanged(snapshot, graph)) {
+			snapshot = new CompiledGraph(graph);
+			snapshots.put(graph, snapshot);
+		}
+		CompiledGraph compiledGraph = snapshot;
+		double[] weights = ShortestPathTrees.readWeights(snapshot, proxy, request);
+		DistanceArray format = precision;
+		int n = snapshot.getNumberOfNodes();
+
+		// Components are only accessed in the calling thread.
+		DistanceVector[] distanceVectors = new DistanceVector[n];
+		for(int destination = 0; destination < n; destination++)
+			distanceVectors[destination] = getOrAttach(snapshot.getNode(destination));
+
+		// New distances of each destination (null if unchanged).
+		DistanceArray[] columns = new DistanceArray[n];
+		NodeRangeTask.forEach(pool, n, () -> new Column(new DijkstraSearch(compiledGraph, weights), n),
+				(column, destination) -> {
+					column.search.run(destination, false, column.distances, null, 0);
+					DistanceVector distanceVector = distanceVectors[destination];
+					if(isUpToDate(distanceVector, compiledGraph, format) && stores(distanceVector.getDistances(), column.distances))
+						return;
+					DistanceArray distances = format.create(n);
+					for(int source = 0; source < n; source++)
+						distances.set(source, column.distances[source]);
+					columns[destination] = distances;
+				});
+
+		for(int destination = 0; destination < n; destination++) {
+			DistanceVector distanceVector = distanceVectors[destination];
+			DistanceArray distances = columns[destination];
+			if(distances != null)
+				distanceVectorMapper.updateComponent(distanceVector, () -> distanceVector.setDistances(compiledGraph, distances));
+		}
+	}
+
+	/**
+	 * Gets the DistanceVector of a Node, attaching one if the Node has been
+	 * created before the System.
+	 */
+	private DistanceVector getOrAttach(Node node) {
+		DistanceVector distanceVector = distanceVectorMapper.get(node.getEntity());
+		if(distanceVector == null) {
+			distanceVector = new DistanceVector();
+			distanceVectorMapper.attachComponent(node, distanceVector);
+		}
+		return distanceVector;
+	}
+
+	/**
+	 * @return true if the distances of a DistanceVector are indexed by the
+	 *         Node IDs of a snapshot and stored with a given precision.
+	 */
+	private static boolean isUpToDate(DistanceVector distanceVector, CompiledGraph snapshot, DistanceArray precision) {
+		return distanceVector.getIndex() == snapshot && distanceVector.getDistances().hasSamePrecision(precision);
+	}
+
+	private static boolean stores(DistanceArray distances, double[] values) {
+		for(int index = 0; index < values.length; index++)
+			if(!distances.stores(values[index], index))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Thread-confined state computing the distances to one destination at a
+	 * time.
+	 */
+	private static final class Column {
+		private final DijkstraSearch search;
+		private final double[] distances;
+
+		private Column(DijkstraSearch search, int n) {
+			this.search = search;
+			this.distances = new double[n];
+		}
+	}
 }
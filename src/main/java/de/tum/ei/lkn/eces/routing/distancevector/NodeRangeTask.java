@@ -0,0 +1,69 @@
+package de.tum.ei.lkn.eces.routing.distancevector;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Fork/join task running an action for each Node ID of a range. The range is
+ * split until it is small enough and each leaf task creates its own search
+ * state, which is hence confined to the thread running the leaf.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+final class NodeRangeTask<S> extends RecursiveAction {
+	/**
+	 * Number of leaf tasks per thread of the pool, for load balancing.
+	 */
+	private static final int LEAVES_PER_THREAD = 8;
+
+	interface Action<S> {
+		void run(S state, int nodeId);
+	}
+
+	private final int from;
+	private final int to;
+	private final int grain;
+	private final Supplier<S> stateFactory;
+	private final Action<S> action;
+
+	private NodeRangeTask(int from, int to, int grain, Supplier<S> stateFactory, Action<S> action) {
+		this.from = from;
+		this.to = to;
+		this.grain = grain;
+		this.stateFactory = stateFactory;
+		this.action = action;
+	}
+
+	/**
+	 * Runs an action for all the Node IDs in [0, numberOfNodes[.
+	 * @param pool Pool on which to run (null to run in the calling thread).
+	 * @param numberOfNodes Number of Nodes.
+	 * @param stateFactory Creates the search state of a leaf task.
+	 * @param action Action to run.
+	 */
+	static <S> void forEach(ForkJoinPool pool, int numberOfNodes, Supplier<S> stateFactory, Action<S> action) {
+		if(pool == null || numberOfNodes < 2) {
+			new NodeRangeTask<>(0, numberOfNodes, numberOfNodes, stateFactory, action).compute();
+			return;
+		}
+		int grain = Math.max(1, numberOfNodes / (LEAVES_PER_THREAD * pool.getParallelism()));
+		pool.invoke(new NodeRangeTask<>(0, numberOfNodes, grain, stateFactory, action));
+	}
+
+	@Override
+	protected void compute() {
+		if(to - from <= grain) {
+			if(from == to)
+				return;
+			S state = stateFactory.get();
+			for(int nodeId = from; nodeId < to; nodeId++)
+				action.run(state, nodeId);
+			return;
+		}
+		int middle = (from + to) >>> 1;
+		invokeAll(new NodeRangeTask<>(from, middle, grain, stateFactory, action),
+				new NodeRangeTask<>(middle, to, grain, stateFactory, action));
+	}
+}
@@ -0,0 +1,487 @@
+package de.tum.ei.lkn.eces.routing.distancevector;
+
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.graph.Graph;
+import de.tum.ei.lkn.eces.graph.Node;
+import de.tum.ei.lkn.eces.routing.compiledgraph.CompiledGraph;
+import de.tum.ei.lkn.eces.routing.compiledgraph.IntPriorityQueue;
+import de.tum.ei.lkn.eces.routing.proxies.EdgeProxy;
+import de.tum.ei.lkn.eces.routing.requests.Request;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Shortest-path trees from every Node of a Graph, kept up to date
+ * incrementally.
+ *
+ * For each source Node, the distance to every Node and the Edge used to reach
+ * it are stored. When the cost of an Edge changes, only the trees concerned
+ * are repaired, as in the dynamic SSSP algorithm of Ramalingam and Reps:
+ * - a decrease is propagated Dijkstra-like from the head of the Edge, only
+ *   visiting the Nodes whose distance improves;
+ * - an increase of an Edge belonging to a tree invalidates the subtree below
+ *   the Edge. Its Nodes are re-attached to their best unaffected predecessor
+ *   and settled by a Dijkstra restricted to the subtree.
+ * When more than a quarter of the Edges changed, all the trees are computed
+ * again instead.
+ *
+ * Full computations run one Dijkstra per source, in parallel if a
+ * ForkJoinPool is given.
+ *
+ * The (source, destination) pairs whose distance changed are recorded until
+ * they are collected with pollChanges().
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+class ShortestPathTrees {
+	/**
+	 * Distance of unreachable Nodes and cost of inaccessible Edges.
+	 */
+	static final double UNREACHABLE = DistanceArray.UNREACHABLE;
+
+	private final Graph graph;
+	private final EdgeProxy proxy;
+	private final Request request;
+
+	/**
+	 * Pool running the full computations (null for the calling thread).
+	 */
+	private ForkJoinPool pool;
+
+	/**
+	 * Snapshot of the Graph the trees refer to.
+	 */
+	private CompiledGraph snapshot;
+
+	/**
+	 * Cost of each Edge of the snapshot (UNREACHABLE without access).
+	 */
+	private double[] weights;
+
+	/**
+	 * Distances and Edge IDs used to reach each destination (-1 for none),
+	 * indexed by source * n + destination.
+	 */
+	private double[] distances;
+	private int[] parentEdges;
+
+	/**
+	 * changes[destination]: sources whose distance to destination changed
+	 * (null if none).
+	 */
+	private BitSet[] changes;
+
+	/**
+	 * Search state reused by the repairs.
+	 */
+	private IntPriorityQueue queue;
+	private boolean[] affected;
+	private int[] subtree;
+	private double[] oldDistances;
+
+	/**
+	 * Computes the trees of a Graph. All the pairs are reported as changed.
+	 * @param graph Graph.
+	 * @param proxy EdgeProxy providing the costs.
+	 * @param request Request for which the costs are read.
+	 * @param pool Pool running the full computations (null for the calling
+	 *             thread).
+	 */
+	ShortestPathTrees(Graph graph, EdgeProxy proxy, Request request, ForkJoinPool pool) {
+		this.graph = graph;
+		this.proxy = proxy;
+		this.request = request;
+		this.pool = pool;
+		this.snapshot = new CompiledGraph(graph);
+		this.weights = readWeights(snapshot, proxy, request);
+		int n = snapshot.getNumberOfNodes();
+		distances = new double[matrixSize(n)];
+		parentEdges = new int[matrixSize(n)];
+		changes = new BitSet[n];
+		allocateSearchState(n);
+		CompiledGraph compiledGraph = snapshot;
+		double[] treeWeights = weights;
+		NodeRangeTask.forEach(pool, n, () -> new DijkstraSearch(compiledGraph, treeWeights),
+				(search, source) -> search.run(source, true, distances, parentEdges, source * n));
+		for(int destination = 0; destination < n; destination++) {
+			BitSet all = new BitSet(n);
+			all.set(0, n);
+			changes[destination] = all;
+		}
+	}
+
+	/**
+	 * @param pool Pool running the full computations (null for the calling
+	 *             thread).
+	 */
+	void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * @return The snapshot of the Graph the Node IDs refer to.
+	 */
+	CompiledGraph getSnapshot() {
+		return snapshot;
+	}
+
+	int getNumberOfNodes() {
+		return snapshot.getNumberOfNodes();
+	}
+
+	Node getNode(int nodeId) {
+		return snapshot.getNode(nodeId);
+	}
+
+	int getNodeId(Node node) {
+		return snapshot.getNodeId(node);
+	}
+
+	double getDistance(int source, int destination) {
+		return distances[source * snapshot.getNumberOfNodes() + destination];
+	}
+
+	/**
+	 * Gets and forgets the sources whose distance to a destination changed.
+	 * @param destination Destination Node ID.
+	 * @return The source Node IDs or null if none changed.
+	 */
+	BitSet pollChanges(int destination) {
+		BitSet sources = changes[destination];
+		changes[destination] = null;
+		return sources;
+	}
+
+	/**
+	 * Takes the new cost of an Edge into account. Falls back to update() if
+	 * the Edge has been added or removed.
+	 * @param edge Edge.
+	 */
+	void update(Edge edge) {
+		int edgeId = snapshot.getEdgeId(edge);
+		if(edgeId == -1 || !edge.getSource().getOutgoingConnections().contains(edge)) {
+			update();
+			return;
+		}
+
+		double weight = readWeight(edge, proxy, request);
+		if(weight != weights[edgeId])
+			changeWeight(edgeId, weight);
+	}
+
+	/**
+	 * Takes all the changes of the Graph (Nodes, Edges and costs) into
+	 * account.
+	 */
+	void update() {
+		CompiledGraph newSnapshot = hasTopologyChanged(snapshot, graph) ? new CompiledGraph(graph) : snapshot;
+		double[] newWeights = readWeights(newSnapshot, proxy, request);
+
+		List<Integer> removedEdges = new ArrayList<>();
+		if(newSnapshot != snapshot)
+			for(int edgeId = 0; edgeId < snapshot.getNumberOfEdges(); edgeId++)
+				if(newSnapshot.getEdgeId(snapshot.getEdge(edgeId)) == -1)
+					removedEdges.add(edgeId);
+
+		List<Integer> changedEdges = new ArrayList<>();
+		for(int edgeId = 0; edgeId < newSnapshot.getNumberOfEdges(); edgeId++) {
+			int oldEdgeId = snapshot.getEdgeId(newSnapshot.getEdge(edgeId));
+			if(oldEdgeId == -1 ? newWeights[edgeId] != UNREACHABLE : newWeights[edgeId] != weights[oldEdgeId])
+				changedEdges.add(edgeId);
+		}
+
+		boolean recompute = (removedEdges.size() + changedEdges.size()) * 4 > newSnapshot.getNumberOfEdges();
+		if(!recompute)
+			for(int edgeId : removedEdges)
+				changeWeight(edgeId, UNREACHABLE);
+
+		if(newSnapshot != snapshot)
+			switchTo(newSnapshot);
+
+		if(recompute) {
+			weights = newWeights;
+			recomputeAll();
+		}
+		else {
+			for(int edgeId : changedEdges)
+				changeWeight(edgeId, newWeights[edgeId]);
+		}
+	}
+
+	/**
+	 * @return true if the Nodes or Edges of the Graph are not the ones (in
+	 *         the same order) of the snapshot.
+	 */
+	static boolean hasTopologyChanged(CompiledGraph snapshot, Graph graph) {
+		List<Node> nodes = graph.getNodes();
+		List<Edge> edges = graph.getEdges();
+		if(nodes.size() != snapshot.getNumberOfNodes() || edges.size() != snapshot.getNumberOfEdges())
+			return true;
+		for(int i = 0; i < nodes.size(); i++)
+			if(nodes.get(i) != snapshot.getNode(i))
+				return true;
+		for(int i = 0; i < edges.size(); i++)
+			if(edges.get(i) != snapshot.getEdge(i))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Moves the trees to a new snapshot. The removed Edges must not be used
+	 * by the trees anymore (unless everything is recomputed afterwards).
+	 * Added Edges are considered inaccessible and added Nodes unreachable.
+	 */
+	private void switchTo(CompiledGraph newSnapshot) {
+		int n = newSnapshot.getNumberOfNodes();
+		int[] oldNodeIds = new int[n];
+		for(int node = 0; node < n; node++)
+			oldNodeIds[node] = snapshot.getNodeId(newSnapshot.getNode(node));
+
+		double[] newWeights = new double[newSnapshot.getNumberOfEdges()];
+		for(int edgeId = 0; edgeId < newWeights.length; edgeId++) {
+			int oldEdgeId = snapshot.getEdgeId(newSnapshot.getEdge(edgeId));
+			newWeights[edgeId] = oldEdgeId == -1 ? UNREACHABLE : weights[oldEdgeId];
+		}
+
+		int oldN = snapshot.getNumberOfNodes();
+		double[] newDistances = new double[matrixSize(n)];
+		int[] newParentEdges = new int[matrixSize(n)];
+		BitSet[] newChanges = new BitSet[n];
+		Arrays.fill(newDistances, UNREACHABLE);
+		Arrays.fill(newParentEdges, -1);
+		for(int source = 0; source < n; source++) {
+			int oldSource = oldNodeIds[source];
+			newDistances[source * n + source] = 0;
+			for(int destination = 0; destination < n; destination++) {
+				int oldDestination = oldNodeIds[destination];
+				if(oldSource == -1 || oldDestination == -1) {
+					// Entries of new Nodes have never been reported.
+					if(newChanges[destination] == null)
+						newChanges[destination] = new BitSet(n);
+					newChanges[destination].set(source);
+					continue;
+				}
+				newDistances[source * n + destination] = distances[oldSource * oldN + oldDestination];
+				int parentEdge = parentEdges[oldSource * oldN + oldDestination];
+				if(parentEdge != -1)
+					newParentEdges[source * n + destination] = newSnapshot.getEdgeId(snapshot.getEdge(parentEdge));
+				if(changes[oldDestination] != null && changes[oldDestination].get(oldSource)) {
+					if(newChanges[destination] == null)
+						newChanges[destination] = new BitSet(n);
+					newChanges[destination].set(source);
+				}
+			}
+		}
+
+		snapshot = newSnapshot;
+		weights = newWeights;
+		distances = newDistances;
+		parentEdges = newParentEdges;
+		changes = newChanges;
+		allocateSearchState(n);
+	}
+
+	/**
+	 * Computes all the trees again (in parallel if there is a pool) and marks
+	 * the changed pairs.
+	 */
+	private void recomputeAll() {
+		int n = snapshot.getNumberOfNodes();
+		CompiledGraph compiledGraph = snapshot;
+		double[] treeWeights = weights;
+		// Destinations whose distance changed, per source.
+		BitSet[] changedDestinations = new BitSet[n];
+		NodeRangeTask.forEach(pool, n, () -> new Tree(new DijkstraSearch(compiledGraph, treeWeights), n),
+				(tree, source) -> {
+					tree.search.run(source, true, tree.distances, tree.parentEdges, 0);
+					int offset = source * n;
+					for(int destination = 0; destination < n; destination++) {
+						if(tree.distances[destination] != distances[offset + destination]) {
+							if(changedDestinations[source] == null)
+								changedDestinations[source] = new BitSet(n);
+							changedDestinations[source].set(destination);
+						}
+					}
+					System.arraycopy(tree.distances, 0, distances, offset, n);
+					System.arraycopy(tree.parentEdges, 0, parentEdges, offset, n);
+				});
+		for(int source = 0; source < n; source++) {
+			BitSet row = changedDestinations[source];
+			if(row != null)
+				for(int destination = row.nextSetBit(0); destination >= 0; destination = row.nextSetBit(destination + 1))
+					markChanged(source, destination);
+		}
+	}
+
+	/**
+	 * Changes the cost of an Edge and repairs the trees using it.
+	 */
+	private void changeWeight(int edgeId, double weight) {
+		double oldWeight = weights[edgeId];
+		weights[edgeId] = weight;
+		for(int source = 0; source < snapshot.getNumberOfNodes(); source++) {
+			if(weight < oldWeight)
+				decrease(source, edgeId);
+			else
+				increase(source, edgeId);
+		}
+	}
+
+	private void decrease(int source, int edgeId) {
+		int offset = source * snapshot.getNumberOfNodes();
+		int tail = snapshot.getSource(edgeId);
+		int head = snapshot.getDestination(edgeId);
+		if(distances[offset + tail] == UNREACHABLE)
+			return;
+		double distance = distances[offset + tail] + weights[edgeId];
+		if(distance >= distances[offset + head])
+			return;
+
+		distances[offset + head] = distance;
+		parentEdges[offset + head] = edgeId;
+		markChanged(source, head);
+		queue.add(head, distance, 0, head);
+		propagate(offset, source);
+	}
+
+	private void increase(int source, int edgeId) {
+		int offset = source * snapshot.getNumberOfNodes();
+		int head = snapshot.getDestination(edgeId);
+		if(parentEdges[offset + head] != edgeId)
+			return;
+
+		// Subtree below the Edge.
+		int size = 0;
+		subtree[size++] = head;
+		affected[head] = true;
+		for(int i = 0; i < size; i++) {
+			int node = subtree[i];
+			for(int index = snapshot.getOutgoingStart(node); index < snapshot.getOutgoingEnd(node); index++) {
+				int outEdge = snapshot.getOutgoingEdge(index);
+				int next = snapshot.getDestination(outEdge);
+				if(parentEdges[offset + next] == outEdge && !affected[next]) {
+					affected[next] = true;
+					subtree[size++] = next;
+				}
+			}
+		}
+		for(int i = 0; i < size; i++) {
+			int node = subtree[i];
+			oldDistances[i] = distances[offset + node];
+			distances[offset + node] = UNREACHABLE;
+			parentEdges[offset + node] = -1;
+		}
+
+		// Best unaffected predecessors.
+		for(int i = 0; i < size; i++) {
+			int node = subtree[i];
+			for(int index = snapshot.getIncomingStart(node); index < snapshot.getIncomingEnd(node); index++) {
+				int inEdge = snapshot.getIncomingEdge(index);
+				int previous = snapshot.getSource(inEdge);
+				if(affected[previous] || distances[offset + previous] == UNREACHABLE || weights[inEdge] == UNREACHABLE)
+					continue;
+				double distance = distances[offset + previous] + weights[inEdge];
+				if(distance < distances[offset + node]) {
+					distances[offset + node] = distance;
+					parentEdges[offset + node] = inEdge;
+				}
+			}
+			if(distances[offset + node] != UNREACHABLE)
+				queue.add(node, distances[offset + node], 0, node);
+		}
+		propagate(offset, -1);
+
+		for(int i = 0; i < size; i++) {
+			int node = subtree[i];
+			affected[node] = false;
+			if(distances[offset + node] != oldDistances[i])
+				markChanged(source, node);
+		}
+	}
+
+	/**
+	 * Runs Dijkstra from the queued Nodes.
+	 * @param offset Offset of the tree in the matrices.
+	 * @param changedSource Source for which the improved Nodes are reported
+	 *                      as changed (-1 for none).
+	 */
+	private void propagate(int offset, int changedSource) {
+		while(!queue.isEmpty()) {
+			int node = queue.poll();
+			for(int index = snapshot.getOutgoingStart(node); index < snapshot.getOutgoingEnd(node); index++) {
+				int outEdge = snapshot.getOutgoingEdge(index);
+				if(weights[outEdge] == UNREACHABLE)
+					continue;
+				int next = snapshot.getDestination(outEdge);
+				double distance = distances[offset + node] + weights[outEdge];
+				if(distance < distances[offset + next]) {
+					distances[offset + next] = distance;
+					parentEdges[offset + next] = outEdge;
+					if(changedSource != -1)
+						markChanged(changedSource, next);
+					queue.add(next, distance, 0, next);
+				}
+			}
+		}
+	}
+
+	private void markChanged(int source, int destination) {
+		if(changes[destination] == null)
+			changes[destination] = new BitSet(snapshot.getNumberOfNodes());
+		changes[destination].set(source);
+	}
+
+	/**
+	 * @return The size of the n x n matrices.
+	 */
+	private static int matrixSize(int n) {
+		long size = (long) n * n;
+		if(size > Integer.MAX_VALUE - 8)
+			throw new IllegalStateException("Too many Nodes (" + n + ") to keep all the shortest-path trees");
+		return (int) size;
+	}
+
+	private void allocateSearchState(int n) {
+		queue = new IntPriorityQueue(4, Math.max(n, 1));
+		affected = new boolean[n];
+		subtree = new int[n];
+		oldDistances = new double[n];
+	}
+
+	/**
+	 * @return The cost of each Edge of the snapshot (UNREACHABLE without
+	 *         access).
+	 */
+	static double[] readWeights(CompiledGraph compiledGraph, EdgeProxy proxy, Request request) {
+		double[] result = new double[compiledGraph.getNumberOfEdges()];
+		for(int edgeId = 0; edgeId < result.length; edgeId++)
+			result[edgeId] = readWeight(compiledGraph.getEdge(edgeId), proxy, request);
+		return result;
+	}
+
+	static double readWeight(Edge edge, EdgeProxy proxy, Request request) {
+		if(!proxy.hasAccess(edge, request))
+			return UNREACHABLE;
+		return proxy.getCost(edge, request);
+	}
+
+	/**
+	 * Thread-confined state computing one tree at a time.
+	 */
+	private static final class Tree {
+		private final DijkstraSearch search;
+		private final double[] distances;
+		private final int[] parentEdges;
+
+		private Tree(DijkstraSearch search, int n) {
+			this.search = search;
+			this.distances = new double[n];
+			this.parentEdges = new int[n];
+		}
+	}
+}
@@ -3,6 +3,7 @@ package de.tum.ei.lkn.eces.routing.easygraph;
 import de.tum.ei.lkn.eces.core.Controller;
 import de.tum.ei.lkn.eces.graph.Edge;
 import de.tum.ei.lkn.eces.routing.exceptions.ProxyException;
+import de.tum.ei.lkn.eces.routing.proxies.EdgeEvaluation;
 import de.tum.ei.lkn.eces.routing.proxies.EdgeProxy;
 import de.tum.ei.lkn.eces.routing.requests.Request;
 import de.tum.ei.lkn.eces.routing.responses.Response;
@@ -11,19 +12,28 @@ import de.tum.ei.lkn.eces.routing.responses.Response;
  * Proxy for an easy graph implementation: metric values are simply retried from a Metrics
  * object attached to an edge.
  *
+ * A proxy created by a MetricsSystem reads the values from the MetricsStore of the system
+ * instead of reading the Metrics objects.
+ *
  * @author Amaury Van Bemten
  */
 public class EasyGraphProxy extends EdgeProxy {
 	private double[] constraintsBounds;
 	private MetricsMapper mapper;
+	private MetricsStore store;
 
 	public EasyGraphProxy(Controller controller) {
 		this(controller, new double[0]);
 	}
 
 	public EasyGraphProxy(Controller controller, double[] constraintsBounds) {
+		this(controller, constraintsBounds, null);
+	}
+
+	EasyGraphProxy(Controller controller, double[] constraintsBounds, MetricsStore store) {
 		this.constraintsBounds = constraintsBounds;
 		this.mapper = new MetricsMapper(controller);
+		this.store = store;
 	}
 
 	@Override
@@ -31,8 +41,16 @@ public class EasyGraphProxy extends EdgeProxy {
 		return new double[0];
 	}
 
+	@Override
+	public double[] getNewParameters(Edge edge, double[] oldParameters, Request request, boolean isForward, double[] newParameters) {
+		return newParameters != null ? newParameters : new double[0];
+	}
+
 	@Override
 	public boolean hasAccess(Edge edge, Request request) {
+		if(store != null)
+			return hasAccess(getStoreId(edge));
+
 		double[] constraintsValues = mapper.get(edge.getEntity()).getConstraints();
 
 		if (constraintsValues.length != constraintsBounds.length)
@@ -47,14 +65,94 @@ public class EasyGraphProxy extends EdgeProxy {
 
 	@Override
 	public double getCost(Edge edge, Request request) {
+		if(store != null)
+			return store.getCost(getStoreId(edge));
 		return mapper.get(edge.getEntity()).getCost();
 	}
 
 	@Override
 	public double[] getConstraintsValues(Edge edge, Request request) {
+		if(store != null)
+			return store.getConstraints(getStoreId(edge), null);
 		return mapper.get(edge.getEntity()).getConstraints();
 	}
 
+	@Override
+	public double[] getConstraintsValues(Edge edge, Request request, double[] constraints) {
+		if(store != null)
+			return store.getConstraints(getStoreId(edge), constraints);
+		return mapper.get(edge.getEntity()).getConstraints();
+	}
+
+	@Override
+	public boolean evaluate(Edge edge, double[] oldParameters, Request request, boolean isForward, EdgeEvaluation evaluation) {
+		if(store != null) {
+			int id = getStoreId(edge);
+			evaluation.setParameters(evaluation.getParameterBuffer());
+			if(evaluation.isAccessChecked() && !hasAccess(id)) {
+				evaluation.setAccess(false);
+				return false;
+			}
+			evaluation.setAccess(true);
+			evaluation.setCost(store.getCost(id));
+			evaluation.setConstraintsValues(store.getConstraints(id, evaluation.getConstraintsBuffer()));
+			return true;
+		}
+
+		// The Metrics are read once for the access, cost and constraints.
+		Metrics metrics = mapper.get(edge.getEntity());
+		double[] constraintsValues = metrics.getConstraints();
+		evaluation.setParameters(evaluation.getParameterBuffer());
+		if(evaluation.isAccessChecked()) {
+			if (constraintsValues.length != constraintsBounds.length)
+				throw new ProxyException("The bounds array does not have the same size as the values");
+
+			for (int i = 0; i < constraintsValues.length; i++) {
+				if (constraintsValues[i] > constraintsBounds[i]) {
+					evaluation.setAccess(false);
+					return false;
+				}
+			}
+		}
+		evaluation.setAccess(true);
+		evaluation.setCost(metrics.getCost());
+		evaluation.setConstraintsValues(constraintsValues);
+		return true;
+	}
+
+	@Override
+	public void hasAccess(Edge[] edges, Request request, boolean[] access) {
+		if(store == null) {
+			super.hasAccess(edges, request, access);
+			return;
+		}
+		for(int i = 0; i < edges.length; i++)
+			access[i] = hasAccess(getStoreId(edges[i]));
+	}
+
+	@Override
+	public void getCosts(Edge[] edges, Request request, double[] costs) {
+		if(store == null) {
+			super.getCosts(edges, request, costs);
+			return;
+		}
+		for(int i = 0; i < edges.length; i++)
+			costs[i] = store.getCost(getStoreId(edges[i]));
+	}
+
+	@Override
+	public void getConstraintsValues(Edge[] edges, Request request, double[][] constraints) {
+		if(store == null) {
+			super.getConstraintsValues(edges, request, constraints);
+			return;
+		}
+		for(int i = 0; i < edges.length; i++) {
+			int id = getStoreId(edges[i]);
+			for(int c = 0; c < constraints.length; c++)
+				constraints[c][i] = store.getConstraint(id, c);
+		}
+	}
+
 	@Override
 	public boolean register(Edge edge, Request request) {
 		return true;
@@ -98,4 +196,37 @@ public class EasyGraphProxy extends EdgeProxy {
 	public void setConstraintsBounds(double[] bounds) {
 		this.constraintsBounds = bounds;
 	}
+
+	/**
+	 * The version also changes when the Metrics in the store change.
+	 */
+	@Override
+	public long getStateVersion() {
+		if(store != null)
+			return super.getStateVersion() + store.getVersion();
+		return super.getStateVersion();
+	}
+
+	/**
+	 * Gets the ID of an Edge in the store, loading its Metrics first if they
+	 * were attached before the store was created.
+	 */
+	private int getStoreId(Edge edge) {
+		int id = store.getId(edge);
+		if(id == -1)
+			id = store.put(edge.getEntity(), mapper.get(edge.getEntity()));
+		return id;
+	}
+
+	private boolean hasAccess(int id) {
+		int numberOfConstraints = store.getNumberOfConstraints(id);
+		if (numberOfConstraints != constraintsBounds.length)
+			throw new ProxyException("The bounds array does not have the same size as the values");
+
+		for (int i = 0; i < numberOfConstraints; i++)
+			if (store.getConstraint(id, i) > constraintsBounds[i])
+				return false;
+
+		return true;
+	}
 }
@@ -0,0 +1,94 @@
+package de.tum.ei.lkn.eces.routing.easygraph;
+
+import de.tum.ei.lkn.eces.core.ComponentStatus;
+import de.tum.ei.lkn.eces.core.Controller;
+import de.tum.ei.lkn.eces.core.RootSystem;
+import de.tum.ei.lkn.eces.core.annotations.ComponentStateIs;
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.graph.Graph;
+import de.tum.ei.lkn.eces.graph.mappers.EdgeMapper;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * System notifying listeners each time an Edge is created or destroyed or
+ * the Metrics of an Edge change, with the Graph of the Edge (null if the
+ * Metrics are not attached to an Edge). Lets results computed from the
+ * Metrics be invalidated by the ECS events instead of reading all the Metrics
+ * again to detect changes.
+ *
+ * One System per Controller is meant to be shared by all the listeners: a
+ * listener which is not used anymore has to be removed with removeListener().
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public class MetricsChangeSystem extends RootSystem {
+	/**
+	 * Listeners called with the Graph which changed.
+	 */
+	private List<Consumer<Graph>> listeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Mapper used to find the Edge of Metrics.
+	 */
+	private EdgeMapper edgeMapper;
+
+	public MetricsChangeSystem(Controller controller) {
+		super(controller);
+		this.edgeMapper = new EdgeMapper(controller);
+	}
+
+	/**
+	 * Adds a listener called with the Graph of each change.
+	 * @param listener The listener.
+	 */
+	public void addListener(Consumer<Graph> listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Removes a listener added with addListener().
+	 * @param listener The listener.
+	 */
+	public void removeListener(Consumer<Graph> listener) {
+		listeners.remove(listener);
+	}
+
+	@ComponentStateIs(State = ComponentStatus.New)
+	void addEdge(Edge edge) {
+		changed(edge.getSource().getGraph());
+	}
+
+	@ComponentStateIs(State = ComponentStatus.Destroyed)
+	void removeEdge(Edge edge) {
+		changed(edge.getSource().getGraph());
+	}
+
+	@ComponentStateIs(State = ComponentStatus.New)
+	void addMetrics(Metrics metrics) {
+		changed(metrics);
+	}
+
+	@ComponentStateIs(State = ComponentStatus.Updated)
+	void updateMetrics(Metrics metrics) {
+		changed(metrics);
+	}
+
+	@ComponentStateIs(State = ComponentStatus.Destroyed)
+	void removeMetrics(Metrics metrics) {
+		changed(metrics);
+	}
+
+	private void changed(Metrics metrics) {
+		Edge edge = edgeMapper.get(metrics.getEntity());
+		changed(edge == null ? null : edge.getSource().getGraph());
+	}
+
+	private void changed(Graph graph) {
+		for(Consumer<Graph> listener : listeners)
+			listener.accept(graph);
+	}
+}
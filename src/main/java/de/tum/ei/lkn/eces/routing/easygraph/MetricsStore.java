@@ -0,0 +1,202 @@
+package de.tum.ei.lkn.eces.routing.easygraph;
+
+import de.tum.ei.lkn.eces.core.Entity;
+import de.tum.ei.lkn.eces.graph.Edge;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Columnar copy of the Metrics of the Edges: the cost and each constraint are
+ * stored in primitive arrays indexed by a dense ID given to each stored Edge.
+ * The ID of a removed Edge is given to the next stored one.
+ *
+ * Reads do not lock and do not go through the ECS. Writes are serialized by
+ * the store; a read concurrent to the update of the same Edge (or to the
+ * removal of the Edge and the reuse of its ID) may see a mix of the old and
+ * new values.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public class MetricsStore {
+	/**
+	 * Number of constraints of an Edge without Metrics.
+	 */
+	private static final int ABSENT = -1;
+
+	/**
+	 * Arrays of the store. They are replaced (and never shrunk) when the
+	 * store grows.
+	 */
+	private static final class Columns {
+		private final double[] costs;
+		private final double[][] constraints;
+		private final int[] numberOfConstraints;
+
+		private Columns(int capacity, int width) {
+			costs = new double[capacity];
+			constraints = new double[width][capacity];
+			numberOfConstraints = new int[capacity];
+			Arrays.fill(numberOfConstraints, ABSENT);
+		}
+	}
+
+	private volatile Columns columns = new Columns(0, 0);
+
+	/**
+	 * ID of each stored Edge, by Entity.
+	 */
+	private final Map<Entity, Integer> ids = new ConcurrentHashMap<>();
+
+	/**
+	 * IDs of the removed Edges (guarded by this).
+	 */
+	private int[] freeIds = new int[0];
+	private int numberOfFreeIds;
+
+	/**
+	 * Number of IDs given so far (guarded by this).
+	 */
+	private int numberOfIds;
+
+	/**
+	 * Version of the stored Metrics, incremented by changed().
+	 */
+	private final AtomicLong version = new AtomicLong();
+
+	/**
+	 * @param edge Edge.
+	 * @return The ID of the Edge in the store, -1 if the store has no Metrics
+	 *         for the Edge.
+	 */
+	public int getId(Edge edge) {
+		Integer id = ids.get(edge.getEntity());
+		return id == null ? ABSENT : id;
+	}
+
+	/**
+	 * @param edge Edge.
+	 * @return Whether the store has Metrics for the Edge.
+	 */
+	public boolean contains(Edge edge) {
+		return ids.containsKey(edge.getEntity());
+	}
+
+	/**
+	 * @param edgeId ID of an Edge in the store.
+	 * @return The cost of the Edge.
+	 */
+	public double getCost(int edgeId) {
+		return columns.costs[edgeId];
+	}
+
+	/**
+	 * @param edgeId ID of an Edge in the store.
+	 * @return The number of constraints values of the Edge.
+	 */
+	public int getNumberOfConstraints(int edgeId) {
+		return columns.numberOfConstraints[edgeId];
+	}
+
+	/**
+	 * @param edgeId ID of an Edge in the store.
+	 * @param index Index of the constraint.
+	 * @return The value of the constraint for the Edge.
+	 */
+	public double getConstraint(int edgeId, int index) {
+		return columns.constraints[index][edgeId];
+	}
+
+	/**
+	 * Copies the constraints values of an Edge.
+	 * @param edgeId ID of an Edge in the store.
+	 * @param constraints Buffer in which the values are copied (a new array
+	 *                    is created if it is null or does not have the right
+	 *                    size).
+	 * @return The constraints values.
+	 */
+	public double[] getConstraints(int edgeId, double[] constraints) {
+		Columns columns = this.columns;
+		int numberOfConstraints = columns.numberOfConstraints[edgeId];
+		if(constraints == null || constraints.length != numberOfConstraints)
+			constraints = new double[numberOfConstraints];
+		for(int i = 0; i < numberOfConstraints; i++)
+			constraints[i] = columns.constraints[i][edgeId];
+		return constraints;
+	}
+
+	/**
+	 * Stores (or replaces) the Metrics of an Edge.
+	 * @param entity Entity of the Edge.
+	 * @param metrics Metrics of the Edge.
+	 * @return The ID of the Edge in the store.
+	 */
+	public synchronized int put(Entity entity, Metrics metrics) {
+		Integer existingId = ids.get(entity);
+		int edgeId;
+		if(existingId != null)
+			edgeId = existingId;
+		else if(numberOfFreeIds > 0)
+			edgeId = freeIds[--numberOfFreeIds];
+		else
+			edgeId = numberOfIds++;
+
+		double[] constraintsValues = metrics.getConstraints();
+		Columns columns = ensureCapacity(edgeId + 1, constraintsValues.length);
+		columns.costs[edgeId] = metrics.getCost();
+		for(int i = 0; i < constraintsValues.length; i++)
+			columns.constraints[i][edgeId] = constraintsValues[i];
+		columns.numberOfConstraints[edgeId] = constraintsValues.length;
+		// Published once the values are written.
+		if(existingId == null)
+			ids.put(entity, edgeId);
+		return edgeId;
+	}
+
+	/**
+	 * Removes the Metrics of an Edge. Its ID is given to the next stored Edge.
+	 * @param entity Entity of the Edge.
+	 */
+	public synchronized void remove(Entity entity) {
+		Integer edgeId = ids.remove(entity);
+		if(edgeId == null)
+			return;
+		columns.numberOfConstraints[edgeId] = ABSENT;
+		if(numberOfFreeIds == freeIds.length)
+			freeIds = Arrays.copyOf(freeIds, Math.max(4, freeIds.length * 2));
+		freeIds[numberOfFreeIds++] = edgeId;
+	}
+
+	/**
+	 * @return The version of the stored Metrics. It changes each time
+	 *         changed() is called.
+	 */
+	public long getVersion() {
+		return version.get();
+	}
+
+	/**
+	 * Signals that the stored Metrics changed.
+	 */
+	public void changed() {
+		version.incrementAndGet();
+	}
+
+	private Columns ensureCapacity(int capacity, int width) {
+		Columns columns = this.columns;
+		if(capacity <= columns.costs.length && width <= columns.constraints.length)
+			return columns;
+
+		Columns grown = new Columns(Math.max(capacity, columns.costs.length * 2), Math.max(width, columns.constraints.length));
+		int size = columns.costs.length;
+		System.arraycopy(columns.costs, 0, grown.costs, 0, size);
+		System.arraycopy(columns.numberOfConstraints, 0, grown.numberOfConstraints, 0, size);
+		for(int i = 0; i < columns.constraints.length; i++)
+			System.arraycopy(columns.constraints[i], 0, grown.constraints[i], 0, size);
+		this.columns = grown;
+		return grown;
+	}
+}
@@ -0,0 +1,68 @@
+package de.tum.ei.lkn.eces.routing.easygraph;
+
+import de.tum.ei.lkn.eces.core.ComponentStatus;
+import de.tum.ei.lkn.eces.core.Controller;
+import de.tum.ei.lkn.eces.core.RootSystem;
+import de.tum.ei.lkn.eces.core.annotations.ComponentStateIs;
+
+/**
+ * System keeping a MetricsStore in sync with the Metrics Components and
+ * creating EasyGraphProxy's reading from it. Metrics attached before the
+ * System was created are loaded in the store the first time they are read.
+ * Changes of the Metrics change the state version of the created proxies
+ * (through the version of the store, so that the System does not keep a
+ * reference to the proxies).
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public class MetricsSystem extends RootSystem {
+	/**
+	 * Store shared by the proxies created by the System.
+	 */
+	private MetricsStore store = new MetricsStore();
+
+	public MetricsSystem(Controller controller) {
+		super(controller);
+	}
+
+	/**
+	 * Creates an EasyGraphProxy reading the Metrics from the store.
+	 * @param constraintsBounds Bounds of the constraints.
+	 * @return The new EasyGraphProxy.
+	 */
+	public EasyGraphProxy createProxy(double[] constraintsBounds) {
+		return new EasyGraphProxy(controller, constraintsBounds, store);
+	}
+
+	/**
+	 * Creates an EasyGraphProxy without constraints reading the Metrics from
+	 * the store.
+	 * @return The new EasyGraphProxy.
+	 */
+	public EasyGraphProxy createProxy() {
+		return createProxy(new double[0]);
+	}
+
+	public MetricsStore getStore() {
+		return store;
+	}
+
+	@ComponentStateIs(State = ComponentStatus.New)
+	void addMetrics(Metrics metrics) {
+		store.put(metrics.getEntity(), metrics);
+		store.changed();
+	}
+
+	@ComponentStateIs(State = ComponentStatus.Updated)
+	void updateMetrics(Metrics metrics) {
+		store.put(metrics.getEntity(), metrics);
+		store.changed();
+	}
+
+	@ComponentStateIs(State = ComponentStatus.Destroyed)
+	void removeMetrics(Metrics metrics) {
+		store.remove(metrics.getEntity());
+		store.changed();
+	}
+}
@@ -0,0 +1,11 @@
+package de.tum.ei.lkn.eces.routing.mappers;
+
+import de.tum.ei.lkn.eces.core.Controller;
+import de.tum.ei.lkn.eces.core.Mapper;
+import de.tum.ei.lkn.eces.routing.budget.RoutingBudget;
+
+public class RoutingBudgetMapper extends Mapper<RoutingBudget> {
+	public RoutingBudgetMapper(Controller controller) {
+		super(controller);
+	}
+}
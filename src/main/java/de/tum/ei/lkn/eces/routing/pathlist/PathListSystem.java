@@ -18,6 +18,8 @@ import de.tum.ei.lkn.eces.routing.responses.Path;
 import de.tum.ei.lkn.eces.routing.responses.ResilientPath;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * System listing at an Edge's and a Graph's Entity, all the Paths going
@@ -38,6 +40,11 @@ public class PathListSystem extends RootSystem {
 	 */
 	private Map<Graph, Set<Edge>> lastEmbeddedEdges = new HashMap<>();
 
+	/**
+	 * Listeners notified of the Edges whose PathList changed.
+	 */
+	private List<Consumer<Edge>> edgeListeners = new CopyOnWriteArrayList<>();
+
 	/**
 	 * Creates a new PathListSystem.
 	 * @param controller Controller responsible for the PathListSystem.
@@ -54,6 +61,28 @@ public class PathListSystem extends RootSystem {
 		return result;
 	}
 
+	/**
+	 * Adds a listener called with each Edge whose PathList changed, i.e.,
+	 * each Edge of a Path added or removed.
+	 * @param listener The listener.
+	 */
+	public void addEdgeListener(Consumer<Edge> listener) {
+		edgeListeners.add(listener);
+	}
+
+	/**
+	 * Removes a listener added with addEdgeListener().
+	 * @param listener The listener.
+	 */
+	public void removeEdgeListener(Consumer<Edge> listener) {
+		edgeListeners.remove(listener);
+	}
+
+	private void edgeChanged(Edge edge) {
+		for(Consumer<Edge> listener : edgeListeners)
+			listener.accept(edge);
+	}
+
 	/**
 	 * Attaches an empty PathList on a newly created Edge.
 	 * @param edge The newly created Edge.
@@ -97,6 +126,7 @@ public class PathListSystem extends RootSystem {
 		for(Edge edge : path.getPath()) {
 			PathList pathList = pathListMapper.get(edge.getEntity());
 			pathListMapper.updateComponent(pathList, ()->pathList.addPath(path.getEntity()));
+			edgeChanged(edge);
 		}
 
 		// Add to graph
@@ -123,6 +153,7 @@ public class PathListSystem extends RootSystem {
 			for(Edge edge : path.getPath()) {
 				PathList pathList = pathListMapper.get(edge.getEntity());
 				pathListMapper.updateComponent(pathList, ()->pathList.removePath(path.getEntity()));
+				edgeChanged(edge);
 
 				// Remove the PathList object if the Edge has been removed.
 				if(!edgeMapper.isIn(pathList.getEntity()))
@@ -150,6 +181,7 @@ public class PathListSystem extends RootSystem {
 
 				PathList pathList = pathListMapper.get(edge.getEntity());
 				pathListMapper.updateComponent(pathList, ()->pathList.removePath(path.getEntity()));
+				edgeChanged(edge);
 
 				// Remove the PathList object if the Edge has been removed.
 				if(!edgeMapper.isIn(pathList.getEntity()))
@@ -171,6 +203,7 @@ public class PathListSystem extends RootSystem {
 			for(Edge edge : path) {
 				PathList pathList = pathListMapper.get(edge.getEntity());
 				pathListMapper.updateComponent(pathList, ()->pathList.addPath(paths.getEntity()));
+				edgeChanged(edge);
 			}
 		}
 
@@ -193,6 +226,7 @@ public class PathListSystem extends RootSystem {
 			for(Edge edge : path.getPath()) {
 				PathList pathList = pathListMapper.get(edge.getEntity());
 				pathListMapper.updateComponent(pathList, () -> pathList.removePath(paths.getEntity()));
+				edgeChanged(edge);
 
 				// Remove the PathList object if the Edge has been removed.
 				if (!edgeMapper.isIn(pathList.getEntity()))
@@ -213,11 +247,13 @@ public class PathListSystem extends RootSystem {
 		for(Edge edge : paths.getPath1()) {
 			PathList pathList = pathListMapper.get(edge.getEntity());
 			pathListMapper.updateComponent(pathList, ()->pathList.addPath(paths.getEntity()));
+			edgeChanged(edge);
 		}
 
 		for(Edge edge : paths.getPath2()) {
 			PathList pathList = pathListMapper.get(edge.getEntity());
 			pathListMapper.updateComponent(pathList, ()->pathList.addPath(paths.getEntity()));
+			edgeChanged(edge);
 		}
 
         // Add to graph
@@ -238,6 +274,7 @@ public class PathListSystem extends RootSystem {
 		for(Edge edge : paths.getPath1()) {
 			PathList pathList = pathListMapper.get(edge.getEntity());
 			pathListMapper.updateComponent(pathList, ()->pathList.removePath(paths.getEntity()));
+			edgeChanged(edge);
 
 			// Remove the PathList object if the Edge has been removed.
 			if(!edgeMapper.isIn(pathList.getEntity()))
@@ -247,6 +284,7 @@ public class PathListSystem extends RootSystem {
 		for(Edge edge : paths.getPath2()) {
 			PathList pathList = pathListMapper.get(edge.getEntity());
 			pathListMapper.updateComponent(pathList, ()->pathList.removePath(paths.getEntity()));
+			edgeChanged(edge);
 
 			// Remove the PathList object if the Edge has been removed.
 			if(!edgeMapper.isIn(pathList.getEntity()))
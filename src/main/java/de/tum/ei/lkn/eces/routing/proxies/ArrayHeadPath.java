@@ -0,0 +1,116 @@
+package de.tum.ei.lkn.eces.routing.proxies;
+
+import de.tum.ei.lkn.eces.graph.Edge;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Part of a Path already visited, stored source -&gt; destination in an array
+ * to which Edges are appended. As a PathCursor, it is iterated from its last
+ * Edge towards its first one, like a list to which each visited Edge is added
+ * first.
+ *
+ * Parents share the array of the head path they come from: they must not be
+ * used once Edges have been appended to or removed from it.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public final class ArrayHeadPath implements PathCursor {
+	private Edge[] edges;
+	private int depth;
+
+	/**
+	 * Creates an empty head path.
+	 * @param capacity Expected number of Edges.
+	 */
+	public ArrayHeadPath(int capacity) {
+		this.edges = new Edge[Math.max(capacity, 1)];
+	}
+
+	private ArrayHeadPath(Edge[] edges, int depth) {
+		this.edges = edges;
+		this.depth = depth;
+	}
+
+	/**
+	 * Appends an Edge at the end of the head path.
+	 * @param edge Edge.
+	 */
+	public void add(Edge edge) {
+		if(depth == edges.length)
+			edges = Arrays.copyOf(edges, 2 * edges.length);
+		edges[depth++] = edge;
+	}
+
+	/**
+	 * Reverses the order of the Edges, e.g., to turn Edges collected
+	 * destination -&gt; source into a head path.
+	 */
+	public void reverse() {
+		for(int i = 0, j = depth - 1; i < j; i++, j--) {
+			Edge edge = edges[i];
+			edges[i] = edges[j];
+			edges[j] = edge;
+		}
+	}
+
+	/**
+	 * Removes all the Edges.
+	 */
+	public void clear() {
+		Arrays.fill(edges, 0, depth, null);
+		depth = 0;
+	}
+
+	/**
+	 * @param index Position of the Edge (0 for the first one).
+	 * @return The Edge.
+	 */
+	public Edge get(int index) {
+		return edges[index];
+	}
+
+	/**
+	 * @return A new array with the Edges (source -&gt; destination).
+	 */
+	public Edge[] toArray() {
+		return Arrays.copyOf(edges, depth);
+	}
+
+	@Override
+	public Edge getLastEdge() {
+		return depth == 0 ? null : edges[depth - 1];
+	}
+
+	@Override
+	public PathCursor getParent() {
+		return depth <= 1 ? null : new ArrayHeadPath(edges, depth - 1);
+	}
+
+	@Override
+	public int getDepth() {
+		return depth;
+	}
+
+	@Override
+	public Iterator<Edge> iterator() {
+		return new Iterator<Edge>() {
+			private int next = depth - 1;
+
+			@Override
+			public boolean hasNext() {
+				return next >= 0;
+			}
+
+			@Override
+			public Edge next() {
+				if(next < 0)
+					throw new NoSuchElementException();
+				return edges[next--];
+			}
+		};
+	}
+}
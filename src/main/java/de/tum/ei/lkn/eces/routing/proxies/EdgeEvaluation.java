@@ -0,0 +1,129 @@
+package de.tum.ei.lkn.eces.routing.proxies;
+
+/**
+ * Result of the evaluation of a candidate EDGE by a Proxy in a single call:
+ * new parameters, access, cost and constraints values.
+ *
+ * An EdgeEvaluation is owned by its caller (typically an algorithm) and reused
+ * for all the Edges it evaluates. It provides the buffers in which the Proxy
+ * can write the parameters and constraints values. The arrays returned by the
+ * getters are either these buffers or arrays owned by the Proxy: they are only
+ * valid until the next evaluation and must neither be modified nor kept.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public final class EdgeEvaluation {
+	private final double[] parameterBuffer;
+	private final double[] constraintsBuffer;
+
+	/**
+	 * Whether access to the EDGE has to be checked. If not, the cost and
+	 * constraints values are computed even if the Request has no access.
+	 */
+	private boolean accessChecked = true;
+
+	private double[] parameters;
+	private boolean access;
+	private double cost;
+	private double[] constraintsValues;
+
+	/**
+	 * Evaluation used by a Proxy to evaluate the EDGE with an underlying Proxy
+	 * (created when first needed).
+	 */
+	private EdgeEvaluation nested;
+
+	/**
+	 * Creates an EdgeEvaluation.
+	 * @param numberOfParameters Number of parameters of the Proxy.
+	 * @param numberOfConstraints Number of constraints of the Proxy.
+	 */
+	public EdgeEvaluation(int numberOfParameters, int numberOfConstraints) {
+		this.parameterBuffer = new double[numberOfParameters];
+		this.constraintsBuffer = new double[numberOfConstraints];
+	}
+
+	/**
+	 * @return Buffer in which the Proxy can write the new parameters.
+	 */
+	public double[] getParameterBuffer() {
+		return parameterBuffer;
+	}
+
+	/**
+	 * @return Buffer in which the Proxy can write the constraints values.
+	 */
+	public double[] getConstraintsBuffer() {
+		return constraintsBuffer;
+	}
+
+	public boolean isAccessChecked() {
+		return accessChecked;
+	}
+
+	public void setAccessChecked(boolean accessChecked) {
+		this.accessChecked = accessChecked;
+	}
+
+	/**
+	 * @return The parameters at the end of the Path including the EDGE.
+	 */
+	public double[] getParameters() {
+		return parameters;
+	}
+
+	public void setParameters(double[] parameters) {
+		this.parameters = parameters;
+	}
+
+	/**
+	 * @return Whether the Request has access to the EDGE (true if access was
+	 *         not checked).
+	 */
+	public boolean hasAccess() {
+		return access;
+	}
+
+	public void setAccess(boolean access) {
+		this.access = access;
+	}
+
+	/**
+	 * @return The cost of the EDGE (not computed if access was denied).
+	 */
+	public double getCost() {
+		return cost;
+	}
+
+	public void setCost(double cost) {
+		this.cost = cost;
+	}
+
+	/**
+	 * @return The constraints values of the EDGE (not computed if access was
+	 *         denied).
+	 */
+	public double[] getConstraintsValues() {
+		return constraintsValues;
+	}
+
+	public void setConstraintsValues(double[] constraintsValues) {
+		this.constraintsValues = constraintsValues;
+	}
+
+	/**
+	 * Gets an EdgeEvaluation that a Proxy can use to evaluate the EDGE with
+	 * an underlying Proxy. It is reused as long as the sizes do not change.
+	 * @param numberOfParameters Number of parameters of the underlying Proxy.
+	 * @param numberOfConstraints Number of constraints of the underlying
+	 *                            Proxy.
+	 * @return The nested EdgeEvaluation, checking access if this one does.
+	 */
+	public EdgeEvaluation getNested(int numberOfParameters, int numberOfConstraints) {
+		if(nested == null || nested.parameterBuffer.length != numberOfParameters || nested.constraintsBuffer.length != numberOfConstraints)
+			nested = new EdgeEvaluation(numberOfParameters, numberOfConstraints);
+		nested.accessChecked = accessChecked;
+		return nested;
+	}
+}
@@ -55,6 +55,95 @@ public abstract class EdgeProxy extends Proxy {
 	 */
 	public abstract double[] getConstraintsValues(Edge edge, Request request);
 
+	/**
+	 * Same as getNewParameters() but with a buffer for the result, so that
+	 * no object has to be created per Edge. The default implementation calls
+	 * the allocating method.
+	 * @param newParameters Buffer of at least getNumberOfParameters() values
+	 *                      in which the parameters can be written (may be
+	 *                      null).
+	 * @return The parameters: either the buffer or an array that must
+	 *         neither be modified nor kept by the caller.
+	 */
+	public double[] getNewParameters(Edge edge, double[] oldParameters, Request request, boolean isForward, double[] newParameters) {
+		return getNewParameters(edge, oldParameters, request, isForward);
+	}
+
+	/**
+	 * Same as getConstraintsValues() but with a buffer for the result. The
+	 * default implementation calls the allocating method.
+	 * @param constraints Buffer of at least getNumberOfConstraints() values
+	 *                    in which the constraints can be written (may be
+	 *                    null).
+	 * @return The constraints values: either the buffer or an array that
+	 *         must neither be modified nor kept by the caller.
+	 */
+	public double[] getConstraintsValues(Edge edge, Request request, double[] constraints) {
+		return getConstraintsValues(edge, request);
+	}
+
+	/**
+	 * Evaluates a candidate EDGE in a single call: new parameters, access,
+	 * cost and constraints values (see PathProxy). The default implementation
+	 * calls the other methods.
+	 * @return false if access was checked and denied, true otherwise.
+	 */
+	public boolean evaluate(Edge edge, double[] oldParameters, Request request, boolean isForward, EdgeEvaluation evaluation) {
+		evaluation.setParameters(getNewParameters(edge, oldParameters, request, isForward, evaluation.getParameterBuffer()));
+		if(evaluation.isAccessChecked() && !hasAccess(edge, request)) {
+			evaluation.setAccess(false);
+			return false;
+		}
+		evaluation.setAccess(true);
+		evaluation.setCost(getCost(edge, request));
+		evaluation.setConstraintsValues(getConstraintsValues(edge, request, evaluation.getConstraintsBuffer()));
+		return true;
+	}
+
+	/**
+	 * Checks the access of a Request to several Edges at once. The default
+	 * implementation calls hasAccess() for each Edge.
+	 * @param edges Edges.
+	 * @param request Request.
+	 * @param access Array of at least edges.length values in which the access
+	 *               to edges[i] is written at index i.
+	 */
+	public void hasAccess(Edge[] edges, Request request, boolean[] access) {
+		for(int i = 0; i < edges.length; i++)
+			access[i] = hasAccess(edges[i], request);
+	}
+
+	/**
+	 * Gets the costs of several Edges at once. The default implementation
+	 * calls getCost() for each Edge.
+	 * @param edges Edges.
+	 * @param request Request.
+	 * @param costs Array of at least edges.length values in which the cost of
+	 *              edges[i] is written at index i.
+	 */
+	public void getCosts(Edge[] edges, Request request, double[] costs) {
+		for(int i = 0; i < edges.length; i++)
+			costs[i] = getCost(edges[i], request);
+	}
+
+	/**
+	 * Gets the constraints values of several Edges at once. The default
+	 * implementation calls getConstraintsValues() for each Edge.
+	 * @param edges Edges.
+	 * @param request Request.
+	 * @param constraints getNumberOfConstraints() arrays of at least
+	 *                    edges.length values: the value of the constraint c
+	 *                    for edges[i] is written in constraints[c][i].
+	 */
+	public void getConstraintsValues(Edge[] edges, Request request, double[][] constraints) {
+		double[] buffer = new double[getNumberOfConstraints(request)];
+		for(int i = 0; i < edges.length; i++) {
+			double[] values = getConstraintsValues(edges[i], request, buffer);
+			for(int c = 0; c < constraints.length; c++)
+				constraints[c][i] = values[c];
+		}
+	}
+
 	public abstract boolean register(Edge edge, Request request);
 
 	public abstract boolean deregister(Edge edge, Request request);
@@ -0,0 +1,54 @@
+package de.tum.ei.lkn.eces.routing.proxies;
+
+import de.tum.ei.lkn.eces.graph.Edge;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Path followed by a Request before a candidate Edge, given to a PathProxy as
+ * a chain of parent pointers so that its last Edge is read without creating
+ * an iterator. Iterating over the cursor goes from the last Edge towards the
+ * first one, as expected by the Iterable-based methods of PathProxy.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public interface PathCursor extends Iterable<Edge> {
+	/**
+	 * @return The last Edge of the Path (null if the Path is empty).
+	 */
+	Edge getLastEdge();
+
+	/**
+	 * @return The Path without its last Edge (null or an empty cursor if the
+	 *         Path has at most one Edge).
+	 */
+	PathCursor getParent();
+
+	/**
+	 * @return The number of Edges of the Path.
+	 */
+	int getDepth();
+
+	@Override
+	default Iterator<Edge> iterator() {
+		return new Iterator<Edge>() {
+			private PathCursor current = PathCursor.this;
+
+			@Override
+			public boolean hasNext() {
+				return current != null && current.getLastEdge() != null;
+			}
+
+			@Override
+			public Edge next() {
+				if(!hasNext())
+					throw new NoSuchElementException();
+				Edge edge = current.getLastEdge();
+				current = current.getParent();
+				return edge;
+			}
+		};
+	}
+}
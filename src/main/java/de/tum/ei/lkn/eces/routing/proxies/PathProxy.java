@@ -88,6 +88,130 @@ public abstract class PathProxy extends Proxy {
 	 */
 	public abstract double[] getConstraintsValues(Iterable<Edge> path, Edge edge, double[] parameters, Request request, boolean isForward);
 
+	/**
+	 * Same as getNewParameters() but with the Path given as a PathCursor and
+	 * a buffer for the result, so that no object has to be created per Edge.
+	 * The default implementation calls the Iterable-based method.
+	 * @param path Path followed by the Request before current EDGE.
+	 * @param edge Given candidate EDGE.
+	 * @param oldParameters Values of the parameters before the candidate EDGE.
+	 * @param request Request for which the parameters must be computed.
+	 * @param isForward Whether the algorithm asking information is forward
+	 *                  or not.
+	 * @param newParameters Buffer of at least getNumberOfParameters() values
+	 *                      in which the parameters can be written (may be
+	 *                      null).
+	 * @return The parameters: either the buffer or an array that must
+	 *         neither be modified nor kept by the caller.
+	 */
+	public double[] getNewParameters(PathCursor path, Edge edge, double[] oldParameters, Request request, boolean isForward, double[] newParameters) {
+		return getNewParameters((Iterable<Edge>) path, edge, oldParameters, request, isForward);
+	}
+
+	/**
+	 * Same as hasAccess() but with the Path given as a PathCursor.
+	 * The default implementation calls the Iterable-based method.
+	 */
+	public boolean hasAccess(PathCursor path, Edge edge, double[] parameters, Request request, boolean isForward) {
+		return hasAccess((Iterable<Edge>) path, edge, parameters, request, isForward);
+	}
+
+	/**
+	 * Same as getCost() but with the Path given as a PathCursor.
+	 * The default implementation calls the Iterable-based method.
+	 */
+	public double getCost(PathCursor path, Edge edge, double[] parameters, Request request, boolean isForward) {
+		return getCost((Iterable<Edge>) path, edge, parameters, request, isForward);
+	}
+
+	/**
+	 * Same as getConstraintsValues() but with the Path given as a PathCursor
+	 * and a buffer for the result. The default implementation calls the
+	 * Iterable-based method.
+	 * @param constraints Buffer of at least getNumberOfConstraints() values
+	 *                    in which the constraints can be written (may be
+	 *                    null).
+	 * @return The constraints values: either the buffer or an array that
+	 *         must neither be modified nor kept by the caller.
+	 */
+	public double[] getConstraintsValues(PathCursor path, Edge edge, double[] parameters, Request request, boolean isForward, double[] constraints) {
+		return getConstraintsValues((Iterable<Edge>) path, edge, parameters, request, isForward);
+	}
+
+	/**
+	 * Evaluates a candidate EDGE in a single call: new parameters, access,
+	 * cost and constraints values. Proxies reading the same data for these
+	 * values should override it. The default implementation calls the
+	 * PathCursor-based methods.
+	 * @param path Path followed by the Request before current EDGE.
+	 * @param edge Given candidate EDGE.
+	 * @param oldParameters Values of the parameters before the candidate EDGE.
+	 * @param request Request for which the EDGE is evaluated.
+	 * @param isForward Whether the algorithm asking information is forward
+	 *                  or not.
+	 * @param evaluation Evaluation in which the values are written.
+	 * @return false if access was checked and denied (the cost and
+	 *         constraints values are then not computed), true otherwise.
+	 */
+	public boolean evaluate(PathCursor path, Edge edge, double[] oldParameters, Request request, boolean isForward, EdgeEvaluation evaluation) {
+		double[] parameters = getNewParameters(path, edge, oldParameters, request, isForward, evaluation.getParameterBuffer());
+		evaluation.setParameters(parameters);
+		if(evaluation.isAccessChecked() && !hasAccess(path, edge, parameters, request, isForward)) {
+			evaluation.setAccess(false);
+			return false;
+		}
+		evaluation.setAccess(true);
+		evaluation.setCost(getCost(path, edge, parameters, request, isForward));
+		evaluation.setConstraintsValues(getConstraintsValues(path, edge, parameters, request, isForward, evaluation.getConstraintsBuffer()));
+		return true;
+	}
+
+	/**
+	 * Checks the access of a Request to several Edges at once, if it does not
+	 * depend on the Path nor on the parameters (see EdgeProxy). The default
+	 * implementation writes nothing.
+	 * @param edges Edges.
+	 * @param request Request.
+	 * @param access Array of at least edges.length values in which the access
+	 *               to edges[i] is written at index i.
+	 * @return false if the values were not written, in which case the Edges
+	 *         have to be evaluated one by one.
+	 */
+	public boolean hasAccess(Edge[] edges, Request request, boolean[] access) {
+		return false;
+	}
+
+	/**
+	 * Gets the costs of several Edges at once, if they do not depend on the
+	 * Path nor on the parameters (see EdgeProxy). The default implementation
+	 * writes nothing.
+	 * @param edges Edges.
+	 * @param request Request.
+	 * @param costs Array of at least edges.length values in which the cost of
+	 *              edges[i] is written at index i.
+	 * @return false if the values were not written, in which case the Edges
+	 *         have to be evaluated one by one.
+	 */
+	public boolean getCosts(Edge[] edges, Request request, double[] costs) {
+		return false;
+	}
+
+	/**
+	 * Gets the constraints values of several Edges at once, if they do not
+	 * depend on the Path nor on the parameters (see EdgeProxy). The default
+	 * implementation writes nothing.
+	 * @param edges Edges.
+	 * @param request Request.
+	 * @param constraints getNumberOfConstraints() arrays of at least
+	 *                    edges.length values: the value of the constraint c
+	 *                    for edges[i] is written in constraints[c][i].
+	 * @return false if the values were not written, in which case the Edges
+	 *         have to be evaluated one by one.
+	 */
+	public boolean getConstraintsValues(Edge[] edges, Request request, double[][] constraints) {
+		return false;
+	}
+
 	public abstract boolean register(Iterable<Edge> path, Edge edge, double[] parameters, Request request);
 
 	public abstract boolean deregister(Iterable<Edge> path, Edge edge, double[] parameters, Request request);
@@ -76,6 +76,51 @@ public abstract class PreviousEdgeProxy extends Proxy {
 	 */
 	public abstract double[] getConstraintsValues(Edge previousEdge, Edge edge, Request request, boolean isForward);
 
+	/**
+	 * Same as getNewParameters() but with a buffer for the result, so that
+	 * no object has to be created per Edge. The default implementation calls
+	 * the allocating method.
+	 * @param newParameters Buffer of at least getNumberOfParameters() values
+	 *                      in which the parameters can be written (may be
+	 *                      null).
+	 * @return The parameters: either the buffer or an array that must
+	 *         neither be modified nor kept by the caller.
+	 */
+	public double[] getNewParameters(Edge previousEdge, Edge edge, double[] oldParameters, Request request, boolean isForward, double[] newParameters) {
+		return getNewParameters(previousEdge, edge, oldParameters, request, isForward);
+	}
+
+	/**
+	 * Same as getConstraintsValues() but with a buffer for the result. The
+	 * default implementation calls the allocating method.
+	 * @param constraints Buffer of at least getNumberOfConstraints() values
+	 *                    in which the constraints can be written (may be
+	 *                    null).
+	 * @return The constraints values: either the buffer or an array that
+	 *         must neither be modified nor kept by the caller.
+	 */
+	public double[] getConstraintsValues(Edge previousEdge, Edge edge, Request request, boolean isForward, double[] constraints) {
+		return getConstraintsValues(previousEdge, edge, request, isForward);
+	}
+
+	/**
+	 * Evaluates a candidate EDGE in a single call: new parameters, access,
+	 * cost and constraints values (see PathProxy). The default implementation
+	 * calls the other methods.
+	 * @return false if access was checked and denied, true otherwise.
+	 */
+	public boolean evaluate(Edge previousEdge, Edge edge, double[] oldParameters, Request request, boolean isForward, EdgeEvaluation evaluation) {
+		evaluation.setParameters(getNewParameters(previousEdge, edge, oldParameters, request, isForward, evaluation.getParameterBuffer()));
+		if(evaluation.isAccessChecked() && !hasAccess(previousEdge, edge, request, isForward)) {
+			evaluation.setAccess(false);
+			return false;
+		}
+		evaluation.setAccess(true);
+		evaluation.setCost(getCost(previousEdge, edge, request, isForward));
+		evaluation.setConstraintsValues(getConstraintsValues(previousEdge, edge, request, isForward, evaluation.getConstraintsBuffer()));
+		return true;
+	}
+
 	public abstract boolean register(Edge previousEdge, Edge edge, Request request);
 
 	public abstract boolean deregister(Edge previousEdge, Edge edge, Request request);
@@ -3,18 +3,19 @@ package de.tum.ei.lkn.eces.routing.proxies;
 import de.tum.ei.lkn.eces.graph.Edge;
 import de.tum.ei.lkn.eces.graph.Node;
 import de.tum.ei.lkn.eces.routing.exceptions.RoutingException;
-import de.tum.ei.lkn.eces.routing.proxies.wrappers.PathProxyWrapper;
+import de.tum.ei.lkn.eces.routing.proxies.wrappers.EdgeProxyAdapter;
+import de.tum.ei.lkn.eces.routing.proxies.wrappers.PreviousEdgeProxyAdapter;
 import de.tum.ei.lkn.eces.routing.requests.DisjointRequest;
 import de.tum.ei.lkn.eces.routing.requests.Request;
 import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
 import de.tum.ei.lkn.eces.routing.requests.UnicastWithINRequest;
 import de.tum.ei.lkn.eces.routing.responses.*;
-import org.apache.commons.math3.util.MathArrays;
 
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A Proxy is responsible for interfacing a routing algorithm with a network
@@ -51,11 +52,44 @@ public abstract class Proxy implements Cloneable {
 	 */
 	private PathProxy wrapper;
 
+	/**
+	 * Version of the state of the Proxy (e.g., of its reservations),
+	 * incremented each time the state changes. Shared with the clones.
+	 */
+	private AtomicLong stateVersion = new AtomicLong();
+
+	/**
+	 * Kinds of Responses checked by checkValidity.
+	 */
+	private enum ResponseKind {
+		PATH,
+		RESILIENT_PATH,
+		DISJOINT_PATHS,
+		OTHER
+	}
+
+	/**
+	 * Kind of each Response class, resolved when the class is first checked.
+	 */
+	private static final ClassValue<ResponseKind> RESPONSE_KINDS = new ClassValue<ResponseKind>() {
+		@Override
+		protected ResponseKind computeValue(Class<?> type) {
+			if(Path.class.isAssignableFrom(type))
+				return ResponseKind.PATH;
+			else if(ResilientPath.class.isAssignableFrom(type))
+				return ResponseKind.RESILIENT_PATH;
+			else if(DisjointPaths.class.isAssignableFrom(type))
+				return ResponseKind.DISJOINT_PATHS;
+			else
+				return ResponseKind.OTHER;
+		}
+	};
+
 	public Proxy() {
 		if(this instanceof EdgeProxy)
-			wrapper = new PathProxyWrapper((EdgeProxy) this);
+			wrapper = new EdgeProxyAdapter((EdgeProxy) this);
 		else if(this instanceof PreviousEdgeProxy)
-			wrapper = new PathProxyWrapper((PreviousEdgeProxy) this);
+			wrapper = new PreviousEdgeProxyAdapter((PreviousEdgeProxy) this);
 		else if(this instanceof PathProxy)
 			wrapper = (PathProxy) this;
 	}
@@ -87,53 +121,75 @@ public abstract class Proxy implements Cloneable {
 	 *         null otherwise.
 	 */
 	public final Response checkValidity(Response response, Request request, boolean variablesCheck) {
-		if(response instanceof Path && request instanceof UnicastWithINRequest){
-			Iterator<Edge> iterator = ((Path) response).iterator();
-			Edge edge = null;
-			boolean sourceMode = true;
-			for(Node inode: ((UnicastWithINRequest) request).getIntermediateNodes()){
-				if(sourceMode) {
-					if (inode == ((UnicastWithINRequest) request).getSource()) {
-						if(edge == null)
-							edge = iterator.next();
-						if (edge.getSource() != inode)
-							return null;
-					} else {
-						sourceMode = false;
-					}
+		switch(RESPONSE_KINDS.get(response.getClass())) {
+			case PATH:
+				if(request instanceof UnicastWithINRequest) {
+					if(!visitsIntermediateNodes((Path) response, (UnicastWithINRequest) request))
+						return null;
+					return checkPathValidity((Path) response,(UnicastRequest) request, variablesCheck);
+				}
+				if(request instanceof UnicastRequest)
+					return checkPathValidity((Path) response,(UnicastRequest) request, variablesCheck);
+				break;
+			case RESILIENT_PATH:
+				if(request instanceof UnicastRequest) {
+					Path p1 = checkPathValidity(((ResilientPath) response).getPath1(),(UnicastRequest) request, variablesCheck);
+					Path p2 = checkPathValidity(((ResilientPath) response).getPath2(),(UnicastRequest) request, variablesCheck);
+					if(p1 != null && p2 != null)
+						return new ResilientPath(p1, p2);
+				}
+				break;
+			case DISJOINT_PATHS:
+				if(request instanceof DisjointRequest) {
+					List<Path> finalPaths = new LinkedList<>();
+					int i = 0;
+					for(Path p : ((DisjointPaths) response).getPaths())
+						finalPaths.add(checkPathValidity(p, new UnicastRequest(((DisjointRequest) request).getSource(), ((DisjointRequest) request).getDestinations().get(i++)), variablesCheck));
+
+					if(!finalPaths.contains(null))
+						return new DisjointPaths(finalPaths);
 				}
-				if(!sourceMode){
-					if(edge != null && edge.getDestination() == inode)
-						continue;
-					while(true) {
-						if (!iterator.hasNext())
-							return null;
+				break;
+			default:
+				break;
+		}
+		return null;
+	}
+
+	/**
+	 * Checks that a Path visits the intermediate Nodes of a Request in order.
+	 * @param path The Path.
+	 * @param request The Request.
+	 * @return true if the intermediate Nodes are visited in order.
+	 */
+	private static boolean visitsIntermediateNodes(Path path, UnicastWithINRequest request) {
+		Iterator<Edge> iterator = path.iterator();
+		Edge edge = null;
+		boolean sourceMode = true;
+		for(Node inode: request.getIntermediateNodes()){
+			if(sourceMode) {
+				if (inode == request.getSource()) {
+					if(edge == null)
 						edge = iterator.next();
-						if(edge.getDestination() == inode)
-							break;
-					}
+					if (edge.getSource() != inode)
+						return false;
+				} else {
+					sourceMode = false;
+				}
+			}
+			if(!sourceMode){
+				if(edge != null && edge.getDestination() == inode)
+					continue;
+				while(true) {
+					if (!iterator.hasNext())
+						return false;
+					edge = iterator.next();
+					if(edge.getDestination() == inode)
+						break;
 				}
 			}
-			return checkPathValidity((Path) response,(UnicastRequest) request, variablesCheck);
-		}
-		if(response instanceof Path && request instanceof UnicastRequest)
-			return checkPathValidity((Path) response,(UnicastRequest) request, variablesCheck);
-		if(response instanceof ResilientPath && request instanceof UnicastRequest){
-			Path p1 = checkPathValidity(((ResilientPath) response).getPath1(),(UnicastRequest) request, variablesCheck);
-			Path p2 = checkPathValidity(((ResilientPath) response).getPath2(),(UnicastRequest) request, variablesCheck);
-			if(p1 != null && p2 != null)
-				return new ResilientPath(p1, p2);
-		}
-		if(response instanceof DisjointPaths && request instanceof DisjointRequest) {
-			List<Path> finalPaths = new LinkedList<>();
-			int i = 0;
-			for(Path p : ((DisjointPaths) response).getPaths())
-				finalPaths.add(checkPathValidity(p, new UnicastRequest(((DisjointRequest) request).getSource(), ((DisjointRequest) request).getDestinations().get(i++)), variablesCheck));
-
-			if(!finalPaths.contains(null))
-				return new DisjointPaths(finalPaths);
 		}
-		return null;
+		return true;
 	}
 
 	/**
@@ -154,29 +210,33 @@ public abstract class Proxy implements Cloneable {
 		if(path == null)
 			return null;
 
-		// Iterator over the part of the Path already visited.
-		LinkedList<Edge> headPathIterator = new LinkedList<>();
+		Edge[] edges = path.getPath();
+		// Part of the Path already visited.
+		ArrayHeadPath headPath = new ArrayHeadPath(edges.length);
 		double realCost = 0;
 		double constraintsBounds[] = this.getConstraintsBounds(request);
 		double realConstraintsValues[] = new double[this.getNumberOfConstraints(request)];
 		double realParametersValues[] = null;
 
+		// The parameters of an Edge are the old parameters of the next one: two evaluations are used in turn.
+		EdgeEvaluation[] evaluations = newEvaluations(request);
 		Edge oldEdge = null;
-		for(Edge edge : path) {
+		for(Edge edge : edges) {
 			if(oldEdge == null && edge.getSource() != request.getSource())
 				return null; // The first edge does not start from the source node.
 			if(oldEdge != null && oldEdge.getDestination() != edge.getSource())
 				return null; // Edges are not connected.
 
-			realParametersValues = this.wrapper.getNewParameters(headPathIterator, edge, realParametersValues, request, true);
-			if(!this.wrapper.hasAccess(headPathIterator, edge, realParametersValues, request, true))
+			EdgeEvaluation evaluation = evaluations[headPath.getDepth() % 2];
+			if(!this.wrapper.evaluate(headPath, edge, realParametersValues, request, true, evaluation))
 				return null; // Using an edge which it cannot.
 
-			realCost += this.wrapper.getCost(headPathIterator, edge, realParametersValues, request, true);
-			double newConstraints[] = this.wrapper.getConstraintsValues(headPathIterator, edge, realParametersValues, request, true);
+			realParametersValues = evaluation.getParameters();
+			realCost += evaluation.getCost();
+			double newConstraints[] = evaluation.getConstraintsValues();
 			for(int i = 0; i < realConstraintsValues.length; i++)
 				realConstraintsValues[i] += newConstraints[i];
-			headPathIterator.addFirst(edge);
+			headPath.add(edge);
 			oldEdge = edge;
 		}
 
@@ -201,7 +261,7 @@ public abstract class Proxy implements Cloneable {
 					return null; // Incorrect parameter value.
 		}
 
-		return new Path(headPathIterator,true, realCost, realConstraintsValues, realParametersValues);
+		return new Path(headPath.toArray(), realCost, realConstraintsValues, copy(realParametersValues));
 	}
 
 	/**
@@ -229,29 +289,45 @@ public abstract class Proxy implements Cloneable {
 	public final Path createPath(Iterable<Edge> path, UnicastRequest request, boolean isForward) {
 		if(path == null)
 			return null;
-		LinkedList<Edge> pathToFollow = new LinkedList<>();
-		if(isForward){
-			for (Edge edge : path){
-				pathToFollow.add(edge);
-			}
-		}else{
-			for (Edge edge : path){
-				pathToFollow.addFirst(edge);
-			}
-		}
-		LinkedList<Edge> headPathIterator = new LinkedList<>();
+		ArrayHeadPath pathToFollow = new ArrayHeadPath(16);
+		for(Edge edge : path)
+			pathToFollow.add(edge);
+		if(!isForward)
+			pathToFollow.reverse();
+
+		ArrayHeadPath headPath = new ArrayHeadPath(pathToFollow.getDepth());
 		double realCost = 0;
 		double realConstraintsValues[] = new double[this.getNumberOfConstraints(request)];
 		double realParametersValues[] = null;
-		for(Edge edge : pathToFollow) {
-			realParametersValues = this.wrapper.getNewParameters(headPathIterator, edge, realParametersValues, request, true);
-			realCost += this.wrapper.getCost(headPathIterator, edge, realParametersValues, request, true);
-			double newConstraints[] = this.wrapper.getConstraintsValues(headPathIterator, edge, realParametersValues, request, true);
-			realConstraintsValues = MathArrays.ebeAdd(realConstraintsValues, newConstraints);
-			headPathIterator.addFirst(edge);
+		EdgeEvaluation[] evaluations = newEvaluations(request);
+		for(int depth = 0; depth < pathToFollow.getDepth(); depth++) {
+			Edge edge = pathToFollow.get(depth);
+			EdgeEvaluation evaluation = evaluations[depth % 2];
+			evaluation.setAccessChecked(false);
+			this.wrapper.evaluate(headPath, edge, realParametersValues, request, true, evaluation);
+			realParametersValues = evaluation.getParameters();
+			realCost += evaluation.getCost();
+			double newConstraints[] = evaluation.getConstraintsValues();
+			for(int i = 0; i < realConstraintsValues.length; i++)
+				realConstraintsValues[i] += newConstraints[i];
+			headPath.add(edge);
 		}
 
-		return new Path(headPathIterator, true, realCost, realConstraintsValues, realParametersValues);
+		return new Path(headPath.toArray(), realCost, realConstraintsValues, copy(realParametersValues));
+	}
+
+	/**
+	 * @return Two evaluations used in turn along a Path.
+	 */
+	private EdgeEvaluation[] newEvaluations(Request request) {
+		int numberOfParameters = this.getNumberOfParameters(request);
+		int numberOfConstraints = this.getNumberOfConstraints(request);
+		return new EdgeEvaluation[]{new EdgeEvaluation(numberOfParameters, numberOfConstraints),
+				new EdgeEvaluation(numberOfParameters, numberOfConstraints)};
+	}
+
+	private static double[] copy(double[] values) {
+		return values == null ? null : values.clone();
 	}
 
 	/**
@@ -348,20 +424,42 @@ public abstract class Proxy implements Cloneable {
 
 	protected boolean deRegister(Path path, Request request, boolean register){
 		double realParametersValues[] = null;
-		LinkedList<Edge> headPathIterator = new LinkedList<>();
+		Edge[] edges = path.getPath();
+		ArrayHeadPath headPath = new ArrayHeadPath(edges.length);
 		boolean success = true;
-		for(Edge edge : path) {
-			realParametersValues = this.wrapper.getNewParameters(headPathIterator, edge, realParametersValues, request, true);
+		for(Edge edge : edges) {
+			realParametersValues = this.wrapper.getNewParameters(headPath, edge, realParametersValues, request, true);
 			if(register){
-				success = this.wrapper.register(headPathIterator,edge,realParametersValues,request);
+				success = this.wrapper.register(headPath,edge,realParametersValues,request);
 			}else{
-				success = this.wrapper.deregister(headPathIterator,edge,realParametersValues,request);
+				success = this.wrapper.deregister(headPath,edge,realParametersValues,request);
 			}
-			headPathIterator.addFirst(edge);
+			headPath.add(edge);
 		}
+		getProxy().stateChanged();
 		return success;
 	}
 
+	/**
+	 * @return The version of the state of the Proxy. It changes each time a
+	 *         Path is registered or deregistered through the Proxy or
+	 *         stateChanged() is called.
+	 */
+	public long getStateVersion() {
+		return stateVersion.get();
+	}
+
+	/**
+	 * Signals that the state of the Proxy changed, so that Responses found
+	 * valid before have to be checked again (see RoutingSystem). Has to be
+	 * called by Proxies
+	 * whose state changes without a Path being registered or deregistered
+	 * through them.
+	 */
+	public void stateChanged() {
+		stateVersion.incrementAndGet();
+	}
+
 	/**
 	 * Checks if the Proxy is able/suitable to handle the routing of a given
 	 * Request.
@@ -446,6 +544,17 @@ public abstract class Proxy implements Cloneable {
 		return this;
 	}
 
+	/**
+	 * Gets an object identifying the values computed by the Proxy: Proxies
+	 * with equal projections compute the same values as long as the state of
+	 * their underlying Proxy (see getProxy()) does not change. By default,
+	 * the Proxy itself.
+	 * @return The projection of the Proxy.
+	 */
+	public Object getProjection() {
+		return this;
+	}
+
 	@Override
 	public Proxy clone() {
 		try {
@@ -47,6 +47,11 @@ public class ShortestPathProxy extends EdgeProxy {
 		return new double[0]; // No parameters.
 	}
 
+	@Override
+	public double[] getNewParameters(Edge edge, double[] oldParameters, Request request, boolean isForward, double[] newParameters) {
+		return newParameters != null ? newParameters : new double[0];
+	}
+
 	@Override
 	public boolean hasAccess(Edge edge, Request request) {
 		return true;
@@ -62,6 +67,11 @@ public class ShortestPathProxy extends EdgeProxy {
 		return new double[0]; // No constraints.
 	}
 
+	@Override
+	public double[] getConstraintsValues(Edge edge, Request request, double[] constraints) {
+		return constraints != null ? constraints : new double[0];
+	}
+
 	@Override
 	public boolean register(Edge edge, Request request) {
 		return true;
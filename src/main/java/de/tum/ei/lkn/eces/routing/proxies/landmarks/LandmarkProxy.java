@@ -0,0 +1,193 @@
+package de.tum.ei.lkn.eces.routing.proxies.landmarks;
+
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.graph.Graph;
+import de.tum.ei.lkn.eces.graph.Node;
+import de.tum.ei.lkn.eces.routing.compiledgraph.CompiledGraph;
+import de.tum.ei.lkn.eces.routing.proxies.EdgeProxy;
+import de.tum.ei.lkn.eces.routing.proxies.Proxy;
+import de.tum.ei.lkn.eces.routing.proxies.ProxyTypes;
+import de.tum.ei.lkn.eces.routing.requests.Request;
+import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Proxy wrapping an EdgeProxy and answering the guess queries with ALT
+ * (landmark) lower bounds. All other calls are forwarded to the underlying
+ * Proxy.
+ *
+ * The LandmarkTables of a Graph are computed the first time a guess is asked
+ * for one of its Nodes and kept until invalidate() is called. The
+ * LandmarkSystem does this automatically when Edges or their Metrics change.
+ * The guess is the maximum of the landmark bound and of the guess of the
+ * underlying Proxy.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public class LandmarkProxy extends EdgeProxy {
+	/**
+	 * Underlying EdgeProxy.
+	 */
+	private EdgeProxy proxy;
+
+	/**
+	 * Request for which the metrics are read to build the tables.
+	 */
+	private final Request referenceRequest;
+
+	/**
+	 * Maximum number of landmarks per Graph.
+	 */
+	private final int numberOfLandmarks;
+
+	/**
+	 * Tables of each Graph.
+	 */
+	private Map<Graph, LandmarkTables> tables = new IdentityHashMap<>();
+
+	/**
+	 * Creates a new LandmarkProxy.
+	 * @param proxy Underlying Proxy.
+	 * @param numberOfLandmarks Maximum number of landmarks per Graph.
+	 * @param referenceRequest Request for which the metrics of the underlying
+	 *                         Proxy are read to build the tables.
+	 */
+	public LandmarkProxy(EdgeProxy proxy, int numberOfLandmarks, Request referenceRequest) {
+		this.proxy = proxy;
+		this.numberOfLandmarks = numberOfLandmarks;
+		this.referenceRequest = referenceRequest;
+	}
+
+	/**
+	 * Creates a new LandmarkProxy reading the metrics for a Request without
+	 * source and destination.
+	 * @param proxy Underlying Proxy.
+	 * @param numberOfLandmarks Maximum number of landmarks per Graph.
+	 */
+	public LandmarkProxy(EdgeProxy proxy, int numberOfLandmarks) {
+		this(proxy, numberOfLandmarks, new UnicastRequest(null, null));
+	}
+
+	/**
+	 * Gets the tables of a Graph, computing them if needed.
+	 * @param graph Graph.
+	 * @return Tables of the Graph.
+	 */
+	public synchronized LandmarkTables getTables(Graph graph) {
+		LandmarkTables graphTables = tables.get(graph);
+		if(graphTables == null) {
+			graphTables = new LandmarkTables(new CompiledGraph(graph), proxy, referenceRequest, numberOfLandmarks);
+			tables.put(graph, graphTables);
+		}
+		return graphTables;
+	}
+
+	/**
+	 * Drops the tables of a Graph. They will be recomputed on the next guess.
+	 * @param graph Graph.
+	 */
+	public synchronized void invalidate(Graph graph) {
+		tables.remove(graph);
+	}
+
+	/**
+	 * Drops the tables of all Graphs.
+	 */
+	public synchronized void invalidate() {
+		tables.clear();
+	}
+
+	@Override
+	public double getGuessForCost(Node source, Node destination) {
+		return Math.max(proxy.getGuessForCost(source, destination), getLowerBound(0, source, destination));
+	}
+
+	@Override
+	public double getGuessForConstraint(int index, Node source, Node destination) {
+		return Math.max(proxy.getGuessForConstraint(index, source, destination), getLowerBound(index + 1, source, destination));
+	}
+
+	private double getLowerBound(int metric, Node source, Node destination) {
+		if(source == null || destination == null || source.getGraph() != destination.getGraph())
+			return 0;
+		return getTables(source.getGraph()).getLowerBound(metric, source, destination);
+	}
+
+	@Override
+	public double[] getNewParameters(Edge edge, double[] oldParameters, Request request, boolean isForward) {
+		return proxy.getNewParameters(edge, oldParameters, request, isForward);
+	}
+
+	@Override
+	public boolean hasAccess(Edge edge, Request request) {
+		return proxy.hasAccess(edge, request);
+	}
+
+	@Override
+	public double getCost(Edge edge, Request request) {
+		return proxy.getCost(edge, request);
+	}
+
+	@Override
+	public double[] getConstraintsValues(Edge edge, Request request) {
+		return proxy.getConstraintsValues(edge, request);
+	}
+
+	@Override
+	public boolean register(Edge edge, Request request) {
+		return proxy.register(edge, request);
+	}
+
+	@Override
+	public boolean deregister(Edge edge, Request request) {
+		return proxy.deregister(edge, request);
+	}
+
+	@Override
+	public boolean handle(Request request, boolean isForward) {
+		return proxy.handle(request, isForward);
+	}
+
+	@Override
+	public int getNumberOfConstraints(Request request) {
+		return proxy.getNumberOfConstraints(request);
+	}
+
+	@Override
+	public int getNumberOfParameters(Request request) {
+		return proxy.getNumberOfParameters(request);
+	}
+
+	@Override
+	public double[] getConstraintsBounds(Request request) {
+		return proxy.getConstraintsBounds(request);
+	}
+
+	@Override
+	public ProxyTypes getType() {
+		return proxy.getType();
+	}
+
+	@Override
+	public Proxy getProxy() {
+		return this.proxy.getProxy();
+	}
+
+	@Override
+	public LandmarkProxy clone() {
+		LandmarkProxy clone = (LandmarkProxy) super.clone();
+		clone.proxy = proxy.clone();
+		synchronized(this) {
+			clone.tables = new IdentityHashMap<>(tables);
+		}
+		return clone;
+	}
+
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + "[" + this.proxy.toString() + "]";
+	}
+}
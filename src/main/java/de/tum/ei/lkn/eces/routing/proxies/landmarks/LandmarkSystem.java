@@ -0,0 +1,123 @@
+package de.tum.ei.lkn.eces.routing.proxies.landmarks;
+
+import de.tum.ei.lkn.eces.core.ComponentStatus;
+import de.tum.ei.lkn.eces.core.Controller;
+import de.tum.ei.lkn.eces.core.RootSystem;
+import de.tum.ei.lkn.eces.core.annotations.ComponentStateIs;
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.graph.Graph;
+import de.tum.ei.lkn.eces.graph.mappers.EdgeMapper;
+import de.tum.ei.lkn.eces.routing.easygraph.Metrics;
+import de.tum.ei.lkn.eces.routing.proxies.EdgeProxy;
+import de.tum.ei.lkn.eces.routing.requests.Request;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * System creating LandmarkProxy's and keeping their tables in sync with the
+ * Graphs: the tables of a Graph are dropped when one of its Edges is created
+ * or destroyed or when the Metrics of one of its Edges change. They are
+ * recomputed on the next guess.
+ *
+ * Proxies whose metrics are not stored in Metrics Components have to be
+ * invalidated manually (see LandmarkProxy.invalidate()). Proxies which are
+ * not used anymore should be removed with removeProxy(), the System keeps
+ * the others.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public class LandmarkSystem extends RootSystem {
+	/**
+	 * Proxies created by the System.
+	 */
+	private List<LandmarkProxy> proxies = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Mapper used to find the Edge of Metrics.
+	 */
+	private EdgeMapper edgeMapper;
+
+	public LandmarkSystem(Controller controller) {
+		super(controller);
+		edgeMapper = new EdgeMapper(controller);
+	}
+
+	/**
+	 * Creates a LandmarkProxy kept up to date by the System.
+	 * @param proxy Underlying Proxy.
+	 * @param numberOfLandmarks Maximum number of landmarks per Graph.
+	 * @param referenceRequest Request for which the metrics of the underlying
+	 *                         Proxy are read to build the tables.
+	 * @return The new LandmarkProxy.
+	 */
+	public LandmarkProxy createProxy(EdgeProxy proxy, int numberOfLandmarks, Request referenceRequest) {
+		LandmarkProxy landmarkProxy = new LandmarkProxy(proxy, numberOfLandmarks, referenceRequest);
+		proxies.add(landmarkProxy);
+		return landmarkProxy;
+	}
+
+	/**
+	 * Creates a LandmarkProxy kept up to date by the System.
+	 * @param proxy Underlying Proxy.
+	 * @param numberOfLandmarks Maximum number of landmarks per Graph.
+	 * @return The new LandmarkProxy.
+	 */
+	public LandmarkProxy createProxy(EdgeProxy proxy, int numberOfLandmarks) {
+		LandmarkProxy landmarkProxy = new LandmarkProxy(proxy, numberOfLandmarks);
+		proxies.add(landmarkProxy);
+		return landmarkProxy;
+	}
+
+	/**
+	 * Stops keeping a LandmarkProxy created by the System up to date, so that
+	 * the System does not hold it anymore. Its tables have to be invalidated
+	 * manually afterwards.
+	 * @param landmarkProxy The LandmarkProxy.
+	 */
+	public void removeProxy(LandmarkProxy landmarkProxy) {
+		proxies.remove(landmarkProxy);
+	}
+
+	@ComponentStateIs(State = ComponentStatus.New)
+	void addEdge(Edge edge) {
+		invalidate(edge.getSource().getGraph());
+	}
+
+	@ComponentStateIs(State = ComponentStatus.Destroyed)
+	void removeEdge(Edge edge) {
+		invalidate(edge.getSource().getGraph());
+	}
+
+	@ComponentStateIs(State = ComponentStatus.New)
+	void addMetrics(Metrics metrics) {
+		invalidate(metrics);
+	}
+
+	@ComponentStateIs(State = ComponentStatus.Updated)
+	void updateMetrics(Metrics metrics) {
+		invalidate(metrics);
+	}
+
+	@ComponentStateIs(State = ComponentStatus.Destroyed)
+	void removeMetrics(Metrics metrics) {
+		invalidate(metrics);
+	}
+
+	private void invalidate(Metrics metrics) {
+		Edge edge = edgeMapper.get(metrics.getEntity());
+		if(edge == null) {
+			for(LandmarkProxy proxy : proxies)
+				proxy.invalidate();
+		}
+		else {
+			invalidate(edge.getSource().getGraph());
+		}
+	}
+
+	private void invalidate(Graph graph) {
+		for(LandmarkProxy proxy : proxies)
+			proxy.invalidate(graph);
+	}
+}
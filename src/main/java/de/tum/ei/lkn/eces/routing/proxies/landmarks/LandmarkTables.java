@@ -0,0 +1,194 @@
+package de.tum.ei.lkn.eces.routing.proxies.landmarks;
+
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.graph.Node;
+import de.tum.ei.lkn.eces.routing.compiledgraph.CompiledGraph;
+import de.tum.ei.lkn.eces.routing.compiledgraph.IntPriorityQueue;
+import de.tum.ei.lkn.eces.routing.proxies.EdgeProxy;
+import de.tum.ei.lkn.eces.routing.requests.Request;
+
+import java.util.Arrays;
+
+/**
+ * Landmark distance tables of a Graph, for the ALT (A*, landmarks and triangle
+ * inequality) lower bounds.
+ *
+ * For each metric (0 for the cost, i + 1 for the i-th constraint) and each
+ * landmark L, the tables store the distance from L to every Node and from every
+ * Node to L. By the triangle inequality, the distance from u to t is then at
+ * least max(d(u, L) - d(t, L), d(L, t) - d(L, u)).
+ *
+ * The metrics are read once from an EdgeProxy for a reference Request. The
+ * bounds are hence only valid as long as the metrics of the Edges do not
+ * decrease and as long as the values returned for other Requests are not
+ * lower. A metric with negative values on some Edge has no bound (0).
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public class LandmarkTables {
+	/**
+	 * Snapshot of the Graph for which the tables were computed.
+	 */
+	private final CompiledGraph graph;
+
+	/**
+	 * Node IDs of the landmarks.
+	 */
+	private final int[] landmarks;
+
+	/**
+	 * fromLandmarks[metric][landmark][node] = d(landmark, node)
+	 * toLandmarks[metric][landmark][node] = d(node, landmark)
+	 * Both are null for metrics without bounds.
+	 */
+	private final double[][][] fromLandmarks;
+	private final double[][][] toLandmarks;
+
+	/**
+	 * Computes the tables.
+	 * @param graph Snapshot of the Graph.
+	 * @param proxy EdgeProxy providing the metrics.
+	 * @param request Reference Request for which the metrics are read.
+	 * @param numberOfLandmarks Maximum number of landmarks.
+	 */
+	public LandmarkTables(CompiledGraph graph, EdgeProxy proxy, Request request, int numberOfLandmarks) {
+		this.graph = graph;
+		int numberOfMetrics = 1 + proxy.getNumberOfConstraints(request);
+		double[][] weights = new double[numberOfMetrics][graph.getNumberOfEdges()];
+		boolean[] valid = new boolean[numberOfMetrics];
+		Arrays.fill(valid, true);
+		for(int edgeId = 0; edgeId < graph.getNumberOfEdges(); edgeId++) {
+			Edge edge = graph.getEdge(edgeId);
+			weights[0][edgeId] = proxy.getCost(edge, request);
+			double[] constraints = proxy.getConstraintsValues(edge, request);
+			for(int metric = 1; metric < numberOfMetrics; metric++)
+				weights[metric][edgeId] = constraints[metric - 1];
+			for(int metric = 0; metric < numberOfMetrics; metric++)
+				if(weights[metric][edgeId] < 0)
+					valid[metric] = false;
+		}
+
+		landmarks = selectLandmarks(weights[0], valid[0], Math.min(numberOfLandmarks, graph.getNumberOfNodes()));
+		fromLandmarks = new double[numberOfMetrics][][];
+		toLandmarks = new double[numberOfMetrics][][];
+		for(int metric = 0; metric < numberOfMetrics; metric++) {
+			if(!valid[metric])
+				continue;
+			fromLandmarks[metric] = new double[landmarks.length][];
+			toLandmarks[metric] = new double[landmarks.length][];
+			for(int i = 0; i < landmarks.length; i++) {
+				fromLandmarks[metric][i] = computeDistances(weights[metric], landmarks[i], true);
+				toLandmarks[metric][i] = computeDistances(weights[metric], landmarks[i], false);
+			}
+		}
+	}
+
+	public CompiledGraph getCompiledGraph() {
+		return graph;
+	}
+
+	/**
+	 * @return The landmarks.
+	 */
+	public Node[] getLandmarks() {
+		Node[] nodes = new Node[landmarks.length];
+		for(int i = 0; i < landmarks.length; i++)
+			nodes[i] = graph.getNode(landmarks[i]);
+		return nodes;
+	}
+
+	/**
+	 * Computes a lower bound on the value of a metric for any Path between two
+	 * Nodes.
+	 * @param metric 0 for the cost, i + 1 for the i-th constraint.
+	 * @param source Source Node.
+	 * @param destination Destination Node.
+	 * @return Lower bound (0 if none is known).
+	 */
+	public double getLowerBound(int metric, Node source, Node destination) {
+		if(metric >= fromLandmarks.length || fromLandmarks[metric] == null)
+			return 0;
+		int u = graph.getNodeId(source);
+		int t = graph.getNodeId(destination);
+		if(u == -1 || t == -1)
+			return 0;
+
+		double bound = 0;
+		for(int i = 0; i < landmarks.length; i++) {
+			double[] to = toLandmarks[metric][i];
+			if(to[u] != Double.MAX_VALUE && to[t] != Double.MAX_VALUE)
+				bound = Math.max(bound, to[u] - to[t]);
+			double[] from = fromLandmarks[metric][i];
+			if(from[u] != Double.MAX_VALUE && from[t] != Double.MAX_VALUE)
+				bound = Math.max(bound, from[t] - from[u]);
+		}
+		return bound;
+	}
+
+	/**
+	 * Farthest selection: each new landmark is the Node farthest (in cost, or
+	 * in hops if the cost is negative somewhere) from the ones already chosen.
+	 */
+	private int[] selectLandmarks(double[] costs, boolean validCosts, int numberOfLandmarks) {
+		double[] weights = costs;
+		if(!validCosts) {
+			weights = new double[costs.length];
+			Arrays.fill(weights, 1);
+		}
+
+		int[] selected = new int[numberOfLandmarks];
+		double[] closest = new double[graph.getNumberOfNodes()];
+		Arrays.fill(closest, Double.MAX_VALUE);
+		// Distances from an arbitrary start Node to find a first, peripheral, landmark.
+		double[] distances = numberOfLandmarks == 0 ? null : computeDistances(weights, 0, true);
+		for(int i = 0; i < numberOfLandmarks; i++) {
+			int farthest = -1;
+			for(int node = 0; node < graph.getNumberOfNodes(); node++) {
+				double distance = i == 0 ? distances[node] : closest[node];
+				if(distance != Double.MAX_VALUE && (farthest == -1 || distance > (i == 0 ? distances[farthest] : closest[farthest])))
+					farthest = node;
+			}
+			if(farthest == -1 || (i > 0 && closest[farthest] == 0))
+				return Arrays.copyOf(selected, i);
+			selected[i] = farthest;
+
+			double[] from = computeDistances(weights, farthest, true);
+			double[] to = computeDistances(weights, farthest, false);
+			for(int node = 0; node < closest.length; node++) {
+				double distance = from[node] == Double.MAX_VALUE || to[node] == Double.MAX_VALUE ? Math.min(from[node], to[node]) : from[node] + to[node];
+				closest[node] = Math.min(closest[node], distance);
+			}
+		}
+		return selected;
+	}
+
+	/**
+	 * Dijkstra from (forward) or to (backward) a Node.
+	 * @return Distances indexed by Node ID (Double.MAX_VALUE if unreachable).
+	 */
+	private double[] computeDistances(double[] weights, int root, boolean isForward) {
+		int n = graph.getNumberOfNodes();
+		double[] distances = new double[n];
+		boolean[] settled = new boolean[n];
+		Arrays.fill(distances, Double.MAX_VALUE);
+		distances[root] = 0;
+		IntPriorityQueue pq = new IntPriorityQueue(4, n);
+		pq.add(root, 0, 0, 0);
+		while(!pq.isEmpty()) {
+			int node = pq.poll();
+			settled[node] = true;
+			int end = graph.getAdjacentEnd(node, isForward);
+			for(int i = graph.getAdjacentStart(node, isForward); i < end; i++) {
+				int edgeId = graph.getAdjacentEdge(i, isForward);
+				int next = graph.getOpposite(edgeId, isForward);
+				double distance = distances[node] + weights[edgeId];
+				if(!settled[next] && distance < distances[next]) {
+					distances[next] = distance;
+					pq.add(next, distance, 0, next);
+				}
+			}
+		}
+		return distances;
+	}
+}
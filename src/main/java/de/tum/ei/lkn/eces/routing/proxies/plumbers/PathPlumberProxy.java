@@ -4,10 +4,13 @@ import de.tum.ei.lkn.eces.graph.Edge;
 import de.tum.ei.lkn.eces.graph.Node;
 import de.tum.ei.lkn.eces.routing.exceptions.ProxyException;
 import de.tum.ei.lkn.eces.routing.proxies.*;
-import de.tum.ei.lkn.eces.routing.proxies.wrappers.PathProxyWrapper;
+import de.tum.ei.lkn.eces.routing.proxies.wrappers.EdgeProxyAdapter;
+import de.tum.ei.lkn.eces.routing.proxies.wrappers.PreviousEdgeProxyAdapter;
 import de.tum.ei.lkn.eces.routing.requests.Request;
 import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
 
+import java.util.Arrays;
+
 /**
  * A PlumberProxy is a Proxy able to mix the variables computed
  * by another underlying Proxy.
@@ -33,6 +36,12 @@ public class PathPlumberProxy extends PathProxy {
 	 */
 	private PathProxy proxy;
 
+	/**
+	 * Buffers used for the values exchanged with the underlying Proxy, one
+	 * instance per thread.
+	 */
+	private ThreadLocal<PlumberScratch> scratch = ThreadLocal.withInitial(PlumberScratch::new);
+
 	/**
 	 * IDs of the values returned by the underlying Proxy which make up
 	 * the new cost.
@@ -133,7 +142,7 @@ public class PathPlumberProxy extends PathProxy {
 	 * @param proxy New underlying Proxy.
 	 */
 	public void setProxy(EdgeProxy proxy) {
-		this.proxy = new PathProxyWrapper(proxy);
+		this.proxy = new EdgeProxyAdapter(proxy);
 	}
 
 	/**
@@ -141,7 +150,7 @@ public class PathPlumberProxy extends PathProxy {
 	 * @param proxy New underlying Proxy.
 	 */
 	public void setProxy(PreviousEdgeProxy proxy) {
-		this.proxy = new PathProxyWrapper(proxy);
+		this.proxy = new PreviousEdgeProxyAdapter(proxy);
 	}
 
 	/**
@@ -188,13 +197,30 @@ public class PathPlumberProxy extends PathProxy {
 		 * the underlying Proxy. We therefore simply have to truncate the
 		 * array of parameters of the PlumberProxy. */
 		int numUnderlyingParameters = proxy.getNumberOfParameters(request);
-		if(parameters.length != numUnderlyingParameters + additionalParametersIDs.length)
-			throw new ProxyException("Wrong number of parameters provided to PlumberProxy (" + parameters.length + " instead of " + numUnderlyingParameters + " + " + additionalParametersIDs.length + ").");
+		checkNumberOfParameters(parameters, numUnderlyingParameters);
 		double[] underlyingParameters = new double[numUnderlyingParameters];
 		System.arraycopy(parameters, 0, underlyingParameters, 0, numUnderlyingParameters);
 		return underlyingParameters;
 	}
 
+	/**
+	 * Same as removePlumberParameters() but without copy if the PlumberProxy
+	 * does not add parameters, and with a per-thread buffer otherwise. The
+	 * result must neither be modified nor kept.
+	 */
+	private double[] getUnderlyingParameters(double[] parameters, Request request) {
+		if(parameters == null || additionalParametersIDs.length == 0)
+			return parameters;
+		int numUnderlyingParameters = proxy.getNumberOfParameters(request);
+		checkNumberOfParameters(parameters, numUnderlyingParameters);
+		return scratch.get().underlyingParameters(parameters, numUnderlyingParameters);
+	}
+
+	private void checkNumberOfParameters(double[] parameters, int numUnderlyingParameters) {
+		if(parameters.length != numUnderlyingParameters + additionalParametersIDs.length)
+			throw new ProxyException("Wrong number of parameters provided to PlumberProxy (" + parameters.length + " instead of " + numUnderlyingParameters + " + " + additionalParametersIDs.length + ").");
+	}
+
 	/**
 	 * Gets the ID of a parameter for the PlumberProxy.
 	 * @param addedParametersId ID of the parameter among the additional
@@ -211,7 +237,7 @@ public class PathPlumberProxy extends PathProxy {
 	public double[] getNewParameters(Iterable<Edge> path, Edge edge, double[] oldParameters, Request request, boolean isForward) {
 		// Getting underlying parameters, cost and constraints.
 		int numUnderlyingParameters = proxy.getNumberOfParameters(request);
-		double[] oldUnderlyingParameters = removePlumberParameters(oldParameters, request);
+		double[] oldUnderlyingParameters = getUnderlyingParameters(oldParameters, request);
 		double[] newUnderlyingParameters = proxy.getNewParameters(path, edge, oldUnderlyingParameters, request, isForward);
 		if(newUnderlyingParameters == null)
 			return null;
@@ -239,12 +265,12 @@ public class PathPlumberProxy extends PathProxy {
 
 	@Override
 	public boolean hasAccess(Iterable<Edge> path, Edge edge, double[] parameters, Request request, boolean isForward) {
-		return proxy.hasAccess(path, edge, removePlumberParameters(parameters, request), request, isForward);
+		return proxy.hasAccess(path, edge, getUnderlyingParameters(parameters, request), request, isForward);
 	}
 
 	@Override
 	public double getCost(Iterable<Edge> path, Edge edge, double[] parameters, Request request, boolean isForward) {
-		double[] underlyingParameters = removePlumberParameters(parameters, request);
+		double[] underlyingParameters = getUnderlyingParameters(parameters, request);
 		double[] underlyingConstraints = proxy.getConstraintsValues(path, edge, underlyingParameters, request, isForward);
 
 		// Computing the linear combination.
@@ -261,16 +287,194 @@ public class PathPlumberProxy extends PathProxy {
 
 	@Override
 	public double[] getConstraintsValues(Iterable<Edge> path, Edge edge, double[] parameters, Request request, boolean isForward) {
-		double[] underlyingConstraints = proxy.getConstraintsValues(path, edge, removePlumberParameters(parameters, request), request, isForward);
+		double[] underlyingParameters = getUnderlyingParameters(parameters, request);
+		double[] underlyingConstraints = proxy.getConstraintsValues(path, edge, underlyingParameters, request, isForward);
 		double[] plumberConstraints = new double[constraintsIDs.length];
 		for(int i = 0; i < constraintsIDs.length; i++)
 			if(constraintsIDs[i] == 0)
-				plumberConstraints[i] = proxy.getCost(path, edge, removePlumberParameters(parameters, request), request, isForward);
+				plumberConstraints[i] = proxy.getCost(path, edge, underlyingParameters, request, isForward);
 			else
 				plumberConstraints[i] = underlyingConstraints[constraintsIDs[i] - 1];
 		return plumberConstraints;
 	}
 
+	@Override
+	public double[] getNewParameters(PathCursor path, Edge edge, double[] oldParameters, Request request, boolean isForward, double[] newParameters) {
+		if(additionalParametersIDs.length == 0)
+			return proxy.getNewParameters(path, edge, oldParameters, request, isForward, newParameters);
+
+		// Getting underlying parameters, cost and constraints.
+		int numUnderlyingParameters = proxy.getNumberOfParameters(request);
+		PlumberScratch buffers = scratch.get();
+		double[] oldUnderlyingParameters = getUnderlyingParameters(oldParameters, request);
+		double[] newUnderlyingParameters = proxy.getNewParameters(path, edge, oldUnderlyingParameters, request, isForward, buffers.newParameters(numUnderlyingParameters));
+		if(newUnderlyingParameters == null)
+			return null;
+		double[] underlyingConstraints = proxy.getConstraintsValues(path, edge, newUnderlyingParameters, request, isForward, buffers.constraints(proxy.getNumberOfConstraints(request)));
+
+		// Copy the underlying parameters as the first new parameters.
+		if(newParameters == null)
+			newParameters = new double[numUnderlyingParameters + additionalParametersIDs.length];
+		System.arraycopy(newUnderlyingParameters, 0, newParameters, 0, numUnderlyingParameters);
+
+		// Adding the additional parameters (additive).
+		for(int i = 0; i < additionalParametersIDs.length; i++) {
+			if(additionalParametersIDs[i] == 0)
+				newParameters[numUnderlyingParameters + i] = proxy.getCost(path, edge, newUnderlyingParameters, request, isForward);
+			else
+				newParameters[numUnderlyingParameters + i] = underlyingConstraints[additionalParametersIDs[i] - 1];
+			if(oldParameters != null)
+				newParameters[numUnderlyingParameters + i] += oldParameters[numUnderlyingParameters + i];
+		}
+
+		return newParameters;
+	}
+
+	@Override
+	public boolean hasAccess(PathCursor path, Edge edge, double[] parameters, Request request, boolean isForward) {
+		return proxy.hasAccess(path, edge, getUnderlyingParameters(parameters, request), request, isForward);
+	}
+
+	@Override
+	public double getCost(PathCursor path, Edge edge, double[] parameters, Request request, boolean isForward) {
+		double[] underlyingParameters = getUnderlyingParameters(parameters, request);
+		double[] underlyingConstraints = null;
+
+		// Computing the linear combination.
+		double plumberCost = 0;
+		for(int i = 0; i < costIDs.length; i++) {
+			if(costIDs[i] == 0)
+				plumberCost += costMultipliers[i] * proxy.getCost(path, edge, underlyingParameters, request, isForward);
+			else {
+				if(underlyingConstraints == null)
+					underlyingConstraints = proxy.getConstraintsValues(path, edge, underlyingParameters, request, isForward, scratch.get().constraints(proxy.getNumberOfConstraints(request)));
+				plumberCost += costMultipliers[i] * underlyingConstraints[costIDs[i] - 1];
+			}
+		}
+
+		return plumberCost;
+	}
+
+	@Override
+	public double[] getConstraintsValues(PathCursor path, Edge edge, double[] parameters, Request request, boolean isForward, double[] constraints) {
+		double[] underlyingParameters = getUnderlyingParameters(parameters, request);
+		double[] underlyingConstraints = proxy.getConstraintsValues(path, edge, underlyingParameters, request, isForward, scratch.get().constraints(proxy.getNumberOfConstraints(request)));
+		if(constraints == null)
+			constraints = new double[constraintsIDs.length];
+		for(int i = 0; i < constraintsIDs.length; i++)
+			if(constraintsIDs[i] == 0)
+				constraints[i] = proxy.getCost(path, edge, underlyingParameters, request, isForward);
+			else
+				constraints[i] = underlyingConstraints[constraintsIDs[i] - 1];
+		return constraints;
+	}
+
+	@Override
+	public boolean hasAccess(Edge[] edges, Request request, boolean[] access) {
+		return proxy.hasAccess(edges, request, access);
+	}
+
+	@Override
+	public boolean getCosts(Edge[] edges, Request request, double[] costs) {
+		PlumberScratch buffers = scratch.get();
+		double[] underlyingCosts = null;
+		double[][] underlyingConstraints = null;
+		for(int costID : costIDs) {
+			if(costID == 0 && underlyingCosts == null) {
+				underlyingCosts = buffers.costs(edges.length);
+				if(!proxy.getCosts(edges, request, underlyingCosts))
+					return false;
+			}
+			else if(costID != 0 && underlyingConstraints == null) {
+				underlyingConstraints = buffers.constraintsColumns(proxy.getNumberOfConstraints(request), edges.length);
+				if(!proxy.getConstraintsValues(edges, request, underlyingConstraints))
+					return false;
+			}
+		}
+
+		// Computing the linear combination, one underlying value at a time.
+		Arrays.fill(costs, 0, edges.length, 0);
+		for(int i = 0; i < costIDs.length; i++) {
+			double[] values = costIDs[i] == 0 ? underlyingCosts : underlyingConstraints[costIDs[i] - 1];
+			for(int j = 0; j < edges.length; j++)
+				costs[j] += costMultipliers[i] * values[j];
+		}
+		return true;
+	}
+
+	@Override
+	public boolean getConstraintsValues(Edge[] edges, Request request, double[][] constraints) {
+		PlumberScratch buffers = scratch.get();
+		double[][] underlyingConstraints = buffers.constraintsColumns(proxy.getNumberOfConstraints(request), edges.length);
+		if(!proxy.getConstraintsValues(edges, request, underlyingConstraints))
+			return false;
+		double[] underlyingCosts = null;
+		for(int i = 0; i < constraintsIDs.length; i++) {
+			if(constraintsIDs[i] == 0) {
+				if(underlyingCosts == null) {
+					underlyingCosts = buffers.costs(edges.length);
+					if(!proxy.getCosts(edges, request, underlyingCosts))
+						return false;
+				}
+				System.arraycopy(underlyingCosts, 0, constraints[i], 0, edges.length);
+			}
+			else {
+				System.arraycopy(underlyingConstraints[constraintsIDs[i] - 1], 0, constraints[i], 0, edges.length);
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean evaluate(PathCursor path, Edge edge, double[] oldParameters, Request request, boolean isForward, EdgeEvaluation evaluation) {
+		// The underlying Proxy evaluates the Edge once for the parameters, access, cost and constraints.
+		int numUnderlyingParameters = proxy.getNumberOfParameters(request);
+		EdgeEvaluation underlying = evaluation.getNested(numUnderlyingParameters, proxy.getNumberOfConstraints(request));
+		if(!proxy.evaluate(path, edge, getUnderlyingParameters(oldParameters, request), request, isForward, underlying)) {
+			evaluation.setAccess(false);
+			return false;
+		}
+		double underlyingCost = underlying.getCost();
+		double[] underlyingConstraints = underlying.getConstraintsValues();
+
+		// Parameters: underlying ones followed by the additional (additive) ones.
+		double[] newUnderlyingParameters = underlying.getParameters();
+		double[] newParameters = newUnderlyingParameters;
+		if(additionalParametersIDs.length > 0 && newUnderlyingParameters != null) {
+			newParameters = evaluation.getParameterBuffer();
+			System.arraycopy(newUnderlyingParameters, 0, newParameters, 0, numUnderlyingParameters);
+			for(int i = 0; i < additionalParametersIDs.length; i++) {
+				if(additionalParametersIDs[i] == 0)
+					newParameters[numUnderlyingParameters + i] = underlyingCost;
+				else
+					newParameters[numUnderlyingParameters + i] = underlyingConstraints[additionalParametersIDs[i] - 1];
+				if(oldParameters != null)
+					newParameters[numUnderlyingParameters + i] += oldParameters[numUnderlyingParameters + i];
+			}
+		}
+		evaluation.setParameters(newParameters);
+		evaluation.setAccess(true);
+
+		// Linear combination for the cost.
+		double plumberCost = 0;
+		for(int i = 0; i < costIDs.length; i++) {
+			if(costIDs[i] == 0)
+				plumberCost += costMultipliers[i] * underlyingCost;
+			else
+				plumberCost += costMultipliers[i] * underlyingConstraints[costIDs[i] - 1];
+		}
+		evaluation.setCost(plumberCost);
+
+		double[] constraints = evaluation.getConstraintsBuffer();
+		for(int i = 0; i < constraintsIDs.length; i++)
+			if(constraintsIDs[i] == 0)
+				constraints[i] = underlyingCost;
+			else
+				constraints[i] = underlyingConstraints[constraintsIDs[i] - 1];
+		evaluation.setConstraintsValues(constraints);
+		return true;
+	}
+
 	@Override
 	public double[] getConstraintsBounds(Request request) {
 		double[] underlyingConstraintsBounds = proxy.getConstraintsBounds(request);
@@ -339,10 +543,16 @@ public class PathPlumberProxy extends PathProxy {
 		return this.proxy.getProxy();
 	}
 
+	@Override
+	public Object getProjection() {
+		return new PlumberProjection(getClass(), proxy.getProjection(), costIDs, costMultipliers, constraintsIDs, additionalParametersIDs, costBound);
+	}
+
 	@Override
 	public PathPlumberProxy clone() {
 		PathPlumberProxy clone = (PathPlumberProxy) super.clone();
 		clone.proxy = proxy.clone();
+		clone.scratch = ThreadLocal.withInitial(PlumberScratch::new);
 		return clone;
 	}
 
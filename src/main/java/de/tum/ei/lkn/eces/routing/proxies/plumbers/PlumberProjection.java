@@ -0,0 +1,59 @@
+package de.tum.ei.lkn.eces.routing.proxies.plumbers;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Projection of a PlumberProxy: the projection of its underlying Proxy and
+ * the way the PlumberProxy mixes its values. Two PlumberProxy's of the same
+ * type with equal projections compute the same values.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+final class PlumberProjection {
+	private final Class<?> type;
+	private final Object underlyingProjection;
+	private final int[] costIDs;
+	private final double[] costMultipliers;
+	private final int[] constraintsIDs;
+	private final int[] additionalParametersIDs;
+	private final double costBound;
+
+	PlumberProjection(Class<?> type, Object underlyingProjection, int[] costIDs, double[] costMultipliers, int[] constraintsIDs, int[] additionalParametersIDs, double costBound) {
+		this.type = type;
+		this.underlyingProjection = underlyingProjection;
+		this.costIDs = costIDs;
+		// The coefficients can be changed by the caller of setCostMultipliers().
+		this.costMultipliers = costMultipliers.clone();
+		this.constraintsIDs = constraintsIDs;
+		this.additionalParametersIDs = additionalParametersIDs;
+		this.costBound = costBound;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if(this == o)
+			return true;
+		if(!(o instanceof PlumberProjection))
+			return false;
+		PlumberProjection other = (PlumberProjection) o;
+		return type == other.type &&
+				Double.compare(costBound, other.costBound) == 0 &&
+				underlyingProjection.equals(other.underlyingProjection) &&
+				Arrays.equals(costIDs, other.costIDs) &&
+				Arrays.equals(costMultipliers, other.costMultipliers) &&
+				Arrays.equals(constraintsIDs, other.constraintsIDs) &&
+				Arrays.equals(additionalParametersIDs, other.additionalParametersIDs);
+	}
+
+	@Override
+	public int hashCode() {
+		int result = Objects.hash(type, underlyingProjection, costBound);
+		result = 31 * result + Arrays.hashCode(costIDs);
+		result = 31 * result + Arrays.hashCode(costMultipliers);
+		result = 31 * result + Arrays.hashCode(constraintsIDs);
+		result = 31 * result + Arrays.hashCode(additionalParametersIDs);
+		return result;
+	}
+}
@@ -0,0 +1,86 @@
+package de.tum.ei.lkn.eces.routing.proxies.plumbers;
+
+/**
+ * Buffers reused by a PlumberProxy for the values it exchanges with its
+ * underlying Proxy, so that no array has to be created per Edge. A
+ * PlumberProxy keeps one instance per thread: the buffers are only valid
+ * until the next call of the PlumberProxy on the same thread and are never
+ * returned to its callers.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+final class PlumberScratch {
+	private static final double[] EMPTY = new double[0];
+
+	private double[] oldParameters = EMPTY;
+	private double[] newParameters = EMPTY;
+	private double[] constraints = EMPTY;
+	private double[] costs = EMPTY;
+	private double[][] constraintsColumns = new double[0][];
+
+	/**
+	 * Gets the parameters of the underlying Proxy, i.e., the first values of
+	 * the parameters of the PlumberProxy.
+	 * @param parameters Parameters of the PlumberProxy.
+	 * @param numUnderlyingParameters Number of parameters of the underlying
+	 *                                Proxy.
+	 * @return A buffer of numUnderlyingParameters values with the parameters
+	 *         of the underlying Proxy.
+	 */
+	double[] underlyingParameters(double[] parameters, int numUnderlyingParameters) {
+		if(numUnderlyingParameters == 0)
+			return EMPTY;
+		if(oldParameters.length != numUnderlyingParameters)
+			oldParameters = new double[numUnderlyingParameters];
+		System.arraycopy(parameters, 0, oldParameters, 0, numUnderlyingParameters);
+		return oldParameters;
+	}
+
+	/**
+	 * @param numUnderlyingParameters Number of parameters of the underlying
+	 *                                Proxy.
+	 * @return A buffer of numUnderlyingParameters values for the new
+	 *         parameters of the underlying Proxy.
+	 */
+	double[] newParameters(int numUnderlyingParameters) {
+		if(newParameters.length != numUnderlyingParameters)
+			newParameters = new double[numUnderlyingParameters];
+		return newParameters;
+	}
+
+	/**
+	 * @param numUnderlyingConstraints Number of constraints of the underlying
+	 *                                 Proxy.
+	 * @return A buffer for the constraints values of the underlying Proxy.
+	 */
+	double[] constraints(int numUnderlyingConstraints) {
+		if(constraints.length < numUnderlyingConstraints)
+			constraints = new double[numUnderlyingConstraints];
+		return constraints;
+	}
+
+	/**
+	 * @param numberOfEdges Number of Edges read at once.
+	 * @return A buffer for the costs of the Edges given by the underlying
+	 *         Proxy.
+	 */
+	double[] costs(int numberOfEdges) {
+		if(costs.length < numberOfEdges)
+			costs = new double[numberOfEdges];
+		return costs;
+	}
+
+	/**
+	 * @param numUnderlyingConstraints Number of constraints of the underlying
+	 *                                 Proxy.
+	 * @param numberOfEdges Number of Edges read at once.
+	 * @return Buffers for the constraints values of the Edges given by the
+	 *         underlying Proxy (one array per constraint).
+	 */
+	double[][] constraintsColumns(int numUnderlyingConstraints, int numberOfEdges) {
+		if(constraintsColumns.length != numUnderlyingConstraints || (numUnderlyingConstraints > 0 && constraintsColumns[0].length < numberOfEdges))
+			constraintsColumns = new double[numUnderlyingConstraints][numberOfEdges];
+		return constraintsColumns;
+	}
+}
@@ -3,6 +3,7 @@ package de.tum.ei.lkn.eces.routing.proxies.plumbers;
 import de.tum.ei.lkn.eces.graph.Edge;
 import de.tum.ei.lkn.eces.graph.Node;
 import de.tum.ei.lkn.eces.routing.exceptions.ProxyException;
+import de.tum.ei.lkn.eces.routing.proxies.EdgeEvaluation;
 import de.tum.ei.lkn.eces.routing.proxies.EdgeProxy;
 import de.tum.ei.lkn.eces.routing.proxies.PreviousEdgeProxy;
 import de.tum.ei.lkn.eces.routing.proxies.Proxy;
@@ -36,6 +37,12 @@ public final class PreviousEdgePlumberProxy extends PreviousEdgeProxy {
 	 */
 	private PreviousEdgeProxy proxy;
 
+	/**
+	 * Buffers used for the values exchanged with the underlying Proxy, one
+	 * instance per thread.
+	 */
+	private ThreadLocal<PlumberScratch> scratch = ThreadLocal.withInitial(PlumberScratch::new);
+
 	/**
 	 * IDs of the values returned by the underlying Proxy which make up
 	 * the new cost.
@@ -177,13 +184,30 @@ public final class PreviousEdgePlumberProxy extends PreviousEdgeProxy {
 		 * the underlying Proxy. We therefore simply have to truncate the
 		 * array of parameters of the PlumberProxy. */
 		int numUnderlyingParameters = proxy.getNumberOfParameters(request);
-		if(parameters.length != numUnderlyingParameters + additionalParametersIDs.length)
-			throw new ProxyException("Wrong number of parameters provided to PlumberProxy (" + parameters.length + " instead of " + numUnderlyingParameters + " + " + additionalParametersIDs.length + ").");
+		checkNumberOfParameters(parameters, numUnderlyingParameters);
 		double[] underlyingParameters = new double[numUnderlyingParameters];
 		System.arraycopy(parameters, 0, underlyingParameters, 0, numUnderlyingParameters);
 		return underlyingParameters;
 	}
 
+	/**
+	 * Same as removePlumberParameters() but without copy if the PlumberProxy
+	 * does not add parameters, and with a per-thread buffer otherwise. The
+	 * result must neither be modified nor kept.
+	 */
+	private double[] getUnderlyingParameters(double[] parameters, Request request) {
+		if(parameters == null || additionalParametersIDs.length == 0)
+			return parameters;
+		int numUnderlyingParameters = proxy.getNumberOfParameters(request);
+		checkNumberOfParameters(parameters, numUnderlyingParameters);
+		return scratch.get().underlyingParameters(parameters, numUnderlyingParameters);
+	}
+
+	private void checkNumberOfParameters(double[] parameters, int numUnderlyingParameters) {
+		if(parameters.length != numUnderlyingParameters + additionalParametersIDs.length)
+			throw new ProxyException("Wrong number of parameters provided to PlumberProxy (" + parameters.length + " instead of " + numUnderlyingParameters + " + " + additionalParametersIDs.length + ").");
+	}
+
 	/**
 	 * Gets the ID of a parameter for the PlumberProxy.
 	 * @param addedParametersId ID of the parameter among the additional
@@ -200,11 +224,11 @@ public final class PreviousEdgePlumberProxy extends PreviousEdgeProxy {
 	public double[] getNewParameters(Edge previousEdge, Edge edge, double[] oldParameters, Request request, boolean isForward) {
 		// Getting underlying parameters, cost and constraints.
 		int numUnderlyingParameters = proxy.getNumberOfParameters(request);
-		double[] oldUnderlyingParameters = removePlumberParameters(oldParameters, request);
+		double[] oldUnderlyingParameters = getUnderlyingParameters(oldParameters, request);
 		double[] newUnderlyingParameters = proxy.getNewParameters(previousEdge, edge, oldUnderlyingParameters, request, isForward);
 		if(newUnderlyingParameters == null)
 			return null;
-		double[] underlyingConstraints = proxy.getConstraintsValues(previousEdge, edge, request, isForward);
+		double[] underlyingConstraints = proxy.getConstraintsValues(previousEdge, edge, request, isForward, scratch.get().constraints(proxy.getNumberOfConstraints(request)));
 
 		// Copy the underlying parameters as the first new parameters.
 		double[] newPlumberParameters = new double[numUnderlyingParameters + additionalParametersIDs.length];
@@ -233,7 +257,7 @@ public final class PreviousEdgePlumberProxy extends PreviousEdgeProxy {
 
 	@Override
 	public double getCost(Edge previousEdge, Edge edge, Request request, boolean isForward) {
-		double[] underlyingConstraints = proxy.getConstraintsValues(previousEdge, edge, request, isForward);
+		double[] underlyingConstraints = proxy.getConstraintsValues(previousEdge, edge, request, isForward, scratch.get().constraints(proxy.getNumberOfConstraints(request)));
 
 		// Computing the linear combination.
 		double plumberCost = 0;
@@ -249,13 +273,102 @@ public final class PreviousEdgePlumberProxy extends PreviousEdgeProxy {
 
 	@Override
 	public double[] getConstraintsValues(Edge previousEdge, Edge edge, Request request, boolean isForward) {
-		double[] underlyingConstraints = proxy.getConstraintsValues(previousEdge, edge, request, isForward);
+		double[] underlyingConstraints = proxy.getConstraintsValues(previousEdge, edge, request, isForward, scratch.get().constraints(proxy.getNumberOfConstraints(request)));
 		double[] plumberConstraints = new double[constraintsIDs.length];
 		for(int i = 0; i < constraintsIDs.length; i++)
 				plumberConstraints[i] = underlyingConstraints[constraintsIDs[i] - 1];
 		return plumberConstraints;
 	}
 
+	@Override
+	public double[] getNewParameters(Edge previousEdge, Edge edge, double[] oldParameters, Request request, boolean isForward, double[] newParameters) {
+		if(additionalParametersIDs.length == 0)
+			return proxy.getNewParameters(previousEdge, edge, oldParameters, request, isForward, newParameters);
+
+		// Getting underlying parameters, cost and constraints.
+		int numUnderlyingParameters = proxy.getNumberOfParameters(request);
+		PlumberScratch buffers = scratch.get();
+		double[] oldUnderlyingParameters = getUnderlyingParameters(oldParameters, request);
+		double[] newUnderlyingParameters = proxy.getNewParameters(previousEdge, edge, oldUnderlyingParameters, request, isForward, buffers.newParameters(numUnderlyingParameters));
+		if(newUnderlyingParameters == null)
+			return null;
+		double[] underlyingConstraints = proxy.getConstraintsValues(previousEdge, edge, request, isForward, buffers.constraints(proxy.getNumberOfConstraints(request)));
+
+		// Copy the underlying parameters as the first new parameters.
+		if(newParameters == null)
+			newParameters = new double[numUnderlyingParameters + additionalParametersIDs.length];
+		System.arraycopy(newUnderlyingParameters, 0, newParameters, 0, numUnderlyingParameters);
+
+		// Adding the additional parameters (additive).
+		for(int i = 0; i < additionalParametersIDs.length; i++) {
+			if(additionalParametersIDs[i] == 0)
+				newParameters[numUnderlyingParameters + i] = proxy.getCost(previousEdge, edge, request, isForward);
+			else
+				newParameters[numUnderlyingParameters + i] = underlyingConstraints[additionalParametersIDs[i] - 1];
+			if(oldParameters != null)
+				newParameters[numUnderlyingParameters + i] += oldParameters[numUnderlyingParameters + i];
+		}
+
+		return newParameters;
+	}
+
+	@Override
+	public double[] getConstraintsValues(Edge previousEdge, Edge edge, Request request, boolean isForward, double[] constraints) {
+		double[] underlyingConstraints = proxy.getConstraintsValues(previousEdge, edge, request, isForward, scratch.get().constraints(proxy.getNumberOfConstraints(request)));
+		if(constraints == null)
+			constraints = new double[constraintsIDs.length];
+		for(int i = 0; i < constraintsIDs.length; i++)
+			constraints[i] = underlyingConstraints[constraintsIDs[i] - 1];
+		return constraints;
+	}
+
+	@Override
+	public boolean evaluate(Edge previousEdge, Edge edge, double[] oldParameters, Request request, boolean isForward, EdgeEvaluation evaluation) {
+		// The underlying Proxy evaluates the Edge once for the parameters, access, cost and constraints.
+		int numUnderlyingParameters = proxy.getNumberOfParameters(request);
+		EdgeEvaluation underlying = evaluation.getNested(numUnderlyingParameters, proxy.getNumberOfConstraints(request));
+		if(!proxy.evaluate(previousEdge, edge, getUnderlyingParameters(oldParameters, request), request, isForward, underlying)) {
+			evaluation.setAccess(false);
+			return false;
+		}
+		double underlyingCost = underlying.getCost();
+		double[] underlyingConstraints = underlying.getConstraintsValues();
+
+		// Parameters: underlying ones followed by the additional (additive) ones.
+		double[] newUnderlyingParameters = underlying.getParameters();
+		double[] newParameters = newUnderlyingParameters;
+		if(additionalParametersIDs.length > 0 && newUnderlyingParameters != null) {
+			newParameters = evaluation.getParameterBuffer();
+			System.arraycopy(newUnderlyingParameters, 0, newParameters, 0, numUnderlyingParameters);
+			for(int i = 0; i < additionalParametersIDs.length; i++) {
+				if(additionalParametersIDs[i] == 0)
+					newParameters[numUnderlyingParameters + i] = underlyingCost;
+				else
+					newParameters[numUnderlyingParameters + i] = underlyingConstraints[additionalParametersIDs[i] - 1];
+				if(oldParameters != null)
+					newParameters[numUnderlyingParameters + i] += oldParameters[numUnderlyingParameters + i];
+			}
+		}
+		evaluation.setParameters(newParameters);
+		evaluation.setAccess(true);
+
+		// Linear combination for the cost.
+		double plumberCost = 0;
+		for(int i = 0; i < costIDs.length; i++) {
+			if(costIDs[i] == 0)
+				plumberCost += costMultipliers[i] * underlyingCost;
+			else
+				plumberCost += costMultipliers[i] * underlyingConstraints[costIDs[i] - 1];
+		}
+		evaluation.setCost(plumberCost);
+
+		double[] constraints = evaluation.getConstraintsBuffer();
+		for(int i = 0; i < constraintsIDs.length; i++)
+			constraints[i] = underlyingConstraints[constraintsIDs[i] - 1];
+		evaluation.setConstraintsValues(constraints);
+		return true;
+	}
+
 	@Override
 	public double[] getConstraintsBounds(Request request) {
 		double[] underlyingConstraintsBounds = proxy.getConstraintsBounds(request);
@@ -319,10 +432,16 @@ public final class PreviousEdgePlumberProxy extends PreviousEdgeProxy {
 		return this.proxy.getProxy();
 	}
 
+	@Override
+	public Object getProjection() {
+		return new PlumberProjection(getClass(), proxy.getProjection(), costIDs, costMultipliers, constraintsIDs, additionalParametersIDs, Double.POSITIVE_INFINITY);
+	}
+
 	@Override
 	public PreviousEdgePlumberProxy clone() {
 		PreviousEdgePlumberProxy clone = (PreviousEdgePlumberProxy) super.clone();
 		clone.proxy = proxy.clone();
+		clone.scratch = ThreadLocal.withInitial(PlumberScratch::new);
 		return clone;
 	}
 
@@ -0,0 +1,116 @@
+package de.tum.ei.lkn.eces.routing.proxies.wrappers;
+
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.routing.proxies.EdgeEvaluation;
+import de.tum.ei.lkn.eces.routing.proxies.EdgeProxy;
+import de.tum.ei.lkn.eces.routing.proxies.PathCursor;
+import de.tum.ei.lkn.eces.routing.requests.Request;
+
+/**
+ * PathProxyWrapper dedicated to an EdgeProxy. The type of the wrapped Proxy is
+ * known when the adapter is created: calls are forwarded without checking it
+ * and the Path is ignored.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public final class EdgeProxyAdapter extends PathProxyWrapper {
+	/**
+	 * Wrapped proxy.
+	 */
+	private EdgeProxy edgeProxy;
+
+	/**
+	 * Creates the adapter around an EdgeProxy.
+	 * @param proxy the EdgeProxy.
+	 */
+	public EdgeProxyAdapter(EdgeProxy proxy) {
+		super(proxy);
+		this.edgeProxy = proxy;
+	}
+
+	@Override
+	public double[] getNewParameters(Iterable<Edge> path, Edge edge, double[] oldParameters, Request request, boolean isForward) {
+		return edgeProxy.getNewParameters(edge, oldParameters, request, isForward);
+	}
+
+	@Override
+	public boolean hasAccess(Iterable<Edge> path, Edge edge, double[] parameters, Request request, boolean isForward) {
+		return edgeProxy.hasAccess(edge, request);
+	}
+
+	@Override
+	public double getCost(Iterable<Edge> path, Edge edge, double[] parameters, Request request, boolean isForward) {
+		return edgeProxy.getCost(edge, request);
+	}
+
+	@Override
+	public double[] getConstraintsValues(Iterable<Edge> path, Edge edge, double[] parameters, Request request, boolean isForward) {
+		return edgeProxy.getConstraintsValues(edge, request);
+	}
+
+	@Override
+	public double[] getNewParameters(PathCursor path, Edge edge, double[] oldParameters, Request request, boolean isForward, double[] newParameters) {
+		return edgeProxy.getNewParameters(edge, oldParameters, request, isForward, newParameters);
+	}
+
+	@Override
+	public boolean hasAccess(PathCursor path, Edge edge, double[] parameters, Request request, boolean isForward) {
+		return edgeProxy.hasAccess(edge, request);
+	}
+
+	@Override
+	public double getCost(PathCursor path, Edge edge, double[] parameters, Request request, boolean isForward) {
+		return edgeProxy.getCost(edge, request);
+	}
+
+	@Override
+	public double[] getConstraintsValues(PathCursor path, Edge edge, double[] parameters, Request request, boolean isForward, double[] constraints) {
+		return edgeProxy.getConstraintsValues(edge, request, constraints);
+	}
+
+	@Override
+	public boolean evaluate(PathCursor path, Edge edge, double[] oldParameters, Request request, boolean isForward, EdgeEvaluation evaluation) {
+		return edgeProxy.evaluate(edge, oldParameters, request, isForward, evaluation);
+	}
+
+	@Override
+	public boolean hasAccess(Edge[] edges, Request request, boolean[] access) {
+		edgeProxy.hasAccess(edges, request, access);
+		return true;
+	}
+
+	@Override
+	public boolean getCosts(Edge[] edges, Request request, double[] costs) {
+		edgeProxy.getCosts(edges, request, costs);
+		return true;
+	}
+
+	@Override
+	public boolean getConstraintsValues(Edge[] edges, Request request, double[][] constraints) {
+		edgeProxy.getConstraintsValues(edges, request, constraints);
+		return true;
+	}
+
+	@Override
+	public boolean register(Iterable<Edge> path, Edge edge, double[] parameters, Request request) {
+		return edgeProxy.register(edge, request);
+	}
+
+	@Override
+	public boolean deregister(Iterable<Edge> path, Edge edge, double[] parameters, Request request) {
+		return edgeProxy.deregister(edge, request);
+	}
+
+	@Override
+	public Object getProjection() {
+		return edgeProxy.getProjection();
+	}
+
+	@Override
+	public EdgeProxyAdapter clone() {
+		EdgeProxyAdapter clone = (EdgeProxyAdapter) super.clone();
+		clone.edgeProxy = (EdgeProxy) clone.proxy;
+		return clone;
+	}
+}
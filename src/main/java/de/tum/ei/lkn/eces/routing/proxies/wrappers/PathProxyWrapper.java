@@ -5,8 +5,6 @@ import de.tum.ei.lkn.eces.graph.Node;
 import de.tum.ei.lkn.eces.routing.proxies.*;
 import de.tum.ei.lkn.eces.routing.requests.Request;
 
-import java.util.Iterator;
-
 /**
  * Wrapper around either an EdgeProxy or a PreviousEdgeProxy.
  * To the user (i.e., to the RoutingAlgorithm) it looks like a PathProxy.
@@ -18,6 +16,16 @@ import java.util.Iterator;
  * ProxyTypes to be implemented only once using a PathProxy which will either be
  * a real PathProxy or a PathProxyWrapper.
  *
+ * The calls are forwarded to an EdgeProxyAdapter or PreviousEdgeProxyAdapter
+ * created once for the wrapped Proxy. When no behaviour has to be added, the
+ * adapters should be used directly.
+ *
+ * The PathCursor-based, evaluate() and batch methods are not forwarded: the
+ * PathProxy defaults fall back to the Iterable-based methods (the batch ones
+ * let the Edges be evaluated one by one), so that subclasses only have to
+ * override the latter. The adapters implement them without going through the
+ * Iterable.
+ *
  * @author Jochen Guck
  * @author Amaury Van Bemten
  */
@@ -27,6 +35,16 @@ public class PathProxyWrapper extends PathProxy {
 	 */
 	protected Proxy proxy;
 
+	/**
+	 * PathProxy to which the calls are forwarded (created when first used).
+	 */
+	private PathProxy adapter;
+
+	/**
+	 * Wrapped proxy for which the adapter was created.
+	 */
+	private Proxy adaptedProxy;
+
 	protected PathProxyWrapper() {
 	}
 
@@ -56,86 +74,61 @@ public class PathProxyWrapper extends PathProxy {
 
 	@Override
 	public double[] getNewParameters(Iterable<Edge> path, Edge edge, double[] oldParameters, Request request, boolean isForward) {
-		if(proxy instanceof PathProxy)
-			return ((PathProxy) proxy).getNewParameters(path, edge, oldParameters, request, isForward);
-		else if(proxy instanceof EdgeProxy)
-			return ((EdgeProxy) proxy).getNewParameters(edge, oldParameters, request, isForward);
-		else { // if(proxy instanceof PreviousEdgeProxy) {
-			Iterator<Edge> pathIterator = path.iterator();
-			if(!pathIterator.hasNext())
-				return ((PreviousEdgeProxy) proxy).getNewParameters(null, edge, oldParameters, request, isForward);
-			return ((PreviousEdgeProxy) proxy).getNewParameters(pathIterator.next(), edge, oldParameters, request, isForward);
-		}
+		return getAdapter().getNewParameters(path, edge, oldParameters, request, isForward);
 	}
 
 	@Override
 	public boolean hasAccess(Iterable<Edge> path, Edge edge, double[] parameters, Request request, boolean isForward) {
-		if(proxy instanceof PathProxy)
-			return ((PathProxy) proxy).hasAccess(path, edge, parameters, request, isForward);
-		else if(proxy instanceof EdgeProxy)
-			return ((EdgeProxy) proxy).hasAccess(edge, request);
-		else { // if(proxy instanceof PreviousEdgeProxy) {
-			Iterator<Edge> pathIterator = path.iterator();
-			if(!pathIterator.hasNext())
-				return ((PreviousEdgeProxy) proxy).hasAccess(null, edge, request, isForward);
-			return ((PreviousEdgeProxy) proxy).hasAccess(pathIterator.next(), edge, request, isForward);
-		}
+		return getAdapter().hasAccess(path, edge, parameters, request, isForward);
 	}
 
 	@Override
 	public double getCost(Iterable<Edge> path, Edge edge, double[] parameters, Request request, boolean isForward) {
-		if(proxy instanceof PathProxy)
-			return ((PathProxy) proxy).getCost(path, edge, parameters, request, isForward);
-		else if(proxy instanceof EdgeProxy)
-			return ((EdgeProxy) proxy).getCost(edge, request);
-		else { // if(proxy instanceof PreviousEdgeProxy) {
-			Iterator<Edge> pathIterator = path.iterator();
-			if(!pathIterator.hasNext())
-				return ((PreviousEdgeProxy) proxy).getCost(null, edge, request, isForward);
-			return ((PreviousEdgeProxy) proxy).getCost(pathIterator.next(), edge, request, isForward);
-		}
+		return getAdapter().getCost(path, edge, parameters, request, isForward);
 	}
 
 	@Override
 	public double[] getConstraintsValues(Iterable<Edge> path, Edge edge, double[] parameters, Request request, boolean isForward) {
+		return getAdapter().getConstraintsValues(path, edge, parameters, request, isForward);
+	}
+
+	/**
+	 * Gets the PathProxy to which the calls are forwarded: the wrapped Proxy
+	 * itself if it is a PathProxy, an adapter otherwise. The adapter is
+	 * created again if the wrapped Proxy has been replaced.
+	 * @return The PathProxy.
+	 */
+	private PathProxy getAdapter() {
+		Proxy wrapped = proxy;
+		if(adaptedProxy != wrapped) {
+			adapter = adapt(wrapped);
+			adaptedProxy = wrapped;
+		}
+		return adapter;
+	}
+
+	/**
+	 * @param proxy A Proxy.
+	 * @return The Proxy itself if it is a PathProxy, an adapter dedicated to
+	 *         its type otherwise.
+	 */
+	private static PathProxy adapt(Proxy proxy) {
 		if(proxy instanceof PathProxy)
-			return ((PathProxy) proxy).getConstraintsValues(path, edge, parameters, request, isForward);
+			return (PathProxy) proxy;
 		else if(proxy instanceof EdgeProxy)
-			return ((EdgeProxy) proxy).getConstraintsValues(edge, request);
-		else { // if(proxy instanceof PreviousEdgeProxy) {
-			Iterator<Edge> pathIterator = path.iterator();
-			if(!pathIterator.hasNext())
-				return ((PreviousEdgeProxy) proxy).getConstraintsValues(null, edge, request, isForward);
-			return ((PreviousEdgeProxy) proxy).getConstraintsValues(pathIterator.next(), edge, request, isForward);
-		}
+			return new EdgeProxyAdapter((EdgeProxy) proxy);
+		else // if(proxy instanceof PreviousEdgeProxy) {
+			return new PreviousEdgeProxyAdapter((PreviousEdgeProxy) proxy);
 	}
 
 	@Override
 	public boolean register(Iterable<Edge> path, Edge edge, double[] parameters, Request request) {
-		if(proxy instanceof PathProxy)
-			return ((PathProxy) proxy).register(path, edge, parameters, request);
-		else if(proxy instanceof EdgeProxy)
-			return ((EdgeProxy) proxy).register(edge, request);
-		else { // if(proxy instanceof PreviousEdgeProxy) {
-			Iterator<Edge> pathIterator = path.iterator();
-			if(!pathIterator.hasNext())
-				return ((PreviousEdgeProxy) proxy).register(null, edge, request);
-			return ((PreviousEdgeProxy) proxy).register(pathIterator.next(), edge, request);
-		}
+		return getAdapter().register(path, edge, parameters, request);
 	}
 
 	@Override
 	public boolean deregister(Iterable<Edge> path, Edge edge, double[] parameters, Request request) {
-		if(proxy instanceof PathProxy)
-			return ((PathProxy) proxy).deregister(path, edge, parameters, request);
-		else if(proxy instanceof EdgeProxy)
-			return ((EdgeProxy) proxy).deregister(edge, request);
-		else { // if(proxy instanceof PreviousEdgeProxy) {
-			Iterator<Edge> pathIterator = path.iterator();
-			if(!pathIterator.hasNext())
-				return ((PreviousEdgeProxy) proxy).deregister(null, edge, request);
-			return ((PreviousEdgeProxy) proxy).deregister(pathIterator.next(), edge, request);
-		}
+		return getAdapter().deregister(path, edge, parameters, request);
 	}
 
 	@Override
@@ -182,6 +175,8 @@ public class PathProxyWrapper extends PathProxy {
 	public PathProxyWrapper clone() {
 		PathProxyWrapper clone = (PathProxyWrapper) super.clone();
 		clone.proxy = proxy.clone();
+		clone.adapter = null;
+		clone.adaptedProxy = null;
 		return clone;
 
 	}
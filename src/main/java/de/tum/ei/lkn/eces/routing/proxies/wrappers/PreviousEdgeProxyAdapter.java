@@ -0,0 +1,117 @@
+package de.tum.ei.lkn.eces.routing.proxies.wrappers;
+
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.routing.proxies.EdgeEvaluation;
+import de.tum.ei.lkn.eces.routing.proxies.PathCursor;
+import de.tum.ei.lkn.eces.routing.proxies.PreviousEdgeProxy;
+import de.tum.ei.lkn.eces.routing.requests.Request;
+
+import java.util.Iterator;
+
+/**
+ * PathProxyWrapper dedicated to a PreviousEdgeProxy. The type of the wrapped
+ * Proxy is known when the adapter is created: calls are forwarded without
+ * checking it, with only the last Edge of the Path.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public final class PreviousEdgeProxyAdapter extends PathProxyWrapper {
+	/**
+	 * Wrapped proxy.
+	 */
+	private PreviousEdgeProxy previousEdgeProxy;
+
+	/**
+	 * Creates the adapter around a PreviousEdgeProxy.
+	 * @param proxy the PreviousEdgeProxy.
+	 */
+	public PreviousEdgeProxyAdapter(PreviousEdgeProxy proxy) {
+		super(proxy);
+		this.previousEdgeProxy = proxy;
+	}
+
+	@Override
+	public double[] getNewParameters(Iterable<Edge> path, Edge edge, double[] oldParameters, Request request, boolean isForward) {
+		return previousEdgeProxy.getNewParameters(getPreviousEdge(path), edge, oldParameters, request, isForward);
+	}
+
+	@Override
+	public boolean hasAccess(Iterable<Edge> path, Edge edge, double[] parameters, Request request, boolean isForward) {
+		return previousEdgeProxy.hasAccess(getPreviousEdge(path), edge, request, isForward);
+	}
+
+	@Override
+	public double getCost(Iterable<Edge> path, Edge edge, double[] parameters, Request request, boolean isForward) {
+		return previousEdgeProxy.getCost(getPreviousEdge(path), edge, request, isForward);
+	}
+
+	@Override
+	public double[] getConstraintsValues(Iterable<Edge> path, Edge edge, double[] parameters, Request request, boolean isForward) {
+		return previousEdgeProxy.getConstraintsValues(getPreviousEdge(path), edge, request, isForward);
+	}
+
+	@Override
+	public double[] getNewParameters(PathCursor path, Edge edge, double[] oldParameters, Request request, boolean isForward, double[] newParameters) {
+		return previousEdgeProxy.getNewParameters(getPreviousEdge(path), edge, oldParameters, request, isForward, newParameters);
+	}
+
+	@Override
+	public boolean hasAccess(PathCursor path, Edge edge, double[] parameters, Request request, boolean isForward) {
+		return previousEdgeProxy.hasAccess(getPreviousEdge(path), edge, request, isForward);
+	}
+
+	@Override
+	public double getCost(PathCursor path, Edge edge, double[] parameters, Request request, boolean isForward) {
+		return previousEdgeProxy.getCost(getPreviousEdge(path), edge, request, isForward);
+	}
+
+	@Override
+	public double[] getConstraintsValues(PathCursor path, Edge edge, double[] parameters, Request request, boolean isForward, double[] constraints) {
+		return previousEdgeProxy.getConstraintsValues(getPreviousEdge(path), edge, request, isForward, constraints);
+	}
+
+	@Override
+	public boolean evaluate(PathCursor path, Edge edge, double[] oldParameters, Request request, boolean isForward, EdgeEvaluation evaluation) {
+		return previousEdgeProxy.evaluate(getPreviousEdge(path), edge, oldParameters, request, isForward, evaluation);
+	}
+
+	@Override
+	public boolean register(Iterable<Edge> path, Edge edge, double[] parameters, Request request) {
+		return previousEdgeProxy.register(getPreviousEdge(path), edge, request);
+	}
+
+	@Override
+	public boolean deregister(Iterable<Edge> path, Edge edge, double[] parameters, Request request) {
+		return previousEdgeProxy.deregister(getPreviousEdge(path), edge, request);
+	}
+
+	@Override
+	public Object getProjection() {
+		return previousEdgeProxy.getProjection();
+	}
+
+	@Override
+	public PreviousEdgeProxyAdapter clone() {
+		PreviousEdgeProxyAdapter clone = (PreviousEdgeProxyAdapter) super.clone();
+		clone.previousEdgeProxy = (PreviousEdgeProxy) clone.proxy;
+		return clone;
+	}
+
+	/**
+	 * @param path Path followed so far, last Edge first.
+	 * @return The last Edge of the Path or null if it is empty.
+	 */
+	private static Edge getPreviousEdge(Iterable<Edge> path) {
+		Iterator<Edge> pathIterator = path.iterator();
+		return pathIterator.hasNext() ? pathIterator.next() : null;
+	}
+
+	/**
+	 * @param path Path followed so far.
+	 * @return The last Edge of the Path or null if it is empty.
+	 */
+	private static Edge getPreviousEdge(PathCursor path) {
+		return path == null ? null : path.getLastEdge();
+	}
+}
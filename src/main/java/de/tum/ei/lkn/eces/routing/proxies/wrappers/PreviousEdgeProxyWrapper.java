@@ -2,6 +2,7 @@ package de.tum.ei.lkn.eces.routing.proxies.wrappers;
 
 import de.tum.ei.lkn.eces.graph.Edge;
 import de.tum.ei.lkn.eces.graph.Node;
+import de.tum.ei.lkn.eces.routing.proxies.EdgeEvaluation;
 import de.tum.ei.lkn.eces.routing.proxies.EdgeProxy;
 import de.tum.ei.lkn.eces.routing.proxies.PreviousEdgeProxy;
 import de.tum.ei.lkn.eces.routing.proxies.Proxy;
@@ -55,6 +56,21 @@ public final class PreviousEdgeProxyWrapper extends PreviousEdgeProxy {
 		return proxy.getConstraintsValues(edge, request);
 	}
 
+	@Override
+	public double[] getNewParameters(Edge previousEdge, Edge edge, double[] oldParameters, Request request, boolean isForward, double[] newParameters) {
+		return proxy.getNewParameters(edge, oldParameters, request, isForward, newParameters);
+	}
+
+	@Override
+	public double[] getConstraintsValues(Edge previousEdge, Edge edge, Request request, boolean isForward, double[] constraints) {
+		return proxy.getConstraintsValues(edge, request, constraints);
+	}
+
+	@Override
+	public boolean evaluate(Edge previousEdge, Edge edge, double[] oldParameters, Request request, boolean isForward, EdgeEvaluation evaluation) {
+		return proxy.evaluate(edge, oldParameters, request, isForward, evaluation);
+	}
+
 	@Override
 	public int getNumberOfParameters(Request request) {
 		return proxy.getNumberOfParameters(request);
@@ -0,0 +1,35 @@
+package de.tum.ei.lkn.eces.routing.responses;
+
+import de.tum.ei.lkn.eces.routing.budget.BudgetLimit;
+import de.tum.ei.lkn.eces.routing.proxies.Proxy;
+import org.json.JSONObject;
+
+/**
+ * Error response returned when the RoutingBudget of a Request has been
+ * exhausted before any valid Response was found.
+ *
+ * @author Jochen Guck
+ * @author Amaury Van Bemten
+ */
+public class BudgetExceededResponse extends ErrorResponse {
+	private final BudgetLimit limit;
+
+	public BudgetExceededResponse(Proxy proxy, BudgetLimit limit) {
+		super(proxy);
+		this.limit = limit;
+	}
+
+	/**
+	 * @return The limit of the budget that has been reached.
+	 */
+	public BudgetLimit getLimit() {
+		return limit;
+	}
+
+	@Override
+	public JSONObject toJSONObject() {
+		JSONObject result = super.toJSONObject();
+		result.put("BudgetLimit", limit.toString());
+		return result;
+	}
+}
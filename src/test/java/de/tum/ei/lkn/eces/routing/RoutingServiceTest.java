@@ -0,0 +1,225 @@
+package de.tum.ei.lkn.eces.routing;
+
+import de.tum.ei.lkn.eces.core.Controller;
+import de.tum.ei.lkn.eces.routing.algorithms.RoutingAlgorithm;
+import de.tum.ei.lkn.eces.routing.algorithms.sp.SPAlgorithm;
+import de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.dijkstra.DijkstraAlgorithm;
+import de.tum.ei.lkn.eces.routing.interfaces.SolveUnicastRequest;
+import de.tum.ei.lkn.eces.routing.mocks.DummyEdgeProxy;
+import de.tum.ei.lkn.eces.routing.proxies.plumbers.PathPlumberProxy;
+import de.tum.ei.lkn.eces.routing.requests.Request;
+import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
+import de.tum.ei.lkn.eces.routing.responses.ErrorResponse;
+import de.tum.ei.lkn.eces.routing.responses.Path;
+import de.tum.ei.lkn.eces.routing.responses.Response;
+import de.tum.ei.lkn.eces.routing.util.BaseTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class RoutingServiceTest extends BaseTest {
+	private RoutingService routingService;
+
+	@Before
+	public void setUp() {
+		super.setUp();
+		this.createBaseTopology();
+	}
+
+	@After
+	public void tearDown() {
+		if(routingService != null)
+			routingService.shutdownNow();
+	}
+
+	@Test
+	public final void concurrentRegistrationTest() throws Exception {
+		routingService = new RoutingService(4, 200, OverflowPolicy.BLOCK);
+		routingService.setCloner(algorithm -> createDijkstra());
+		routingService.setMaximumNumberOfAttempts(20);
+		RoutingAlgorithm dijkstra = createDijkstra();
+
+		// The DummyEdgeProxy accepts 100 Requests per Edge: the last 50
+		// Requests have to use the longer path.
+		List<CompletableFuture<Response>> futures = new ArrayList<>();
+		for(int i = 0; i < 150; i++)
+			futures.add(routingService.submit(new UnicastRequest(nodes[0], nodes[2]), dijkstra));
+
+		int shortPaths = 0;
+		int longPaths = 0;
+		for(CompletableFuture<Response> future : futures) {
+			Response response = future.get(10, TimeUnit.SECONDS);
+			assertTrue("No Path found", response instanceof Path);
+			int hops = ((Path) response).getPath().length;
+			if(hops == 2)
+				shortPaths++;
+			else if(hops == 4)
+				longPaths++;
+		}
+		assertEquals(100, shortPaths);
+		assertEquals(50, longPaths);
+		assertEquals(100, dummyMapper.get(edges[1].getEntity()).count);
+		assertEquals(50, dummyMapper.get(edges[9].getEntity()).count);
+	}
+
+	@Test
+	public final void errorResponseTest() throws Exception {
+		routingService = new RoutingService(1, 1, OverflowPolicy.REJECT);
+		dummyMapper.get(edges[1].getEntity()).use = false;
+		dummyMapper.get(edges[9].getEntity()).use = false;
+		Response response = routingService.submit(new UnicastRequest(nodes[0], nodes[2]), createDijkstra()).get(10, TimeUnit.SECONDS);
+		assertTrue(response instanceof ErrorResponse);
+	}
+
+	@Test
+	public final void rejectTest() throws Exception {
+		routingService = new RoutingService(1, 0, OverflowPolicy.REJECT);
+		BlockingAlgorithm blockingAlgorithm = new BlockingAlgorithm(controller);
+		CompletableFuture<Response> first = routingService.submit(new UnicastRequest(nodes[0], nodes[2]), blockingAlgorithm);
+		CompletableFuture<Response> second = routingService.submit(new UnicastRequest(nodes[0], nodes[2]), blockingAlgorithm);
+		try {
+			second.get(10, TimeUnit.SECONDS);
+			fail("The second Request should have been rejected");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof RejectedExecutionException);
+		}
+
+		blockingAlgorithm.release.countDown();
+		assertTrue(first.get(10, TimeUnit.SECONDS) instanceof ErrorResponse);
+	}
+
+	@Test
+	public final void cancellationTest() throws Exception {
+		routingService = new RoutingService(1, 0, OverflowPolicy.BLOCK);
+		BlockingAlgorithm blockingAlgorithm = new BlockingAlgorithm(controller);
+		CompletableFuture<Response> future = routingService.submit(new UnicastRequest(nodes[0], nodes[2]), blockingAlgorithm);
+		assertTrue(blockingAlgorithm.started.await(10, TimeUnit.SECONDS));
+		assertTrue(future.cancel(true));
+		assertTrue(blockingAlgorithm.interrupted.await(10, TimeUnit.SECONDS));
+		try {
+			future.get();
+			fail("The Request should have been cancelled");
+		} catch (CancellationException e) {
+			// Expected.
+		}
+
+		// The slot of the cancelled Request is freed.
+		Response response = routingService.submit(new UnicastRequest(nodes[0], nodes[2]), createDijkstra()).get(10, TimeUnit.SECONDS);
+		assertTrue(response instanceof Path);
+		assertEquals(1, dummyMapper.get(edges[1].getEntity()).count);
+	}
+
+	@Test
+	public final void serializedSolvesWithoutClonerTest() throws Exception {
+		routingService = new RoutingService(4, 20, OverflowPolicy.BLOCK);
+		CountingAlgorithm countingAlgorithm = new CountingAlgorithm(controller);
+		List<CompletableFuture<Response>> futures = new ArrayList<>();
+		for(int i = 0; i < 20; i++)
+			futures.add(routingService.submit(new UnicastRequest(nodes[0], nodes[2]), countingAlgorithm));
+
+		for(CompletableFuture<Response> future : futures)
+			assertTrue(future.get(10, TimeUnit.SECONDS) instanceof ErrorResponse);
+		assertEquals(20, countingAlgorithm.solves.get());
+		assertEquals(1, countingAlgorithm.maximumRunning.get());
+	}
+
+	private RoutingAlgorithm createDijkstra() {
+		RoutingAlgorithm dijkstra = new DijkstraAlgorithm(controller);
+		PathPlumberProxy proxy = new PathPlumberProxy(new int[]{0}, new double[]{1}, new int[0], new int[0]);
+		proxy.setProxy(new DummyEdgeProxy(controller));
+		dijkstra.setProxy(proxy);
+		return dijkstra;
+	}
+
+	/**
+	 * Algorithm recording how many of its solves run at the same time and
+	 * finding nothing.
+	 */
+	private class CountingAlgorithm extends BlockingAlgorithm {
+		private final AtomicInteger running = new AtomicInteger();
+		private final AtomicInteger maximumRunning = new AtomicInteger();
+		private final AtomicInteger solves = new AtomicInteger();
+
+		private CountingAlgorithm(Controller controller) {
+			super(controller);
+		}
+
+		@Override
+		public Response solveNoChecks(UnicastRequest request) {
+			maximumRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			solves.incrementAndGet();
+			try {
+				Thread.sleep(5);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			running.decrementAndGet();
+			return null;
+		}
+	}
+
+	/**
+	 * Algorithm waiting until it is released or interrupted and finding
+	 * nothing.
+	 */
+	private class BlockingAlgorithm extends SPAlgorithm implements SolveUnicastRequest {
+		private final CountDownLatch started = new CountDownLatch(1);
+		private final CountDownLatch release = new CountDownLatch(1);
+		private final CountDownLatch interrupted = new CountDownLatch(1);
+
+		private BlockingAlgorithm(Controller controller) {
+			super(controller);
+			PathPlumberProxy proxy = new PathPlumberProxy(new int[]{0}, new double[]{1}, new int[0], new int[0]);
+			proxy.setProxy(new DummyEdgeProxy(controller));
+			setProxy(proxy);
+		}
+
+		@Override
+		protected Response solveNoChecks(Request request) {
+			return solveNoChecks((UnicastRequest) request);
+		}
+
+		@Override
+		public Response solveNoChecks(UnicastRequest request) {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+			}
+			return null;
+		}
+
+		@Override
+		public boolean isForward() {
+			return true;
+		}
+
+		@Override
+		public boolean isOptimal() {
+			return true;
+		}
+
+		@Override
+		public boolean isComplete() {
+			return true;
+		}
+
+		@Override
+		public boolean isValid() {
+			return true;
+		}
+	}
+}
@@ -3,14 +3,18 @@ package de.tum.ei.lkn.eces.routing;
 import de.tum.ei.lkn.eces.core.Entity;
 import de.tum.ei.lkn.eces.core.Mapper;
 import de.tum.ei.lkn.eces.core.MapperSpace;
+import de.tum.ei.lkn.eces.graph.Edge;
 import de.tum.ei.lkn.eces.routing.algorithms.RoutingAlgorithm;
 import de.tum.ei.lkn.eces.routing.algorithms.csp.unicast.larac.LARACAlgorithm;
+import de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.dijkstra.DijkstraAlgorithm;
 import de.tum.ei.lkn.eces.routing.mappers.DeleteRequestMapper;
 import de.tum.ei.lkn.eces.routing.mappers.DoNotRouteMapper;
 import de.tum.ei.lkn.eces.routing.mappers.SelectedRoutingAlgorithmMapper;
 import de.tum.ei.lkn.eces.routing.mocks.DummyComponent;
 import de.tum.ei.lkn.eces.routing.mocks.DummyEdgeProxy;
+import de.tum.ei.lkn.eces.routing.proxies.ShortestPathProxy;
 import de.tum.ei.lkn.eces.routing.proxies.plumbers.PathPlumberProxy;
+import de.tum.ei.lkn.eces.routing.requests.Request;
 import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
 import de.tum.ei.lkn.eces.routing.responses.Path;
 import de.tum.ei.lkn.eces.routing.util.BaseTest;
@@ -18,6 +22,13 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static org.junit.Assert.*;
 
@@ -131,4 +142,102 @@ public class RoutingSystemTest extends BaseTest {
 		assertFalse(this.edgePathMapper.isIn(ent2));
 		assertEquals(0, routingSystem.handledRequests.size());
 	}
+
+	@Test
+	public final void concurrentRoutingTest() throws InterruptedException {
+		routingSystem.enableConcurrentRouting(4, algorithm -> {
+			RoutingAlgorithm copy = new LARACAlgorithm(controller);
+			PathPlumberProxy proxy = new PathPlumberProxy(new int[]{0}, new double[]{1}, new int[]{1}, new int[]{});
+			proxy.setProxy(new DummyEdgeProxy(controller));
+			copy.setProxy(proxy);
+			return copy;
+		});
+		assertTrue(routingSystem.isConcurrentRoutingEnabled());
+
+		Entity[] entities = new Entity[20];
+		for(int i = 0; i < entities.length; i++) {
+			entities[i] = controller.createEntity();
+			this.selectedRoutingAlgorithmMapper.attachComponent(entities[i], new SelectedRoutingAlgorithm(ra));
+			this.requestMapper.attachComponent(entities[i], new UnicastRequest(nodes[0], nodes[2]));
+		}
+		routingSystem.awaitPendingRequests();
+
+		for(Entity entity : entities) {
+			assertTrue("No Edge Path computed", this.edgePathMapper.isIn(entity));
+			assertEquals("Hop count wrong", 2, this.edgePathMapper.get(entity).getPath().length);
+			assertSame("Wrong edge used", this.edgePathMapper.get(entity).getPath()[0], edges[0]);
+			assertSame("Wrong edge used", this.edgePathMapper.get(entity).getPath()[1], edges[1]);
+		}
+		assertEquals(entities.length, routingSystem.handledRequests.size());
+
+		routingSystem.disableConcurrentRouting();
+		assertFalse(routingSystem.isConcurrentRoutingEnabled());
+	}
+
+	@Test
+	public final void concurrentConflictTest() throws InterruptedException {
+		CapacityProxy proxy = new CapacityProxy();
+		RoutingAlgorithm dijkstra = new DijkstraAlgorithm(controller);
+		dijkstra.setProxy(proxy);
+		routingSystem.enableConcurrentRouting(2, algorithm -> {
+			RoutingAlgorithm copy = new DijkstraAlgorithm(controller);
+			copy.setProxy(proxy);
+			return copy;
+		});
+
+		// Both Requests are solved before any of them is committed: they choose the same Path.
+		Entity[] entities = new Entity[2];
+		for(int i = 0; i < entities.length; i++) {
+			entities[i] = controller.createEntity();
+			this.selectedRoutingAlgorithmMapper.attachComponent(entities[i], new SelectedRoutingAlgorithm(dijkstra));
+			this.requestMapper.attachComponent(entities[i], new UnicastRequest(nodes[0], nodes[2]));
+		}
+		routingSystem.awaitPendingRequests();
+		routingSystem.disableConcurrentRouting();
+
+		// The second commit conflicts with the first one and its Request is solved again.
+		assertTrue("No Edge Path computed", this.edgePathMapper.isIn(entities[0]));
+		assertTrue("No Edge Path computed", this.edgePathMapper.isIn(entities[1]));
+		int[] hopCounts = new int[]{this.edgePathMapper.get(entities[0]).getPath().length,
+				this.edgePathMapper.get(entities[1]).getPath().length};
+		Arrays.sort(hopCounts);
+		assertEquals("Hop count wrong", 2, hopCounts[0]);
+		assertEquals("Hop count wrong", 4, hopCounts[1]);
+		for(Edge edge : edges)
+			assertTrue(proxy.reservations.getOrDefault(edge, 0) <= 1);
+	}
+
+	/**
+	 * Proxy letting one Request use each Edge. The first solve of each
+	 * thread waits for the one of another thread.
+	 */
+	private static class CapacityProxy extends ShortestPathProxy {
+		private final Map<Edge, Integer> reservations = new ConcurrentHashMap<>();
+		private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		private final CyclicBarrier firstSolves = new CyclicBarrier(2);
+
+		@Override
+		public boolean hasAccess(Edge edge, Request request) {
+			if(threads.add(Thread.currentThread())) {
+				try {
+					firstSolves.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+					throw new RuntimeException(e);
+				}
+			}
+			return reservations.getOrDefault(edge, 0) < 1;
+		}
+
+		@Override
+		public boolean register(Edge edge, Request request) {
+			reservations.merge(edge, 1, Integer::sum);
+			return true;
+		}
+
+		@Override
+		public boolean deregister(Edge edge, Request request) {
+			reservations.merge(edge, -1, Integer::sum);
+			return true;
+		}
+	}
 }
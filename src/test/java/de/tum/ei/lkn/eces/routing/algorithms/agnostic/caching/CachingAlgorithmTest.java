@@ -0,0 +1,105 @@
+package de.tum.ei.lkn.eces.routing.algorithms.agnostic.caching;
+
+import de.tum.ei.lkn.eces.core.Controller;
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.graph.Graph;
+import de.tum.ei.lkn.eces.graph.GraphSystem;
+import de.tum.ei.lkn.eces.graph.Node;
+import de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.dijkstra.DijkstraAlgorithm;
+import de.tum.ei.lkn.eces.routing.proxies.ShortestPathProxy;
+import de.tum.ei.lkn.eces.routing.requests.Request;
+import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
+import de.tum.ei.lkn.eces.routing.responses.Path;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class CachingAlgorithmTest {
+	private Node[] nodes;
+	private Edge[] edges;
+	private BlockingProxy proxy;
+	private CachingAlgorithm algorithm;
+
+	private static class BlockingProxy extends ShortestPathProxy {
+		private Set<Edge> blockedEdges = new HashSet<>();
+
+		@Override
+		public boolean hasAccess(Edge edge, Request request) {
+			return !blockedEdges.contains(edge) && super.hasAccess(edge, request);
+		}
+	}
+
+	@Before
+	public void setUp() {
+		Controller controller = new Controller();
+		GraphSystem graphSystem = new GraphSystem(controller);
+		Graph graph = graphSystem.createGraph();
+		nodes = new Node[4];
+		for(int i = 0; i < nodes.length; i++)
+			nodes[i] = graphSystem.createNode(graph);
+		edges = new Edge[5];
+		edges[0] = graphSystem.createEdge(nodes[0], nodes[1]);
+		edges[1] = graphSystem.createEdge(nodes[1], nodes[3]);
+		edges[2] = graphSystem.createEdge(nodes[0], nodes[2]);
+		edges[3] = graphSystem.createEdge(nodes[2], nodes[3]);
+		edges[4] = graphSystem.createEdge(nodes[2], nodes[1]);
+		proxy = new BlockingProxy();
+		algorithm = new CachingAlgorithm(controller, new DijkstraAlgorithm(controller), null, 2);
+		algorithm.setProxy(proxy);
+	}
+
+	@Test
+	public void repeatedRequestIsCachedTest() {
+		Path first = (Path) algorithm.solve(new UnicastRequest(nodes[0], nodes[3]));
+		Path second = (Path) algorithm.solve(new UnicastRequest(nodes[0], nodes[3]));
+		assertEquals(1, algorithm.getNumberOfMisses());
+		assertEquals(1, algorithm.getNumberOfHits());
+		assertArrayEquals(first.getPath(), second.getPath());
+		assertEquals(first.getCost(), second.getCost(), 0);
+	}
+
+	@Test
+	public void invalidPathIsRecomputedTest() {
+		Path first = (Path) algorithm.solve(new UnicastRequest(nodes[0], nodes[3]));
+		proxy.blockedEdges.add(first.getPath()[1]);
+		Path second = (Path) algorithm.solve(new UnicastRequest(nodes[0], nodes[3]));
+		assertEquals(2, algorithm.getNumberOfMisses());
+		assertEquals(0, algorithm.getNumberOfHits());
+		for(Edge edge : second)
+			assertFalse(proxy.blockedEdges.contains(edge));
+	}
+
+	@Test
+	public void invalidateDropsPathsOnEdgeTest() {
+		Path path = (Path) algorithm.solve(new UnicastRequest(nodes[0], nodes[3]));
+		algorithm.solve(new UnicastRequest(nodes[2], nodes[1]));
+		assertEquals(2, algorithm.size());
+
+		algorithm.invalidate(path.getPath()[0]);
+		assertEquals(1, algorithm.size());
+		algorithm.invalidate(path.getPath()[0]);
+		assertEquals(1, algorithm.size());
+		algorithm.invalidate(edges[4]);
+		assertEquals(0, algorithm.size());
+	}
+
+	@Test
+	public void leastRecentlyUsedIsDroppedTest() {
+		algorithm.solve(new UnicastRequest(nodes[0], nodes[3]));
+		algorithm.solve(new UnicastRequest(nodes[2], nodes[1]));
+		algorithm.solve(new UnicastRequest(nodes[0], nodes[3]));
+		algorithm.solve(new UnicastRequest(nodes[1], nodes[3]));
+		assertEquals(2, algorithm.size());
+
+		algorithm.solve(new UnicastRequest(nodes[0], nodes[3]));
+		algorithm.solve(new UnicastRequest(nodes[2], nodes[1]));
+		assertEquals(4, algorithm.getNumberOfMisses());
+		assertEquals(2, algorithm.getNumberOfHits());
+	}
+}
@@ -0,0 +1,21 @@
+package de.tum.ei.lkn.eces.routing.algorithms.csp.unicast.cbf;
+
+import de.tum.ei.lkn.eces.routing.compiledgraph.CompiledGraphSystem;
+import de.tum.ei.lkn.eces.routing.proxies.plumbers.PathPlumberProxy;
+import de.tum.ei.lkn.eces.routing.util.ConstrainedShortestPathAlgorithmTest;
+import org.junit.Before;
+
+public class CBFCompiledGraphTest extends ConstrainedShortestPathAlgorithmTest {
+	@Before
+	public void setUp() {
+		super.setUp();
+		proxy = new PathPlumberProxy(new int[]{0},
+				new double[]{1},
+				new int[]{1},
+				new int[0]);
+		CBFAlgorithm cbf = new CBFAlgorithm(controller);
+		cbf.enableCompiledGraphMode(new CompiledGraphSystem(controller));
+		routingAlgorithmUnderTest = cbf;
+		routingAlgorithmUnderTest.setProxy(proxy);
+	}
+}
@@ -0,0 +1,90 @@
+package de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IndexedTempDataHeapTest {
+	private TempData newTempData(double cost, int sqnum) {
+		TempData data = new TempData();
+		data.setCost(cost);
+		data.setSqnum(sqnum);
+		return data;
+	}
+
+	@Test
+	public void pollsInOrder() {
+		for(int arity = 2; arity <= 5; arity++) {
+			IndexedTempDataHeap heap = new IndexedTempDataHeap(arity);
+			Random random = new Random(arity);
+			for(int i = 0; i < 200; i++)
+				heap.add(newTempData(random.nextInt(50), i));
+			assertEquals(200, heap.size());
+
+			TempData previous = null;
+			while(!heap.isEmpty()) {
+				TempData data = heap.poll();
+				assertFalse(heap.isQueued(data));
+				if(previous != null)
+					assertTrue(previous.compareTo(data) <= 0);
+				previous = data;
+			}
+			assertNull(heap.poll());
+		}
+	}
+
+	@Test
+	public void updatesInPlace() {
+		IndexedTempDataHeap heap = new IndexedTempDataHeap(4);
+		List<TempData> elements = new ArrayList<>();
+		for(int i = 0; i < 100; i++) {
+			TempData data = newTempData(100 + i, i);
+			elements.add(data);
+			heap.add(data);
+		}
+
+		// Decrease some keys, increase others.
+		Random random = new Random(0);
+		for(TempData data : elements) {
+			assertTrue(heap.isQueued(data));
+			data.setCost(random.nextInt(300));
+			heap.add(data);
+		}
+		assertEquals(100, heap.size());
+
+		TempData previous = null;
+		int count = 0;
+		while(!heap.isEmpty()) {
+			TempData data = heap.poll();
+			if(previous != null)
+				assertTrue(previous.compareTo(data) <= 0);
+			previous = data;
+			count++;
+		}
+		assertEquals(100, count);
+	}
+
+	@Test
+	public void clearDetachesElements() {
+		IndexedTempDataHeap heap = new IndexedTempDataHeap(2);
+		TempData data = newTempData(1, 0);
+		heap.add(data);
+		heap.clear();
+		assertTrue(heap.isEmpty());
+		assertFalse(heap.isQueued(data));
+
+		IndexedTempDataHeap otherHeap = new IndexedTempDataHeap(2);
+		otherHeap.add(data);
+		assertFalse(heap.isQueued(data));
+		assertTrue(otherHeap.isQueued(data));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidArity() {
+		new IndexedTempDataHeap(1);
+	}
+}
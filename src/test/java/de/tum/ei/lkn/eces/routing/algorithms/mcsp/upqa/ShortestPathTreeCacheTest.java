@@ -0,0 +1,157 @@
+package de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa;
+
+import de.tum.ei.lkn.eces.core.Controller;
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.graph.Graph;
+import de.tum.ei.lkn.eces.graph.GraphSystem;
+import de.tum.ei.lkn.eces.graph.Node;
+import de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.dijkstra.DijkstraAlgorithm;
+import de.tum.ei.lkn.eces.routing.compiledgraph.CompiledGraphSystem;
+import de.tum.ei.lkn.eces.routing.easygraph.EasyGraphProxy;
+import de.tum.ei.lkn.eces.routing.easygraph.Metrics;
+import de.tum.ei.lkn.eces.routing.easygraph.MetricsChangeSystem;
+import de.tum.ei.lkn.eces.routing.easygraph.MetricsMapper;
+import de.tum.ei.lkn.eces.routing.proxies.ShortestPathProxy;
+import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
+import de.tum.ei.lkn.eces.routing.responses.Path;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ShortestPathTreeCacheTest {
+	private Controller controller;
+	private Node[] nodes;
+	private Edge[] edges;
+	private ShortestPathProxy proxy;
+	private ShortestPathTreeCache cache;
+
+	@Before
+	public void setUp() {
+		controller = new Controller();
+		GraphSystem graphSystem = new GraphSystem(controller);
+		Graph graph = graphSystem.createGraph();
+		nodes = new Node[5];
+		for(int i = 0; i < nodes.length; i++)
+			nodes[i] = graphSystem.createNode(graph);
+		edges = new Edge[]{
+				graphSystem.createEdge(nodes[0], nodes[1]),
+				graphSystem.createEdge(nodes[0], nodes[2]),
+				graphSystem.createEdge(nodes[1], nodes[3]),
+				graphSystem.createEdge(nodes[2], nodes[1]),
+				graphSystem.createEdge(nodes[3], nodes[0])};
+		proxy = new ShortestPathProxy();
+		cache = new ShortestPathTreeCache(4);
+	}
+
+	private DijkstraAlgorithm createDijkstra() {
+		DijkstraAlgorithm dijkstra = new DijkstraAlgorithm(controller);
+		dijkstra.setProxy(proxy);
+		dijkstra.cachedTreesMode(cache);
+		return dijkstra;
+	}
+
+	private void assertSameTree(DijkstraAlgorithm expected, DijkstraAlgorithm actual) {
+		for(Node node : nodes) {
+			Path expectedPath = expected.getPathToNodeFrom(node);
+			Path actualPath = actual.getPathToNodeFrom(node);
+			if(expectedPath == null) {
+				assertNull(actualPath);
+				continue;
+			}
+			assertArrayEquals(expectedPath.getPath(), actualPath.getPath());
+			assertEquals(expectedPath.getCost(), actualPath.getCost(), 0);
+		}
+	}
+
+	@Test
+	public void treeIsSharedTest() {
+		UnicastRequest request = new UnicastRequest(nodes[0], nodes[3]);
+		DijkstraAlgorithm first = createDijkstra();
+		DijkstraAlgorithm second = createDijkstra();
+		DijkstraAlgorithm uncached = new DijkstraAlgorithm(controller);
+		uncached.setProxy(proxy);
+
+		first.computePathsFromAnyNodeTo(nodes[3], request);
+		second.computePathsFromAnyNodeTo(nodes[3], request);
+		uncached.computePathsFromAnyNodeTo(nodes[3], request);
+		assertEquals(1, cache.getNumberOfMisses());
+		assertEquals(1, cache.getNumberOfHits());
+		assertSameTree(uncached, first);
+		assertSameTree(uncached, second);
+		assertNull(second.getPathToNodeFrom(nodes[4]));
+
+		second.computePathsFromAnyNodeTo(nodes[1], request);
+		assertEquals(2, cache.getNumberOfMisses());
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void compiledTreeIsSharedTest() {
+		UnicastRequest request = new UnicastRequest(nodes[0], nodes[3]);
+		CompiledGraphSystem compiledGraphSystem = new CompiledGraphSystem(controller);
+		DijkstraAlgorithm first = createDijkstra();
+		first.compiledGraphMode(compiledGraphSystem);
+		DijkstraAlgorithm second = createDijkstra();
+		second.compiledGraphMode(compiledGraphSystem);
+		DijkstraAlgorithm uncached = new DijkstraAlgorithm(controller);
+		uncached.setProxy(proxy);
+
+		first.computePathsFromAnyNodeTo(nodes[3], request);
+		second.computePathsFromAnyNodeTo(nodes[3], request);
+		uncached.computePathsFromAnyNodeTo(nodes[3], request);
+		assertEquals(1, cache.getNumberOfHits());
+		assertSameTree(uncached, second);
+	}
+
+	@Test
+	public void stateChangeInvalidatesTreeTest() {
+		UnicastRequest request = new UnicastRequest(nodes[0], nodes[3]);
+		DijkstraAlgorithm dijkstra = createDijkstra();
+
+		dijkstra.computePathsFromAnyNodeTo(nodes[3], request);
+		proxy.stateChanged();
+		dijkstra.computePathsFromAnyNodeTo(nodes[3], request);
+		assertEquals(2, cache.getNumberOfMisses());
+		assertEquals(0, cache.getNumberOfHits());
+
+		dijkstra.uncachedTreesMode();
+		dijkstra.computePathsFromAnyNodeTo(nodes[3], request);
+		assertEquals(2, cache.getNumberOfMisses());
+		assertEquals(0, cache.getNumberOfHits());
+	}
+
+	@Test
+	public void metricsChangeInvalidatesTreeTest() {
+		MetricsMapper metricsMapper = new MetricsMapper(controller);
+		for(Edge edge : edges)
+			metricsMapper.attachComponent(edge, new Metrics(1));
+		cache = new ShortestPathTreeCache(4, new MetricsChangeSystem(controller));
+		DijkstraAlgorithm dijkstra = new DijkstraAlgorithm(controller);
+		dijkstra.setProxy(new EasyGraphProxy(controller));
+		dijkstra.cachedTreesMode(cache);
+		UnicastRequest request = new UnicastRequest(nodes[0], nodes[3]);
+
+		dijkstra.computePathsFromAnyNodeTo(nodes[3], request);
+		dijkstra.computePathsFromAnyNodeTo(nodes[3], request);
+		assertEquals(1, cache.getNumberOfMisses());
+		assertEquals(1, cache.getNumberOfHits());
+		assertEquals(2, dijkstra.getPathToNodeFrom(nodes[0]).getCost(), 0);
+
+		// The state version of the proxy does not change: the Metrics events invalidate the tree.
+		metricsMapper.detachComponent(edges[0]);
+		metricsMapper.attachComponent(edges[0], new Metrics(5));
+		dijkstra.computePathsFromAnyNodeTo(nodes[3], request);
+		assertEquals(2, cache.getNumberOfMisses());
+		assertEquals(3, dijkstra.getPathToNodeFrom(nodes[0]).getCost(), 0);
+
+		// A detached cache does not see the events anymore.
+		cache.detach();
+		metricsMapper.detachComponent(edges[0]);
+		metricsMapper.attachComponent(edges[0], new Metrics(1));
+		dijkstra.computePathsFromAnyNodeTo(nodes[3], request);
+		assertEquals(2, cache.getNumberOfMisses());
+	}
+}
@@ -0,0 +1,54 @@
+package de.tum.ei.lkn.eces.routing.algorithms.sp.ksp.yen;
+
+import de.tum.ei.lkn.eces.routing.mocks.DummyEdgeProxy;
+import de.tum.ei.lkn.eces.routing.proxies.plumbers.PathPlumberProxy;
+import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
+import de.tum.ei.lkn.eces.routing.responses.Path;
+import de.tum.ei.lkn.eces.routing.util.KSPAlgorithmTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LazyYenAlgorithmTest extends KSPAlgorithmTest {
+	@Before
+	public final void setupAlgorithm() {
+		super.setUp();
+		proxy = new PathPlumberProxy(new int[]{0},
+				new double[]{1},
+				new int[0],
+				new int[0]);
+		YenAlgorithm yen = new YenAlgorithm(controller);
+		yen.lazyMode();
+		routingAlgorithmUnderTest = yen;
+		routingAlgorithmUnderTest.setProxy(proxy);
+	}
+
+	@Test
+	public final void sameCostsAsEagerTest() {
+		createGridTopology(4, 4);
+		proxy.setProxy(new DummyEdgeProxy(controller));
+		YenAlgorithm eager = new YenAlgorithm(controller);
+		eager.setProxy(proxy);
+
+		UnicastRequest request = new UnicastRequest(nodes[1], nodes[nodes.length - 2]);
+		Iterator<Path> lazyPaths = ((YenAlgorithm) routingAlgorithmUnderTest).iterator(request);
+		Iterator<Path> eagerPaths = eager.iterator(request);
+		Set<Path> found = new HashSet<>();
+		while(eagerPaths.hasNext()) {
+			Path expected = eagerPaths.next();
+			assertTrue(lazyPaths.hasNext());
+			Path path = lazyPaths.next();
+			assertEquals(expected.getCost(), path.getCost(), 0);
+			assertTrue("Path found twice: " + path, found.add(path));
+			assertTrue(proxy.isValid(path, request));
+		}
+		assertFalse(lazyPaths.hasNext());
+	}
+}
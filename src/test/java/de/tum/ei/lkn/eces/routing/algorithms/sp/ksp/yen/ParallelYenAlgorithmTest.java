@@ -0,0 +1,58 @@
+package de.tum.ei.lkn.eces.routing.algorithms.sp.ksp.yen;
+
+import de.tum.ei.lkn.eces.routing.mocks.DummyEdgeProxy;
+import de.tum.ei.lkn.eces.routing.proxies.plumbers.PathPlumberProxy;
+import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
+import de.tum.ei.lkn.eces.routing.responses.Path;
+import de.tum.ei.lkn.eces.routing.util.KSPAlgorithmTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelYenAlgorithmTest extends KSPAlgorithmTest {
+	private ForkJoinPool pool;
+
+	@Before
+	public final void setupAlgorithm() {
+		super.setUp();
+		proxy = new PathPlumberProxy(new int[]{0},
+				new double[]{1},
+				new int[0],
+				new int[0]);
+		pool = new ForkJoinPool(4);
+		YenAlgorithm yen = new YenAlgorithm(controller);
+		yen.setParallelism(pool);
+		routingAlgorithmUnderTest = yen;
+		routingAlgorithmUnderTest.setProxy(proxy);
+	}
+
+	@After
+	public final void shutdownPool() {
+		pool.shutdown();
+	}
+
+	@Test
+	public final void samePathsAsSequentialTest() {
+		createGridTopology(4, 4);
+		proxy.setProxy(new DummyEdgeProxy(controller));
+		YenAlgorithm sequential = new YenAlgorithm(controller);
+		sequential.setProxy(proxy);
+
+		UnicastRequest request = new UnicastRequest(nodes[1], nodes[nodes.length - 2]);
+		Iterator<Path> parallelPaths = ((YenAlgorithm) routingAlgorithmUnderTest).iterator(request);
+		Iterator<Path> sequentialPaths = sequential.iterator(request);
+		while(sequentialPaths.hasNext()) {
+			Path expected = sequentialPaths.next();
+			assertTrue(parallelPaths.hasNext());
+			assertArrayEquals(expected.getPath(), parallelPaths.next().getPath());
+		}
+		assertFalse(parallelPaths.hasNext());
+	}
+}
@@ -0,0 +1,22 @@
+package de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.astar;
+
+
+import de.tum.ei.lkn.eces.routing.proxies.plumbers.PathPlumberProxy;
+import de.tum.ei.lkn.eces.routing.util.ShortestPathAlgorithmTest;
+import org.junit.Before;
+
+public class AStarBidirectionalTest extends ShortestPathAlgorithmTest {
+
+	@Before
+	public void setUp() {
+		super.setUp();
+		proxy = new PathPlumberProxy(new int[]{0},
+				new double[]{1},
+				new int[0],
+				new int[0]);
+		AStarAlgorithm aStar = new AStarAlgorithm(controller);
+		aStar.bidirectionalMode();
+		routingAlgorithmUnderTest = aStar;
+		routingAlgorithmUnderTest.setProxy(proxy);
+	}
+}
@@ -0,0 +1,148 @@
+package de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.astar;
+
+import de.tum.ei.lkn.eces.core.Controller;
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.graph.Graph;
+import de.tum.ei.lkn.eces.graph.GraphSystem;
+import de.tum.ei.lkn.eces.graph.Node;
+import de.tum.ei.lkn.eces.routing.algorithms.RoutingAlgorithm;
+import de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa.QueueMode;
+import de.tum.ei.lkn.eces.routing.algorithms.mcsp.upqa.UniversalPriorityQueueAlgorithm;
+import de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.dijkstra.DijkstraAlgorithm;
+import de.tum.ei.lkn.eces.routing.compiledgraph.CompiledGraphSystem;
+import de.tum.ei.lkn.eces.routing.easygraph.EasyGraphProxy;
+import de.tum.ei.lkn.eces.routing.easygraph.Metrics;
+import de.tum.ei.lkn.eces.routing.easygraph.MetricsMapper;
+import de.tum.ei.lkn.eces.routing.proxies.EdgeProxy;
+import de.tum.ei.lkn.eces.routing.proxies.landmarks.LandmarkProxy;
+import de.tum.ei.lkn.eces.routing.proxies.plumbers.EdgePlumberProxy;
+import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
+import de.tum.ei.lkn.eces.routing.responses.Path;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the searches using the guesses of a LandmarkProxy stay optimal
+ * on a directed Graph whose costs are not symmetric, i.e., where the guess
+ * from a Node to another one differs from the guess in the other direction.
+ */
+public class AStarLandmarkTest {
+	private Controller controller;
+	private Node[] nodes;
+	private EasyGraphProxy easyGraphProxy;
+	private LandmarkProxy landmarkProxy;
+	private DijkstraAlgorithm dijkstra;
+
+	@Before
+	public void setUp() {
+		controller = new Controller();
+		GraphSystem graphSystem = new GraphSystem(controller);
+		MetricsMapper metricsMapper = new MetricsMapper(controller);
+
+		// 6x6 grid where each link exists in one random direction with a low
+		// cost and, two times out of three, in the other direction with a
+		// high cost.
+		Random random = new Random(7);
+		int size = 6;
+		Graph graph = graphSystem.createGraph();
+		nodes = new Node[size * size];
+		for(int i = 0; i < nodes.length; i++)
+			nodes[i] = graphSystem.createNode(graph);
+		for(int i = 0; i < size; i++) {
+			for(int j = 1; j < size; j++) {
+				link(graphSystem, metricsMapper, random, nodes[i * size + j - 1], nodes[i * size + j]);
+				link(graphSystem, metricsMapper, random, nodes[(j - 1) * size + i], nodes[j * size + i]);
+			}
+		}
+
+		easyGraphProxy = new EasyGraphProxy(controller, new double[]{Double.MAX_VALUE});
+		landmarkProxy = new LandmarkProxy(easyGraphProxy, 4);
+		dijkstra = new DijkstraAlgorithm(controller);
+		dijkstra.setProxy(costOnly(easyGraphProxy));
+	}
+
+	private void link(GraphSystem graphSystem, MetricsMapper metricsMapper, Random random, Node first, Node second) {
+		if(random.nextBoolean()) {
+			Node tmp = first;
+			first = second;
+			second = tmp;
+		}
+		Edge edge = graphSystem.createEdge(first, second);
+		metricsMapper.attachComponent(edge, new Metrics(1 + random.nextInt(3), new double[]{0}));
+		if(random.nextInt(3) != 0) {
+			edge = graphSystem.createEdge(second, first);
+			metricsMapper.attachComponent(edge, new Metrics(10 + random.nextInt(20), new double[]{0}));
+		}
+	}
+
+	@Test
+	public void guessesAreAsymmetric() {
+		boolean asymmetric = false;
+		for(Node source : nodes)
+			for(Node destination : nodes)
+				if(landmarkProxy.getGuessForCost(source, destination) != landmarkProxy.getGuessForCost(destination, source))
+					asymmetric = true;
+		assertTrue(asymmetric);
+	}
+
+	@Test
+	public void unidirectionalAStarStaysOptimal() {
+		AStarAlgorithm aStar = new AStarAlgorithm(controller);
+		aStar.setProxy(costOnly(landmarkProxy));
+		checkOptimality(aStar);
+	}
+
+	@Test
+	public void bidirectionalAStarStaysOptimal() {
+		AStarAlgorithm aStar = new AStarAlgorithm(controller);
+		aStar.bidirectionalMode();
+		aStar.setProxy(costOnly(landmarkProxy));
+		checkOptimality(aStar);
+	}
+
+	@Test
+	public void backwardAStarStaysOptimal() {
+		UniversalPriorityQueueAlgorithm upqa = new UniversalPriorityQueueAlgorithm(controller, QueueMode.NODE, false, true);
+		upqa.setProxy(costOnly(landmarkProxy));
+		checkOptimality(upqa);
+	}
+
+	@Test
+	public void compiledBackwardAStarStaysOptimal() {
+		UniversalPriorityQueueAlgorithm upqa = new UniversalPriorityQueueAlgorithm(controller, QueueMode.NODE, false, true);
+		upqa.enableCompiledGraphMode(new CompiledGraphSystem(controller));
+		upqa.setProxy(costOnly(landmarkProxy));
+		checkOptimality(upqa);
+	}
+
+	private void checkOptimality(RoutingAlgorithm algorithm) {
+		for(Node source : nodes) {
+			for(Node destination : nodes) {
+				if(source == destination)
+					continue;
+				UnicastRequest request = new UnicastRequest(source, destination);
+				Path expected = (Path) dijkstra.solve(request);
+				Path result = (Path) algorithm.solve(request);
+				if(expected == null) {
+					assertNull(result);
+					continue;
+				}
+				assertTrue("No path from " + source + " to " + destination, result != null);
+				assertEquals(expected.getCost(), result.getCost(), 1e-9);
+			}
+		}
+	}
+
+	/**
+	 * Drops the delay so that the Proxy can be used by shortest path algorithms.
+	 */
+	private EdgeProxy costOnly(EdgeProxy proxy) {
+		return new EdgePlumberProxy(proxy, new int[]{0}, new double[]{1}, new int[0], new int[0]);
+	}
+}
@@ -0,0 +1,22 @@
+package de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.bellmanford;
+
+
+import de.tum.ei.lkn.eces.routing.compiledgraph.CompiledGraphSystem;
+import de.tum.ei.lkn.eces.routing.proxies.plumbers.PathPlumberProxy;
+import de.tum.ei.lkn.eces.routing.util.ShortestPathAlgorithmTest;
+import org.junit.Before;
+
+public class BellmanFordCompiledGraphTest extends ShortestPathAlgorithmTest {
+    @Before
+    public void setUp() {
+        super.setUp();
+        proxy = new PathPlumberProxy(new int[]{0},
+                new double[]{1},
+                new int[0],
+                new int[0]);
+        BellmanFordAlgorithm bellmanFord = new BellmanFordAlgorithm(controller);
+        bellmanFord.enableCompiledGraphMode(new CompiledGraphSystem(controller));
+        routingAlgorithmUnderTest = bellmanFord;
+        routingAlgorithmUnderTest.setProxy(proxy);
+    }
+}
@@ -0,0 +1,185 @@
+package de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.ch;
+
+
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.graph.Graph;
+import de.tum.ei.lkn.eces.graph.Node;
+import de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.dijkstra.DijkstraAlgorithm;
+import de.tum.ei.lkn.eces.routing.easygraph.EasyGraphProxy;
+import de.tum.ei.lkn.eces.routing.easygraph.Metrics;
+import de.tum.ei.lkn.eces.routing.easygraph.MetricsChangeSystem;
+import de.tum.ei.lkn.eces.routing.proxies.ShortestPathProxy;
+import de.tum.ei.lkn.eces.routing.proxies.plumbers.PathPlumberProxy;
+import de.tum.ei.lkn.eces.routing.requests.Request;
+import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
+import de.tum.ei.lkn.eces.routing.responses.Path;
+import de.tum.ei.lkn.eces.routing.util.ShortestPathAlgorithmTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ContractionHierarchyAlgorithmTest extends ShortestPathAlgorithmTest {
+	private MetricsChangeSystem metricsChangeSystem;
+
+	@Before
+	public void setUp() {
+		super.setUp();
+		proxy = new PathPlumberProxy(new int[]{0},
+				new double[]{1},
+				new int[0],
+				new int[0]);
+		metricsChangeSystem = new MetricsChangeSystem(controller);
+		routingAlgorithmUnderTest = new ContractionHierarchyAlgorithm(controller, metricsChangeSystem);
+		routingAlgorithmUnderTest.setProxy(proxy);
+	}
+
+	@Test
+	public void sameCostsAsDijkstra() {
+		createRandomGrid(8);
+		ContractionHierarchyAlgorithm contractionHierarchy = (ContractionHierarchyAlgorithm) routingAlgorithmUnderTest;
+		Graph graph = nodes[0].getGraph();
+		contractionHierarchy.preprocess(graph);
+		ContractionHierarchy hierarchy = contractionHierarchy.getContractionHierarchy(graph);
+		assertNotNull(hierarchy);
+
+		checkAgainstDijkstra();
+		assertTrue(hierarchy == contractionHierarchy.getContractionHierarchy(graph));
+	}
+
+	@Test
+	public void metricChangesAreDetected() {
+		createRandomGrid(6);
+		ContractionHierarchyAlgorithm contractionHierarchy = (ContractionHierarchyAlgorithm) routingAlgorithmUnderTest;
+		Graph graph = nodes[0].getGraph();
+		checkAgainstDijkstra();
+		ContractionHierarchy hierarchy = contractionHierarchy.getContractionHierarchy(graph);
+
+		changeMetrics(new Random(7));
+		checkAgainstDijkstra();
+		assertTrue(hierarchy != contractionHierarchy.getContractionHierarchy(graph));
+	}
+
+	@Test
+	public void fallbackOnChanges() {
+		createRandomGrid(6);
+		ContractionHierarchyAlgorithm contractionHierarchy = (ContractionHierarchyAlgorithm) routingAlgorithmUnderTest;
+		contractionHierarchy.fallbackMode();
+		contractionHierarchy.disableMetricsCheck();
+		Graph graph = nodes[0].getGraph();
+		contractionHierarchy.preprocess(graph);
+		ContractionHierarchy hierarchy = contractionHierarchy.getContractionHierarchy(graph);
+
+		// Without metrics check, a change is only seen on the Paths found.
+		changeMetrics(new Random(7));
+		checkAgainstDijkstra();
+		assertTrue(hierarchy.isOutdated());
+		assertTrue(hierarchy == contractionHierarchy.getContractionHierarchy(graph));
+
+		contractionHierarchy.preprocess(graph);
+		assertTrue(!contractionHierarchy.getContractionHierarchy(graph).isOutdated());
+		checkAgainstDijkstra();
+	}
+
+	@Test
+	public void metricsCheckDetectsChangesWithoutEvents() {
+		createGridTopology(6, 6);
+		CostProxy costProxy = new CostProxy();
+		Random random = new Random(42);
+		for(Edge edge : edges)
+			costProxy.costs.put(edge, 1.0 + random.nextInt(10));
+		proxy.setProxy(costProxy);
+		ContractionHierarchyAlgorithm contractionHierarchy = (ContractionHierarchyAlgorithm) routingAlgorithmUnderTest;
+		contractionHierarchy.enableMetricsCheck();
+		Graph graph = nodes[0].getGraph();
+		checkAgainstDijkstra();
+		ContractionHierarchy hierarchy = contractionHierarchy.getContractionHierarchy(graph);
+
+		// Edges not used by a Path become cheaper, without any ECS event: the
+		// Path found on the hierarchy is still valid but not the shortest.
+		UnicastRequest request = new UnicastRequest(nodes[0], nodes[nodes.length - 1]);
+		Path path = (Path) routingAlgorithmUnderTest.solve(request);
+		Set<Edge> pathEdges = new HashSet<>(Arrays.asList(path.getPath()));
+		for(Edge edge : edges)
+			if(!pathEdges.contains(edge))
+				costProxy.costs.put(edge, 0.5);
+		DijkstraAlgorithm dijkstra = new DijkstraAlgorithm(controller);
+		dijkstra.setProxy(proxy);
+		assertEquals(((Path) dijkstra.solve(request)).getCost(), ((Path) routingAlgorithmUnderTest.solve(request)).getCost(), 1e-9);
+		checkAgainstDijkstra();
+		assertTrue(hierarchy != contractionHierarchy.getContractionHierarchy(graph));
+	}
+
+	@Test
+	public void detachedAlgorithmChecksMetrics() {
+		createRandomGrid(6);
+		ContractionHierarchyAlgorithm detached = new ContractionHierarchyAlgorithm(controller, metricsChangeSystem);
+		detached.setProxy(proxy);
+		detached.fallbackMode();
+		Graph graph = nodes[0].getGraph();
+		detached.preprocess(graph);
+		ContractionHierarchy hierarchy = detached.getContractionHierarchy(graph);
+		detached.detach();
+
+		// The events do not reach the detached algorithm anymore, the metrics
+		// check sees the change on the next Request.
+		changeMetrics(new Random(7));
+		assertTrue(!hierarchy.isOutdated());
+		UnicastRequest request = new UnicastRequest(nodes[0], nodes[nodes.length - 1]);
+		DijkstraAlgorithm dijkstra = new DijkstraAlgorithm(controller);
+		dijkstra.setProxy(proxy);
+		assertEquals(((Path) dijkstra.solve(request)).getCost(), ((Path) detached.solve(request)).getCost(), 1e-9);
+		assertTrue(hierarchy.isOutdated());
+	}
+
+	private static class CostProxy extends ShortestPathProxy {
+		private final Map<Edge, Double> costs = new HashMap<>();
+
+		@Override
+		public double getCost(Edge edge, Request request) {
+			return costs.get(edge);
+		}
+	}
+
+	private void checkAgainstDijkstra() {
+		DijkstraAlgorithm dijkstra = new DijkstraAlgorithm(controller);
+		dijkstra.setProxy(proxy);
+		for(Node source : nodes) {
+			for(Node destination : nodes) {
+				if(source == destination)
+					continue;
+				UnicastRequest request = new UnicastRequest(source, destination);
+				Path expected = (Path) dijkstra.solve(request);
+				Path result = (Path) routingAlgorithmUnderTest.solve(request);
+				assertNotNull(result);
+				assertEquals(expected.getCost(), result.getCost(), 1e-9);
+				assertTrue(proxy.isValid(result, request));
+				pathCheck(result, request);
+			}
+		}
+	}
+
+	private void createRandomGrid(int size) {
+		createGridTopology(size, size);
+		proxy.setProxy(new EasyGraphProxy(controller));
+		Random random = new Random(42);
+		for(Edge edge : edges)
+			metricsMapper.attachComponent(edge, new Metrics(1 + random.nextInt(10)));
+	}
+
+	private void changeMetrics(Random random) {
+		for(Edge edge : edges) {
+			metricsMapper.detachComponent(edge);
+			metricsMapper.attachComponent(edge, new Metrics(1 + random.nextInt(10)));
+		}
+	}
+}
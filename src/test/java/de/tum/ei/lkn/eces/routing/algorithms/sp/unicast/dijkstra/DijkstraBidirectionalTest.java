@@ -0,0 +1,21 @@
+package de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.dijkstra;
+
+
+import de.tum.ei.lkn.eces.routing.proxies.plumbers.PathPlumberProxy;
+import de.tum.ei.lkn.eces.routing.util.ShortestPathAlgorithmTest;
+import org.junit.Before;
+
+public class DijkstraBidirectionalTest extends ShortestPathAlgorithmTest {
+	@Before
+	public void setUp() {
+		super.setUp();
+		proxy = new PathPlumberProxy(new int[]{0},
+				new double[]{1},
+				new int[0],
+				new int[0]);
+		DijkstraAlgorithm dijkstra = new DijkstraAlgorithm(controller);
+		dijkstra.bidirectionalMode();
+		routingAlgorithmUnderTest = dijkstra;
+		routingAlgorithmUnderTest.setProxy(proxy);
+	}
+}
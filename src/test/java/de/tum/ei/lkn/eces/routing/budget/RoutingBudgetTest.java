@@ -0,0 +1,172 @@
+package de.tum.ei.lkn.eces.routing.budget;
+
+import de.tum.ei.lkn.eces.core.Entity;
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.graph.Graph;
+import de.tum.ei.lkn.eces.graph.Node;
+import de.tum.ei.lkn.eces.routing.algorithms.RoutingAlgorithm;
+import de.tum.ei.lkn.eces.routing.algorithms.csp.unicast.cbf.CBFAlgorithm;
+import de.tum.ei.lkn.eces.routing.algorithms.csp.unicast.larac.LARACAlgorithm;
+import de.tum.ei.lkn.eces.routing.algorithms.mcsp.astarprune.AStarPruneAlgorithm;
+import de.tum.ei.lkn.eces.routing.algorithms.mcsp.kspmc.KSPMCAlgorithm;
+import de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.dijkstra.DijkstraAlgorithm;
+import de.tum.ei.lkn.eces.routing.mappers.RoutingBudgetMapper;
+import de.tum.ei.lkn.eces.routing.mocks.DummyComponent;
+import de.tum.ei.lkn.eces.routing.mocks.DummyEdgeProxy;
+import de.tum.ei.lkn.eces.routing.proxies.plumbers.PathPlumberProxy;
+import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
+import de.tum.ei.lkn.eces.routing.responses.BudgetExceededResponse;
+import de.tum.ei.lkn.eces.routing.responses.Path;
+import de.tum.ei.lkn.eces.routing.responses.Response;
+import de.tum.ei.lkn.eces.routing.util.BaseTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RoutingBudgetTest extends BaseTest {
+	private Node a;
+	private Node d;
+	private Edge ac;
+	private Edge ad;
+	private Edge cd;
+
+	@Before
+	public void setUp() {
+		super.setUp();
+		proxy = new PathPlumberProxy(new int[]{0},
+				new double[]{1},
+				new int[]{1},
+				new int[0]);
+		DummyEdgeProxy dp = new DummyEdgeProxy(controller);
+		dp.setBounds(new double[]{7, 2, 3});
+		proxy.setProxy(dp);
+
+		// Figure 3 of the 2001 LARAC paper: the least-cost path a-b-d violates
+		// the deadline, the least-delay path is a-d and the optimum a-c-d.
+		Graph graph = graphSystem.createGraph();
+		a = graphSystem.createNode(graph);
+		Node b = graphSystem.createNode(graph);
+		Node c = graphSystem.createNode(graph);
+		d = graphSystem.createNode(graph);
+		createEdges(a, b, 1, 4);
+		ac = createEdges(a, c, 4, 3);
+		ad = createEdges(a, d, 16, 2);
+		createEdges(b, c, 2, 1);
+		createEdges(b, d, 1, 8);
+		cd = createEdges(c, d, 4, 3);
+	}
+
+	@Test
+	public final void laracReturnsBestFeasiblePath() {
+		RoutingAlgorithm larac = createAlgorithm(new LARACAlgorithm(controller, new DijkstraAlgorithm(controller)));
+		UnicastRequest request = new UnicastRequest(a, d);
+
+		larac.setBudget(new RoutingBudget(RoutingBudget.UNLIMITED, 0, RoutingBudget.UNLIMITED));
+		Path path = (Path) larac.solve(request);
+		assertEquals(16, path.getCost(), 0);
+		assertArrayEquals(new Edge[]{ad}, path.getPath());
+
+		larac.setBudget(null);
+		path = (Path) larac.solve(request);
+		assertEquals(8, path.getCost(), 0);
+		assertArrayEquals(new Edge[]{ac, cd}, path.getPath());
+	}
+
+	@Test
+	public final void cbfReturnsBestPathSoFar() {
+		RoutingAlgorithm cbf = createAlgorithm(new CBFAlgorithm(controller));
+		UnicastRequest request = new UnicastRequest(a, d);
+
+		cbf.setBudget(new RoutingBudget(RoutingBudget.UNLIMITED, 0, RoutingBudget.UNLIMITED));
+		Response response = cbf.solve(request);
+		assertTrue(response instanceof BudgetExceededResponse);
+		assertEquals(BudgetLimit.QUEUE_POPS, ((BudgetExceededResponse) response).getLimit());
+
+		boolean pathFound = false;
+		for(int pops = 1; pops < 50; pops++) {
+			cbf.setBudget(new RoutingBudget(RoutingBudget.UNLIMITED, pops, RoutingBudget.UNLIMITED));
+			response = cbf.solve(request);
+			if(response instanceof Path) {
+				pathFound = true;
+				assertTrue(proxy.isValid(response, request));
+				assertTrue(((Path) response).getCost() >= 8);
+			}
+			else
+				assertTrue(!pathFound && response instanceof BudgetExceededResponse);
+		}
+		assertEquals(8, ((Path) response).getCost(), 0);
+	}
+
+	@Test
+	public final void requestBudgetIsUsed() {
+		RoutingAlgorithm aStarPrune = createAlgorithm(new AStarPruneAlgorithm(controller, true));
+		UnicastRequest request = new UnicastRequest(a, d);
+		Entity entity = controller.createEntity();
+		requestMapper.attachComponent(entity, request);
+		new RoutingBudgetMapper(controller).attachComponent(entity, new RoutingBudget(RoutingBudget.UNLIMITED, RoutingBudget.UNLIMITED, 0));
+
+		aStarPrune.setBudget(new RoutingBudget(RoutingBudget.UNLIMITED, 0, RoutingBudget.UNLIMITED));
+		Response response = aStarPrune.solve(request);
+		assertTrue(response instanceof BudgetExceededResponse);
+		assertEquals(BudgetLimit.PROXY_CALLS, ((BudgetExceededResponse) response).getLimit());
+
+		// The budget of the algorithm is used for other requests.
+		response = aStarPrune.solve(new UnicastRequest(a, d));
+		assertEquals(BudgetLimit.QUEUE_POPS, ((BudgetExceededResponse) response).getLimit());
+
+		aStarPrune.setBudget(null);
+		assertEquals(8, ((Path) aStarPrune.solve(new UnicastRequest(a, d))).getCost(), 0);
+	}
+
+	@Test
+	public final void kspmcBudget() {
+		RoutingAlgorithm kspmc = createAlgorithm(new KSPMCAlgorithm(controller));
+		UnicastRequest request = new UnicastRequest(a, d);
+
+		// The least-cost path is not feasible.
+		kspmc.setBudget(new RoutingBudget(RoutingBudget.UNLIMITED, 1, RoutingBudget.UNLIMITED));
+		assertTrue(kspmc.solve(request) instanceof BudgetExceededResponse);
+
+		kspmc.setBudget(new RoutingBudget(RoutingBudget.UNLIMITED, 100, RoutingBudget.UNLIMITED));
+		assertEquals(8, ((Path) kspmc.solve(request)).getCost(), 0);
+	}
+
+	@Test
+	public final void timeAndInterruption() {
+		RoutingBudgetTracker tracker = RoutingBudgetTracker.start(new RoutingBudget(0));
+		try {
+			assertTrue(tracker == RoutingBudgetTracker.current());
+			assertTrue(tracker.isExhausted());
+			assertEquals(BudgetLimit.TIME, tracker.getExhaustedLimit());
+			assertFalse(tracker.pop());
+		} finally {
+			RoutingBudgetTracker.stop();
+		}
+		assertFalse(RoutingBudgetTracker.isActive());
+		assertFalse(RoutingBudgetTracker.current().isExhausted());
+
+		tracker = RoutingBudgetTracker.start(new RoutingBudget(RoutingBudget.UNLIMITED));
+		Thread.currentThread().interrupt();
+		try {
+			assertTrue(tracker.isExhausted());
+			assertEquals(BudgetLimit.INTERRUPTED, tracker.getExhaustedLimit());
+		} finally {
+			Thread.interrupted();
+			RoutingBudgetTracker.stop();
+		}
+	}
+
+	private RoutingAlgorithm createAlgorithm(RoutingAlgorithm algorithm) {
+		algorithm.setProxy(proxy);
+		return algorithm;
+	}
+
+	private Edge createEdges(Node source, Node destination, double cost, double delay) {
+		Edge edge = graphSystem.createEdge(source, destination);
+		dummyMapper.attachComponent(edge, new DummyComponent(cost, delay, 0, true, 0));
+		Edge reverse = graphSystem.createEdge(destination, source);
+		dummyMapper.attachComponent(reverse, new DummyComponent(cost, delay, 0, true, 0));
+		return edge;
+	}
+}
@@ -0,0 +1,99 @@
+package de.tum.ei.lkn.eces.routing.compiledgraph;
+
+import de.tum.ei.lkn.eces.core.Controller;
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.graph.Graph;
+import de.tum.ei.lkn.eces.graph.GraphSystem;
+import de.tum.ei.lkn.eces.graph.Node;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class CompiledGraphSystemTest {
+	private GraphSystem graphSystem;
+	private CompiledGraphSystem compiledGraphSystem;
+	private Graph graph;
+	private Node[] nodes;
+	private Edge[] edges;
+
+	@Before
+	public void setUp() {
+		Controller controller = new Controller();
+		graphSystem = new GraphSystem(controller);
+		compiledGraphSystem = new CompiledGraphSystem(controller);
+
+		graph = graphSystem.createGraph();
+		nodes = new Node[4];
+		for(int i = 0; i < nodes.length; i++)
+			nodes[i] = graphSystem.createNode(graph);
+		edges = new Edge[5];
+		edges[0] = graphSystem.createEdge(nodes[0], nodes[1]);
+		edges[1] = graphSystem.createEdge(nodes[0], nodes[2]);
+		edges[2] = graphSystem.createEdge(nodes[1], nodes[3]);
+		edges[3] = graphSystem.createEdge(nodes[2], nodes[3]);
+		edges[4] = graphSystem.createEdge(nodes[3], nodes[0]);
+	}
+
+	@Test
+	public void adjacencyTest() {
+		CompiledGraph compiledGraph = compiledGraphSystem.getCompiledGraph(graph);
+		assertEquals(nodes.length, compiledGraph.getNumberOfNodes());
+		assertEquals(edges.length, compiledGraph.getNumberOfEdges());
+
+		for(Node node : nodes) {
+			int id = compiledGraph.getNodeId(node);
+			assertSame(node, compiledGraph.getNode(id));
+
+			int index = compiledGraph.getOutgoingStart(id);
+			assertEquals(node.getOutgoingConnections().size(), compiledGraph.getOutgoingEnd(id) - index);
+			for(Edge edge : node.getOutgoingConnections())
+				assertSame(edge, compiledGraph.getEdge(compiledGraph.getOutgoingEdge(index++)));
+
+			index = compiledGraph.getIncomingStart(id);
+			assertEquals(node.getIncomingConnections().size(), compiledGraph.getIncomingEnd(id) - index);
+			for(Edge edge : node.getIncomingConnections())
+				assertSame(edge, compiledGraph.getEdge(compiledGraph.getIncomingEdge(index++)));
+		}
+
+		for(Edge edge : edges) {
+			int id = compiledGraph.getEdgeId(edge);
+			assertSame(edge.getSource(), compiledGraph.getNode(compiledGraph.getSource(id)));
+			assertSame(edge.getDestination(), compiledGraph.getNode(compiledGraph.getDestination(id)));
+		}
+	}
+
+	@Test
+	public void pathTest() {
+		CompiledGraph compiledGraph = compiledGraphSystem.getCompiledGraph(graph);
+		int[] parentEdges = new int[nodes.length];
+
+		// Forward tree rooted at N0: N0 -> N2 -> N3.
+		parentEdges[compiledGraph.getNodeId(nodes[0])] = -1;
+		parentEdges[compiledGraph.getNodeId(nodes[2])] = compiledGraph.getEdgeId(edges[1]);
+		parentEdges[compiledGraph.getNodeId(nodes[3])] = compiledGraph.getEdgeId(edges[3]);
+		assertArrayEquals(new Edge[]{edges[1], edges[3]}, compiledGraph.getPath(compiledGraph.getNodeId(nodes[3]), parentEdges, true));
+
+		// Backward tree rooted at N3: N0 -> N1 -> N3.
+		parentEdges[compiledGraph.getNodeId(nodes[3])] = -1;
+		parentEdges[compiledGraph.getNodeId(nodes[1])] = compiledGraph.getEdgeId(edges[2]);
+		parentEdges[compiledGraph.getNodeId(nodes[0])] = compiledGraph.getEdgeId(edges[0]);
+		assertArrayEquals(new Edge[]{edges[0], edges[2]}, compiledGraph.getPath(compiledGraph.getNodeId(nodes[0]), parentEdges, false));
+	}
+
+	@Test
+	public void rebuildTest() {
+		CompiledGraph compiledGraph = compiledGraphSystem.getCompiledGraph(graph);
+		assertSame(compiledGraph, compiledGraphSystem.getCompiledGraph(graph));
+
+		Edge newEdge = graphSystem.createEdge(nodes[1], nodes[2]);
+		CompiledGraph newCompiledGraph = compiledGraphSystem.getCompiledGraph(graph);
+		assertNotSame(compiledGraph, newCompiledGraph);
+		assertEquals(-1, compiledGraph.getEdgeId(newEdge));
+		assertEquals(edges.length + 1, newCompiledGraph.getNumberOfEdges());
+		assertSame(newEdge, newCompiledGraph.getEdge(newCompiledGraph.getEdgeId(newEdge)));
+	}
+}
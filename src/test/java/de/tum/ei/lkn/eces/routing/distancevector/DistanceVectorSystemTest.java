@@ -2,11 +2,25 @@ package de.tum.ei.lkn.eces.routing.distancevector;
 
 import de.tum.ei.lkn.eces.core.Controller;
 import de.tum.ei.lkn.eces.core.Mapper;
+import de.tum.ei.lkn.eces.graph.Edge;
 import de.tum.ei.lkn.eces.graph.Graph;
 import de.tum.ei.lkn.eces.graph.GraphSystem;
 import de.tum.ei.lkn.eces.graph.Node;
+import de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.dijkstra.DijkstraAlgorithm;
+import de.tum.ei.lkn.eces.routing.easygraph.EasyGraphProxy;
+import de.tum.ei.lkn.eces.routing.easygraph.Metrics;
+import de.tum.ei.lkn.eces.routing.easygraph.MetricsMapper;
+import de.tum.ei.lkn.eces.routing.proxies.plumbers.PathPlumberProxy;
+import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
+import de.tum.ei.lkn.eces.routing.responses.Path;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
 import static org.junit.Assert.assertEquals;
 
 public class DistanceVectorSystemTest {
@@ -32,4 +46,169 @@ public class DistanceVectorSystemTest {
 		for(int i = 0; i < nodes.length; i++)
 			assertEquals(vector.getDistance(nodes[i]), 9 - i, 0.0);
 	}
+
+	@Test
+	public void incrementalUpdatesTest() {
+		randomUpdates(system -> {}, new DistanceArray.Doubles(1));
+	}
+
+	@Test
+	public void parallelUpdatesTest() {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			randomUpdates(system -> system.setParallelism(pool), new DistanceArray.Doubles(1));
+			randomUpdates(system -> {
+				system.setParallelism(pool);
+				system.setIncrementalUpdates(false);
+			}, new DistanceArray.Doubles(1));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void rebuildUpdatesTest() {
+		randomUpdates(system -> system.setIncrementalUpdates(false), new DistanceArray.Doubles(1));
+	}
+
+	@Test
+	public void compactDistancesTest() {
+		randomUpdates(DistanceVectorSystem::useSinglePrecision, new DistanceArray.Floats(1));
+		randomUpdates(system -> system.useQuantizedPrecision(3), new DistanceArray.Quantized(1, 3));
+		randomUpdates(system -> {
+			system.setIncrementalUpdates(false);
+			system.useQuantizedPrecision(0.5);
+		}, new DistanceArray.Quantized(1, 0.5));
+	}
+
+	@Test
+	public void lazyRowsTest() {
+		randomUpdates(system -> system.setLazyRows(4), new DistanceArray.Doubles(1));
+		randomUpdates(system -> system.setLazyRows(100), new DistanceArray.Doubles(1));
+
+		Controller controller = new Controller();
+		GraphSystem graphSystem = new GraphSystem(controller);
+		EasyGraphProxy proxy = new EasyGraphProxy(controller, new double[]{1});
+		DistanceVectorSystem distanceVectorSystem = new DistanceVectorSystem(controller, proxy);
+		distanceVectorSystem.setLazyRows(2);
+		MetricsMapper metricsMapper = new MetricsMapper(controller);
+		Mapper<DistanceVector> distanceVectorMapper = new DistanceVectorMapper(controller);
+
+		Graph graph = graphSystem.createGraph();
+		Node[] nodes = new Node[10];
+		for(int i = 0; i < nodes.length; i++)
+			nodes[i] = graphSystem.createNode(graph);
+		Edge[] edges = new Edge[nodes.length - 1];
+		for(int i = 1; i < nodes.length; i++) {
+			edges[i - 1] = graphSystem.createEdge(nodes[i - 1], nodes[i]);
+			metricsMapper.attachComponent(edges[i - 1], new Metrics(1, new double[]{0}));
+		}
+		distanceVectorSystem.update(graph);
+
+		DistanceVector toLast = distanceVectorMapper.get(nodes[9].getEntity());
+		DistanceVector toSecond = distanceVectorMapper.get(nodes[2].getEntity());
+		DistanceRows rows = toLast.getRows();
+		assertEquals(0, rows.getNumberOfRows());
+		assertEquals(9, toLast.getDistance(nodes[0]), 0.0);
+		assertEquals(2, toSecond.getDistance(nodes[0]), 0.0);
+		assertEquals(Double.MAX_VALUE, toSecond.getDistance(nodes[5]), 0.0);
+		assertEquals(2, rows.getNumberOfRows());
+
+		// Only the distances to the last Node use the Edge.
+		metricsMapper.detachComponent(edges[5]);
+		metricsMapper.attachComponent(edges[5], new Metrics(5, new double[]{0}));
+		distanceVectorSystem.update(edges[5]);
+		assertEquals(1, rows.getNumberOfRows());
+		assertEquals(13, toLast.getDistance(nodes[0]), 0.0);
+		assertEquals(2, toSecond.getDistance(nodes[0]), 0.0);
+
+		// Least recently queried row dropped.
+		distanceVectorMapper.get(nodes[4].getEntity()).getDistance(nodes[0]);
+		distanceVectorMapper.get(nodes[5].getEntity()).getDistance(nodes[0]);
+		assertEquals(2, rows.getNumberOfRows());
+		assertEquals(13, toLast.getDistance(nodes[0]), 0.0);
+	}
+
+	/**
+	 * Applies random changes to a Graph and checks the distances after each
+	 * update.
+	 * @param configuration Configures the DistanceVectorSystem.
+	 * @param precision Array with the precision of the stored distances.
+	 */
+	private void randomUpdates(Consumer<DistanceVectorSystem> configuration, DistanceArray precision) {
+		Controller controller = new Controller();
+		GraphSystem graphSystem = new GraphSystem(controller);
+		// Edges with a constraint value of 2 are not accessible.
+		EasyGraphProxy proxy = new EasyGraphProxy(controller, new double[]{1});
+		DistanceVectorSystem distanceVectorSystem = new DistanceVectorSystem(controller, proxy);
+		configuration.accept(distanceVectorSystem);
+		MetricsMapper metricsMapper = new MetricsMapper(controller);
+		Mapper<DistanceVector> distanceVectorMapper = new DistanceVectorMapper(controller);
+		Random random = new Random(3);
+
+		Graph graph = graphSystem.createGraph();
+		List<Node> nodes = new ArrayList<>();
+		List<Edge> edges = new ArrayList<>();
+		for(int i = 0; i < 15; i++)
+			nodes.add(graphSystem.createNode(graph));
+		for(int i = 0; i < 45; i++)
+			edges.add(createRandomEdge(graphSystem, metricsMapper, nodes, random));
+
+		distanceVectorSystem.update(graph);
+		checkDistances(controller, proxy, graph, distanceVectorMapper, precision);
+
+		for(int i = 0; i < 150; i++) {
+			int action = random.nextInt(10);
+			if(action < 6) {
+				// New cost or access of an Edge.
+				Edge edge = edges.get(random.nextInt(edges.size()));
+				metricsMapper.detachComponent(edge);
+				metricsMapper.attachComponent(edge, new Metrics(1 + random.nextInt(10), new double[]{random.nextInt(4) == 0 ? 2 : 0}));
+				distanceVectorSystem.update(edge);
+			}
+			else if(action < 8) {
+				Edge edge = edges.remove(random.nextInt(edges.size()));
+				graphSystem.deleteEdge(edge);
+				distanceVectorSystem.update(edge);
+			}
+			else if(action < 9) {
+				Edge edge = createRandomEdge(graphSystem, metricsMapper, nodes, random);
+				edges.add(edge);
+				distanceVectorSystem.update(edge);
+			}
+			else {
+				Node node = graphSystem.createNode(graph);
+				nodes.add(node);
+				edges.add(createRandomEdge(graphSystem, metricsMapper, nodes, random));
+				distanceVectorSystem.update(node);
+			}
+			checkDistances(controller, proxy, graph, distanceVectorMapper, precision);
+		}
+	}
+
+	private Edge createRandomEdge(GraphSystem graphSystem, MetricsMapper metricsMapper, List<Node> nodes, Random random) {
+		Node source = nodes.get(random.nextInt(nodes.size()));
+		Node destination = nodes.get(random.nextInt(nodes.size()));
+		while(destination == source)
+			destination = nodes.get(random.nextInt(nodes.size()));
+		Edge edge = graphSystem.createEdge(source, destination);
+		metricsMapper.attachComponent(edge, new Metrics(1 + random.nextInt(10), new double[]{0}));
+		return edge;
+	}
+
+	private void checkDistances(Controller controller, EasyGraphProxy proxy, Graph graph, Mapper<DistanceVector> distanceVectorMapper, DistanceArray precision) {
+		PathPlumberProxy costProxy = new PathPlumberProxy(new int[]{0}, new double[]{1}, new int[0], new int[0]);
+		costProxy.setProxy(proxy);
+		DijkstraAlgorithm dijkstra = new DijkstraAlgorithm(controller);
+		dijkstra.setProxy(costProxy);
+		for(Node source : graph.getNodes()) {
+			dijkstra.computePathsToAnyNodeFrom(source, new UnicastRequest(source, null));
+			for(Node destination : graph.getNodes()) {
+				Path path = dijkstra.getPathFromNodeTo(destination);
+				precision.set(0, path == null ? Double.MAX_VALUE : path.getCost());
+				double expected = precision.get(0);
+				assertEquals(expected, distanceVectorMapper.get(destination.getEntity()).getDistance(source), 0.0);
+			}
+		}
+	}
 }
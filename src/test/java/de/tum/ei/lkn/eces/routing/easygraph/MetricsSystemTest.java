@@ -0,0 +1,102 @@
+package de.tum.ei.lkn.eces.routing.easygraph;
+
+import de.tum.ei.lkn.eces.core.Controller;
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.graph.Graph;
+import de.tum.ei.lkn.eces.graph.GraphSystem;
+import de.tum.ei.lkn.eces.graph.Node;
+import de.tum.ei.lkn.eces.routing.proxies.EdgeEvaluation;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsSystemTest {
+	private Controller controller;
+	private MetricsMapper metricsMapper;
+	private MetricsSystem metricsSystem;
+	private Edge[] edges;
+
+	@Before
+	public void setUp() {
+		controller = new Controller();
+		GraphSystem graphSystem = new GraphSystem(controller);
+		metricsMapper = new MetricsMapper(controller);
+		metricsSystem = new MetricsSystem(controller);
+
+		Graph graph = graphSystem.createGraph();
+		Node[] nodes = new Node[4];
+		for(int i = 0; i < nodes.length; i++)
+			nodes[i] = graphSystem.createNode(graph);
+		edges = new Edge[4];
+		for(int i = 0; i < edges.length; i++) {
+			edges[i] = graphSystem.createEdge(nodes[i], nodes[(i + 1) % nodes.length]);
+			metricsMapper.attachComponent(edges[i], new Metrics(i + 1, new double[]{i, 10 * i}));
+		}
+	}
+
+	@Test
+	public void storeMatchesMetrics() {
+		EasyGraphProxy easyGraphProxy = new EasyGraphProxy(controller, new double[]{2, 20});
+		EasyGraphProxy storeProxy = metricsSystem.createProxy(new double[]{2, 20});
+		EdgeEvaluation evaluation = new EdgeEvaluation(0, 2);
+		for(Edge edge : edges) {
+			assertEquals(easyGraphProxy.hasAccess(edge, null), storeProxy.hasAccess(edge, null));
+			assertEquals(easyGraphProxy.getCost(edge, null), storeProxy.getCost(edge, null), 0);
+			assertArrayEquals(easyGraphProxy.getConstraintsValues(edge, null), storeProxy.getConstraintsValues(edge, null), 0);
+			assertEquals(easyGraphProxy.hasAccess(edge, null), storeProxy.evaluate(edge, null, null, true, evaluation));
+			if(evaluation.hasAccess()) {
+				assertEquals(easyGraphProxy.getCost(edge, null), evaluation.getCost(), 0);
+				assertArrayEquals(easyGraphProxy.getConstraintsValues(edge, null), evaluation.getConstraintsValues(), 0);
+			}
+		}
+	}
+
+	@Test
+	public void constraintsAreCopied() {
+		EasyGraphProxy storeProxy = metricsSystem.createProxy(new double[]{20, 200});
+		double[] buffer = new double[2];
+		assertTrue(buffer == storeProxy.getConstraintsValues(edges[3], null, buffer));
+		assertArrayEquals(new double[]{3, 30}, buffer, 0);
+		assertNotSame(metricsMapper.get(edges[3].getEntity()).getConstraints(), storeProxy.getConstraintsValues(edges[3], null));
+	}
+
+	@Test
+	public void storeFollowsUpdates() {
+		EasyGraphProxy storeProxy = metricsSystem.createProxy(new double[]{2, 20});
+		assertFalse(storeProxy.hasAccess(edges[3], null));
+		long version = storeProxy.clone().getStateVersion();
+
+		Metrics metrics = new Metrics(0.5, new double[]{0, 0});
+		metricsMapper.detachComponent(edges[3]);
+		metricsMapper.attachComponent(edges[3], metrics);
+		metricsSystem.updateMetrics(metrics);
+		assertTrue(storeProxy.hasAccess(edges[3], null));
+		assertEquals(0.5, storeProxy.getCost(edges[3], null), 0);
+		assertTrue(storeProxy.clone().getStateVersion() != version);
+
+		metricsSystem.removeMetrics(metrics);
+		assertFalse(metricsSystem.getStore().contains(edges[3]));
+	}
+
+	@Test
+	public void removedIdsAreReused() {
+		MetricsStore store = new MetricsStore();
+		int first = store.put(edges[0].getEntity(), metricsMapper.get(edges[0].getEntity()));
+		int second = store.put(edges[1].getEntity(), metricsMapper.get(edges[1].getEntity()));
+		assertEquals(0, first);
+		assertEquals(1, second);
+		assertEquals(first, store.getId(edges[0]));
+		assertEquals(-1, store.getId(edges[2]));
+
+		store.remove(edges[0].getEntity());
+		assertFalse(store.contains(edges[0]));
+		assertEquals(first, store.put(edges[2].getEntity(), metricsMapper.get(edges[2].getEntity())));
+		assertEquals(3, store.getCost(store.getId(edges[2])), 0);
+		assertEquals(2, store.getCost(store.getId(edges[1])), 0);
+	}
+}
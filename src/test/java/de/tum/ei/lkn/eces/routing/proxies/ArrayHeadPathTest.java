@@ -0,0 +1,63 @@
+package de.tum.ei.lkn.eces.routing.proxies;
+
+import de.tum.ei.lkn.eces.core.Controller;
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.graph.Graph;
+import de.tum.ei.lkn.eces.graph.GraphSystem;
+import de.tum.ei.lkn.eces.graph.Node;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.LinkedList;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ArrayHeadPathTest {
+	private Edge[] edges;
+
+	@Before
+	public void setUp() {
+		GraphSystem graphSystem = new GraphSystem(new Controller());
+		Graph graph = graphSystem.createGraph();
+		Node[] nodes = new Node[5];
+		for(int i = 0; i < nodes.length; i++)
+			nodes[i] = graphSystem.createNode(graph);
+		edges = new Edge[nodes.length - 1];
+		for(int i = 0; i < edges.length; i++)
+			edges[i] = graphSystem.createEdge(nodes[i], nodes[i + 1]);
+	}
+
+	@Test
+	public void iteratesLikeLinkedList() {
+		ArrayHeadPath headPath = new ArrayHeadPath(1);
+		LinkedList<Edge> list = new LinkedList<>();
+		assertNull(headPath.getLastEdge());
+		for(Edge edge : edges) {
+			headPath.add(edge);
+			list.addFirst(edge);
+			assertSame(edge, headPath.getLastEdge());
+			assertEquals(list.size(), headPath.getDepth());
+			LinkedList<Edge> iterated = new LinkedList<>();
+			for(Edge iteratedEdge : headPath)
+				iterated.add(iteratedEdge);
+			assertEquals(list, iterated);
+		}
+		assertArrayEquals(edges, headPath.toArray());
+		assertSame(edges[edges.length - 2], headPath.getParent().getLastEdge());
+		assertEquals(edges.length - 1, headPath.getParent().getDepth());
+	}
+
+	@Test
+	public void reverse() {
+		ArrayHeadPath headPath = new ArrayHeadPath(edges.length);
+		for(int i = edges.length - 1; i >= 0; i--)
+			headPath.add(edges[i]);
+		headPath.reverse();
+		assertArrayEquals(edges, headPath.toArray());
+		headPath.clear();
+		assertEquals(0, headPath.getDepth());
+	}
+}
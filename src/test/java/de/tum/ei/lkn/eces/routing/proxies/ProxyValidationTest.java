@@ -0,0 +1,70 @@
+package de.tum.ei.lkn.eces.routing.proxies;
+
+import de.tum.ei.lkn.eces.core.Controller;
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.graph.Graph;
+import de.tum.ei.lkn.eces.graph.GraphSystem;
+import de.tum.ei.lkn.eces.graph.Node;
+import de.tum.ei.lkn.eces.routing.requests.Request;
+import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
+import de.tum.ei.lkn.eces.routing.responses.Path;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ProxyValidationTest {
+	private Path path;
+	private UnicastRequest request;
+	private CountingProxy proxy;
+
+	private static class CountingProxy extends ShortestPathProxy {
+		private int numberOfCalls;
+
+		@Override
+		public boolean hasAccess(Edge edge, Request request) {
+			numberOfCalls++;
+			return super.hasAccess(edge, request);
+		}
+	}
+
+	@Before
+	public void setUp() {
+		GraphSystem graphSystem = new GraphSystem(new Controller());
+		Graph graph = graphSystem.createGraph();
+		Node[] nodes = new Node[3];
+		for(int i = 0; i < nodes.length; i++)
+			nodes[i] = graphSystem.createNode(graph);
+		Edge[] edges = new Edge[nodes.length - 1];
+		for(int i = 0; i < edges.length; i++)
+			edges[i] = graphSystem.createEdge(nodes[i], nodes[i + 1]);
+		request = new UnicastRequest(nodes[0], nodes[nodes.length - 1]);
+		path = new Path(edges, edges.length, new double[0], new double[0]);
+		proxy = new CountingProxy();
+	}
+
+	@Test
+	public void validResponseIsCheckedAgain() {
+		assertNotNull(proxy.checkValidity(path, request, false));
+		int numberOfCalls = proxy.numberOfCalls;
+		assertTrue(proxy.isValid(path, request));
+		assertTrue(proxy.numberOfCalls > numberOfCalls);
+	}
+
+	@Test
+	public void stateChangeChangesVersion() {
+		long version = proxy.getStateVersion();
+		proxy.register(path, request);
+		assertTrue(proxy.getStateVersion() != version);
+
+		version = proxy.getStateVersion();
+		proxy.clone().stateChanged();
+		assertTrue(proxy.getStateVersion() != version);
+
+		version = proxy.getStateVersion();
+		assertTrue(proxy.isValid(path, request));
+		assertEquals(version, proxy.getStateVersion());
+	}
+}
@@ -0,0 +1,155 @@
+package de.tum.ei.lkn.eces.routing.proxies.landmarks;
+
+import de.tum.ei.lkn.eces.core.Controller;
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.graph.Graph;
+import de.tum.ei.lkn.eces.graph.GraphSystem;
+import de.tum.ei.lkn.eces.graph.Node;
+import de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.astar.AStarAlgorithm;
+import de.tum.ei.lkn.eces.routing.algorithms.sp.unicast.dijkstra.DijkstraAlgorithm;
+import de.tum.ei.lkn.eces.routing.easygraph.EasyGraphProxy;
+import de.tum.ei.lkn.eces.routing.easygraph.Metrics;
+import de.tum.ei.lkn.eces.routing.easygraph.MetricsMapper;
+import de.tum.ei.lkn.eces.routing.proxies.EdgeProxy;
+import de.tum.ei.lkn.eces.routing.proxies.plumbers.EdgePlumberProxy;
+import de.tum.ei.lkn.eces.routing.requests.UnicastRequest;
+import de.tum.ei.lkn.eces.routing.responses.Path;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class LandmarkProxyTest {
+	private Controller controller;
+	private GraphSystem graphSystem;
+	private MetricsMapper metricsMapper;
+	private Graph graph;
+	private Node[] nodes;
+	private Edge[] edges;
+
+	@Before
+	public void setUp() {
+		controller = new Controller();
+		graphSystem = new GraphSystem(controller);
+		metricsMapper = new MetricsMapper(controller);
+
+		// 6x6 bidirectional grid with random costs and delays.
+		Random random = new Random(42);
+		int size = 6;
+		graph = graphSystem.createGraph();
+		nodes = new Node[size * size];
+		for(int i = 0; i < nodes.length; i++)
+			nodes[i] = graphSystem.createNode(graph);
+		edges = new Edge[4 * size * (size - 1)];
+		int e = 0;
+		for(int i = 0; i < size; i++) {
+			for(int j = 1; j < size; j++) {
+				edges[e++] = graphSystem.createEdge(nodes[i * size + j - 1], nodes[i * size + j]);
+				edges[e++] = graphSystem.createEdge(nodes[i * size + j], nodes[i * size + j - 1]);
+				edges[e++] = graphSystem.createEdge(nodes[(j - 1) * size + i], nodes[j * size + i]);
+				edges[e++] = graphSystem.createEdge(nodes[j * size + i], nodes[(j - 1) * size + i]);
+			}
+		}
+		for(Edge edge : edges)
+			metricsMapper.attachComponent(edge, new Metrics(1 + random.nextInt(10), new double[]{random.nextInt(5)}));
+	}
+
+	@Test
+	public void guessesAreLowerBounds() {
+		EasyGraphProxy easyGraphProxy = new EasyGraphProxy(controller, new double[]{Double.MAX_VALUE});
+		LandmarkProxy landmarkProxy = new LandmarkProxy(easyGraphProxy, 4);
+		assertEquals(4, landmarkProxy.getTables(graph).getLandmarks().length);
+
+		DijkstraAlgorithm dijkstra = new DijkstraAlgorithm(controller);
+		dijkstra.setProxy(costOnly(easyGraphProxy));
+		boolean informative = false;
+		for(Node destination : nodes) {
+			dijkstra.computePathsFromAnyNodeTo(destination, new UnicastRequest(null, destination));
+			for(Node source : nodes) {
+				Path path = dijkstra.getPathToNodeFrom(source);
+				double guess = landmarkProxy.getGuessForCost(source, destination);
+				assertTrue(guess >= 0);
+				assertTrue("Guess " + guess + " is larger than " + path.getCost(), guess <= path.getCost() + 1e-9);
+				if(guess > 0)
+					informative = true;
+			}
+		}
+		assertTrue(informative);
+	}
+
+	@Test
+	public void aStarStaysOptimal() {
+		EasyGraphProxy easyGraphProxy = new EasyGraphProxy(controller, new double[]{Double.MAX_VALUE});
+		DijkstraAlgorithm dijkstra = new DijkstraAlgorithm(controller);
+		dijkstra.setProxy(costOnly(easyGraphProxy));
+		LandmarkProxy landmarkProxy = new LandmarkProxy(easyGraphProxy, 4);
+		AStarAlgorithm aStar = new AStarAlgorithm(controller);
+		aStar.setProxy(costOnly(landmarkProxy));
+		AStarAlgorithm bidirectionalAStar = new AStarAlgorithm(controller);
+		bidirectionalAStar.bidirectionalMode();
+		bidirectionalAStar.setProxy(costOnly(landmarkProxy));
+
+		for(Node source : nodes) {
+			for(Node destination : nodes) {
+				if(source == destination)
+					continue;
+				UnicastRequest request = new UnicastRequest(source, destination);
+				Path expected = (Path) dijkstra.solve(request);
+				Path result = (Path) aStar.solve(request);
+				assertNotNull(result);
+				assertEquals(expected.getCost(), result.getCost(), 1e-9);
+				result = (Path) bidirectionalAStar.solve(request);
+				assertNotNull(result);
+				assertEquals(expected.getCost(), result.getCost(), 1e-9);
+			}
+		}
+	}
+
+	@Test
+	public void systemInvalidatesOnlyRegisteredProxies() {
+		LandmarkSystem landmarkSystem = new LandmarkSystem(controller);
+		EasyGraphProxy easyGraphProxy = new EasyGraphProxy(controller, new double[]{Double.MAX_VALUE});
+		LandmarkProxy kept = landmarkSystem.createProxy(easyGraphProxy, 2);
+		LandmarkProxy removed = landmarkSystem.createProxy(easyGraphProxy, 2);
+		LandmarkTables keptTables = kept.getTables(graph);
+		LandmarkTables removedTables = removed.getTables(graph);
+		landmarkSystem.removeProxy(removed);
+
+		metricsMapper.detachComponent(edges[0]);
+		metricsMapper.attachComponent(edges[0], new Metrics(1, new double[]{0}));
+		assertTrue(keptTables != kept.getTables(graph));
+		assertTrue(removedTables == removed.getTables(graph));
+	}
+
+	@Test
+	public void tablesAreRecomputedAfterInvalidation() {
+		EasyGraphProxy easyGraphProxy = new EasyGraphProxy(controller, new double[]{Double.MAX_VALUE});
+		LandmarkProxy landmarkProxy = new LandmarkProxy(easyGraphProxy, 2);
+		LandmarkTables tables = landmarkProxy.getTables(graph);
+		assertTrue(tables == landmarkProxy.getTables(graph));
+
+		// Lowering all the costs makes the old bounds invalid.
+		for(Edge edge : edges) {
+			metricsMapper.detachComponent(edge);
+			metricsMapper.attachComponent(edge, new Metrics(0, new double[]{0}));
+		}
+		landmarkProxy.invalidate(graph);
+		assertTrue(tables != landmarkProxy.getTables(graph));
+		for(Node source : nodes)
+			for(Node destination : nodes) {
+				assertEquals(0, landmarkProxy.getGuessForCost(source, destination), 0);
+				assertEquals(0, landmarkProxy.getGuessForConstraint(0, source, destination), 0);
+			}
+	}
+
+	/**
+	 * Drops the delay so that the Proxy can be used by shortest path algorithms.
+	 */
+	private EdgeProxy costOnly(EdgeProxy proxy) {
+		return new EdgePlumberProxy(proxy, new int[]{0}, new double[]{1}, new int[0], new int[0]);
+	}
+}
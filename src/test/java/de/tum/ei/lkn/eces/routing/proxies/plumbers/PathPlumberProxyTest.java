@@ -2,11 +2,14 @@ package de.tum.ei.lkn.eces.routing.proxies.plumbers;
 
 import de.tum.ei.lkn.eces.graph.Edge;
 import de.tum.ei.lkn.eces.routing.mocks.DummyProxy;
+import de.tum.ei.lkn.eces.routing.proxies.EdgeEvaluation;
+import de.tum.ei.lkn.eces.routing.proxies.PathCursor;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.LinkedList;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertTrue;
 
 public class PathPlumberProxyTest {
@@ -44,4 +47,69 @@ public class PathPlumberProxyTest {
 			assertTrue("constraint[2] sould be 1 but is " + constraint[2], constraint[2] == 5.0);
 		}
 	}
+
+	@Test
+	public void cursorSummationTest(){
+		PathPlumberProxy proxy = new PathPlumberProxy(new int[]{0},
+				new double[]{1},
+				new int[]{1,2,3},
+				new int[]{0,1,2,3} );
+		proxy.setProxy(new DummyProxy());
+		LinkedList<Edge> path = new LinkedList<>();
+		double[] parameters = null;
+		double[] cursorParameters = null;
+		double[] parameterBuffer = new double[proxy.getNumberOfParameters(null)];
+		double[] constraintBuffer = new double[proxy.getNumberOfConstraints(null)];
+		for(int i = 0; i < 10; i++) {
+			parameters = proxy.getNewParameters(path,null,parameters,null,true);
+			double[] newParameters = proxy.getNewParameters((PathCursor) null,null,cursorParameters,null,true,parameterBuffer);
+			cursorParameters = newParameters.clone();
+			assertArrayEquals(parameters, cursorParameters, 0.00001);
+			assertTrue(proxy.getCost(path,null,parameters,null,true) == proxy.getCost((PathCursor) null,null,cursorParameters,null,true));
+			assertArrayEquals(proxy.getConstraintsValues(path, null, parameters, null, true),
+					proxy.getConstraintsValues((PathCursor) null, null, cursorParameters, null, true, constraintBuffer), 0.00001);
+		}
+	}
+
+	@Test
+	public void evaluationTest(){
+		PathPlumberProxy proxy = new PathPlumberProxy(new int[]{0},
+				new double[]{1},
+				new int[]{1,2,3},
+				new int[]{0,1,2,3} );
+		proxy.setProxy(new DummyProxy());
+		LinkedList<Edge> path = new LinkedList<>();
+		double[] parameters = null;
+		double[] evaluatedParameters = null;
+		EdgeEvaluation evaluation = new EdgeEvaluation(proxy.getNumberOfParameters(null), proxy.getNumberOfConstraints(null));
+		for(int i = 0; i < 10; i++) {
+			parameters = proxy.getNewParameters(path,null,parameters,null,true);
+			assertTrue(proxy.evaluate((PathCursor) null,null,evaluatedParameters,null,true,evaluation));
+			assertTrue(evaluation.hasAccess());
+			evaluatedParameters = evaluation.getParameters().clone();
+			assertArrayEquals(parameters, evaluatedParameters, 0.00001);
+			assertTrue(proxy.getCost(path,null,parameters,null,true) == evaluation.getCost());
+			assertArrayEquals(proxy.getConstraintsValues(path, null, parameters, null, true),
+					evaluation.getConstraintsValues(), 0.00001);
+		}
+	}
+
+	@Test
+	public void scratchBuffersAreNotReturnedTest(){
+		PathPlumberProxy proxy = new PathPlumberProxy(new int[]{0},
+				new double[]{1},
+				new int[]{1,2,3},
+				new int[]{0,1,2,3} );
+		proxy.setProxy(new DummyProxy());
+		double[] first = proxy.getNewParameters((PathCursor) null,null,null,null,true,null);
+		double[] expected = first.clone();
+		double[] second = proxy.getNewParameters((PathCursor) null,null,first,null,true,null);
+		assertTrue(first != second);
+		assertArrayEquals(expected, first, 0);
+		double[] constraints = proxy.getConstraintsValues((PathCursor) null, null, second, null, true, null);
+		double[] expectedConstraints = constraints.clone();
+		proxy.getConstraintsValues((PathCursor) null, null, first, null, true, null);
+		assertArrayEquals(expectedConstraints, constraints, 0);
+		assertArrayEquals(expected, proxy.clone().getNewParameters((PathCursor) null,null,null,null,true,null), 0);
+	}
 }
@@ -0,0 +1,114 @@
+package de.tum.ei.lkn.eces.routing.proxies.wrappers;
+
+import de.tum.ei.lkn.eces.graph.Edge;
+import de.tum.ei.lkn.eces.routing.mocks.DummyProxy;
+import de.tum.ei.lkn.eces.routing.proxies.EdgeProxy;
+import de.tum.ei.lkn.eces.routing.proxies.PathCursor;
+import de.tum.ei.lkn.eces.routing.proxies.PathProxy;
+import de.tum.ei.lkn.eces.routing.proxies.Proxy;
+import de.tum.ei.lkn.eces.routing.proxies.ShortestPathProxy;
+import de.tum.ei.lkn.eces.routing.proxies.plumbers.PathPlumberProxy;
+import de.tum.ei.lkn.eces.routing.requests.Request;
+import org.junit.Test;
+
+import java.util.LinkedList;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class PathProxyWrapperTest {
+	@Test
+	public void adapterTest() {
+		PathProxyWrapper wrapper = new PathProxyWrapper(new DummyProxy());
+		EdgeProxyAdapter adapter = new EdgeProxyAdapter(new DummyProxy());
+		LinkedList<Edge> path = new LinkedList<>();
+		double[] wrapperParameters = null;
+		double[] adapterParameters = null;
+		for(int i = 0; i < 5; i++) {
+			wrapperParameters = wrapper.getNewParameters(path, null, wrapperParameters, null, true);
+			adapterParameters = adapter.getNewParameters((PathCursor) null, null, adapterParameters, null, true, null).clone();
+			assertArrayEquals(wrapperParameters, adapterParameters, 0);
+			assertEquals(wrapper.getCost(path, null, wrapperParameters, null, true), adapter.getCost((PathCursor) null, null, adapterParameters, null, true), 0);
+			assertArrayEquals(wrapper.getConstraintsValues(path, null, wrapperParameters, null, true),
+					adapter.getConstraintsValues((PathCursor) null, null, adapterParameters, null, true, new double[3]), 0);
+		}
+		EdgeProxyAdapter clone = adapter.clone();
+		assertNotSame(adapter.getProxy(), clone.getProxy());
+		assertEquals(adapter.getCost(path, null, null, null, true), clone.getCost(path, null, null, null, true), 0);
+	}
+
+	@Test
+	public void replacedProxyTest() {
+		ReplaceableProxy wrapper = new ReplaceableProxy(new ShortestPathProxy(1));
+		assertEquals(1, wrapper.getCost(new LinkedList<>(), null, null, null, true), 0);
+		wrapper.replace(new ShortestPathProxy(5));
+		assertEquals(5, wrapper.getCost(new LinkedList<>(), null, null, null, true), 0);
+		assertEquals(5, wrapper.getCost((PathCursor) null, null, null, null, true), 0);
+
+		// Replacing a wrapped PathProxy.
+		ReplaceableProxy pathWrapper = new ReplaceableProxy(plumber(new ShortestPathProxy(1)));
+		assertEquals(1, pathWrapper.getCost(new LinkedList<>(), null, null, null, true), 0);
+		pathWrapper.replace(plumber(new ShortestPathProxy(5)));
+		assertEquals(5, pathWrapper.getCost(new LinkedList<>(), null, null, null, true), 0);
+		pathWrapper.replace(new ShortestPathProxy(3));
+		assertEquals(3, pathWrapper.getCost(new LinkedList<>(), null, null, null, true), 0);
+	}
+
+	@Test
+	public void iterableOverrideTest() {
+		PathProxyWrapper wrapper = new PathProxyWrapper(new ShortestPathProxy(1)) {
+			@Override
+			public double getCost(Iterable<Edge> path, Edge edge, double[] parameters, Request request, boolean isForward) {
+				return 2 * super.getCost(path, edge, parameters, request, isForward);
+			}
+		};
+		assertEquals(2, wrapper.getCost((PathCursor) null, null, null, null, true), 0);
+	}
+
+	@Test
+	public void batchTest() {
+		Edge[] edges = new Edge[3];
+		EdgeProxyAdapter adapter = new EdgeProxyAdapter(new ShortestPathProxy(3));
+		double[] costs = new double[edges.length];
+		boolean[] access = new boolean[edges.length];
+		assertTrue(adapter.getCosts(edges, null, costs));
+		assertTrue(adapter.hasAccess(edges, null, access));
+		assertArrayEquals(new double[]{3, 3, 3}, costs, 0);
+		for(boolean edgeAccess : access)
+			assertTrue(edgeAccess);
+
+		// Values possibly changed per Edge by a subclass are not fetched at once.
+		PathProxyWrapper blocking = new PathProxyWrapper(new ShortestPathProxy(3)) {
+			@Override
+			public boolean hasAccess(Iterable<Edge> path, Edge edge, double[] parameters, Request request, boolean isForward) {
+				return false;
+			}
+		};
+		assertFalse(blocking.hasAccess(edges, null, access));
+		assertFalse(blocking.getCosts(edges, null, costs));
+		assertFalse(blocking.hasAccess((PathCursor) null, edges[0], null, null, true));
+	}
+
+	private static PathProxy plumber(EdgeProxy proxy) {
+		PathPlumberProxy plumber = new PathPlumberProxy(new int[]{0}, new double[]{1}, new int[0], new int[0]);
+		plumber.setProxy(proxy);
+		return plumber;
+	}
+
+	private static class ReplaceableProxy extends PathProxyWrapper {
+		ReplaceableProxy(EdgeProxy proxy) {
+			super(proxy);
+		}
+
+		ReplaceableProxy(PathProxy proxy) {
+			super(proxy);
+		}
+
+		void replace(Proxy proxy) {
+			this.proxy = proxy;
+		}
+	}
+}
@@ -13,6 +13,7 @@ import org.junit.Test;
 import java.util.Iterator;
 import java.util.LinkedList;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -55,6 +56,35 @@ public abstract class KSPAlgorithmTest extends BaseTest {
 		assertTrue(routingAlgorithmUnderTest + ": There is no path", !ksp.hasNext());
 	}
 
+	@Test
+	public final void iteratorStoreTest() {
+		createBaseTopology();
+		proxy.setProxy(new DummyEdgeProxy(controller));
+		KSPAlgorithm ksp = (KSPAlgorithm) routingAlgorithmUnderTest;
+		ksp.setMaximumNumberOfIterators(2);
+
+		UnicastRequest first = new UnicastRequest(nodes[0], nodes[2]);
+		UnicastRequest second = new UnicastRequest(nodes[0], nodes[1]);
+		UnicastRequest third = new UnicastRequest(nodes[1], nodes[2]);
+		routingAlgorithmUnderTest.solve(first);
+		routingAlgorithmUnderTest.solve(second);
+		assertEquals(2, ksp.getNumberOfLiveIterators());
+		assertEquals(1, ksp.getK(first));
+		assertTrue(ksp.getNumberOfRetainedPaths() >= 2);
+
+		// The iterator of the second request is now the least recently used one.
+		routingAlgorithmUnderTest.solve(third);
+		assertEquals(2, ksp.getNumberOfLiveIterators());
+		assertEquals(1, ksp.getK(first));
+		assertEquals(0, ksp.getK(second));
+
+		ksp.release(first);
+		assertEquals(1, ksp.getNumberOfLiveIterators());
+		ksp.releaseAll();
+		assertEquals(0, ksp.getNumberOfLiveIterators());
+		assertEquals(0, ksp.getNumberOfRetainedPaths());
+	}
+
 	@Test
 	public final void runAllPaths33() {
 		createGridTopology(3,3);